@@ -11,7 +11,7 @@ import androidx.appcompat.app.ActionBar;
 import androidx.lifecycle.LiveData;
 
 import it.niedermann.owncloud.notes.main.MainActivity;
-import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.persistence.entity.NoteListItem;
 import it.niedermann.owncloud.notes.shared.util.ShareUtil;
 
 public class AppendToNoteActivity extends MainActivity {
@@ -37,7 +37,7 @@ public class AppendToNoteActivity extends MainActivity {
     @Override
     public void onNoteClick(int position, View v) {
         if (!TextUtils.isEmpty(receivedText)) {
-            final var fullNote$ = mainViewModel.getFullNote$(((Note) adapter.getItem(position)).getId());
+            final var fullNote$ = mainViewModel.getFullNote$(((NoteListItem) adapter.getItem(position)).getId());
             fullNote$.observe(this, (fullNote) -> {
                 fullNote$.removeObservers(this);
                 final String oldContent = fullNote.getContent();
@@ -10,6 +10,7 @@ import androidx.appcompat.app.AppCompatDelegate;
 import androidx.preference.PreferenceManager;
 
 import it.niedermann.owncloud.notes.preferences.DarkModeSetting;
+import it.niedermann.owncloud.notes.shared.util.MarkdownRenderCache;
 
 import static androidx.preference.PreferenceManager.getDefaultSharedPreferences;
 
@@ -33,6 +34,12 @@ public class NotesApplication extends Application {
         super.onCreate();
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        MarkdownRenderCache.getInstance().onTrimMemory(level);
+    }
+
     public static void setAppTheme(DarkModeSetting setting) {
         AppCompatDelegate.setDefaultNightMode(setting.getModeId());
     }
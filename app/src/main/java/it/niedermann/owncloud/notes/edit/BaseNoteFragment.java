@@ -27,6 +27,7 @@ import androidx.core.content.ContextCompat;
 import androidx.core.content.pm.ShortcutInfoCompat;
 import androidx.core.content.pm.ShortcutManagerCompat;
 import androidx.core.graphics.drawable.IconCompat;
+import androidx.lifecycle.Observer;
 
 import com.nextcloud.android.sso.exceptions.NextcloudFilesAppAccountNotFoundException;
 import com.nextcloud.android.sso.exceptions.NoCurrentAccountSelectedException;
@@ -35,7 +36,6 @@ import com.nextcloud.android.sso.helper.SingleAccountHelper;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import it.niedermann.android.util.ColorUtil;
 import it.niedermann.owncloud.notes.R;
@@ -52,6 +52,7 @@ import it.niedermann.owncloud.notes.shared.model.ApiVersion;
 import it.niedermann.owncloud.notes.shared.model.DBStatus;
 import it.niedermann.owncloud.notes.shared.model.ISyncCallback;
 import it.niedermann.owncloud.notes.shared.util.ApiVersionUtil;
+import it.niedermann.owncloud.notes.shared.util.AppExecutors;
 import it.niedermann.owncloud.notes.shared.util.NoteUtil;
 import it.niedermann.owncloud.notes.shared.util.NotesColorUtil;
 import it.niedermann.owncloud.notes.shared.util.ShareUtil;
@@ -59,7 +60,7 @@ import it.niedermann.owncloud.notes.shared.util.ShareUtil;
 public abstract class BaseNoteFragment extends BrandedFragment implements CategoryDialogListener, EditTitleListener {
 
     private static final String TAG = BaseNoteFragment.class.getSimpleName();
-    protected final ExecutorService executor = Executors.newCachedThreadPool();
+    protected final ExecutorService executor = AppExecutors.getInstance().io();
 
     protected static final int MENU_ID_PIN = -1;
     public static final String PARAM_NOTE_ID = "noteId";
@@ -213,13 +214,11 @@ public abstract class BaseNoteFragment extends BrandedFragment implements Catego
     public boolean onOptionsItemSelected(MenuItem item) {
         final int itemId = item.getItemId();
         if (itemId == R.id.menu_cancel) {
-            executor.submit(() -> {
-                if (originalNote == null) {
-                    repo.deleteNoteAndSync(localAccount, note.getId());
-                } else {
-                    repo.updateNoteAndSync(localAccount, originalNote, null, null, null);
-                }
-            });
+            if (originalNote == null) {
+                repo.deleteNoteAndSync(localAccount, note.getId());
+            } else {
+                repo.saveNoteAndSync(localAccount, originalNote, null, null, null);
+            }
             listener.close();
             return true;
         } else if (itemId == R.id.menu_delete) {
@@ -238,9 +237,12 @@ public abstract class BaseNoteFragment extends BrandedFragment implements Catego
             showEditTitleDialog();
             return true;
         } else if (itemId == R.id.menu_move) {
-            executor.submit(() -> AccountPickerDialogFragment
-                    .newInstance(new ArrayList<>(repo.getAccounts()), note.getAccountId())
-                    .show(requireActivity().getSupportFragmentManager(), BaseNoteFragment.class.getSimpleName()));
+            executor.submit(() -> {
+                final var accounts = new ArrayList<>(repo.getAccounts());
+                requireActivity().runOnUiThread(() -> AccountPickerDialogFragment
+                        .newInstance(accounts, note.getAccountId())
+                        .show(requireActivity().getSupportFragmentManager(), BaseNoteFragment.class.getSimpleName()));
+            });
             return true;
         } else if (itemId == R.id.menu_share) {
             ShareUtil.openShareDialog(requireContext(), note.getTitle(), note.getContent());
@@ -300,15 +302,34 @@ public abstract class BaseNoteFragment extends BrandedFragment implements Catego
             if (note.getContent().equals(newContent)) {
                 if (note.getScrollY() != originalScrollY) {
                     Log.v(TAG, "... only saving new scroll state, since content did not change");
-                    repo.updateScrollY(note.getId(), note.getScrollY());
+                    final long id = note.getId();
+                    final int scrollY = note.getScrollY();
+                    executor.submit(() -> repo.updateScrollY(id, scrollY));
                 } else {
                     Log.v(TAG, "... not saving, since nothing has changed");
                 }
             } else {
-                // FIXME requires database queries on main thread!
-                note = repo.updateNoteAndSync(localAccount, note, newContent, null, callback);
-                listener.onNoteUpdated(note);
-                requireActivity().invalidateOptionsMenu();
+                final var savedNote$ = repo.saveNoteAndSync(localAccount, note, newContent, null, callback);
+                // Apply the new content immediately to a copy (originalNote might reference the same instance),
+                // so the state is up to date even if the fragment gets destroyed before the note has been persisted
+                note = new Note(note.getId(), note.getRemoteId(), note.getModified(), note.getTitle(), newContent, note.getCategory(), note.getFavorite(), note.getETag(), note.getStatus(), note.getAccountId(), note.getExcerpt(), note.getScrollY());
+                savedNote$.observeForever(new Observer<>() {
+                    @Override
+                    public void onChanged(Note savedNote) {
+                        savedNote$.removeObserver(this);
+                        // Ignore results of saves which have been outdated by newer changes in the meantime
+                        if (savedNote != null && savedNote.getContent().equals(note.getContent())) {
+                            note = savedNote;
+                            if (listener != null) {
+                                listener.onNoteUpdated(note);
+                            }
+                            final var activity = getActivity();
+                            if (activity != null) {
+                                activity.invalidateOptionsMenu();
+                            }
+                        }
+                    }
+                });
             }
         } else {
             Log.e(TAG, "note is null");
@@ -359,9 +380,13 @@ public abstract class BaseNoteFragment extends BrandedFragment implements Catego
     public void onTitleEdited(String newTitle) {
         titleModified = true;
         note.setTitle(newTitle);
-        executor.submit(() -> {
-            note = repo.updateNoteAndSync(localAccount, note, note.getContent(), newTitle, null);
-            requireActivity().runOnUiThread(() -> listener.onNoteUpdated(note));
+        final var savedNote$ = repo.saveNoteAndSync(localAccount, note, note.getContent(), newTitle, null);
+        savedNote$.observe(this, savedNote -> {
+            savedNote$.removeObservers(this);
+            if (savedNote != null) {
+                note = savedNote;
+                listener.onNoteUpdated(note);
+            }
         });
     }
 
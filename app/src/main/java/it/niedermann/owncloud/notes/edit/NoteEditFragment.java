@@ -122,7 +122,7 @@ public class NoteEditFragment extends SearchableBaseNoteFragment {
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                // Nothing to do here...
+                onContentChanged(s, start, before, count);
             }
 
             @Override
@@ -155,6 +155,7 @@ public class NoteEditFragment extends SearchableBaseNoteFragment {
 
         binding.editContent.setMarkdownString(note.getContent());
         binding.editContent.setEnabled(true);
+        onContentReplaced();
 
         final var sp = PreferenceManager.getDefaultSharedPreferences(requireContext().getApplicationContext());
         binding.editContent.setTextSize(TypedValue.COMPLEX_UNIT_PX, getFontSizeFromPreferences(requireContext(), sp));
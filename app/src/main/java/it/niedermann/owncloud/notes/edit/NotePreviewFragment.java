@@ -116,25 +116,38 @@ public class NotePreviewFragment extends SearchableBaseNoteFragment implements O
         registerInternalNoteLinkHandler();
         changedText = note.getContent();
         binding.singleNoteContent.setMarkdownString(note.getContent(), setScrollY);
+        onContentReplaced();
         binding.singleNoteContent.getMarkdownString().observe(requireActivity(), (newContent) -> {
             changedText = newContent.toString();
+            onContentReplaced();
             saveNote(null);
         });
     }
 
     protected void registerInternalNoteLinkHandler() {
         binding.singleNoteContent.registerOnLinkClickCallback((link) -> {
+            final long remoteId;
             try {
-                final long noteLocalId = repo.getLocalIdByRemoteId(this.note.getAccountId(), Long.parseLong(link));
-                Log.i(TAG, "Found note for remoteId \"" + link + "\" in account \"" + this.note.getAccountId() + "\" with localId + \"" + noteLocalId + "\". Attempt to open " + EditNoteActivity.class.getSimpleName() + " for this note.");
-                startActivity(new Intent(requireActivity().getApplicationContext(), EditNoteActivity.class).putExtra(EditNoteActivity.PARAM_NOTE_ID, noteLocalId));
-                return true;
+                remoteId = Long.parseLong(link);
             } catch (NumberFormatException e) {
                 // Clicked link is not a long and therefore can't be a remote id.
-            } catch (IllegalArgumentException e) {
-                Log.i(TAG, "It looks like \"" + link + "\" might be a remote id of a note, but a note with this remote id could not be found in account \"" + note.getAccountId() + "\" .", e);
+                return false;
             }
-            return false;
+            final long accountId = this.note.getAccountId();
+            // Looking up the local id requires a database query, so the link is considered as handled and the note gets opened asynchronously
+            executor.submit(() -> {
+                final Long noteLocalId = repo.getLocalIdByRemoteId(accountId, remoteId);
+                if (noteLocalId == null) {
+                    Log.i(TAG, "It looks like \"" + link + "\" might be a remote id of a note, but a note with this remote id could not be found in account \"" + accountId + "\" .");
+                } else {
+                    Log.i(TAG, "Found note for remoteId \"" + link + "\" in account \"" + accountId + "\" with localId + \"" + noteLocalId + "\". Attempt to open " + EditNoteActivity.class.getSimpleName() + " for this note.");
+                    final var activity = getActivity();
+                    if (activity != null) {
+                        activity.runOnUiThread(() -> startActivity(new Intent(activity.getApplicationContext(), EditNoteActivity.class).putExtra(EditNoteActivity.PARAM_NOTE_ID, noteLocalId)));
+                    }
+                }
+            });
+            return true;
         });
     }
 
@@ -163,6 +176,7 @@ public class NotePreviewFragment extends SearchableBaseNoteFragment implements O
                         changedText = note.getContent();
                         requireActivity().runOnUiThread(() -> {
                             binding.singleNoteContent.setMarkdownString(note.getContent());
+                            onContentReplaced();
                             binding.swiperefreshlayout.setRefreshing(false);
                         });
                     }));
@@ -0,0 +1,195 @@
+package it.niedermann.owncloud.notes.edit;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.util.Arrays;
+
+/**
+ * Immutable index of the offsets of all case insensitive occurrences of a query within a text, including overlapping ones.
+ * <p>
+ * Computing it scans the whole text once, which should happen on a background thread for large notes. Afterwards the count and the offset of each occurrence
+ * are available in constant time. The index can be updated for a refined query (which starts with the previous one) and for edits of the text
+ * without scanning the whole text again, see {@link #refine(CharSequence, String)} and {@link #afterEdit(CharSequence, int, int, int)}.
+ */
+public class SearchMatchIndex {
+
+    public static final SearchMatchIndex EMPTY = new SearchMatchIndex("", new int[0], 0);
+
+    @NonNull
+    private final String query;
+    /**
+     * Sorted ascending, only the first {@link #count} elements are valid
+     */
+    @NonNull
+    private final int[] offsets;
+    private final int count;
+
+    private SearchMatchIndex(@NonNull String query, @NonNull int[] offsets, int count) {
+        this.query = query;
+        this.offsets = offsets;
+        this.count = count;
+    }
+
+    /**
+     * Scans the whole {@param text}.
+     */
+    @WorkerThread
+    @NonNull
+    public static SearchMatchIndex compute(@Nullable CharSequence text, @Nullable String query) {
+        if (query == null || query.isEmpty()) {
+            return EMPTY;
+        }
+        final var builder = new OffsetsBuilder(16);
+        if (text != null) {
+            scan(text, query, 0, text.length(), builder);
+        }
+        return new SearchMatchIndex(query, builder.offsets, builder.count);
+    }
+
+    @NonNull
+    public String getQuery() {
+        return query;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @param index of the occurrence, starting at <code>0</code>
+     * @return the offset of the occurrence within the text
+     */
+    public int getOffset(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + count + " occurrences");
+        }
+        return offsets[index];
+    }
+
+    /**
+     * @return whether {@link #refine(CharSequence, String)} can be used for the given {@param newQuery}
+     */
+    public boolean canRefine(@Nullable String newQuery) {
+        return !query.isEmpty() && newQuery != null && newQuery.length() >= query.length() && regionMatches(newQuery, 0, query);
+    }
+
+    /**
+     * Each occurrence of a query is also an occurrence of all of its prefixes, so the occurrences of a refined query are found by only checking the known offsets.
+     *
+     * @param text     the same text this index has been computed for
+     * @param newQuery must start with the query of this index, see {@link #canRefine(String)}
+     */
+    @NonNull
+    public SearchMatchIndex refine(@NonNull CharSequence text, @NonNull String newQuery) {
+        if (!canRefine(newQuery)) {
+            throw new IllegalArgumentException("\"" + newQuery + "\" does not start with \"" + query + "\"");
+        }
+        final int[] refined = new int[count];
+        int refinedCount = 0;
+        for (int i = 0; i < count; i++) {
+            final int offset = offsets[i];
+            if (offset + newQuery.length() <= text.length() && regionMatches(text, offset, newQuery)) {
+                refined[refinedCount++] = offset;
+            }
+        }
+        return new SearchMatchIndex(newQuery, refined, refinedCount);
+    }
+
+    /**
+     * Updates the offsets after <code>before</code> characters beginning at <code>start</code> have been replaced by <code>count</code> new characters,
+     * like reported by {@link android.text.TextWatcher#onTextChanged(CharSequence, int, int, int)}.
+     * Only the edited region is scanned again, occurrences after it get shifted.
+     *
+     * @param text the text after the edit
+     */
+    @NonNull
+    public SearchMatchIndex afterEdit(@NonNull CharSequence text, int start, int before, int count) {
+        if (query.isEmpty()) {
+            return this;
+        }
+        final int length = query.length();
+        final int delta = count - before;
+        // Occurrences overlapping the replaced characters are not valid anymore
+        final int firstAffected = lowerBound(start - length + 1);
+        final int firstUnaffected = lowerBound(start + before);
+        final var builder = new OffsetsBuilder(this.count + 16);
+        builder.addAll(offsets, 0, firstAffected);
+        scan(text, query, Math.max(0, start - length + 1), Math.min(text.length(), start + count + length - 1), builder);
+        for (int i = firstUnaffected; i < this.count; i++) {
+            builder.add(offsets[i] + delta);
+        }
+        return new SearchMatchIndex(query, builder.offsets, builder.count);
+    }
+
+    /**
+     * @return the index of the first offset which is greater than or equal to the given {@param offset}
+     */
+    private int lowerBound(int offset) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (offsets[mid] < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Adds all occurrences of the {@param query} which start at or after {@param from} and end at or before {@param to}.
+     */
+    private static void scan(@NonNull CharSequence text, @NonNull String query, int from, int to, @NonNull OffsetsBuilder builder) {
+        final int last = to - query.length();
+        for (int i = from; i <= last; i++) {
+            if (regionMatches(text, i, query)) {
+                builder.add(i);
+            }
+        }
+    }
+
+    /**
+     * Compares characters case insensitive like {@link String#regionMatches(boolean, int, String, int, int)}, but without creating a {@link String} of the {@param text}.
+     */
+    private static boolean regionMatches(@NonNull CharSequence text, int offset, @NonNull String query) {
+        for (int i = 0; i < query.length(); i++) {
+            final char a = text.charAt(offset + i);
+            final char b = query.charAt(i);
+            if (a == b) {
+                continue;
+            }
+            final char upperA = Character.toUpperCase(a);
+            final char upperB = Character.toUpperCase(b);
+            if (upperA != upperB && Character.toLowerCase(upperA) != Character.toLowerCase(upperB)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class OffsetsBuilder {
+        int[] offsets;
+        int count = 0;
+
+        OffsetsBuilder(int capacity) {
+            this.offsets = new int[capacity];
+        }
+
+        void add(int offset) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, Math.max(16, count * 2));
+            }
+            offsets[count++] = offset;
+        }
+
+        void addAll(@NonNull int[] source, int from, int to) {
+            for (int i = from; i < to; i++) {
+                add(source[i]);
+            }
+        }
+    }
+}
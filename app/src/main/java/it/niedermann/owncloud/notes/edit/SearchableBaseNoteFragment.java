@@ -15,17 +15,16 @@ import android.widget.ScrollView;
 
 import androidx.annotation.CallSuper;
 import androidx.annotation.ColorInt;
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.widget.SearchView;
 
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import it.niedermann.owncloud.notes.R;
 import it.niedermann.owncloud.notes.branding.BrandedActivity;
+import it.niedermann.owncloud.notes.shared.util.AppExecutors;
 
 public abstract class SearchableBaseNoteFragment extends BaseNoteFragment {
 
@@ -34,9 +33,21 @@ public abstract class SearchableBaseNoteFragment extends BaseNoteFragment {
     private static final String saved_instance_key_currentOccurrence = "currentOccurrence";
 
     private int currentOccurrence = 1;
-    private int occurrenceCount = 0;
     private SearchView searchView;
     private String searchQuery = null;
+    /**
+     * Always valid for the current content, kept up to date by {@link #onContentChanged(CharSequence, int, int, int)} and {@link #onContentReplaced()}
+     */
+    @NonNull
+    private SearchMatchIndex matchIndex = SearchMatchIndex.EMPTY;
+    /**
+     * Incremented on each change of the content to detect outdated results of background searches
+     */
+    private int contentVersion = 0;
+    /**
+     * Incremented on each search to discard results of superseded background searches
+     */
+    private int searchGeneration = 0;
     private static final int delay = 50; // If the search string does not change after $delay ms, then the search task starts.
 
     @ColorInt
@@ -90,11 +101,12 @@ public abstract class SearchableBaseNoteFragment extends BaseNoteFragment {
                     if (currentVisibility != View.VISIBLE) {
                         colorWithText("", null, mainColor, textColor);
                         searchQuery = "";
+                        searchGeneration++;
+                        matchIndex = SearchMatchIndex.EMPTY;
                         hideSearchFabs();
                     } else {
                         jumpToOccurrence();
                         colorWithText(searchQuery, null, mainColor, textColor);
-                        occurrenceCount = countOccurrences(getContent(), searchQuery);
                         showSearchFabs();
                     }
 
@@ -117,7 +129,6 @@ public abstract class SearchableBaseNoteFragment extends BaseNoteFragment {
 
         if (prev != null) {
             prev.setOnClickListener(v -> {
-                occurrenceCount = countOccurrences(getContent(), searchView.getQuery().toString());
                 currentOccurrence--;
                 jumpToOccurrence();
                 colorWithText(searchView.getQuery().toString(), currentOccurrence, mainColor, textColor);
@@ -142,19 +153,6 @@ public abstract class SearchableBaseNoteFragment extends BaseNoteFragment {
                 return true;
             }
 
-            private void queryMatch(@NonNull String newText) {
-                searchQuery = newText;
-                occurrenceCount = countOccurrences(getContent(), searchQuery);
-                if (occurrenceCount > 1) {
-                    showSearchFabs();
-                } else {
-                    hideSearchFabs();
-                }
-                currentOccurrence = 1;
-                jumpToOccurrence();
-                colorWithText(searchQuery, currentOccurrence, mainColor, textColor);
-            }
-
             private void queryWithHandler(@NonNull String newText) {
                 if (delayQueryTask != null) {
                     delayQueryTask.cancel();
@@ -178,7 +176,7 @@ public abstract class SearchableBaseNoteFragment extends BaseNoteFragment {
                     if (canceled) {
                         return;
                     }
-                    queryMatch(text);
+                    search(text, true);
                 }
 
                 public void cancel() {
@@ -198,6 +196,89 @@ public abstract class SearchableBaseNoteFragment extends BaseNoteFragment {
         }
     }
 
+    /**
+     * Updates the {@link #matchIndex} for the given {@param query}. Refined queries are resolved immediately from the current index, otherwise the content is
+     * scanned on a background thread of the {@link AppExecutors#cpu()} pool.
+     *
+     * @param resetOccurrence whether to jump to the first occurrence, otherwise the current occurrence is kept if possible
+     */
+    @MainThread
+    private void search(@NonNull String query, boolean resetOccurrence) {
+        searchQuery = query;
+        final int generation = ++searchGeneration;
+        if (query.isEmpty()) {
+            matchIndex = SearchMatchIndex.EMPTY;
+            onMatchIndexUpdated(resetOccurrence);
+        } else if (matchIndex.canRefine(query)) {
+            matchIndex = matchIndex.refine(getContent(), query);
+            onMatchIndexUpdated(resetOccurrence);
+        } else {
+            final String content = getContent();
+            final int version = contentVersion;
+            AppExecutors.getInstance().cpu().submit(() -> {
+                final var index = SearchMatchIndex.compute(content, query);
+                final var activity = getActivity();
+                if (activity != null) {
+                    activity.runOnUiThread(() -> {
+                        if (generation != searchGeneration) {
+                            Log.v(TAG, "Discard result of superseded search for \"" + query + "\"");
+                        } else if (version != contentVersion) {
+                            search(query, resetOccurrence);
+                        } else {
+                            matchIndex = index;
+                            onMatchIndexUpdated(resetOccurrence);
+                        }
+                    });
+                }
+            });
+        }
+    }
+
+    @MainThread
+    private void onMatchIndexUpdated(boolean resetOccurrence) {
+        if (matchIndex.count() > 1) {
+            showSearchFabs();
+        } else {
+            hideSearchFabs();
+        }
+        if (resetOccurrence) {
+            currentOccurrence = 1;
+            jumpToOccurrence();
+            colorWithText(searchQuery, currentOccurrence, mainColor, textColor);
+        } else if (currentOccurrence > matchIndex.count()) {
+            currentOccurrence = Math.max(1, matchIndex.count());
+        }
+    }
+
+    /**
+     * Must be called by subclasses whenever <code>before</code> characters of the content beginning at <code>start</code> have been replaced by
+     * <code>count</code> new characters, see {@link android.text.TextWatcher#onTextChanged(CharSequence, int, int, int)}.
+     */
+    @MainThread
+    protected void onContentChanged(@NonNull CharSequence content, int start, int before, int count) {
+        contentVersion++;
+        matchIndex = matchIndex.afterEdit(content, start, before, count);
+        if (!TextUtils.isEmpty(searchQuery) && searchQuery.equals(matchIndex.getQuery())) {
+            if (matchIndex.count() > 1) {
+                showSearchFabs();
+            } else {
+                hideSearchFabs();
+            }
+        }
+    }
+
+    /**
+     * Must be called by subclasses whenever the content has been replaced without reporting the changed range.
+     */
+    @MainThread
+    protected void onContentReplaced() {
+        contentVersion++;
+        matchIndex = SearchMatchIndex.EMPTY;
+        if (!TextUtils.isEmpty(searchQuery)) {
+            search(searchQuery, false);
+        }
+    }
+
     protected abstract void colorWithText(@NonNull String newText, @Nullable Integer current, int mainColor, int textColor);
 
     protected abstract Layout getLayout();
@@ -230,28 +311,19 @@ public abstract class SearchableBaseNoteFragment extends BaseNoteFragment {
 
     private void jumpToOccurrence() {
         final var layout = getLayout();
+        final int occurrenceCount = matchIndex.count();
         if (layout == null) {
             Log.w(TAG, "getLayout() is null");
-        } else if (getContent() == null || getContent().isEmpty()) {
-            Log.w(TAG, "getContent is null or empty");
-        } else if (currentOccurrence < 1) {
-            // if currentOccurrence is lower than 1, jump to last occurrence
-            currentOccurrence = occurrenceCount;
-            jumpToOccurrence();
-        } else if (searchQuery != null && !searchQuery.isEmpty()) {
-            final String currentContent = getContent().toLowerCase();
-            final int indexOfNewText = indexOfNth(currentContent, searchQuery.toLowerCase(), 0, currentOccurrence);
-            if (indexOfNewText <= 0) {
+        } else if (occurrenceCount > 0) {
+            if (currentOccurrence < 1) {
+                // if currentOccurrence is lower than 1, jump to last occurrence
+                currentOccurrence = occurrenceCount;
+            } else if (currentOccurrence > occurrenceCount) {
                 // Search term is not n times in text
                 // Go back to first search result
-                if (currentOccurrence != 1) {
-                    currentOccurrence = 1;
-                    jumpToOccurrence();
-                }
-                return;
+                currentOccurrence = 1;
             }
-            final String textUntilFirstOccurrence = currentContent.substring(0, indexOfNewText);
-            final int numberLine = layout.getLineForOffset(textUntilFirstOccurrence.length());
+            final int numberLine = layout.getLineForOffset(matchIndex.getOffset(currentOccurrence - 1));
 
             if (numberLine >= 0) {
                 final var scrollView = getScrollView();
@@ -262,34 +334,6 @@ public abstract class SearchableBaseNoteFragment extends BaseNoteFragment {
         }
     }
 
-    private static int indexOfNth(String input, String value, int startIndex, int nth) {
-        if (nth < 1)
-            throw new IllegalArgumentException("Param 'nth' must be greater than 0!");
-        if (nth == 1)
-            return input.indexOf(value, startIndex);
-        final int idx = input.indexOf(value, startIndex);
-        if (idx == -1)
-            return -1;
-        return indexOfNth(input, value, idx + 1, nth - 1);
-    }
-
-    private static int countOccurrences(String haystack, String needle) {
-        if (haystack == null || haystack.isEmpty() || needle == null || needle.isEmpty()) {
-            return 0;
-        }
-        // Use regrex which is faster before.
-        // Such that the main thread will not stop for a long tilme
-        // And so there will not an ANR problem
-        final var matcher = Pattern.compile(needle, Pattern.CASE_INSENSITIVE | Pattern.LITERAL)
-                .matcher(haystack);
-
-        int count = 0;
-        while (matcher.find()) {
-            count++;
-        }
-        return count;
-    }
-
     @CallSuper
     @Override
     public void applyBrand(int mainColor, int textColor) {
@@ -22,7 +22,6 @@ import com.nextcloud.android.sso.ui.UiExceptionManager;
 
 import java.net.HttpURLConnection;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import it.niedermann.owncloud.notes.R;
 import it.niedermann.owncloud.notes.branding.BrandingUtil;
@@ -35,13 +34,14 @@ import it.niedermann.owncloud.notes.persistence.SyncWorker;
 import it.niedermann.owncloud.notes.persistence.entity.Account;
 import it.niedermann.owncloud.notes.shared.model.Capabilities;
 import it.niedermann.owncloud.notes.shared.model.IResponseCallback;
+import it.niedermann.owncloud.notes.shared.util.AppExecutors;
 
 public class ImportAccountActivity extends AppCompatActivity {
 
     private static final String TAG = ImportAccountActivity.class.getSimpleName();
     public static final int REQUEST_CODE_IMPORT_ACCOUNT = 1;
 
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ExecutorService executor = AppExecutors.getInstance().io();
 
     private ImportAccountViewModel importAccountViewModel;
     private ActivityImportAccountBinding binding;
@@ -61,7 +61,6 @@ import com.nextcloud.android.sso.helper.SingleAccountHelper;
 import java.net.HttpURLConnection;
 import java.util.LinkedList;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import it.niedermann.owncloud.notes.LockedActivity;
@@ -92,10 +91,12 @@ import it.niedermann.owncloud.notes.persistence.CapabilitiesClient;
 import it.niedermann.owncloud.notes.persistence.CapabilitiesWorker;
 import it.niedermann.owncloud.notes.persistence.entity.Account;
 import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.persistence.entity.NoteListItem;
 import it.niedermann.owncloud.notes.shared.model.CategorySortingMethod;
 import it.niedermann.owncloud.notes.shared.model.IResponseCallback;
 import it.niedermann.owncloud.notes.shared.model.NavigationCategory;
 import it.niedermann.owncloud.notes.shared.model.NoteClickListener;
+import it.niedermann.owncloud.notes.shared.util.AppExecutors;
 import it.niedermann.owncloud.notes.shared.util.CustomAppGlideModule;
 import it.niedermann.owncloud.notes.shared.util.NoteUtil;
 import it.niedermann.owncloud.notes.shared.util.ShareUtil;
@@ -104,7 +105,7 @@ public class MainActivity extends LockedActivity implements NoteClickListener, A
 
     private static final String TAG = MainActivity.class.getSimpleName();
 
-    protected final ExecutorService executor = Executors.newCachedThreadPool();
+    protected final ExecutorService executor = AppExecutors.getInstance().io();
 
     protected MainViewModel mainViewModel;
     private CategoryViewModel categoryViewModel;
@@ -118,6 +119,11 @@ public class MainActivity extends LockedActivity implements NoteClickListener, A
     private static final int REQUEST_CODE_CREATE_NOTE = 0;
     private static final int REQUEST_CODE_SERVER_SETTINGS = 1;
 
+    /**
+     * Amount of remaining items below the last visible one at which the next page of notes will be loaded.
+     */
+    private static final int LOAD_MORE_NOTES_THRESHOLD = 20;
+
     protected ItemAdapter adapter;
     private NavigationAdapter adapterCategories;
     private MenuAdapter menuAdapter;
@@ -189,7 +195,7 @@ public class MainActivity extends LockedActivity implements NoteClickListener, A
                                                 mainViewModel.collectNoteContents(modifiedNotes.stream().map(Note::getId).collect(Collectors.toList())));
                                     }
                                 }))
-                                .setNegativeButton(R.string.simple_error, (a, b) -> {
+                                .setNegativeButton(R.string.simple_error, (a, b) -> executor.submit(() -> {
                                     final var ssoPreferences = AccountImporter.getSharedPreferences(getApplicationContext());
                                     final var ssoPreferencesString = new StringBuilder()
                                             .append("Current SSO account: ").append(ssoPreferences.getString("PREF_CURRENT_ACCOUNT_STRING", null)).append("\n")
@@ -201,7 +207,7 @@ public class MainActivity extends LockedActivity implements NoteClickListener, A
                                     ssoPreferencesString.append("\n")
                                             .append("Available accounts in DB: ").append(TextUtils.join(", ", mainViewModel.getAccounts().stream().map(Account::getAccountName).collect(Collectors.toList())));
                                     runOnUiThread(() -> ExceptionDialogFragment.newInstance(new RuntimeException(e.getMessage(), new RuntimeException(ssoPreferencesString.toString(), e))).show(getSupportFragmentManager(), ExceptionDialogFragment.class.getSimpleName()));
-                                })
+                                }))
                                 .show());
                     } catch (NoCurrentAccountSelectedException e) {
                         runOnUiThread(() -> ExceptionDialogFragment.newInstance(e).show(getSupportFragmentManager(), ExceptionDialogFragment.class.getSimpleName()));
@@ -273,7 +279,7 @@ public class MainActivity extends LockedActivity implements NoteClickListener, A
                     if (notes
                             .stream()
                             .filter(item -> !item.isSection())
-                            .map(item -> (Note) item)
+                            .map(item -> (NoteListItem) item)
                             .noneMatch(item -> item.getId() == id)) {
                         deletedNotes.add(id);
                     }
@@ -453,6 +459,10 @@ public class MainActivity extends LockedActivity implements NoteClickListener, A
                     fabCreate.hide();
                 else if (dy < 0)
                     fabCreate.show();
+
+                if (getLastVisibleItemPosition(recyclerView) >= adapter.getItemCount() - LOAD_MORE_NOTES_THRESHOLD) {
+                    mainViewModel.loadMoreNotes();
+                }
             }
         });
 
@@ -516,6 +526,20 @@ public class MainActivity extends LockedActivity implements NoteClickListener, A
         itemTouchHelper.attachToRecyclerView(listView);
     }
 
+    private static int getLastVisibleItemPosition(@NonNull RecyclerView recyclerView) {
+        final var layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager) {
+            return ((LinearLayoutManager) layoutManager).findLastVisibleItemPosition();
+        } else if (layoutManager instanceof StaggeredGridLayoutManager) {
+            int lastVisibleItemPosition = RecyclerView.NO_POSITION;
+            for (final int position : ((StaggeredGridLayoutManager) layoutManager).findLastVisibleItemPositions(null)) {
+                lastVisibleItemPosition = Math.max(lastVisibleItemPosition, position);
+            }
+            return lastVisibleItemPosition;
+        }
+        return RecyclerView.NO_POSITION;
+    }
+
     private void setupNavigationList() {
         adapterCategories = new NavigationAdapter(this, new NavigationClickListener() {
             @Override
@@ -682,7 +706,7 @@ public class MainActivity extends LockedActivity implements NoteClickListener, A
                                         executor.submit(() -> {
                                             runOnUiThread(() -> {
                                                 importSnackbar.setText(R.string.account_imported);
-                                                importSnackbar.setAction(R.string.simple_switch, (v) -> mainViewModel.postCurrentAccount(mainViewModel.getLocalAccountByAccountName(ssoAccount.name)));
+                                                importSnackbar.setAction(R.string.simple_switch, (v) -> mainViewModel.postCurrentAccount(result));
                                             });
                                             Log.i(TAG, capabilities.toString());
                                         });
@@ -707,10 +731,11 @@ public class MainActivity extends LockedActivity implements NoteClickListener, A
                                 importSnackbar.dismiss();
                                 ApiProvider.getInstance().invalidateAPICache(ssoAccount);
                                 // Happens when importing an already existing account the second time
-                                if (e instanceof TokenMismatchException && mainViewModel.getLocalAccountByAccountName(ssoAccount.name) != null) {
+                                final var existingAccount = e instanceof TokenMismatchException ? mainViewModel.getLocalAccountByAccountName(ssoAccount.name) : null;
+                                if (existingAccount != null) {
                                     Log.w(TAG, "Received " + TokenMismatchException.class.getSimpleName() + " and the given ssoAccount.name (" + ssoAccount.name + ") does already exist in the database. Assume that this account has already been imported.");
                                     runOnUiThread(() -> {
-                                        mainViewModel.postCurrentAccount(mainViewModel.getLocalAccountByAccountName(ssoAccount.name));
+                                        mainViewModel.postCurrentAccount(existingAccount);
                                         // TODO there is already a sync in progress and results in displaying a TokenMissMatchException snackbar which conflicts with this one
                                         coordinatorLayout.post(() -> BrandedSnackbar.make(coordinatorLayout, R.string.account_already_imported, Snackbar.LENGTH_LONG).show());
                                     });
@@ -738,7 +763,7 @@ public class MainActivity extends LockedActivity implements NoteClickListener, A
     public void onNoteClick(int position, View v) {
         final boolean hasCheckedItems = tracker.getSelection().size() > 0;
         if (!hasCheckedItems) {
-            final var note = (Note) adapter.getItem(position);
+            final var note = (NoteListItem) adapter.getItem(position);
             startActivity(new Intent(getApplicationContext(), EditNoteActivity.class)
                     .putExtra(EditNoteActivity.PARAM_NOTE_ID, note.getId()));
         }
@@ -746,7 +771,7 @@ public class MainActivity extends LockedActivity implements NoteClickListener, A
 
     @Override
     public void onNoteFavoriteClick(int position, View view) {
-        final var toggleLiveData = mainViewModel.toggleFavoriteAndSync(((Note) adapter.getItem(position)).getId());
+        final var toggleLiveData = mainViewModel.toggleFavoriteAndSync(((NoteListItem) adapter.getItem(position)).getId());
         toggleLiveData.observe(this, (next) -> toggleLiveData.removeObservers(this));
     }
 
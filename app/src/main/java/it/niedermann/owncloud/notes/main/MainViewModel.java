@@ -6,14 +6,10 @@ import static androidx.lifecycle.Transformations.switchMap;
 import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static it.niedermann.owncloud.notes.main.MainActivity.ADAPTER_KEY_RECENT;
 import static it.niedermann.owncloud.notes.main.MainActivity.ADAPTER_KEY_STARRED;
-import static it.niedermann.owncloud.notes.main.slots.SlotterUtil.fillListByCategory;
-import static it.niedermann.owncloud.notes.main.slots.SlotterUtil.fillListByInitials;
-import static it.niedermann.owncloud.notes.main.slots.SlotterUtil.fillListByTime;
 import static it.niedermann.owncloud.notes.shared.model.CategorySortingMethod.SORT_MODIFIED_DESC;
 import static it.niedermann.owncloud.notes.shared.model.ENavigationCategoryType.DEFAULT_CATEGORY;
 import static it.niedermann.owncloud.notes.shared.model.ENavigationCategoryType.FAVORITES;
 import static it.niedermann.owncloud.notes.shared.model.ENavigationCategoryType.RECENT;
-import static it.niedermann.owncloud.notes.shared.model.ENavigationCategoryType.UNCATEGORIZED;
 import static it.niedermann.owncloud.notes.shared.util.DisplayUtils.convertToCategoryNavigationItem;
 
 import android.accounts.NetworkErrorException;
@@ -44,7 +40,6 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import it.niedermann.owncloud.notes.BuildConfig;
@@ -66,12 +61,14 @@ import it.niedermann.owncloud.notes.shared.model.IResponseCallback;
 import it.niedermann.owncloud.notes.shared.model.ImportStatus;
 import it.niedermann.owncloud.notes.shared.model.Item;
 import it.niedermann.owncloud.notes.shared.model.NavigationCategory;
+import it.niedermann.owncloud.notes.shared.util.AppExecutors;
+import it.niedermann.owncloud.notes.shared.util.NoteUtil;
 
 public class MainViewModel extends AndroidViewModel {
 
     private static final String TAG = MainViewModel.class.getSimpleName();
 
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ExecutorService executor = AppExecutors.getInstance().io();
 
     private final SavedStateHandle state;
 
@@ -91,6 +88,11 @@ public class MainViewModel extends AndroidViewModel {
     private final MutableLiveData<NavigationCategory> selectedCategory = new MutableLiveData<>(new NavigationCategory(RECENT));
     @NonNull
     private final MutableLiveData<String> expandedCategory = new MutableLiveData<>(null);
+    /**
+     * The currently displayed notes list, which gets extended by {@link #loadMoreNotes()}
+     */
+    @Nullable
+    private NotesListLiveData notesList;
 
     public MainViewModel(@NonNull Application application, @NonNull SavedStateHandle savedStateHandle) {
         super(application);
@@ -225,48 +227,12 @@ public class MainViewModel extends AndroidViewModel {
                         return switchMap(getSearchTerm(), searchTerm -> {
                             Log.v(TAG, "[getNotesListLiveData] - searchTerm: " + (BuildConfig.DEBUG ? "******" : searchTerm));
                             return switchMap(getCategorySortingMethodOfSelectedCategory(), sortingMethod -> {
-                                final long accountId = currentAccount.getId();
-                                final String searchQueryOrWildcard = searchTerm == null ? "%" : "%" + searchTerm.trim() + "%";
+                                Log.v(TAG, "[getNotesListLiveData] - category: " + (selectedCategory.getType() == DEFAULT_CATEGORY ? selectedCategory.getCategory() : selectedCategory.getType()));
                                 Log.v(TAG, "[getNotesListLiveData] - sortMethod: " + sortingMethod.second);
-                                final LiveData<List<Note>> fromDatabase;
-                                switch (selectedCategory.getType()) {
-                                    case RECENT: {
-                                        Log.v(TAG, "[getNotesListLiveData] - category: " + RECENT);
-                                        fromDatabase = sortingMethod.second == SORT_MODIFIED_DESC
-                                                ? repo.searchRecentByModified$(accountId, searchQueryOrWildcard)
-                                                : repo.searchRecentLexicographically$(accountId, searchQueryOrWildcard);
-                                        break;
-                                    }
-                                    case FAVORITES: {
-                                        Log.v(TAG, "[getNotesListLiveData] - category: " + FAVORITES);
-                                        fromDatabase = sortingMethod.second == SORT_MODIFIED_DESC
-                                                ? repo.searchFavoritesByModified$(accountId, searchQueryOrWildcard)
-                                                : repo.searchFavoritesLexicographically$(accountId, searchQueryOrWildcard);
-                                        break;
-                                    }
-                                    case UNCATEGORIZED: {
-                                        Log.v(TAG, "[getNotesListLiveData] - category: " + UNCATEGORIZED);
-                                        fromDatabase = sortingMethod.second == SORT_MODIFIED_DESC
-                                                ? repo.searchUncategorizedByModified$(accountId, searchQueryOrWildcard)
-                                                : repo.searchUncategorizedLexicographically$(accountId, searchQueryOrWildcard);
-                                        break;
-                                    }
-                                    case DEFAULT_CATEGORY:
-                                    default: {
-                                        final String category = selectedCategory.getCategory();
-                                        if (category == null) {
-                                            throw new IllegalStateException(NavigationCategory.class.getSimpleName() + " type is " + DEFAULT_CATEGORY + ", but category is null.");
-                                        }
-                                        Log.v(TAG, "[getNotesListLiveData] - category: " + category);
-                                        fromDatabase = sortingMethod.second == SORT_MODIFIED_DESC
-                                                ? repo.searchCategoryByModified$(accountId, searchQueryOrWildcard, category)
-                                                : repo.searchCategoryLexicographically$(accountId, searchQueryOrWildcard, category);
-                                        break;
-                                    }
-                                }
-
                                 Log.v(TAG, "[getNotesListLiveData] - -------------------------------------");
-                                return distinctUntilChanged(map(fromDatabase, noteList -> fromNotes(noteList, selectedCategory, sortingMethod.second)));
+                                notesList = new NotesListLiveData(getApplication(), repo, executor, currentAccount.getId(), selectedCategory, sortingMethod.second == SORT_MODIFIED_DESC,
+                                        NoteUtil.generateFullTextSearchQuery(searchTerm), NoteUtil.generateSubstringSearchQuery(searchTerm));
+                                return notesList;
                             });
                         });
                     }
@@ -275,19 +241,14 @@ public class MainViewModel extends AndroidViewModel {
         }));
     }
 
-    private List<Item> fromNotes(List<Note> noteList, @NonNull NavigationCategory selectedCategory, @Nullable CategorySortingMethod sortingMethod) {
-        if (selectedCategory.getType() == DEFAULT_CATEGORY) {
-            final String category = selectedCategory.getCategory();
-            if (category != null) {
-                return fillListByCategory(noteList, category);
-            } else {
-                throw new IllegalStateException(NavigationCategory.class.getSimpleName() + " type is " + DEFAULT_CATEGORY + ", but category is null.");
-            }
-        }
-        if (sortingMethod == SORT_MODIFIED_DESC) {
-            return fillListByTime(getApplication(), noteList);
-        } else {
-            return fillListByInitials(getApplication(), noteList);
+    /**
+     * Extends the list returned by {@link #getNotesListLiveData()} by another page, in case not all {@link Note}s are loaded yet.
+     * Should be called when the user scrolls near the end of the list.
+     */
+    @MainThread
+    public void loadMoreNotes() {
+        if (notesList != null) {
+            notesList.loadMore();
         }
     }
 
@@ -490,9 +451,9 @@ public class MainViewModel extends AndroidViewModel {
                 return new MutableLiveData<>(null);
             } else {
                 Log.v(TAG, "[setCategory] - currentAccount: " + currentAccount.getAccountName());
-                for (Long noteId : noteIds) {
-                    repo.setCategory(currentAccount, noteId, category);
-                }
+                final var ids = new ArrayList<Long>();
+                noteIds.forEach(ids::add);
+                repo.setCategory(currentAccount, ids, category);
                 return new MutableLiveData<>(null);
             }
         });
@@ -535,9 +496,7 @@ public class MainViewModel extends AndroidViewModel {
                 return new MutableLiveData<>(null);
             } else {
                 Log.v(TAG, "[deleteNotesAndSync] - currentAccount: " + currentAccount.getAccountName());
-                for (final var id : ids) {
-                    repo.deleteNoteAndSync(currentAccount, id);
-                }
+                repo.deleteNotesAndSync(currentAccount, ids);
                 return new MutableLiveData<>(null);
             }
         });
@@ -587,18 +546,21 @@ public class MainViewModel extends AndroidViewModel {
 
     public LiveData<Void> updateNoteAndSync(@NonNull Note oldNote, @Nullable String newContent, @Nullable String newTitle) {
         return switchMap(getCurrentAccount(), currentAccount -> {
-            if (currentAccount != null) {
+            if (currentAccount == null) {
+                return new MutableLiveData<>(null);
+            } else {
                 Log.v(TAG, "[updateNoteAndSync] - currentAccount: " + currentAccount.getAccountName());
-                repo.updateNoteAndSync(currentAccount, oldNote, newContent, newTitle, null);
+                return map(repo.saveNoteAndSync(currentAccount, oldNote, newContent, newTitle, null), savedNote -> null);
             }
-            return new MutableLiveData<>(null);
         });
     }
 
+    @WorkerThread
     public void createOrUpdateSingleNoteWidgetData(SingleNoteWidgetData data) {
         repo.createOrUpdateSingleNoteWidgetData(data);
     }
 
+    @WorkerThread
     public List<Note> getLocalModifiedNotes(long accountId) {
         return repo.getLocalModifiedNotes(accountId);
     }
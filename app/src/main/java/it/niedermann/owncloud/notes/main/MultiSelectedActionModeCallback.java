@@ -11,6 +11,7 @@ import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
 import androidx.appcompat.view.ActionMode;
 import androidx.appcompat.view.ActionMode.Callback;
+import androidx.core.content.ContextCompat;
 import androidx.core.graphics.drawable.DrawableCompat;
 import androidx.fragment.app.FragmentManager;
 import androidx.lifecycle.LifecycleOwner;
@@ -22,7 +23,6 @@ import com.google.android.material.snackbar.Snackbar;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import it.niedermann.owncloud.notes.R;
 import it.niedermann.owncloud.notes.accountpicker.AccountPickerDialogFragment;
@@ -30,11 +30,12 @@ import it.niedermann.owncloud.notes.branding.BrandedSnackbar;
 import it.niedermann.owncloud.notes.edit.category.CategoryDialogFragment;
 import it.niedermann.owncloud.notes.persistence.entity.Account;
 import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.shared.util.AppExecutors;
 import it.niedermann.owncloud.notes.shared.util.ShareUtil;
 
 public class MultiSelectedActionModeCallback implements Callback {
 
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ExecutorService executor = AppExecutors.getInstance().io();
     @ColorInt
     private final int colorAccent;
     @NonNull
@@ -128,9 +129,12 @@ public class MultiSelectedActionModeCallback implements Callback {
             final var currentAccount$ = mainViewModel.getCurrentAccount();
             currentAccount$.observe(lifecycleOwner, account -> {
                 currentAccount$.removeObservers(lifecycleOwner);
-                executor.submit(() -> AccountPickerDialogFragment
-                        .newInstance(new ArrayList<>(mainViewModel.getAccounts()), account.getId())
-                        .show(fragmentManager, AccountPickerDialogFragment.class.getSimpleName()));
+                executor.submit(() -> {
+                    final var accounts = new ArrayList<>(mainViewModel.getAccounts());
+                    ContextCompat.getMainExecutor(context).execute(() -> AccountPickerDialogFragment
+                            .newInstance(accounts, account.getId())
+                            .show(fragmentManager, AccountPickerDialogFragment.class.getSimpleName()));
+                });
             });
             return true;
         } else if (itemId == R.id.menu_share) {
@@ -0,0 +1,279 @@
+package it.niedermann.owncloud.notes.main;
+
+import static it.niedermann.owncloud.notes.main.slots.SlotterUtil.appendByCategory;
+import static it.niedermann.owncloud.notes.main.slots.SlotterUtil.appendByInitials;
+import static it.niedermann.owncloud.notes.main.slots.SlotterUtil.appendByTime;
+import static it.niedermann.owncloud.notes.shared.model.ENavigationCategoryType.DEFAULT_CATEGORY;
+import static it.niedermann.owncloud.notes.shared.model.ENavigationCategoryType.FAVORITES;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import it.niedermann.owncloud.notes.main.slots.Timeslotter;
+import it.niedermann.owncloud.notes.persistence.NotesRepository;
+import it.niedermann.owncloud.notes.persistence.dao.NoteDao;
+import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.persistence.entity.NoteListItem;
+import it.niedermann.owncloud.notes.shared.model.Item;
+import it.niedermann.owncloud.notes.shared.model.NavigationCategory;
+import it.niedermann.owncloud.notes.shared.util.NoteUtil;
+
+/**
+ * Slotted notes list which gets extended page by page via {@link #loadMore()}.
+ * <p>
+ * Each page continues right after the last already loaded {@link NoteListItem} (see {@link NoteDao#recentSegment}),
+ * only the {@link NoteListItem}s of the new page get slotted and appended to the already slotted ones.
+ * In case any {@link Note} changes, all already loaded {@link NoteListItem}s are loaded and slotted again at once.
+ */
+@SuppressWarnings("JavadocReference")
+public class NotesListLiveData extends LiveData<List<Item>> {
+
+    private static final String TAG = NotesListLiveData.class.getSimpleName();
+
+    /**
+     * Amount of {@link Note}s which will be loaded additionally each time the user scrolls to the end of the list.
+     */
+    private static final int NOTES_PAGE_SIZE = 100;
+
+    @NonNull
+    private final Context context;
+    @NonNull
+    private final NotesRepository repo;
+    @NonNull
+    private final ExecutorService executor;
+    private final long accountId;
+    @NonNull
+    private final NavigationCategory selectedCategory;
+    private final boolean byModified;
+    @NonNull
+    private final String query;
+    @NonNull
+    private final String substringQuery;
+
+    private final InvalidationTracker.Observer observer = new InvalidationTracker.Observer(Note.class.getSimpleName()) {
+        @Override
+        public void onInvalidated(@NonNull Set<String> tables) {
+            scheduleReload();
+        }
+    };
+
+    /**
+     * Coalesces bursts of changes (e.g. while synchronizing) into a single reload
+     */
+    private final AtomicBoolean reloadScheduled = new AtomicBoolean(false);
+    private volatile boolean stale = true;
+    private volatile boolean loading = false;
+    private volatile boolean endReached = false;
+
+    // Guarded by this
+    private final List<Item> items = new ArrayList<>();
+    private int loadedNotesCount = 0;
+    @Nullable
+    private String lastSection;
+    private Timeslotter timeslotter;
+
+    // The current segment and the sort key of its last loaded note, guarded by this
+    /**
+     * <code>null</code> in case the notes are not filtered by their category
+     */
+    @Nullable
+    private String category;
+    private boolean favorite;
+    private boolean withoutModified;
+    private long afterModified;
+    @NonNull
+    private String afterTitle = "";
+    private long afterId;
+
+    public NotesListLiveData(@NonNull Context context, @NonNull NotesRepository repo, @NonNull ExecutorService executor,
+                             long accountId, @NonNull NavigationCategory selectedCategory, boolean byModified,
+                             @NonNull String query, @NonNull String substringQuery) {
+        this.context = context.getApplicationContext();
+        this.repo = repo;
+        this.executor = executor;
+        this.accountId = accountId;
+        this.selectedCategory = selectedCategory;
+        this.byModified = byModified;
+        this.query = query;
+        this.substringQuery = substringQuery;
+        if (selectedCategory.getType() == DEFAULT_CATEGORY && selectedCategory.getCategory() == null) {
+            throw new IllegalStateException(NavigationCategory.class.getSimpleName() + " type is " + DEFAULT_CATEGORY + ", but category is null.");
+        }
+    }
+
+    @Override
+    protected void onActive() {
+        super.onActive();
+        repo.addNotesObserver(observer);
+        if (stale) {
+            stale = false;
+            scheduleReload();
+        }
+    }
+
+    @Override
+    protected void onInactive() {
+        super.onInactive();
+        repo.removeNotesObserver(observer);
+        // Changes will not be observed until this LiveData gets active again
+        stale = true;
+    }
+
+    /**
+     * Extends the list by another page, in case not all {@link Note}s are loaded yet.
+     * Should be called when the user scrolls near the end of the list.
+     */
+    @MainThread
+    public void loadMore() {
+        if (loading || endReached) {
+            return;
+        }
+        loading = true;
+        executor.submit(() -> {
+            try {
+                synchronized (this) {
+                    // Nothing to extend before the first page has been loaded by reload()
+                    if (timeslotter != null) {
+                        appendNotes(NOTES_PAGE_SIZE);
+                    }
+                }
+            } finally {
+                loading = false;
+            }
+        });
+    }
+
+    @AnyThread
+    private void scheduleReload() {
+        if (reloadScheduled.compareAndSet(false, true)) {
+            executor.submit(this::reload);
+        }
+    }
+
+    @WorkerThread
+    private synchronized void reload() {
+        reloadScheduled.set(false);
+        final int count = Math.max(loadedNotesCount, NOTES_PAGE_SIZE);
+        items.clear();
+        loadedNotesCount = 0;
+        lastSection = null;
+        timeslotter = new Timeslotter(context);
+        endReached = false;
+        favorite = true;
+        withoutModified = false;
+        resetSortKey();
+        switch (selectedCategory.getType()) {
+            case DEFAULT_CATEGORY: {
+                category = repo.getNextCategory(accountId, selectedCategory.getCategory(), "");
+                endReached = category == null;
+                break;
+            }
+            case UNCATEGORIZED: {
+                category = "";
+                break;
+            }
+            default: {
+                category = null;
+                break;
+            }
+        }
+        appendNotes(count);
+    }
+
+    /**
+     * Loads the next <code>limit</code> {@link NoteListItem}s, which might span multiple segments, and slots them.
+     */
+    @WorkerThread
+    private void appendNotes(int limit) {
+        final var page = new ArrayList<NoteListItem>(limit);
+        while (page.size() < limit && !endReached) {
+            final int remaining = limit - page.size();
+            final var notes = loadPageOfCurrentSegment(remaining);
+            page.addAll(notes);
+            if (notes.size() < remaining) {
+                nextSegment();
+            } else {
+                final var lastNote = notes.get(notes.size() - 1);
+                afterModified = lastNote.getModified();
+                afterTitle = NoteUtil.generateSortTitle(lastNote.getTitle());
+                afterId = lastNote.getId();
+            }
+        }
+        if (selectedCategory.getType() == DEFAULT_CATEGORY) {
+            lastSection = appendByCategory(items, page, lastSection == null ? selectedCategory.getCategory() : lastSection);
+        } else if (byModified) {
+            lastSection = appendByTime(items, timeslotter, page, lastSection);
+        } else {
+            lastSection = appendByInitials(context, items, page, lastSection);
+        }
+        loadedNotesCount += page.size();
+        Log.v(TAG, "[appendNotes] - loaded " + loadedNotesCount + " notes, end reached: " + endReached);
+        postValue(new ArrayList<>(items));
+    }
+
+    @WorkerThread
+    @NonNull
+    private List<NoteListItem> loadPageOfCurrentSegment(int limit) {
+        if (category == null) {
+            if (!byModified) {
+                return repo.getRecentPageLexicographically(accountId, favorite, query, substringQuery, afterTitle, afterId, limit);
+            }
+            return withoutModified
+                    ? repo.getRecentPageWithoutModified(accountId, favorite, query, substringQuery, afterId, limit)
+                    : repo.getRecentPageByModified(accountId, favorite, query, substringQuery, afterModified, afterId, limit);
+        } else {
+            if (!byModified) {
+                return repo.getCategoryPageLexicographically(accountId, category, favorite, query, substringQuery, afterTitle, afterId, limit);
+            }
+            return withoutModified
+                    ? repo.getCategoryPageWithoutModified(accountId, category, favorite, query, substringQuery, afterId, limit)
+                    : repo.getCategoryPageByModified(accountId, category, favorite, query, substringQuery, afterModified, afterId, limit);
+        }
+    }
+
+    /**
+     * Segments are ordered like the list: by <code>category</code>, favorites first, notes without <code>modified</code> date last.
+     */
+    @WorkerThread
+    private void nextSegment() {
+        if (byModified && !withoutModified) {
+            withoutModified = true;
+            afterId = Long.MAX_VALUE;
+            return;
+        }
+        withoutModified = false;
+        resetSortKey();
+        if (favorite && selectedCategory.getType() != FAVORITES) {
+            favorite = false;
+            return;
+        }
+        if (selectedCategory.getType() == DEFAULT_CATEGORY && category != null) {
+            category = repo.getNextCategory(accountId, selectedCategory.getCategory(), category);
+            if (category != null) {
+                favorite = true;
+                return;
+            }
+        }
+        endReached = true;
+    }
+
+    private void resetSortKey() {
+        afterModified = Long.MAX_VALUE;
+        afterTitle = "";
+        afterId = byModified ? Long.MAX_VALUE : Long.MIN_VALUE;
+    }
+}
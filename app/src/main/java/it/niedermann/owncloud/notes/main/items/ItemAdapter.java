@@ -15,10 +15,13 @@ import androidx.annotation.Px;
 import androidx.core.content.ContextCompat;
 import androidx.preference.PreferenceManager;
 import androidx.recyclerview.selection.SelectionTracker;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import it.niedermann.owncloud.notes.R;
 import it.niedermann.owncloud.notes.branding.Branded;
@@ -33,7 +36,7 @@ import it.niedermann.owncloud.notes.main.items.list.NoteViewHolderWithExcerpt;
 import it.niedermann.owncloud.notes.main.items.list.NoteViewHolderWithoutExcerpt;
 import it.niedermann.owncloud.notes.main.items.section.SectionItem;
 import it.niedermann.owncloud.notes.main.items.section.SectionViewHolder;
-import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.persistence.entity.NoteListItem;
 import it.niedermann.owncloud.notes.shared.model.Item;
 import it.niedermann.owncloud.notes.shared.model.NoteClickListener;
 
@@ -48,10 +51,34 @@ public class ItemAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> i
     public static final int TYPE_NOTE_WITHOUT_EXCERPT = 2;
     public static final int TYPE_NOTE_ONLY_TITLE = 3;
 
+    /**
+     * {@link NoteListItem}s are identified by their {@link NoteListItem#getId()}, {@link SectionItem}s by their title.
+     * Only if the content of an {@link Item} changed, the respective row will be rebound.
+     */
+    private static final DiffUtil.ItemCallback<Item> DIFF_CALLBACK = new DiffUtil.ItemCallback<Item>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            if (oldItem.isSection() != newItem.isSection()) {
+                return false;
+            }
+            return oldItem.isSection()
+                    ? oldItem.equals(newItem)
+                    : ((NoteListItem) oldItem).getId() == ((NoteListItem) newItem).getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.hashCode() == newItem.hashCode() && Objects.equals(oldItem, newItem);
+        }
+    };
+
     private final NoteClickListener noteClickListener;
     private final boolean gridView;
+    /**
+     * Calculates the differences between the current and a new item list on a background thread.
+     */
     @NonNull
-    private final List<Item> itemList = new ArrayList<>();
+    private final AsyncListDiffer<Item> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
     private boolean showCategory = true;
     private CharSequence searchQuery;
     private SelectionTracker<Long> tracker = null;
@@ -82,19 +109,18 @@ public class ItemAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> i
     public long getItemId(int position) {
         return getItemViewType(position) == TYPE_SECTION
                 ? ((SectionItem) getItem(position)).getTitle().hashCode() * -1
-                : ((Note) getItem(position)).getId();
+                : ((NoteListItem) getItem(position)).getId();
     }
 
     /**
-     * Updates the item list and notifies respective view to update.
+     * Updates the item list and notifies respective view to update only the {@link Item}s which actually changed.
+     * The difference is calculated asynchronously, so the new items might not yet be available when this method returns.
      *
-     * @param itemList List of items to be set
+     * @param itemList List of items to be set, must not be modified afterwards
      */
     public void setItemList(@NonNull List<Item> itemList) {
-        this.itemList.clear();
-        this.itemList.addAll(itemList);
         this.swipedPosition = null;
-        notifyDataSetChanged();
+        differ.submitList(itemList);
     }
 
     @NonNull
@@ -150,13 +176,13 @@ public class ItemAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> i
         }
         switch (getItemViewType(position)) {
             case TYPE_SECTION: {
-                ((SectionViewHolder) holder).bind((SectionItem) itemList.get(position));
+                ((SectionViewHolder) holder).bind((SectionItem) getItem(position));
                 break;
             }
             case TYPE_NOTE_WITH_EXCERPT:
             case TYPE_NOTE_WITHOUT_EXCERPT:
             case TYPE_NOTE_ONLY_TITLE: {
-                ((NoteViewHolder) holder).bind(isSelected, (Note) itemList.get(position), showCategory, mainColor, textColor, searchQuery);
+                ((NoteViewHolder) holder).bind(isSelected, (NoteListItem) getItem(position), showCategory, mainColor, textColor, searchQuery);
                 break;
             }
         }
@@ -167,16 +193,17 @@ public class ItemAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> i
     }
 
     public Item getItem(int notePosition) {
-        return itemList.get(notePosition);
+        return differ.getCurrentList().get(notePosition);
     }
 
     public boolean hasItemPosition(int notePosition) {
-        return notePosition >= 0 && notePosition < itemList.size();
+        return notePosition >= 0 && notePosition < getItemCount();
     }
 
     public void remove(@NonNull Item item) {
+        final var itemList = new ArrayList<>(differ.getCurrentList());
         itemList.remove(item);
-        notifyDataSetChanged();
+        differ.submitList(itemList);
     }
 
     public void setShowCategory(boolean showCategory) {
@@ -185,7 +212,7 @@ public class ItemAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> i
 
     @Override
     public int getItemCount() {
-        return itemList.size();
+        return differ.getCurrentList().size();
     }
 
     @IntRange(from = 0, to = 3)
@@ -196,7 +223,7 @@ public class ItemAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> i
             throw new IllegalArgumentException("Item at position " + position + " must not be null");
         }
         if (getItem(position).isSection()) return TYPE_SECTION;
-        final var note = (Note) getItem(position);
+        final var note = (NoteListItem) getItem(position);
         if (TextUtils.isEmpty(note.getExcerpt())) {
             if (TextUtils.isEmpty(note.getCategory())) {
                 return TYPE_NOTE_ONLY_TITLE;
@@ -223,7 +250,7 @@ public class ItemAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> i
      * @return the position of the first {@link Item} which matches the given viewtype, -1 if not available
      */
     public int getFirstPositionOfViewType(@IntRange(from = 0, to = 3) int viewType) {
-        for (int i = 0; i < itemList.size(); i++) {
+        for (int i = 0; i < getItemCount(); i++) {
             if (getItemViewType(i) == viewType) {
                 return i;
             }
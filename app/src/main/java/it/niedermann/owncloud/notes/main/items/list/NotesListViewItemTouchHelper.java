@@ -23,7 +23,7 @@ import it.niedermann.owncloud.notes.main.MainViewModel;
 import it.niedermann.owncloud.notes.main.items.ItemAdapter;
 import it.niedermann.owncloud.notes.main.items.NoteViewHolder;
 import it.niedermann.owncloud.notes.main.items.section.SectionViewHolder;
-import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.persistence.entity.NoteListItem;
 
 public class NotesListViewItemTouchHelper extends ItemTouchHelper {
 
@@ -72,7 +72,7 @@ public class NotesListViewItemTouchHelper extends ItemTouchHelper {
                 switch (direction) {
                     case ItemTouchHelper.LEFT:
                         viewHolder.setIsRecyclable(false);
-                        final var dbNoteWithoutContent = (Note) adapter.getItem(viewHolder.getLayoutPosition());
+                        final var dbNoteWithoutContent = (NoteListItem) adapter.getItem(viewHolder.getLayoutPosition());
                         final var dbNoteLiveData = mainViewModel.getFullNote$(dbNoteWithoutContent.getId());
                         dbNoteLiveData.observe(lifecycleOwner, (dbNote) -> {
                             dbNoteLiveData.removeObservers(lifecycleOwner);
@@ -92,7 +92,7 @@ public class NotesListViewItemTouchHelper extends ItemTouchHelper {
                         break;
                     case ItemTouchHelper.RIGHT:
                         viewHolder.setIsRecyclable(false);
-                        final var adapterNote = (Note) adapter.getItem(viewHolder.getLayoutPosition());
+                        final var adapterNote = (NoteListItem) adapter.getItem(viewHolder.getLayoutPosition());
                         final var toggleLiveData = mainViewModel.toggleFavoriteAndSync(adapterNote.getId());
                         toggleLiveData.observe(lifecycleOwner, (next) -> toggleLiveData.removeObservers(lifecycleOwner));
                         break;
@@ -1,21 +1,24 @@
 package it.niedermann.owncloud.notes.main.slots;
 
 import android.content.Context;
-import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 import it.niedermann.owncloud.notes.R;
 import it.niedermann.owncloud.notes.main.items.section.SectionItem;
-import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.persistence.entity.NoteListItem;
 import it.niedermann.owncloud.notes.shared.model.Item;
 import it.niedermann.owncloud.notes.shared.util.NoteUtil;
 
+/**
+ * The <code>append</code> methods slot another page of {@link NoteListItem}s into an already slotted <code>itemList</code>.
+ * They take the section of the last {@link NoteListItem} in the <code>itemList</code> (<code>null</code> if it is empty)
+ * and return the section of the last appended one, so the existing section headers do not need to be computed again.
+ */
 public class SlotterUtil {
 
     private SlotterUtil() {
@@ -23,58 +26,62 @@ public class SlotterUtil {
     }
 
     @NonNull
-    public static List<Item> fillListByCategory(@NonNull List<Note> noteList, @Nullable String currentCategory) {
+    public static List<Item> fillListByCategory(@NonNull List<NoteListItem> noteList, @Nullable String currentCategory) {
         final var itemList = new ArrayList<Item>();
+        appendByCategory(itemList, noteList, currentCategory);
+        return itemList;
+    }
+
+    @Nullable
+    public static String appendByCategory(@NonNull List<Item> itemList, @NonNull List<NoteListItem> noteList, @Nullable String lastCategory) {
         for (final var note : noteList) {
-            if (currentCategory != null && !currentCategory.equals(note.getCategory())) {
+            if (lastCategory != null && !lastCategory.equals(note.getCategory())) {
                 itemList.add(new SectionItem(NoteUtil.extendCategory(note.getCategory())));
             }
 
             itemList.add(note);
-            currentCategory = note.getCategory();
+            lastCategory = note.getCategory();
         }
-        return itemList;
+        return lastCategory;
     }
 
     @NonNull
-    public static List<Item> fillListByTime(@NonNull Context context, @NonNull List<Note> noteList) {
+    public static List<Item> fillListByTime(@NonNull Context context, @NonNull List<NoteListItem> noteList) {
         final var itemList = new ArrayList<Item>();
-        final var timeslotter = new Timeslotter(context);
-        String lastTimeslot = null;
-        for (int i = 0; i < noteList.size(); i++) {
-            final var currentNote = noteList.get(i);
-            String timeslot = timeslotter.getTimeslot(currentNote);
-            if (i > 0 && !timeslot.equals(lastTimeslot)) {
+        appendByTime(itemList, new Timeslotter(context), noteList, null);
+        return itemList;
+    }
+
+    @Nullable
+    public static String appendByTime(@NonNull List<Item> itemList, @NonNull Timeslotter timeslotter, @NonNull List<NoteListItem> noteList, @Nullable String lastTimeslot) {
+        for (final var currentNote : noteList) {
+            final String timeslot = timeslotter.getTimeslot(currentNote);
+            if (lastTimeslot != null && !timeslot.equals(lastTimeslot)) {
                 itemList.add(new SectionItem(timeslot));
             }
             itemList.add(currentNote);
             lastTimeslot = timeslot;
         }
-
-        return itemList;
+        return lastTimeslot;
     }
 
     @NonNull
-    public static List<Item> fillListByInitials(@NonNull Context context, @NonNull List<Note> noteList) {
+    public static List<Item> fillListByInitials(@NonNull Context context, @NonNull List<NoteListItem> noteList) {
         final var itemList = new ArrayList<Item>();
-        String lastInitials = null;
-        for (int i = 0; i < noteList.size(); i++) {
-            final var currentNote = noteList.get(i);
-            final var title = currentNote.getTitle();
-            String initials = "";
-            if(!TextUtils.isEmpty(title)) {
-                initials = title.substring(0, 1).toUpperCase();
-                if (!initials.matches("[A-Z\\u00C0-\\u00DF]")) {
-                    initials = initials.matches("[\\u0250-\\uFFFF]") ? context.getString(R.string.simple_other) : "#";
-                }
-            }
-            if (i > 0 && !initials.equals(lastInitials)) {
-                itemList.add(new SectionItem(initials));
+        appendByInitials(context, itemList, noteList, null);
+        return itemList;
+    }
+
+    @Nullable
+    public static String appendByInitials(@NonNull Context context, @NonNull List<Item> itemList, @NonNull List<NoteListItem> noteList, @Nullable String lastInitials) {
+        for (final var currentNote : noteList) {
+            final String initials = currentNote.getSectionInitial();
+            if (lastInitials != null && !initials.equals(lastInitials)) {
+                itemList.add(new SectionItem(NoteUtil.SECTION_INITIAL_OTHER.equals(initials) ? context.getString(R.string.simple_other) : initials));
             }
             itemList.add(currentNote);
             lastInitials = initials;
         }
-
-        return itemList;
+        return lastInitials;
     }
 }
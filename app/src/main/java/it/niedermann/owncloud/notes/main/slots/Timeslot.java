@@ -2,14 +2,18 @@ package it.niedermann.owncloud.notes.main.slots;
 
 import java.util.Calendar;
 
+import it.niedermann.owncloud.notes.shared.util.NoteUtil;
+
 public class Timeslot {
     private final String label;
     private final Calendar time;
+    private final long day;
 
     Timeslot(String label, int month, int day) {
         this.label = label;
         this.time = Calendar.getInstance();
         this.time.set(this.time.get(Calendar.YEAR), month, day, 0, 0, 0);
+        this.day = NoteUtil.generateSectionDay(this.time);
     }
 
     public String getLabel() {
@@ -19,4 +23,11 @@ public class Timeslot {
     public Calendar getTime() {
         return time;
     }
+
+    /**
+     * @return the first day of this {@link Timeslot}, comparable to {@link it.niedermann.owncloud.notes.persistence.entity.Note#getSectionDay()}
+     */
+    public long getDay() {
+        return day;
+    }
 }
\ No newline at end of file
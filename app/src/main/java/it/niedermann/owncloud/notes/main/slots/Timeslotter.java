@@ -10,11 +10,12 @@ import java.util.Calendar;
 import java.util.List;
 
 import it.niedermann.owncloud.notes.R;
-import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.persistence.entity.NoteListItem;
+import it.niedermann.owncloud.notes.shared.util.NoteUtil;
 
 public class Timeslotter {
     private final List<Timeslot> timeslots = new ArrayList<>();
-    private final Calendar lastYear;
+    private final long lastYear;
     private final Context context;
 
     public Timeslotter(@NonNull Context context) {
@@ -29,24 +30,27 @@ public class Timeslotter {
         timeslots.add(new Timeslot(context.getResources().getString(R.string.listview_updated_last_week), month, day - offsetWeekStart - 7));
         timeslots.add(new Timeslot(context.getResources().getString(R.string.listview_updated_this_month), month, 1));
         timeslots.add(new Timeslot(context.getResources().getString(R.string.listview_updated_last_month), month - 1, 1));
-        lastYear = Calendar.getInstance();
+        final var lastYear = Calendar.getInstance();
         lastYear.set(now.get(Calendar.YEAR) - 1, 0, 1, 0, 0, 0);
+        this.lastYear = NoteUtil.generateSectionDay(lastYear);
     }
 
-    public String getTimeslot(Note note) {
+    public String getTimeslot(NoteListItem note) {
         if (note.getFavorite()) {
             return "";
         }
-        final var modified = note.getModified();
+        final long day = note.getSectionDay();
         for (final var timeslot : timeslots) {
-            if (!modified.before(timeslot.getTime())) {
+            if (day >= timeslot.getDay()) {
                 return timeslot.getLabel();
             }
         }
-        if (!modified.before(this.lastYear)) {
+        if (day >= this.lastYear) {
             // use YEAR and MONTH in a format based on current locale
-            return DateUtils.formatDateTime(context, modified.getTimeInMillis(), DateUtils.FORMAT_SHOW_DATE | DateUtils.FORMAT_SHOW_YEAR | DateUtils.FORMAT_NO_MONTH_DAY);
+            return DateUtils.formatDateTime(context, note.getModified(), DateUtils.FORMAT_SHOW_DATE | DateUtils.FORMAT_SHOW_YEAR | DateUtils.FORMAT_NO_MONTH_DAY);
         } else {
+            final var modified = Calendar.getInstance();
+            modified.setTimeInMillis(note.getModified());
             return Integer.toString(modified.get(Calendar.YEAR));
         }
     }
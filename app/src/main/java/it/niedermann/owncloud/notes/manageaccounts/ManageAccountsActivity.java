@@ -31,6 +31,7 @@ import it.niedermann.owncloud.notes.persistence.NotesRepository;
 import it.niedermann.owncloud.notes.persistence.entity.Account;
 import it.niedermann.owncloud.notes.shared.model.IResponseCallback;
 import it.niedermann.owncloud.notes.shared.model.NotesSettings;
+import it.niedermann.owncloud.notes.shared.util.AppExecutors;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -146,37 +147,28 @@ public class ManageAccountsActivity extends LockedActivity {
                     }
                 }).start())
                 .show();
-        try {
-            repository.getServerSettings(AccountImporter.getSingleSignOnAccount(this, localAccount.getAccountName()), getPreferredApiVersion(localAccount.getApiVersion()))
-                    .enqueue(new Callback<>() {
-                        @Override
-                        public void onResponse(@NonNull Call<NotesSettings> call, @NonNull Response<NotesSettings> response) {
-                            runOnUiThread(() -> {
-                                final var body = response.body();
-                                if (response.isSuccessful() && body != null) {
-                                    wrapper.removeAllViews();
-                                    final var editText = new EditText(ManageAccountsActivity.this);
-                                    editText.setText(body.getNotesPath());
-                                    wrapper.addView(editText);
-                                } else {
-                                    dialog.dismiss();
-                                    ExceptionDialogFragment.newInstance(new NetworkErrorException(getString(R.string.http_status_code, response.code()))).show(getSupportFragmentManager(), ExceptionDialogFragment.class.getSimpleName());
-                                }
-                            });
-                        }
-
-                        @Override
-                        public void onFailure(@NonNull Call<NotesSettings> call, @NonNull Throwable t) {
-                            runOnUiThread(() -> {
-                                dialog.dismiss();
-                                ExceptionDialogFragment.newInstance(t).show(getSupportFragmentManager(), ExceptionDialogFragment.class.getSimpleName());
-                            });
-                        }
-                    });
-        } catch (NextcloudFilesAppAccountNotFoundException e) {
-            dialog.dismiss();
-            ExceptionDialogFragment.newInstance(e).show(getSupportFragmentManager(), ExceptionDialogFragment.class.getSimpleName());
-        }
+        AppExecutors.getInstance().network().submit(() -> {
+            try {
+                final var response = repository.getServerSettings(AccountImporter.getSingleSignOnAccount(this, localAccount.getAccountName()), getPreferredApiVersion(localAccount.getApiVersion()));
+                runOnUiThread(() -> {
+                    final var body = response.body();
+                    if (response.isSuccessful() && body != null) {
+                        wrapper.removeAllViews();
+                        final var editText = new EditText(ManageAccountsActivity.this);
+                        editText.setText(body.getNotesPath());
+                        wrapper.addView(editText);
+                    } else {
+                        dialog.dismiss();
+                        ExceptionDialogFragment.newInstance(new NetworkErrorException(getString(R.string.http_status_code, response.code()))).show(getSupportFragmentManager(), ExceptionDialogFragment.class.getSimpleName());
+                    }
+                });
+            } catch (Throwable t) {
+                runOnUiThread(() -> {
+                    dialog.dismiss();
+                    ExceptionDialogFragment.newInstance(t).show(getSupportFragmentManager(), ExceptionDialogFragment.class.getSimpleName());
+                });
+            }
+        });
     }
 
     private void onChangeFileSuffix(@NonNull Account localAccount) {
@@ -215,41 +207,32 @@ public class ManageAccountsActivity extends LockedActivity {
                     }
                 }).start())
                 .show();
-        try {
-            repository.getServerSettings(AccountImporter.getSingleSignOnAccount(this, localAccount.getAccountName()), getPreferredApiVersion(localAccount.getApiVersion()))
-                    .enqueue(new Callback<>() {
-                        @Override
-                        public void onResponse(@NonNull Call<NotesSettings> call, @NonNull Response<NotesSettings> response) {
-                            final NotesSettings body = response.body();
-                            runOnUiThread(() -> {
-                                if (response.isSuccessful() && body != null) {
-                                    for (int i = 0; i < adapter.getCount(); i++) {
-                                        if (adapter.getItem(i).equals(body.getFileSuffix())) {
-                                            spinner.setSelection(i);
-                                            break;
-                                        }
-                                    }
-                                    wrapper.removeAllViews();
-                                    wrapper.addView(spinner);
-                                } else {
-                                    dialog.dismiss();
-                                    ExceptionDialogFragment.newInstance(new Exception(getString(R.string.http_status_code, response.code()))).show(getSupportFragmentManager(), ExceptionDialogFragment.class.getSimpleName());
-                                }
-                            });
-                        }
-
-                        @Override
-                        public void onFailure(@NonNull Call<NotesSettings> call, @NonNull Throwable t) {
-                            runOnUiThread(() -> {
-                                dialog.dismiss();
-                                ExceptionDialogFragment.newInstance(t).show(getSupportFragmentManager(), ExceptionDialogFragment.class.getSimpleName());
-                            });
+        AppExecutors.getInstance().network().submit(() -> {
+            try {
+                final var response = repository.getServerSettings(AccountImporter.getSingleSignOnAccount(this, localAccount.getAccountName()), getPreferredApiVersion(localAccount.getApiVersion()));
+                final NotesSettings body = response.body();
+                runOnUiThread(() -> {
+                    if (response.isSuccessful() && body != null) {
+                        for (int i = 0; i < adapter.getCount(); i++) {
+                            if (adapter.getItem(i).equals(body.getFileSuffix())) {
+                                spinner.setSelection(i);
+                                break;
+                            }
                         }
-                    });
-        } catch (NextcloudFilesAppAccountNotFoundException e) {
-            dialog.dismiss();
-            ExceptionDialogFragment.newInstance(e).show(getSupportFragmentManager(), ExceptionDialogFragment.class.getSimpleName());
-        }
+                        wrapper.removeAllViews();
+                        wrapper.addView(spinner);
+                    } else {
+                        dialog.dismiss();
+                        ExceptionDialogFragment.newInstance(new Exception(getString(R.string.http_status_code, response.code()))).show(getSupportFragmentManager(), ExceptionDialogFragment.class.getSimpleName());
+                    }
+                });
+            } catch (Throwable t) {
+                runOnUiThread(() -> {
+                    dialog.dismiss();
+                    ExceptionDialogFragment.newInstance(t).show(getSupportFragmentManager(), ExceptionDialogFragment.class.getSimpleName());
+                });
+            }
+        });
     }
 
     @NonNull
@@ -14,17 +14,17 @@ import com.nextcloud.android.sso.helper.SingleAccountHelper;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import it.niedermann.owncloud.notes.persistence.NotesRepository;
 import it.niedermann.owncloud.notes.persistence.entity.Account;
 import it.niedermann.owncloud.notes.shared.model.IResponseCallback;
+import it.niedermann.owncloud.notes.shared.util.AppExecutors;
 
 import static androidx.lifecycle.Transformations.distinctUntilChanged;
 
 public class ManageAccountsViewModel extends AndroidViewModel {
 
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ExecutorService executor = AppExecutors.getInstance().io();
 
     @NonNull
     private final NotesRepository repo;
@@ -35,11 +35,13 @@ public class ManageAccountsViewModel extends AndroidViewModel {
     }
 
     public void getCurrentAccount(@NonNull Context context, @NonNull IResponseCallback<Account> callback) {
-        try {
-            callback.onSuccess(repo.getAccountByName((SingleAccountHelper.getCurrentSingleSignOnAccount(context).name)));
-        } catch (NextcloudFilesAppAccountNotFoundException | NoCurrentAccountSelectedException e) {
-            callback.onError(e);
-        }
+        executor.submit(() -> {
+            try {
+                callback.onSuccess(repo.getAccountByName((SingleAccountHelper.getCurrentSingleSignOnAccount(context).name)));
+            } catch (NextcloudFilesAppAccountNotFoundException | NoCurrentAccountSelectedException e) {
+                callback.onError(e);
+            }
+        });
     }
 
     public LiveData<List<Account>> getAccounts$() {
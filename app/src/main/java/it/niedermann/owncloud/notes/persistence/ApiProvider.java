@@ -45,6 +45,20 @@ public class ApiProvider {
     private static final Map<String, OcsAPI> API_CACHE_OCS = new ConcurrentHashMap<>();
     private static final Map<String, NotesAPI> API_CACHE_NOTES = new ConcurrentHashMap<>();
 
+    /**
+     * Shared by the {@link NextcloudAPI} and the streaming parser of {@link NotesAPI#getNotesStream(Calendar, String)}.
+     */
+    static final Gson GSON = new GsonBuilder()
+            .excludeFieldsWithoutExposeAnnotation()
+            .registerTypeHierarchyAdapter(Calendar.class, (JsonSerializer<Calendar>) (src, typeOfSrc, ctx) -> new JsonPrimitive(src.getTimeInMillis() / 1_000))
+            .registerTypeHierarchyAdapter(Calendar.class, (JsonDeserializer<Calendar>) (src, typeOfSrc, ctx) -> {
+                final var calendar = Calendar.getInstance();
+                calendar.setTimeInMillis(src.getAsLong() * 1_000);
+                return calendar;
+            })
+            .registerTypeAdapter(Capabilities.class, new CapabilitiesDeserializer())
+            .create();
+
     public static ApiProvider getInstance() {
         return INSTANCE;
     }
@@ -72,7 +86,7 @@ public class ApiProvider {
         if (API_CACHE_NOTES.containsKey(ssoAccount.name)) {
             return API_CACHE_NOTES.get(ssoAccount.name);
         }
-        final var notesAPI = new NotesAPI(getNextcloudAPI(context, ssoAccount), preferredApiVersion);
+        final var notesAPI = new NotesAPI(getNextcloudAPI(context, ssoAccount), preferredApiVersion, GSON);
         API_CACHE_NOTES.put(ssoAccount.name, notesAPI);
         return notesAPI;
     }
@@ -82,17 +96,7 @@ public class ApiProvider {
             return API_CACHE.get(ssoAccount.name);
         } else {
             Log.v(TAG, "NextcloudRequest account: " + ssoAccount.name);
-            final var nextcloudAPI = new NextcloudAPI(context.getApplicationContext(), ssoAccount,
-                    new GsonBuilder()
-                            .excludeFieldsWithoutExposeAnnotation()
-                            .registerTypeHierarchyAdapter(Calendar.class, (JsonSerializer<Calendar>) (src, typeOfSrc, ctx) -> new JsonPrimitive(src.getTimeInMillis() / 1_000))
-                            .registerTypeHierarchyAdapter(Calendar.class, (JsonDeserializer<Calendar>) (src, typeOfSrc, ctx) -> {
-                                final var calendar = Calendar.getInstance();
-                                calendar.setTimeInMillis(src.getAsLong() * 1_000);
-                                return calendar;
-                            })
-                            .registerTypeAdapter(Capabilities.class, new CapabilitiesDeserializer())
-                            .create(), (e) -> {
+            final var nextcloudAPI = new NextcloudAPI(context.getApplicationContext(), ssoAccount, GSON, (e) -> {
                 invalidateAPICache(ssoAccount);
                 e.printStackTrace();
             });
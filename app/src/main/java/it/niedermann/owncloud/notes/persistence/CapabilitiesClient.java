@@ -5,6 +5,7 @@ import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
 
 import com.nextcloud.android.sso.api.ParsedResponse;
@@ -16,6 +17,7 @@ import it.niedermann.owncloud.notes.persistence.sync.OcsAPI;
 import it.niedermann.owncloud.notes.shared.model.Capabilities;
 import it.niedermann.owncloud.notes.shared.model.OcsResponse;
 import it.niedermann.owncloud.notes.shared.model.OcsUser;
+import okhttp3.Headers;
 import retrofit2.Response;
 
 @WorkerThread
@@ -24,28 +26,47 @@ public class CapabilitiesClient {
     private static final String TAG = CapabilitiesClient.class.getSimpleName();
 
     private static final String HEADER_KEY_ETAG = "ETag";
+    private static final String RESOURCE_CAPABILITIES = "capabilities";
 
+    /**
+     * Serves the {@link Capabilities} from the {@link ResponseCache} while they are fresh and revalidates them otherwise.
+     *
+     * @param lastETag used for a conditional request in case nothing is cached yet
+     */
     @WorkerThread
     public static Capabilities getCapabilities(@NonNull Context context, @NonNull SingleSignOnAccount ssoAccount, @Nullable String lastETag, @NonNull ApiProvider apiProvider) throws Throwable {
+        return getCapabilities(context, ssoAccount, lastETag, apiProvider, ResponseCache.getInstance(context));
+    }
+
+    @VisibleForTesting
+    @WorkerThread
+    static Capabilities getCapabilities(@NonNull Context context, @NonNull SingleSignOnAccount ssoAccount, @Nullable String lastETag, @NonNull ApiProvider apiProvider, @NonNull ResponseCache responseCache) throws Throwable {
         final var ocsAPI = apiProvider.getOcsAPI(context, ssoAccount);
-        try {
-            final var response = ocsAPI.getCapabilities(lastETag).blockingSingle();
-            final var capabilities = response.getResponse().ocs.data;
-            final var headers = response.getHeaders();
-            if (headers != null) {
-                capabilities.setETag(headers.get(HEADER_KEY_ETAG));
-            } else {
-                Log.w(TAG, "Response headers of capabilities are null");
-            }
-            return capabilities;
-        } catch (RuntimeException e) {
-            final var cause = e.getCause();
-            if (cause != null) {
-                throw cause;
-            } else {
-                throw e;
+        return responseCache.get(ssoAccount.name, RESOURCE_CAPABILITIES, Capabilities.class, (eTag, lastModified) -> {
+            try {
+                final var response = ocsAPI.getCapabilities(eTag == null && lastModified == null ? lastETag : eTag, lastModified).blockingSingle();
+                final var capabilities = response.getResponse().ocs.data;
+                final var headers = new Headers.Builder();
+                if (response.getHeaders() != null) {
+                    for (final var header : response.getHeaders().entrySet()) {
+                        if (header.getKey() != null && header.getValue() != null) {
+                            headers.add(header.getKey(), header.getValue());
+                        }
+                    }
+                    capabilities.setETag(response.getHeaders().get(HEADER_KEY_ETAG));
+                } else {
+                    Log.w(TAG, "Response headers of capabilities are null");
+                }
+                return Response.success(capabilities, headers.build());
+            } catch (RuntimeException e) {
+                final var cause = e.getCause();
+                if (cause != null) {
+                    throw cause;
+                } else {
+                    throw e;
+                }
             }
-        }
+        }).body();
     }
 
     @WorkerThread
@@ -0,0 +1,130 @@
+package it.niedermann.owncloud.notes.persistence;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tunes how the {@link NotesDatabase} is accessed from the UI, widgets, {@link SyncWorker} and the synchronization at the same time.
+ * <p>
+ * With {@link #writeAheadLogging}, reads do not wait for a running write transaction (like pulling thousands of notes), but read the last committed state instead.
+ * Changes are first appended to the write-ahead log and moved to the database file by checkpoints: automatically each {@link #walAutoCheckpointPages}
+ * and explicitly via {@link NotesDatabase#checkpoint()} after bulk changes. {@link #journalSizeLimitBytes} makes SQLite truncate the log after a checkpoint, so it does not keep the size of the biggest sync.
+ *
+ * @see <a href="https://www.sqlite.org/wal.html">Write-Ahead Logging</a>
+ * @see <a href="https://www.sqlite.org/pragma.html">PRAGMA statements</a>
+ */
+public class DatabaseProfile {
+
+    private static final String TAG = DatabaseProfile.class.getSimpleName();
+
+    public enum Synchronous {
+        /**
+         * Safe from corruption in WAL mode, but the last transactions might be rolled back after a power loss
+         */
+        NORMAL,
+        /**
+         * Syncs the database to the storage after each transaction
+         */
+        FULL
+    }
+
+    /**
+     * Baseline with a rollback journal and the default settings of SQLite, where reads have to wait for running write transactions.
+     */
+    public static final DatabaseProfile ROLLBACK_JOURNAL = new DatabaseProfile(false, Synchronous.FULL, 2_000, 0, 1_000, 4 * 1_024 * 1_024, 4);
+
+    final boolean writeAheadLogging;
+    @NonNull
+    final Synchronous synchronous;
+    final int cacheSizeKiB;
+    final long mmapSizeBytes;
+    final int walAutoCheckpointPages;
+    final long journalSizeLimitBytes;
+    /**
+     * Count of threads running the queries of observed {@link androidx.lifecycle.LiveData}. Android allows up to four connections for parallel reads in WAL mode.
+     */
+    final int queryThreads;
+
+    public DatabaseProfile(boolean writeAheadLogging, @NonNull Synchronous synchronous, int cacheSizeKiB, long mmapSizeBytes, int walAutoCheckpointPages, long journalSizeLimitBytes, int queryThreads) {
+        if (queryThreads < 1) {
+            throw new IllegalArgumentException("queryThreads must be at least 1, but was " + queryThreads);
+        }
+        this.writeAheadLogging = writeAheadLogging;
+        this.synchronous = synchronous;
+        this.cacheSizeKiB = cacheSizeKiB;
+        this.mmapSizeBytes = mmapSizeBytes;
+        this.walAutoCheckpointPages = walAutoCheckpointPages;
+        this.journalSizeLimitBytes = journalSizeLimitBytes;
+        this.queryThreads = queryThreads;
+    }
+
+    /**
+     * @return a profile with write-ahead logging, which uses less memory on devices which are considered as low RAM devices
+     */
+    @NonNull
+    public static DatabaseProfile forDevice(@NonNull Context context) {
+        final var activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        if (activityManager != null && activityManager.isLowRamDevice()) {
+            return new DatabaseProfile(true, Synchronous.NORMAL, 2_000, 0, 1_000, 4 * 1_024 * 1_024, 2);
+        }
+        return new DatabaseProfile(true, Synchronous.NORMAL, 8_000, 32 * 1_024 * 1_024, 1_000, 4 * 1_024 * 1_024, 4);
+    }
+
+    void applyTo(@NonNull RoomDatabase.Builder<?> builder) {
+        final var threadCount = new AtomicInteger();
+        builder
+                .setJournalMode(writeAheadLogging ? RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING : RoomDatabase.JournalMode.TRUNCATE)
+                .setQueryExecutor(Executors.newFixedThreadPool(queryThreads, runnable -> new Thread(runnable, "NotesDatabase-query-" + threadCount.incrementAndGet())))
+                // Room runs observed queries within a transaction one after another anyway, they must not occupy the threads for reading
+                .setTransactionExecutor(Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "NotesDatabase-transaction")));
+    }
+
+    /**
+     * Connection specific settings, must be applied each time the database gets opened.
+     * Room only passes the primary connection, which performs all writes. Connections which Android opens for parallel reads in WAL mode keep their default cache and mmap sizes.
+     */
+    void onOpen(@NonNull SupportSQLiteDatabase db) {
+        pragma(db, "synchronous = " + synchronous.name());
+        // Negative values are interpreted as KiB instead of pages
+        pragma(db, "cache_size = -" + cacheSizeKiB);
+        pragma(db, "mmap_size = " + mmapSizeBytes);
+        if (writeAheadLogging) {
+            pragma(db, "wal_autocheckpoint = " + walAutoCheckpointPages);
+            pragma(db, "journal_size_limit = " + journalSizeLimitBytes);
+        }
+        Log.v(TAG, "Opened database with " + this);
+    }
+
+    /**
+     * Some <code>PRAGMA</code> statements return a result, which is not allowed for {@link SupportSQLiteDatabase#execSQL(String)}.
+     * The statement is only executed once the {@link Cursor} gets moved.
+     */
+    static void pragma(@NonNull SupportSQLiteDatabase db, @NonNull String statement) {
+        try (final Cursor cursor = db.query("PRAGMA " + statement)) {
+            cursor.moveToFirst();
+        }
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "DatabaseProfile{" +
+                "writeAheadLogging=" + writeAheadLogging +
+                ", synchronous=" + synchronous +
+                ", cacheSizeKiB=" + cacheSizeKiB +
+                ", mmapSizeBytes=" + mmapSizeBytes +
+                ", walAutoCheckpointPages=" + walAutoCheckpointPages +
+                ", journalSizeLimitBytes=" + journalSizeLimitBytes +
+                ", queryThreads=" + queryThreads +
+                '}';
+    }
+}
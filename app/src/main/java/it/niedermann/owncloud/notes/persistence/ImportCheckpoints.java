@@ -0,0 +1,88 @@
+package it.niedermann.owncloud.notes.persistence;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import it.niedermann.owncloud.notes.persistence.entity.Account;
+
+/**
+ * Remembers the {@link Account}s whose initial import has been started but not finished yet, so an import which has been interrupted by a crash or a killed
+ * process can be resumed with the next start of the app.
+ * <p>
+ * The imported notes themselves are the cursor of an import: they are written in transactions and already imported remote IDs are skipped when resuming.
+ * Therefore only the count of attempts is stored per {@link Account}, which prevents an import from crashing the app over and over again.
+ */
+class ImportCheckpoints {
+
+    private static final String TAG = ImportCheckpoints.class.getSimpleName();
+
+    private static final String SHARED_PREFERENCES_NAME = "import_checkpoints";
+
+    @NonNull
+    private final SharedPreferences preferences;
+
+    ImportCheckpoints(@NonNull Context context) {
+        this(context.getApplicationContext().getSharedPreferences(SHARED_PREFERENCES_NAME, Context.MODE_PRIVATE));
+    }
+
+    @VisibleForTesting
+    ImportCheckpoints(@NonNull SharedPreferences preferences) {
+        this.preferences = preferences;
+    }
+
+    /**
+     * Marks the import of the given {@param accountId} as started. Uses {@link SharedPreferences.Editor#commit()}, because the checkpoint must be persisted
+     * before the first note gets imported.
+     */
+    @AnyThread
+    void start(long accountId) {
+        if (!preferences.edit().putInt(String.valueOf(accountId), 1).commit()) {
+            Log.w(TAG, "Could not persist import checkpoint of account " + accountId);
+        }
+    }
+
+    /**
+     * Counts another attempt to import the given {@param accountId}.
+     *
+     * @return the count of attempts including this one
+     */
+    @AnyThread
+    synchronized int resume(long accountId) {
+        final int attempts = preferences.getInt(String.valueOf(accountId), 0) + 1;
+        preferences.edit().putInt(String.valueOf(accountId), attempts).commit();
+        return attempts;
+    }
+
+    /**
+     * Removes the checkpoint of the given {@param accountId} after the import has been finished or the {@link Account} has been deleted.
+     */
+    @AnyThread
+    void finish(long accountId) {
+        preferences.edit().remove(String.valueOf(accountId)).apply();
+    }
+
+    /**
+     * @return IDs of all {@link Account}s with an unfinished import
+     */
+    @AnyThread
+    @NonNull
+    Set<Long> getPendingAccountIds() {
+        final var accountIds = new HashSet<Long>();
+        for (final var key : preferences.getAll().keySet()) {
+            try {
+                accountIds.add(Long.parseLong(key));
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "Ignoring invalid import checkpoint " + key);
+            }
+        }
+        return accountIds;
+    }
+}
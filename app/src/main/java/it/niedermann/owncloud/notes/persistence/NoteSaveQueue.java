@@ -0,0 +1,121 @@
+package it.niedermann.owncloud.notes.persistence;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.shared.model.ISyncCallback;
+
+/**
+ * Persists changes of {@link Note}s one after another on a background thread, so the UI never needs to wait for the database.
+ * <p>
+ * Saves of the same {@link Note} are coalesced: if a save is requested while another save of this {@link Note} is still waiting, the waiting one is replaced by the
+ * new one (last write wins). Requesters of replaced saves get notified about the result of the save which replaced theirs, and their {@link ISyncCallback}s are kept.
+ */
+class NoteSaveQueue {
+
+    private static final String TAG = NoteSaveQueue.class.getSimpleName();
+
+    interface SaveTask {
+        /**
+         * @param callback invoked after the synchronization of the saved {@link Note}, combines the callbacks of all coalesced saves
+         * @return the saved {@link Note}
+         */
+        @NonNull
+        Note save(@Nullable ISyncCallback callback);
+    }
+
+    private static class Request {
+        @NonNull
+        SaveTask task;
+        final MutableLiveData<Note> result = new MutableLiveData<>();
+        final List<ISyncCallback> callbacks = new ArrayList<>();
+
+        Request(@NonNull SaveTask task) {
+            this.task = task;
+        }
+    }
+
+    /**
+     * Must run the submitted saves one after another, otherwise an older save might overwrite a newer one of the same {@link Note}.
+     */
+    @NonNull
+    private final Executor serialExecutor;
+
+    // Guarded by this
+    private final Map<Long, Request> pending = new HashMap<>();
+
+    NoteSaveQueue(@NonNull Executor serialExecutor) {
+        this.serialExecutor = serialExecutor;
+    }
+
+    /**
+     * @return {@link LiveData} which emits the saved {@link Note} once the save (or the save which replaced this one) has been persisted, or <code>null</code> if saving failed
+     */
+    @NonNull
+    synchronized LiveData<Note> enqueue(long noteId, @NonNull SaveTask task, @Nullable ISyncCallback callback) {
+        var request = pending.get(noteId);
+        if (request == null) {
+            request = new Request(task);
+            pending.put(noteId, request);
+            serialExecutor.execute(() -> run(noteId));
+        } else {
+            Log.d(TAG, "Replace waiting save of note " + noteId);
+            request.task = task;
+        }
+        if (callback != null) {
+            request.callbacks.add(callback);
+        }
+        return request.result;
+    }
+
+    private void run(long noteId) {
+        final Request request;
+        synchronized (this) {
+            request = pending.remove(noteId);
+        }
+        if (request == null) {
+            return;
+        }
+        try {
+            request.result.postValue(request.task.save(combine(request.callbacks)));
+        } catch (Throwable t) {
+            Log.e(TAG, "Could not save note " + noteId, t);
+            request.result.postValue(null);
+        }
+    }
+
+    @Nullable
+    private static ISyncCallback combine(@NonNull List<ISyncCallback> callbacks) {
+        if (callbacks.isEmpty()) {
+            return null;
+        } else if (callbacks.size() == 1) {
+            return callbacks.get(0);
+        }
+        return new ISyncCallback() {
+            @Override
+            public void onFinish() {
+                for (final var callback : callbacks) {
+                    callback.onFinish();
+                }
+            }
+
+            @Override
+            public void onScheduled() {
+                for (final var callback : callbacks) {
+                    callback.onScheduled();
+                }
+            }
+        };
+    }
+}
@@ -4,6 +4,7 @@ import android.content.Context;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
@@ -13,14 +14,17 @@ import androidx.sqlite.db.SupportSQLiteDatabase;
 import it.niedermann.owncloud.notes.persistence.dao.AccountDao;
 import it.niedermann.owncloud.notes.persistence.dao.CategoryOptionsDao;
 import it.niedermann.owncloud.notes.persistence.dao.NoteDao;
+import it.niedermann.owncloud.notes.persistence.dao.SyncMetricsDao;
 import it.niedermann.owncloud.notes.persistence.dao.WidgetNotesListDao;
 import it.niedermann.owncloud.notes.persistence.dao.WidgetSingleNoteDao;
 import it.niedermann.owncloud.notes.persistence.entity.Account;
 import it.niedermann.owncloud.notes.persistence.entity.CategoryOptions;
 import it.niedermann.owncloud.notes.persistence.entity.Converters;
 import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.persistence.entity.NoteFts;
 import it.niedermann.owncloud.notes.persistence.entity.NotesListWidgetData;
 import it.niedermann.owncloud.notes.persistence.entity.SingleNoteWidgetData;
+import it.niedermann.owncloud.notes.persistence.entity.SyncMetrics;
 import it.niedermann.owncloud.notes.persistence.migration.Migration_10_11;
 import it.niedermann.owncloud.notes.persistence.migration.Migration_11_12;
 import it.niedermann.owncloud.notes.persistence.migration.Migration_12_13;
@@ -34,36 +38,53 @@ import it.niedermann.owncloud.notes.persistence.migration.Migration_19_20;
 import it.niedermann.owncloud.notes.persistence.migration.Migration_20_21;
 import it.niedermann.owncloud.notes.persistence.migration.Migration_21_22;
 import it.niedermann.owncloud.notes.persistence.migration.Migration_22_23;
+import it.niedermann.owncloud.notes.persistence.migration.Migration_23_24;
+import it.niedermann.owncloud.notes.persistence.migration.Migration_24_25;
+import it.niedermann.owncloud.notes.persistence.migration.Migration_25_26;
+import it.niedermann.owncloud.notes.persistence.migration.Migration_26_27;
+import it.niedermann.owncloud.notes.persistence.migration.Migration_27_28;
+import it.niedermann.owncloud.notes.persistence.migration.Migration_28_29;
 import it.niedermann.owncloud.notes.persistence.migration.Migration_9_10;
 
 @Database(
         entities = {
                 Account.class,
                 Note.class,
+                NoteFts.class,
                 CategoryOptions.class,
                 SingleNoteWidgetData.class,
-                NotesListWidgetData.class
-        }, version = 23
+                NotesListWidgetData.class,
+                SyncMetrics.class
+        }, version = 29
 )
 @TypeConverters({Converters.class})
 public abstract class NotesDatabase extends RoomDatabase {
 
     private static final String TAG = NotesDatabase.class.getSimpleName();
     private static final String NOTES_DB_NAME = "OWNCLOUD_NOTES";
+
+    /**
+     * Maximum number of bound parameters per statement of the SQLite versions shipped with older Android releases.
+     */
+    public static final int SQLITE_MAX_VARIABLE_NUMBER = 999;
     private static volatile NotesDatabase instance;
 
     public static NotesDatabase getInstance(@NonNull Context context) {
         if (instance == null) {
-            instance = create(context.getApplicationContext());
+            final var applicationContext = context.getApplicationContext();
+            instance = create(applicationContext, NOTES_DB_NAME, DatabaseProfile.forDevice(applicationContext));
         }
         return instance;
     }
 
-    private static NotesDatabase create(final Context context) {
-        return Room.databaseBuilder(
+    /**
+     * @param profile tunes journal mode, <code>PRAGMA</code>s and executors, see {@link DatabaseProfile}
+     */
+    static NotesDatabase create(@NonNull Context context, @NonNull String name, @NonNull DatabaseProfile profile) {
+        final var builder = Room.databaseBuilder(
                 context,
                 NotesDatabase.class,
-                NOTES_DB_NAME)
+                name)
                 .addMigrations(
                         new Migration_9_10(), // v2.0.0
                         new Migration_10_11(context),
@@ -78,7 +99,13 @@ public abstract class NotesDatabase extends RoomDatabase {
                         new Migration_19_20(context),
                         new Migration_20_21(),
                         new Migration_21_22(context),
-                        new Migration_22_23()
+                        new Migration_22_23(),
+                        new Migration_23_24(),
+                        new Migration_24_25(),
+                        new Migration_25_26(),
+                        new Migration_26_27(),
+                        new Migration_27_28(),
+                        new Migration_28_29()
                 )
                 .fallbackToDestructiveMigrationOnDowngrade()
                 .fallbackToDestructiveMigration()
@@ -86,14 +113,32 @@ public abstract class NotesDatabase extends RoomDatabase {
                     @Override
                     public void onCreate(@NonNull SupportSQLiteDatabase db) {
                         super.onCreate(db);
-                        final String cleanUpStatement = "DELETE FROM CategoryOptions WHERE CategoryOptions.category NOT IN (SELECT Note.category FROM Note WHERE Note.accountId = CategoryOptions.accountId);";
-                        db.execSQL("CREATE TRIGGER TRG_CLEANUP_CATEGORIES_DEL AFTER DELETE ON Note BEGIN " + cleanUpStatement + " END;");
-                        db.execSQL("CREATE TRIGGER TRG_CLEANUP_CATEGORIES_UPD AFTER UPDATE ON Note BEGIN " + cleanUpStatement + " END;");
+                        Migration_25_26.createCategoryCleanupTriggers(db);
                         Log.v(TAG, NotesDatabase.class.getSimpleName() + " created.");
                     }
-                })
-                .allowMainThreadQueries() // FIXME Needed in BaseNoteFragment#saveNote()
-                .build();
+
+                    @Override
+                    public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                        super.onOpen(db);
+                        // Room recreates its default triggers after each migration
+                        Migration_23_24.createSyncTriggers(db);
+                        profile.onOpen(db);
+                    }
+                });
+        profile.applyTo(builder);
+        return builder.build();
+    }
+
+    /**
+     * Moves the content of the write-ahead log to the database file without waiting for readers or writers, should be called after bulk changes.
+     * No-op if write-ahead logging is not enabled.
+     */
+    @WorkerThread
+    public void checkpoint() {
+        final var db = getOpenHelper().getWritableDatabase();
+        if (db.isWriteAheadLoggingEnabled()) {
+            DatabaseProfile.pragma(db, "wal_checkpoint(PASSIVE)");
+        }
     }
 
     public abstract AccountDao getAccountDao();
@@ -102,6 +147,8 @@ public abstract class NotesDatabase extends RoomDatabase {
 
     public abstract NoteDao getNoteDao();
 
+    public abstract SyncMetricsDao getSyncMetricsDao();
+
     public abstract WidgetSingleNoteDao getWidgetSingleNoteDao();
 
     public abstract WidgetNotesListDao getWidgetNotesListDao();
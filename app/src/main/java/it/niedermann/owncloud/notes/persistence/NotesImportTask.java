@@ -1,30 +1,62 @@
 package it.niedermann.owncloud.notes.persistence;
 
+import static java.util.stream.Collectors.toList;
+
 import android.content.Context;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.nextcloud.android.sso.AccountImporter;
 import com.nextcloud.android.sso.exceptions.NextcloudFilesAppAccountNotFoundException;
+import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
 
-import java.util.concurrent.CountDownLatch;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import it.niedermann.owncloud.notes.persistence.entity.Account;
+import it.niedermann.owncloud.notes.persistence.entity.Note;
 import it.niedermann.owncloud.notes.persistence.sync.NotesAPI;
 import it.niedermann.owncloud.notes.shared.model.IResponseCallback;
 import it.niedermann.owncloud.notes.shared.model.ImportStatus;
 import it.niedermann.owncloud.notes.shared.util.ApiVersionUtil;
+import it.niedermann.owncloud.notes.shared.util.AppExecutors;
 
-
+/**
+ * Imports all notes of an {@link Account} by fetching them one by one in parallel.
+ * <p>
+ * Fetched notes are written in batches, each within a single transaction. Notes whose remote ID already exists locally are skipped, so an import which has
+ * been interrupted can be resumed where it stopped, see {@link ImportCheckpoints}. Requests which failed because of a transient error are retried with an
+ * exponential backoff.
+ */
 public class NotesImportTask {
 
     private static final String TAG = NotesImportTask.class.getSimpleName();
 
+    /**
+     * Maximum count of fetched notes which are written within one transaction
+     */
+    private static final int BATCH_SIZE = 50;
+    /**
+     * Maximum count of notes which are fetched at the same time. Keeps threads of the shared {@link AppExecutors#network()} pool available for synchronizations
+     * and bounds the count of fetched notes which are waiting to be written.
+     */
+    @VisibleForTesting
+    static final int MAX_IN_FLIGHT_FETCHES = 4;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long INITIAL_BACKOFF_MILLIS = 1_000;
+
     private final NotesAPI notesAPI;
     @NonNull
     private final NotesRepository repo;
@@ -34,16 +66,19 @@ public class NotesImportTask {
     private final ExecutorService executor;
     @NonNull
     private final ExecutorService fetchExecutor;
+    private final long initialBackoffMillis;
 
     NotesImportTask(@NonNull Context context, @NonNull NotesRepository repo, @NonNull Account localAccount, @NonNull ExecutorService executor, @NonNull ApiProvider apiProvider) throws NextcloudFilesAppAccountNotFoundException {
-        this(context, repo, localAccount, executor, Executors.newFixedThreadPool(20), apiProvider);
+        this(context, repo, localAccount, executor, AppExecutors.getInstance().network(), apiProvider, INITIAL_BACKOFF_MILLIS);
     }
 
-    private NotesImportTask(@NonNull Context context, @NonNull NotesRepository repo, @NonNull Account localAccount, @NonNull ExecutorService executor, @NonNull ExecutorService fetchExecutor, @NonNull ApiProvider apiProvider) throws NextcloudFilesAppAccountNotFoundException {
+    @VisibleForTesting
+    NotesImportTask(@NonNull Context context, @NonNull NotesRepository repo, @NonNull Account localAccount, @NonNull ExecutorService executor, @NonNull ExecutorService fetchExecutor, @NonNull ApiProvider apiProvider, long initialBackoffMillis) throws NextcloudFilesAppAccountNotFoundException {
         this.repo = repo;
         this.localAccount = localAccount;
         this.executor = executor;
         this.fetchExecutor = fetchExecutor;
+        this.initialBackoffMillis = initialBackoffMillis;
         this.notesAPI = apiProvider.getNotesAPI(context, AccountImporter.getSingleSignOnAccount(context, localAccount.getAccountName()), ApiVersionUtil.getPreferredApiVersion(localAccount.getApiVersion()));
     }
 
@@ -52,44 +87,114 @@ public class NotesImportTask {
         Log.i(TAG, "STARTING IMPORT");
         executor.submit(() -> {
             Log.i(TAG, "… Fetching notes IDs");
-            final var status = new ImportStatus();
+            final List<Long> remoteIds;
             try {
-                final var remoteIds = notesAPI.getNotesIDs().blockingSingle();
-                status.total = remoteIds.size();
-                status$.postValue(status);
-                Log.i(TAG, "… Total count: " + remoteIds.size());
-                final var latch = new CountDownLatch(remoteIds.size());
-                for (long id : remoteIds) {
-                    fetchExecutor.submit(() -> {
-                        try {
-                            repo.addNote(localAccount.getId(), notesAPI.getNote(id).blockingSingle().getResponse());
-                        } catch (Throwable t) {
-                            Log.w(TAG, "Could not import note with remoteId " + id + ": " + t.getMessage());
-                            status.warnings.add(t);
-                        }
-                        status.count++;
-                        status$.postValue(status);
-                        latch.countDown();
-                    });
-                }
-                try {
-                    latch.await();
-                    Log.i(TAG, "IMPORT FINISHED");
-                    callback.onSuccess(null);
-                } catch (InterruptedException e) {
-                    callback.onError(e);
+                remoteIds = withRetries(() -> notesAPI.getNotesIDs().blockingSingle(), "list of note IDs");
+            } catch (Exception e) {
+                Log.e(TAG, "Could not fetch list of note IDs: " + e.getMessage());
+                callback.onError(e);
+                return;
+            }
+
+            final var importedRemoteIds = repo.getIdMap(localAccount.getId()).keySet();
+            final var pendingRemoteIds = remoteIds.stream().filter(id -> !importedRemoteIds.contains(id)).collect(toList());
+            final int total = remoteIds.size();
+            int count = total - pendingRemoteIds.size();
+            final var warnings = new ArrayList<Throwable>();
+            status$.postValue(new ImportStatus(count, total, warnings));
+            Log.i(TAG, "… Total count: " + total + ", already imported: " + count);
+
+            final var completionService = new ExecutorCompletionService<Note>(fetchExecutor);
+            final var futures = new ArrayList<Future<Note>>(pendingRemoteIds.size());
+            // A new fetch is only submitted when another one has been taken, so at most MAX_IN_FLIGHT_FETCHES are submitted at any time
+            final var remaining = pendingRemoteIds.iterator();
+            while (futures.size() < MAX_IN_FLIGHT_FETCHES && remaining.hasNext()) {
+                futures.add(submitFetch(completionService, remaining.next()));
+            }
+
+            // Only this thread writes the fetched notes and updates the progress, which is published as immutable snapshot
+            final var batch = new ArrayList<Note>(BATCH_SIZE);
+            try {
+                for (int i = 0; i < pendingRemoteIds.size(); i++) {
+                    var future = completionService.poll();
+                    if (future == null) {
+                        // Persist the notes fetched so far before waiting for the next response
+                        writeBatch(batch);
+                        future = completionService.take();
+                    }
+                    if (remaining.hasNext()) {
+                        futures.add(submitFetch(completionService, remaining.next()));
+                    }
+                    try {
+                        batch.add(future.get());
+                    } catch (ExecutionException e) {
+                        Log.w(TAG, "Could not import note: " + e.getCause().getMessage());
+                        warnings.add(e.getCause());
+                    }
+                    if (batch.size() >= BATCH_SIZE) {
+                        writeBatch(batch);
+                    }
+                    count++;
+                    status$.postValue(new ImportStatus(count, total, warnings));
                 }
+                writeBatch(batch);
+                Log.i(TAG, "IMPORT FINISHED");
+                callback.onSuccess(null);
             } catch (Throwable t) {
-                final Throwable cause = t.getCause();
-                if (t.getClass() == RuntimeException.class && cause != null) {
-                    Log.e(TAG, "Could not fetch list of note IDs: " + cause.getMessage());
-                    callback.onError(cause);
-                } else {
-                    Log.e(TAG, "Could not fetch list of note IDs: " + t.getMessage());
-                    callback.onError(t);
+                Log.e(TAG, "Import has been interrupted: " + t.getMessage());
+                for (final var future : futures) {
+                    future.cancel(true);
                 }
+                callback.onError(t);
             }
         });
         return status$;
     }
+
+    @NonNull
+    private Future<Note> submitFetch(@NonNull ExecutorCompletionService<Note> completionService, long remoteId) {
+        return completionService.submit(() -> withRetries(() -> notesAPI.getNote(remoteId).blockingSingle().getResponse(), "note with remoteId " + remoteId));
+    }
+
+    @WorkerThread
+    private void writeBatch(@NonNull List<Note> batch) {
+        if (!batch.isEmpty()) {
+            repo.applyRemoteNotes(localAccount.getId(), batch, Collections.emptyList());
+            batch.clear();
+        }
+    }
+
+    /**
+     * Executes the {@param request} and retries it with an exponential backoff in case it failed because of a transient error.
+     */
+    @WorkerThread
+    private <T> T withRetries(@NonNull Callable<T> request, @NonNull String description) throws Exception {
+        long backoffMillis = initialBackoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return request.call();
+            } catch (Exception e) {
+                final var cause = e.getClass() == RuntimeException.class && e.getCause() instanceof Exception
+                        ? (Exception) e.getCause()
+                        : e;
+                if (attempt >= MAX_ATTEMPTS || !isTransient(cause)) {
+                    throw cause;
+                }
+                Log.w(TAG, "Could not fetch " + description + " (attempt " + attempt + " of " + MAX_ATTEMPTS + "), retrying in " + backoffMillis + "ms: " + cause.getMessage());
+                Thread.sleep(backoffMillis);
+                backoffMillis *= 2;
+            }
+        }
+    }
+
+    /**
+     * @return <code>false</code> if the server rejected the request, which will not change when retrying it
+     */
+    private static boolean isTransient(@NonNull Exception e) {
+        if (e instanceof NextcloudHttpRequestFailedException) {
+            final int statusCode = ((NextcloudHttpRequestFailedException) e).getStatusCode();
+            return statusCode >= HttpURLConnection.HTTP_INTERNAL_ERROR || statusCode == 429;
+        }
+        return !(e instanceof InterruptedException);
+    }
 }
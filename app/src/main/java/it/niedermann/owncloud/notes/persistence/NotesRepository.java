@@ -7,6 +7,9 @@ import static androidx.lifecycle.Transformations.map;
 import static java.util.stream.Collectors.toMap;
 import static it.niedermann.owncloud.notes.edit.EditNoteActivity.ACTION_SHORTCUT;
 import static it.niedermann.owncloud.notes.shared.util.NoteUtil.generateNoteExcerpt;
+import static it.niedermann.owncloud.notes.shared.util.NoteUtil.generateSectionDay;
+import static it.niedermann.owncloud.notes.shared.util.NoteUtil.generateSectionInitial;
+import static it.niedermann.owncloud.notes.shared.util.NoteUtil.generateSortTitle;
 import static it.niedermann.owncloud.notes.widget.notelist.NoteListWidget.updateNoteListWidgets;
 import static it.niedermann.owncloud.notes.widget.singlenote.SingleNoteWidget.updateSingleNoteWidgets;
 
@@ -32,6 +35,7 @@ import androidx.annotation.WorkerThread;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.preference.PreferenceManager;
+import androidx.room.InvalidationTracker;
 
 import com.nextcloud.android.sso.AccountImporter;
 import com.nextcloud.android.sso.exceptions.NextcloudFilesAppAccountNotFoundException;
@@ -41,13 +45,14 @@ import com.nextcloud.android.sso.model.SingleSignOnAccount;
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import it.niedermann.android.sharedpreferences.SharedPreferenceIntLiveData;
 import it.niedermann.owncloud.notes.BuildConfig;
@@ -57,8 +62,10 @@ import it.niedermann.owncloud.notes.persistence.entity.Account;
 import it.niedermann.owncloud.notes.persistence.entity.CategoryOptions;
 import it.niedermann.owncloud.notes.persistence.entity.CategoryWithNotesCount;
 import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.persistence.entity.NoteListItem;
 import it.niedermann.owncloud.notes.persistence.entity.NotesListWidgetData;
 import it.niedermann.owncloud.notes.persistence.entity.SingleNoteWidgetData;
+import it.niedermann.owncloud.notes.persistence.entity.SyncMetrics;
 import it.niedermann.owncloud.notes.shared.model.ApiVersion;
 import it.niedermann.owncloud.notes.shared.model.Capabilities;
 import it.niedermann.owncloud.notes.shared.model.CategorySortingMethod;
@@ -71,9 +78,11 @@ import it.niedermann.owncloud.notes.shared.model.NavigationCategory;
 import it.niedermann.owncloud.notes.shared.model.NotesSettings;
 import it.niedermann.owncloud.notes.shared.model.SyncResultStatus;
 import it.niedermann.owncloud.notes.shared.util.ApiVersionUtil;
+import it.niedermann.owncloud.notes.shared.util.AppExecutors;
 import it.niedermann.owncloud.notes.shared.util.NoteUtil;
 import it.niedermann.owncloud.notes.shared.util.SSOUtil;
 import retrofit2.Call;
+import retrofit2.Response;
 
 @SuppressWarnings("UnusedReturnValue")
 public class NotesRepository {
@@ -82,10 +91,41 @@ public class NotesRepository {
 
     private static NotesRepository instance;
 
+    /**
+     * Maximum count of {@link Account}s which are synchronized at the same time
+     */
+    private static final int MAX_PARALLEL_SYNCS = 3;
+
+    /**
+     * Pushes of local changes within this time after the start of a synchronization of the same {@link Account} are merged into one
+     */
+    private static final long PUSH_DEBOUNCE_MILLIS = 3_000;
+
+    /**
+     * Count of {@link SyncMetrics} which are kept per {@link Account}
+     */
+    private static final int SYNC_METRICS_HISTORY_SIZE = 100;
+
+    private static final String RESOURCE_SETTINGS = "settings";
+    /**
+     * Count of attempts to import an {@link Account}, including resumes after the import has been interrupted
+     */
+    private static final int MAX_IMPORT_ATTEMPTS = 3;
+
+    /**
+     * ID of the time zone in which the {@link Note#getSectionDay()}s have been calculated
+     */
+    private static final String PREF_KEY_SECTION_DAY_TIME_ZONE = "sectionDayTimeZone";
+
     private final ApiProvider apiProvider;
     private final ExecutorService executor;
-    private final ExecutorService syncExecutor;
+    private final SyncScheduler syncScheduler;
+    private final NoteSaveQueue saveQueue;
+    /**
+     * Runs the coordinators of {@link NotesImportTask}s, which block until all {@link Note}s have been fetched
+     */
     private final ExecutorService importExecutor;
+    private final ImportCheckpoints importCheckpoints;
     private final Context context;
     private final NotesDatabase db;
     private final String defaultNonEmptyTitle;
@@ -127,9 +167,12 @@ public class NotesRepository {
         }
     };
 
-    // current state of the synchronization
-    private final Map<Long, Boolean> syncActive = new ConcurrentHashMap<>();
-    private final Map<Long, Boolean> syncScheduled = new ConcurrentHashMap<>();
+    private final BroadcastReceiver timeZoneReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            executor.submit(() -> updateSectionDaysIfTimeZoneChanged());
+        }
+    };
 
     // list of callbacks for both parts of synchronization
     private final Map<Long, List<ISyncCallback>> callbacksPush = new ConcurrentHashMap<>();
@@ -138,7 +181,7 @@ public class NotesRepository {
 
     public static synchronized NotesRepository getInstance(@NonNull Context context) {
         if (instance == null) {
-            instance = new NotesRepository(context, NotesDatabase.getInstance(context.getApplicationContext()), Executors.newCachedThreadPool(), Executors.newSingleThreadExecutor(), Executors.newSingleThreadExecutor(), ApiProvider.getInstance());
+            instance = new NotesRepository(context, NotesDatabase.getInstance(context.getApplicationContext()), AppExecutors.getInstance().io(), AppExecutors.getInstance().sync(), AppExecutors.getInstance().sync(), ApiProvider.getInstance());
         }
         return instance;
     }
@@ -147,20 +190,26 @@ public class NotesRepository {
         this.context = context.getApplicationContext();
         this.db = db;
         this.executor = executor;
-        this.syncExecutor = syncExecutor;
+        this.syncScheduler = new SyncScheduler(syncExecutor, AppExecutors.getInstance().scheduler(), MAX_PARALLEL_SYNCS, PUSH_DEBOUNCE_MILLIS, () -> syncStatus.postValue(false));
+        this.saveQueue = new NoteSaveQueue(AppExecutors.getInstance().dbWrite());
         this.importExecutor = importExecutor;
+        this.importCheckpoints = new ImportCheckpoints(this.context);
         this.apiProvider = apiProvider;
         this.defaultNonEmptyTitle = NoteUtil.generateNonEmptyNoteTitle("", this.context);
         this.syncOnlyOnWifiKey = context.getApplicationContext().getResources().getString(R.string.pref_key_wifi_only);
 
         // Registers BroadcastReceiver to track network connection changes.
         this.context.registerReceiver(networkReceiver, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+        // Section days are local days, the time zone might also have changed while the app was not running
+        this.context.registerReceiver(timeZoneReceiver, new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED));
+        executor.submit(() -> updateSectionDaysIfTimeZoneChanged());
 
         final var prefs = PreferenceManager.getDefaultSharedPreferences(this.context);
         prefs.registerOnSharedPreferenceChangeListener(onSharedPreferenceChangeListener);
         syncOnlyOnWifi = prefs.getBoolean(syncOnlyOnWifiKey, false);
 
         updateNetworkStatus();
+        resumeInterruptedImports();
     }
 
 
@@ -173,13 +222,17 @@ public class NotesRepository {
             callback.onError(new Exception("Could not read created account."));
         } else {
             if (isSyncPossible()) {
-                syncActive.put(account.getId(), true);
+                // Synchronizing while importing would create duplicates
+                syncScheduler.hold(account.getId());
                 try {
                     Log.d(TAG, "… starting now");
                     final NotesImportTask importTask = new NotesImportTask(context, this, account, importExecutor, apiProvider);
+                    importCheckpoints.start(account.getId());
                     return importTask.importNotes(new IResponseCallback<>() {
                         @Override
                         public void onSuccess(Void result) {
+                            importCheckpoints.finish(account.getId());
+                            syncScheduler.release(account.getId());
                             callback.onSuccess(account);
                         }
 
@@ -187,6 +240,7 @@ public class NotesRepository {
                         public void onError(@NonNull Throwable t) {
                             Log.e(TAG, "… Error while importing " + account.getAccountName() + ": " + t.getMessage());
                             deleteAccount(account);
+                            syncScheduler.release(account.getId());
                             SingleAccountHelper.setCurrentAccount(context, null);
                             callback.onError(t);
                         }
@@ -195,6 +249,7 @@ public class NotesRepository {
                     Log.e(TAG, "… Could not find " + SingleSignOnAccount.class.getSimpleName() + " for account name " + account.getAccountName());
                     importExecutor.submit(() -> {
                         deleteAccount(account);
+                        syncScheduler.release(account.getId());
                         SingleAccountHelper.setCurrentAccount(context, null);
                         callback.onError(e);
                     });
@@ -211,6 +266,60 @@ public class NotesRepository {
         return new MutableLiveData<>(new ImportStatus());
     }
 
+    /**
+     * Resumes imports which have been interrupted, for example because the process has been killed.
+     * Synchronizations of the affected {@link Account}s are held until the import has been finished, because synchronizing while importing would create duplicates.
+     */
+    private void resumeInterruptedImports() {
+        for (final long accountId : importCheckpoints.getPendingAccountIds()) {
+            syncScheduler.hold(accountId);
+            importExecutor.submit(() -> resumeImport(accountId));
+        }
+    }
+
+    @WorkerThread
+    private void resumeImport(long accountId) {
+        final var account = db.getAccountDao().getAccountById(accountId);
+        if (account == null) {
+            importCheckpoints.finish(accountId);
+            syncScheduler.release(accountId);
+            return;
+        }
+        if (!isSyncPossible()) {
+            Log.i(TAG, "Can not resume import of " + account.getAccountName() + " without network, trying again with the next start.");
+            syncScheduler.release(accountId);
+            return;
+        }
+        final int attempts = importCheckpoints.resume(accountId);
+        if (attempts > MAX_IMPORT_ATTEMPTS) {
+            Log.w(TAG, "Giving up import of " + account.getAccountName() + " after " + MAX_IMPORT_ATTEMPTS + " attempts, remaining notes will be pulled by the next synchronization.");
+            importCheckpoints.finish(accountId);
+            syncScheduler.release(accountId);
+            return;
+        }
+        Log.i(TAG, "Resuming import of " + account.getAccountName() + ", attempt " + attempts + " of " + MAX_IMPORT_ATTEMPTS);
+        try {
+            new NotesImportTask(context, this, account, importExecutor, apiProvider).importNotes(new IResponseCallback<>() {
+                @Override
+                public void onSuccess(Void result) {
+                    importCheckpoints.finish(accountId);
+                    syncScheduler.release(accountId);
+                }
+
+                @Override
+                public void onError(@NonNull Throwable t) {
+                    // Keep the already imported notes and the checkpoint, the import will be resumed with the next start
+                    Log.e(TAG, "… Error while resuming import of " + account.getAccountName() + ": " + t.getMessage());
+                    syncScheduler.release(accountId);
+                }
+            });
+        } catch (NextcloudFilesAppAccountNotFoundException e) {
+            Log.e(TAG, "… Could not find " + SingleSignOnAccount.class.getSimpleName() + " for account name " + account.getAccountName());
+            importCheckpoints.finish(accountId);
+            syncScheduler.release(accountId);
+        }
+    }
+
     @WorkerThread
     public List<Account> getAccounts() {
         return db.getAccountDao().getAccounts();
@@ -224,14 +333,18 @@ public class NotesRepository {
             e.printStackTrace();
             apiProvider.invalidateAPICache();
         }
+        ResponseCache.getInstance(context).invalidate(account.getAccountName());
+        importCheckpoints.finish(account.getId());
 
         db.getAccountDao().deleteAccount(account);
     }
 
+    @WorkerThread
     public Account getAccountByName(String accountName) {
         return db.getAccountDao().getAccountByName(accountName);
     }
 
+    @WorkerThread
     public Account getAccountById(long accountId) {
         return db.getAccountDao().getAccountById(accountId);
     }
@@ -267,10 +380,33 @@ public class NotesRepository {
 
     // Notes
 
+    /**
+     * Recalculates the {@link Note#getSectionDay()} of all {@link Note}s if the default time zone differs from the one they have been calculated in.
+     */
+    @WorkerThread
+    public void updateSectionDaysIfTimeZoneChanged() {
+        final var prefs = PreferenceManager.getDefaultSharedPreferences(context);
+        final var timeZoneId = TimeZone.getDefault().getID();
+        if (timeZoneId.equals(prefs.getString(PREF_KEY_SECTION_DAY_TIME_ZONE, null))) {
+            return;
+        }
+        Log.i(TAG, "Recalculating section days for time zone " + timeZoneId);
+        db.runInTransaction(() -> {
+            for (final var note : db.getNoteDao().getModifiedAndSectionDay()) {
+                final long sectionDay = generateSectionDay(note.getModifiedMillis());
+                if (sectionDay != note.getSectionDay()) {
+                    db.getNoteDao().updateSectionDay(note.getId(), sectionDay);
+                }
+            }
+        });
+        prefs.edit().putString(PREF_KEY_SECTION_DAY_TIME_ZONE, timeZoneId).apply();
+    }
+
     public LiveData<Note> getNoteById$(long id) {
         return db.getNoteDao().getNoteById$(id);
     }
 
+    @WorkerThread
     public Note getNoteById(long id) {
         return db.getNoteDao().getNoteById(id);
     }
@@ -283,6 +419,7 @@ public class NotesRepository {
         return db.getNoteDao().countFavorites$(accountId);
     }
 
+    @WorkerThread
     public void updateScrollY(long id, int scrollY) {
         db.getNoteDao().updateScrollY(id, scrollY);
     }
@@ -291,52 +428,69 @@ public class NotesRepository {
         return db.getNoteDao().searchCategories$(accountId, searchTerm);
     }
 
-    public LiveData<List<Note>> searchRecentByModified$(long accountId, String query) {
-        return db.getNoteDao().searchRecentByModified$(accountId, query);
+    public List<Note> searchRecentByModified(long accountId, String query, String substringQuery) {
+        return db.getNoteDao().searchRecentByModified(accountId, query, substringQuery);
     }
 
-    public List<Note> searchRecentByModified(long accountId, String query) {
-        return db.getNoteDao().searchRecentByModified(accountId, query);
+    public List<Note> searchFavoritesByModified(long accountId, String query, String substringQuery) {
+        return db.getNoteDao().searchFavoritesByModified(accountId, query, substringQuery);
     }
 
-    public LiveData<List<Note>> searchRecentLexicographically$(long accountId, String query) {
-        return db.getNoteDao().searchRecentLexicographically$(accountId, query);
+    public List<Note> searchUncategorizedByModified(long accountId, String query, String substringQuery) {
+        return db.getNoteDao().searchUncategorizedByModified(accountId, query, substringQuery);
     }
 
-    public LiveData<List<Note>> searchFavoritesByModified$(long accountId, String query) {
-        return db.getNoteDao().searchFavoritesByModified$(accountId, query);
+    public List<Note> searchCategoryByModified(long accountId, String query, String substringQuery, String category) {
+        return db.getNoteDao().searchCategoryByModified(accountId, query, substringQuery, category);
+    }
+
+    @WorkerThread
+    public List<NoteListItem> getRecentPageByModified(long accountId, boolean favorite, String query, String substringQuery, long afterModified, long afterId, int limit) {
+        return db.getNoteDao().getRecentPageByModified(accountId, favorite, query, substringQuery, afterModified, afterId, limit);
     }
 
-    public List<Note> searchFavoritesByModified(long accountId, String query) {
-        return db.getNoteDao().searchFavoritesByModified(accountId, query);
+    @WorkerThread
+    public List<NoteListItem> getRecentPageWithoutModified(long accountId, boolean favorite, String query, String substringQuery, long afterId, int limit) {
+        return db.getNoteDao().getRecentPageWithoutModified(accountId, favorite, query, substringQuery, afterId, limit);
     }
 
-    public LiveData<List<Note>> searchFavoritesLexicographically$(long accountId, String query) {
-        return db.getNoteDao().searchFavoritesLexicographically$(accountId, query);
+    @WorkerThread
+    public List<NoteListItem> getRecentPageLexicographically(long accountId, boolean favorite, String query, String substringQuery, String afterTitle, long afterId, int limit) {
+        return db.getNoteDao().getRecentPageLexicographically(accountId, favorite, query, substringQuery, afterTitle, afterId, limit);
     }
 
-    public LiveData<List<Note>> searchUncategorizedByModified$(long accountId, String query) {
-        return db.getNoteDao().searchUncategorizedByModified$(accountId, query);
+    @WorkerThread
+    public List<NoteListItem> getCategoryPageByModified(long accountId, String category, boolean favorite, String query, String substringQuery, long afterModified, long afterId, int limit) {
+        return db.getNoteDao().getCategoryPageByModified(accountId, category, favorite, query, substringQuery, afterModified, afterId, limit);
     }
 
-    public List<Note> searchUncategorizedByModified(long accountId, String query) {
-        return db.getNoteDao().searchUncategorizedByModified(accountId, query);
+    @WorkerThread
+    public List<NoteListItem> getCategoryPageWithoutModified(long accountId, String category, boolean favorite, String query, String substringQuery, long afterId, int limit) {
+        return db.getNoteDao().getCategoryPageWithoutModified(accountId, category, favorite, query, substringQuery, afterId, limit);
     }
 
-    public LiveData<List<Note>> searchUncategorizedLexicographically$(long accountId, String query) {
-        return db.getNoteDao().searchUncategorizedLexicographically$(accountId, query);
+    @WorkerThread
+    public List<NoteListItem> getCategoryPageLexicographically(long accountId, String category, boolean favorite, String query, String substringQuery, String afterTitle, long afterId, int limit) {
+        return db.getNoteDao().getCategoryPageLexicographically(accountId, category, favorite, query, substringQuery, afterTitle, afterId, limit);
     }
 
-    public LiveData<List<Note>> searchCategoryByModified$(long accountId, String query, String category) {
-        return db.getNoteDao().searchCategoryByModified$(accountId, query, category);
+    @WorkerThread
+    @Nullable
+    public String getNextCategory(long accountId, @NonNull String category, @NonNull String afterCategory) {
+        return db.getNoteDao().getNextCategory(accountId, category, afterCategory);
     }
 
-    public List<Note> searchCategoryByModified(long accountId, String query, String category) {
-        return db.getNoteDao().searchCategoryByModified(accountId, query, category);
+    /**
+     * The <code>observer</code> will be notified about each change of any {@link Note} until it gets removed by {@link #removeNotesObserver(InvalidationTracker.Observer)}.
+     */
+    @AnyThread
+    public void addNotesObserver(@NonNull InvalidationTracker.Observer observer) {
+        db.getInvalidationTracker().addObserver(observer);
     }
 
-    public LiveData<List<Note>> searchCategoryLexicographically$(long accountId, String query, String category) {
-        return db.getNoteDao().searchCategoryLexicographically$(accountId, query, category);
+    @AnyThread
+    public void removeNotesObserver(@NonNull InvalidationTracker.Observer observer) {
+        db.getInvalidationTracker().removeObserver(observer);
     }
 
     public LiveData<List<CategoryWithNotesCount>> getCategories$(Long accountId) {
@@ -351,6 +505,7 @@ public class NotesRepository {
         return db.getNoteDao().getLocalIdByRemoteId(accountId, remoteId);
     }
 
+    @WorkerThread
     public List<Note> getLocalModifiedNotes(long accountId) {
         return db.getNoteDao().getLocalModifiedNotes(accountId);
     }
@@ -363,13 +518,65 @@ public class NotesRepository {
      * Please note, that db.updateNote() realized an optimistic conflict resolution, which is required for parallel changes of this Note from the UI.
      */
     public int updateIfNotModifiedLocallyDuringSync(long noteId, Long targetModified, String targetTitle, boolean targetFavorite, String targetETag, String targetContent, String targetExcerpt, String contentBeforeSyncStart, String categoryBeforeSyncStart, boolean favoriteBeforeSyncStart) {
-        return db.getNoteDao().updateIfNotModifiedLocallyDuringSync(noteId, targetModified, targetTitle, targetFavorite, targetETag, targetContent, targetExcerpt, contentBeforeSyncStart, categoryBeforeSyncStart, favoriteBeforeSyncStart);
+        return db.getNoteDao().updateIfNotModifiedLocallyDuringSync(noteId, targetModified, targetTitle, targetFavorite, targetETag, targetContent, targetExcerpt, contentBeforeSyncStart, categoryBeforeSyncStart, favoriteBeforeSyncStart, generateSectionInitial(targetTitle), generateSortTitle(targetTitle), generateSectionDay(targetModified));
     }
 
     public int updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(long id, Long modified, String title, boolean favorite, String category, String eTag, String content, String excerpt) {
-        return db.getNoteDao().updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(id, modified, title, favorite, category, eTag, content, excerpt);
+        return db.getNoteDao().updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(id, modified, title, favorite, category, eTag, content, excerpt, generateSectionInitial(title), generateSortTitle(title), generateSectionDay(modified));
     }
 
+    /**
+     * Applies a chunk of pulled remote {@link Note}s within a single transaction, so observers get invalidated only once per chunk instead of once per {@link Note}.
+     * Existing {@link Note}s will only be updated if they have not been modified locally and any remote column has changed.
+     *
+     * @param accountId    the {@link Account} the {@link Note}s belong to
+     * @param createdNotes remote {@link Note}s which do not exist locally yet
+     * @param updatedNotes remote {@link Note}s which already have the {@link Note#getId()} of their local pendant set
+     * @return count of actually updated {@link Note}s
+     */
+    @WorkerThread
+    public int applyRemoteNotes(long accountId, @NonNull List<Note> createdNotes, @NonNull List<Note> updatedNotes) {
+        for (final var note : createdNotes) {
+            note.setAccountId(accountId);
+            note.setExcerpt(generateNoteExcerpt(note.getContent(), note.getTitle()));
+            note.setSectionInitial(generateSectionInitial(note.getTitle()));
+            note.setSortTitle(generateSortTitle(note.getTitle()));
+            note.setSectionDay(generateSectionDay(note.getModifiedMillis()));
+        }
+        for (final var note : updatedNotes) {
+            note.setExcerpt(generateNoteExcerpt(note.getContent(), note.getTitle()));
+            note.setSectionInitial(generateSectionInitial(note.getTitle()));
+            note.setSortTitle(generateSortTitle(note.getTitle()));
+            note.setSectionDay(generateSectionDay(note.getModifiedMillis()));
+        }
+        return db.runInTransaction(() -> {
+            int updatedCount = 0;
+            for (final var note : updatedNotes) {
+                updatedCount += db.getNoteDao().updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(
+                        note.getId(), Objects.requireNonNull(note.getModifiedMillis()), note.getTitle(), note.getFavorite(), note.getCategory(), note.getETag(), note.getContent(), note.getExcerpt(), note.getSectionInitial(), note.getSortTitle(), note.getSectionDay());
+            }
+            if (!createdNotes.isEmpty()) {
+                db.getNoteDao().addNotes(createdNotes);
+            }
+            return updatedCount;
+        });
+    }
+
+    /**
+     * Deletes all given {@link Note}s within a single transaction, but only if they still have the {@param forceDBStatus}.
+     */
+    @WorkerThread
+    public void deleteByNoteIds(@NonNull List<Long> ids, DBStatus forceDBStatus) {
+        // One variable is needed for the forceDBStatus
+        final int chunkSize = NotesDatabase.SQLITE_MAX_VARIABLE_NUMBER - 1;
+        db.runInTransaction(() -> {
+            for (int i = 0; i < ids.size(); i += chunkSize) {
+                db.getNoteDao().deleteByNoteIds(ids.subList(i, Math.min(i + chunkSize, ids.size())), forceDBStatus);
+            }
+        });
+    }
+
+    @WorkerThread
     public long countUnsynchronizedNotes(long accountId) {
         final Long unsynchronizedNotesCount = db.getNoteDao().countUnsynchronizedNotes(accountId);
         return unsynchronizedNotesCount == null ? 0 : unsynchronizedNotesCount;
@@ -378,14 +585,17 @@ public class NotesRepository {
 
     // SingleNoteWidget
 
+    @WorkerThread
     public void createOrUpdateSingleNoteWidgetData(SingleNoteWidgetData data) {
         db.getWidgetSingleNoteDao().createOrUpdateSingleNoteWidgetData(data);
     }
 
+    @WorkerThread
     public void removeSingleNoteWidget(int id) {
         db.getWidgetSingleNoteDao().removeSingleNoteWidget(id);
     }
 
+    @WorkerThread
     public SingleNoteWidgetData getSingleNoteWidgetData(int id) {
         return db.getWidgetSingleNoteDao().getSingleNoteWidgetData(id);
     }
@@ -393,18 +603,43 @@ public class NotesRepository {
 
     // ListWidget
 
+    @WorkerThread
     public void createOrUpdateNoteListWidgetData(NotesListWidgetData data) {
         db.getWidgetNotesListDao().createOrUpdateNoteListWidgetData(data);
     }
 
+    @WorkerThread
     public void removeNoteListWidget(int appWidgetId) {
         db.getWidgetNotesListDao().removeNoteListWidget(appWidgetId);
     }
 
+    @WorkerThread
     public NotesListWidgetData getNoteListWidgetData(int appWidgetId) {
         return db.getWidgetNotesListDao().getNoteListWidgetData(appWidgetId);
     }
 
+
+    // SyncMetrics
+
+    /**
+     * Stores the {@link SyncMetrics} of a synchronization and deletes the oldest ones, so at most {@link #SYNC_METRICS_HISTORY_SIZE} are kept per {@link Account}.
+     */
+    @WorkerThread
+    public void addSyncMetrics(@NonNull SyncMetrics metrics) {
+        db.runInTransaction(() -> {
+            db.getSyncMetricsDao().addSyncMetrics(metrics);
+            db.getSyncMetricsDao().deleteOldSyncMetrics(metrics.getAccountId(), SYNC_METRICS_HISTORY_SIZE);
+        });
+    }
+
+    /**
+     * @return the {@link SyncMetrics} of the most recent synchronizations of the given {@link Account}, the latest first
+     */
+    @AnyThread
+    public LiveData<List<SyncMetrics>> getSyncMetrics$(long accountId) {
+        return db.getSyncMetricsDao().getSyncMetrics$(accountId);
+    }
+
     /**
      * Creates a new Note in the Database and adds a Synchronization Flag.
      *
@@ -436,6 +671,9 @@ public class NotesRepository {
     public Note addNote(long accountId, @NonNull Note note) {
         note.setAccountId(accountId);
         note.setExcerpt(generateNoteExcerpt(note.getContent(), note.getTitle()));
+        note.setSectionInitial(generateSectionInitial(note.getTitle()));
+        note.setSortTitle(generateSortTitle(note.getTitle()));
+        note.setSectionDay(generateSectionDay(note.getModifiedMillis()));
         return db.getNoteDao().getNoteById(db.getNoteDao().addNote(note));
     }
 
@@ -460,6 +698,19 @@ public class NotesRepository {
                 .collect(toMap(Note::getRemoteId, Note::getId));
     }
 
+    /**
+     * @return a {@link Map} of remote IDs as keys and {@link Note}s with filled {@link Note#getId()}, {@link Note#getETag()} and {@link Note#getModified()}
+     * as values of all {@link Note}s of the given {@param accountId} which are not {@link DBStatus#LOCAL_DELETED}
+     */
+    @NonNull
+    @WorkerThread
+    public Map<Long, Note> getSyncManifest(long accountId) {
+        return db.getNoteDao()
+                .getSyncManifest(accountId)
+                .stream()
+                .collect(toMap(Note::getRemoteId, note -> note));
+    }
+
     @AnyThread
     public void toggleFavoriteAndSync(Account account, long noteId) {
         executor.submit(() -> {
@@ -479,9 +730,26 @@ public class NotesRepository {
      */
     @AnyThread
     public void setCategory(@NonNull Account account, long noteId, @NonNull String category) {
+        setCategory(account, Collections.singletonList(noteId), category);
+    }
+
+    /**
+     * Sets the category of all given {@param noteIds} within a single transaction and schedules one synchronization afterwards.
+     */
+    @AnyThread
+    public void setCategory(@NonNull Account account, @NonNull Collection<Long> noteIds, @NonNull String category) {
+        final var ids = new ArrayList<>(noteIds);
         executor.submit(() -> {
-            db.getNoteDao().updateStatus(noteId, DBStatus.LOCAL_EDITED);
-            db.getNoteDao().updateCategory(noteId, category);
+            // One variable is needed for the status respectively the category
+            final int chunkSize = NotesDatabase.SQLITE_MAX_VARIABLE_NUMBER - 1;
+            db.runInTransaction(() -> {
+                for (int i = 0; i < ids.size(); i += chunkSize) {
+                    final var chunk = ids.subList(i, Math.min(i + chunkSize, ids.size()));
+                    db.getNoteDao().updateStatus(chunk, DBStatus.LOCAL_EDITED);
+                    db.getNoteDao().updateCategory(chunk, category);
+                }
+            });
+            notifyWidgets();
             scheduleSync(account, true);
         });
     }
@@ -519,6 +787,9 @@ public class NotesRepository {
             }
             newNote = new Note(oldNote.getId(), remoteId, Calendar.getInstance(), title, newContent, oldNote.getCategory(), oldNote.getFavorite(), oldNote.getETag(), DBStatus.LOCAL_EDITED, localAccount.getId(), generateNoteExcerpt(newContent, title), oldNote.getScrollY());
         }
+        newNote.setSectionInitial(generateSectionInitial(newNote.getTitle()));
+        newNote.setSortTitle(generateSortTitle(newNote.getTitle()));
+        newNote.setSectionDay(generateSectionDay(newNote.getModifiedMillis()));
         int rows = db.getNoteDao().updateNote(newNote);
         // if data was changed, set new status and schedule sync (with callback); otherwise invoke callback directly.
         if (rows > 0) {
@@ -536,6 +807,17 @@ public class NotesRepository {
         }
     }
 
+    /**
+     * Like {@link #updateNoteAndSync(Account, Note, String, String, ISyncCallback)}, but persists the changes on a background thread.
+     * Saves of the same {@link Note} are persisted one after another, a save which is still waiting gets replaced by a newer one, see {@link NoteSaveQueue}.
+     *
+     * @return {@link LiveData} which emits the saved {@link Note} once it has been persisted, or <code>null</code> if saving failed
+     */
+    @AnyThread
+    public LiveData<Note> saveNoteAndSync(@NonNull Account localAccount, @NonNull Note oldNote, @Nullable String newContent, @Nullable String newTitle, @Nullable ISyncCallback callback) {
+        return saveQueue.enqueue(oldNote.getId(), queuedCallback -> updateNoteAndSync(localAccount, oldNote, newContent, newTitle, queuedCallback), callback);
+    }
+
     /**
      * Marks a Note in the Database as Deleted. In the next Synchronization it will be deleted
      * from the Server.
@@ -544,8 +826,23 @@ public class NotesRepository {
      */
     @AnyThread
     public void deleteNoteAndSync(Account account, long id) {
+        deleteNotesAndSync(account, Collections.singletonList(id));
+    }
+
+    /**
+     * Like {@link #deleteNoteAndSync(Account, long)}, but marks all given {@param noteIds} within a single transaction and schedules one synchronization afterwards.
+     */
+    @AnyThread
+    public void deleteNotesAndSync(Account account, @NonNull Collection<Long> noteIds) {
+        final var ids = new ArrayList<>(noteIds);
         executor.submit(() -> {
-            db.getNoteDao().updateStatus(id, DBStatus.LOCAL_DELETED);
+            // One variable is needed for the status
+            final int chunkSize = NotesDatabase.SQLITE_MAX_VARIABLE_NUMBER - 1;
+            db.runInTransaction(() -> {
+                for (int i = 0; i < ids.size(); i += chunkSize) {
+                    db.getNoteDao().updateStatus(ids.subList(i, Math.min(i + chunkSize, ids.size())), DBStatus.LOCAL_DELETED);
+                }
+            });
             notifyWidgets();
             scheduleSync(account, true);
 
@@ -553,10 +850,12 @@ public class NotesRepository {
                 final var shortcutManager = context.getSystemService(ShortcutManager.class);
                 if (shortcutManager != null) {
                     shortcutManager.getPinnedShortcuts().forEach((shortcut) -> {
-                        final String shortcutId = String.valueOf(id);
-                        if (shortcut.getId().equals(shortcutId)) {
-                            Log.v(TAG, "Removing shortcut for " + shortcutId);
-                            shortcutManager.disableShortcuts(Collections.singletonList(shortcutId), context.getResources().getString(R.string.note_has_been_deleted));
+                        for (final var id : ids) {
+                            final String shortcutId = String.valueOf(id);
+                            if (shortcut.getId().equals(shortcutId)) {
+                                Log.v(TAG, "Removing shortcut for " + shortcutId);
+                                shortcutManager.disableShortcuts(Collections.singletonList(shortcutId), context.getResources().getString(R.string.note_has_been_deleted));
+                            }
                         }
                     });
                 } else {
@@ -614,6 +913,7 @@ public class NotesRepository {
     /**
      * @param raw has to be a JSON array as a string <code>["0.2", "1.0", ...]</code>
      */
+    @WorkerThread
     public void updateApiVersion(long accountId, @Nullable String raw) {
         final var apiVersions = ApiVersionUtil.parse(raw);
         if (apiVersions.size() > 0) {
@@ -802,8 +1102,8 @@ public class NotesRepository {
     }
 
     /**
-     * Schedules a synchronization and start it directly, if the network is connected and no
-     * synchronization is currently running.
+     * Schedules a synchronization and starts it as soon as no other synchronization of this {@link Account} is running, if the network is connected.
+     * Synchronizations of different {@link Account}s run in parallel, see {@link SyncScheduler}.
      *
      * @param onlyLocalChanges Whether to only push local changes to the server or to also load the whole list of notes from the server.
      */
@@ -811,88 +1111,72 @@ public class NotesRepository {
         if (account == null) {
             Log.i(TAG, SingleSignOnAccount.class.getSimpleName() + " is null. Is this a local account?");
         } else {
-            if (syncActive.get(account.getId()) == null) {
-                syncActive.put(account.getId(), false);
+            Log.d(TAG, "Sync requested (" + (onlyLocalChanges ? "onlyLocalChanges" : "full") + ") ...");
+            if (!isSyncPossible()) {
+                Log.d(TAG, "... do nothing");
+                notifyPushCallbacksScheduled(account);
+            } else if (syncScheduler.schedule(account.getId(), onlyLocalChanges, onlyLocal -> createSyncTask(account, onlyLocal))) {
+                Log.d(TAG, "... starting now");
+            } else {
+                Log.d(TAG, "... scheduled");
+                notifyPushCallbacksScheduled(account);
             }
-            Log.d(TAG, "Sync requested (" + (onlyLocalChanges ? "onlyLocalChanges" : "full") + "; " + (Boolean.TRUE.equals(syncActive.get(account.getId())) ? "sync active" : "sync NOT active") + ") ...");
-            if (isSyncPossible() && (!Boolean.TRUE.equals(syncActive.get(account.getId())) || onlyLocalChanges)) {
-                syncActive.put(account.getId(), true);
-                try {
-                    Log.d(TAG, "... starting now");
-                    final NotesServerSyncTask syncTask = new NotesServerSyncTask(context, this, account, onlyLocalChanges, apiProvider) {
-                        @Override
-                        void onPreExecute() {
-                            syncStatus.postValue(true);
-                            if (!syncScheduled.containsKey(localAccount.getId()) || syncScheduled.get(localAccount.getId()) == null) {
-                                syncScheduled.put(localAccount.getId(), false);
-                            }
-                            if (!onlyLocalChanges && Boolean.TRUE.equals(syncScheduled.get(localAccount.getId()))) {
-                                syncScheduled.put(localAccount.getId(), false);
-                            }
-                        }
+        }
+    }
 
-                        @Override
-                        void onPostExecute(SyncResultStatus status) {
-                            for (Throwable e : exceptions) {
-                                Log.e(TAG, e.getMessage(), e);
-                            }
-                            if (!status.pullSuccessful || !status.pushSuccessful) {
-                                syncErrors.postValue(exceptions);
-                            }
-                            syncActive.put(localAccount.getId(), false);
-                            // notify callbacks
-                            if (callbacks.containsKey(localAccount.getId()) && callbacks.get(localAccount.getId()) != null) {
-                                for (ISyncCallback callback : Objects.requireNonNull(callbacks.get(localAccount.getId()))) {
-                                    callback.onFinish();
-                                }
-                            }
-                            notifyWidgets();
-                            updateDynamicShortcuts(localAccount.getId());
-                            // start next sync if scheduled meanwhile
-                            if (syncScheduled.containsKey(localAccount.getId()) && syncScheduled.get(localAccount.getId()) != null && Boolean.TRUE.equals(syncScheduled.get(localAccount.getId()))) {
-                                scheduleSync(localAccount, false);
-                            }
-                            syncStatus.postValue(false);
-                        }
-                    };
-                    syncTask.addCallbacks(account, callbacksPush.get(account.getId()));
-                    callbacksPush.put(account.getId(), new ArrayList<>());
-                    if (!onlyLocalChanges) {
-                        syncTask.addCallbacks(account, callbacksPull.get(account.getId()));
-                        callbacksPull.put(account.getId(), new ArrayList<>());
-                    }
-                    syncExecutor.submit(syncTask);
-                } catch (NextcloudFilesAppAccountNotFoundException e) {
-                    Log.e(TAG, "... Could not find " + SingleSignOnAccount.class.getSimpleName() + " for account name " + account.getAccountName());
-                    e.printStackTrace();
-                }
-            } else if (!onlyLocalChanges) {
-                Log.d(TAG, "... scheduled");
-                syncScheduled.put(account.getId(), true);
-                if (callbacksPush.containsKey(account.getId()) && callbacksPush.get(account.getId()) != null) {
-                    final var callbacks = callbacksPush.get(account.getId());
-                    if (callbacks != null) {
-                        for (final var callback : callbacks) {
-                            callback.onScheduled();
-                        }
-                    } else {
-                        Log.w(TAG, "List of push-callbacks was set for account \"" + account.getAccountName() + "\" but it was null");
-                    }
+    private void notifyPushCallbacksScheduled(@NonNull Account account) {
+        if (callbacksPush.containsKey(account.getId()) && callbacksPush.get(account.getId()) != null) {
+            final var callbacks = callbacksPush.get(account.getId());
+            if (callbacks != null) {
+                for (final var callback : callbacks) {
+                    callback.onScheduled();
                 }
             } else {
-                Log.d(TAG, "... do nothing");
-                if (callbacksPush.containsKey(account.getId()) && callbacksPush.get(account.getId()) != null) {
-                    final var callbacks = callbacksPush.get(account.getId());
-                    if (callbacks != null) {
-                        for (final var callback : callbacks) {
-                            callback.onScheduled();
-                        }
-                    } else {
-                        Log.w(TAG, "List of push-callbacks was set for account \"" + account.getAccountName() + "\" but it was null");
+                Log.w(TAG, "List of push-callbacks was set for account \"" + account.getAccountName() + "\" but it was null");
+            }
+        }
+    }
+
+    /**
+     * Creates the {@link NotesServerSyncTask} right before it is started by the {@link SyncScheduler} and hands over the callbacks which have been added until then.
+     */
+    @NonNull
+    private NotesServerSyncTask createSyncTask(@NonNull Account account, boolean onlyLocalChanges) throws NextcloudFilesAppAccountNotFoundException {
+        final NotesServerSyncTask syncTask = new NotesServerSyncTask(context, this, account, onlyLocalChanges, apiProvider) {
+            @Override
+            void onPreExecute() {
+                syncStatus.postValue(true);
+            }
+
+            @Override
+            void onPostExecute(SyncResultStatus status) {
+                for (Throwable e : exceptions) {
+                    Log.e(TAG, e.getMessage(), e);
+                }
+                if (!status.pullSuccessful || !status.pushSuccessful) {
+                    syncErrors.postValue(exceptions);
+                }
+                if (!onlyLocalChanges) {
+                    // Pulling might have written a huge amount of notes to the write-ahead log
+                    db.checkpoint();
+                }
+                // notify callbacks
+                if (callbacks.containsKey(localAccount.getId()) && callbacks.get(localAccount.getId()) != null) {
+                    for (ISyncCallback callback : Objects.requireNonNull(callbacks.get(localAccount.getId()))) {
+                        callback.onFinish();
                     }
                 }
+                notifyWidgets();
+                updateDynamicShortcuts(localAccount.getId());
             }
+        };
+        syncTask.addCallbacks(account, callbacksPush.get(account.getId()));
+        callbacksPush.put(account.getId(), new ArrayList<>());
+        if (!onlyLocalChanges) {
+            syncTask.addCallbacks(account, callbacksPull.get(account.getId()));
+            callbacksPull.put(account.getId(), new ArrayList<>());
         }
+        return syncTask;
     }
 
     public void updateNetworkStatus() {
@@ -944,11 +1228,17 @@ public class NotesRepository {
         return this.syncErrors;
     }
 
-    public Call<NotesSettings> getServerSettings(@NonNull SingleSignOnAccount ssoAccount, @Nullable ApiVersion preferredApiVersion) {
-        return ApiProvider.getInstance().getNotesAPI(context, ssoAccount, preferredApiVersion).getSettings();
+    /**
+     * Serves the {@link NotesSettings} from the {@link ResponseCache} while they are fresh and revalidates them otherwise.
+     */
+    @WorkerThread
+    public Response<NotesSettings> getServerSettings(@NonNull SingleSignOnAccount ssoAccount, @Nullable ApiVersion preferredApiVersion) throws Throwable {
+        final var notesAPI = ApiProvider.getInstance().getNotesAPI(context, ssoAccount, preferredApiVersion);
+        return ResponseCache.getInstance(context).get(ssoAccount.name, RESOURCE_SETTINGS, NotesSettings.class, (eTag, lastModified) -> notesAPI.getSettings(eTag, lastModified).execute());
     }
 
     public Call<NotesSettings> putServerSettings(@NonNull SingleSignOnAccount ssoAccount, @NonNull NotesSettings settings, @Nullable ApiVersion preferredApiVersion) {
+        ResponseCache.getInstance(context).invalidate(ssoAccount.name, RESOURCE_SETTINGS);
         return ApiProvider.getInstance().getNotesAPI(context, ssoAccount, preferredApiVersion).putSettings(settings);
     }
 
@@ -4,6 +4,7 @@ import android.content.Context;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.nextcloud.android.sso.AccountImporter;
 import com.nextcloud.android.sso.api.ParsedResponse;
@@ -13,6 +14,7 @@ import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
 import com.nextcloud.android.sso.exceptions.TokenMismatchException;
 import com.nextcloud.android.sso.model.SingleSignOnAccount;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
@@ -20,7 +22,11 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import it.niedermann.owncloud.notes.BuildConfig;
 import it.niedermann.owncloud.notes.persistence.entity.Account;
@@ -30,6 +36,7 @@ import it.niedermann.owncloud.notes.shared.model.DBStatus;
 import it.niedermann.owncloud.notes.shared.model.ISyncCallback;
 import it.niedermann.owncloud.notes.shared.model.SyncResultStatus;
 import it.niedermann.owncloud.notes.shared.util.ApiVersionUtil;
+import it.niedermann.owncloud.notes.shared.util.AppExecutors;
 import retrofit2.Response;
 
 import static it.niedermann.owncloud.notes.shared.model.DBStatus.LOCAL_DELETED;
@@ -51,9 +58,35 @@ abstract class NotesServerSyncTask extends Thread {
     private static final String HEADER_KEY_ETAG = "ETag";
     private static final String HEADER_KEY_LAST_MODIFIED = "Last-Modified";
 
+    /**
+     * Count of pulled {@link Note}s which are written to the database within one transaction
+     */
+    private static final int PULL_CHUNK_SIZE = 100;
+
+    /**
+     * Maximum count of changed {@link Note}s which are fetched one by one, if more {@link Note}s changed, all {@link Note}s are pulled at once
+     */
+    private static final int DELTA_PULL_MAX_CHANGED_NOTES = 50;
+
+    /**
+     * Maximum count of changed {@link Note}s which are fetched from the server in parallel, so one pull does not occupy the whole {@link #networkExecutor}
+     */
+    private static final int PULL_THREAD_COUNT = 8;
+
+    /**
+     * Maximum count of {@link Note}s which are pushed to the server in parallel, so one push does not occupy the whole {@link #networkExecutor}
+     */
+    private static final int PUSH_THREAD_COUNT = 8;
+
     private NotesAPI notesAPI;
     @NonNull
     private final ApiProvider apiProvider;
+    /**
+     * Executes the parallel requests of {@link #pushLocalChanges()} and {@link #pullChangedRemoteNotes}.
+     * Must not be the {@link java.util.concurrent.Executor} this task runs on, because this task blocks while waiting for the requests.
+     */
+    @NonNull
+    private final ExecutorService networkExecutor;
     @NonNull
     private final Context context;
     @NonNull
@@ -67,8 +100,13 @@ abstract class NotesServerSyncTask extends Thread {
     protected final Map<Long, List<ISyncCallback>> callbacks = new HashMap<>();
     @NonNull
     protected final ArrayList<Throwable> exceptions = new ArrayList<>();
+    private SyncMetricsRecorder metrics;
 
     NotesServerSyncTask(@NonNull Context context, @NonNull NotesRepository repo, @NonNull Account localAccount, boolean onlyLocalChanges, @NonNull ApiProvider apiProvider) throws NextcloudFilesAppAccountNotFoundException {
+        this(context, repo, localAccount, onlyLocalChanges, apiProvider, AppExecutors.getInstance().network());
+    }
+
+    NotesServerSyncTask(@NonNull Context context, @NonNull NotesRepository repo, @NonNull Account localAccount, boolean onlyLocalChanges, @NonNull ApiProvider apiProvider, @NonNull ExecutorService networkExecutor) throws NextcloudFilesAppAccountNotFoundException {
         super(TAG);
         this.context = context;
         this.repo = repo;
@@ -76,6 +114,7 @@ abstract class NotesServerSyncTask extends Thread {
         this.ssoAccount = AccountImporter.getSingleSignOnAccount(context, localAccount.getAccountName());
         this.onlyLocalChanges = onlyLocalChanges;
         this.apiProvider = apiProvider;
+        this.networkExecutor = networkExecutor;
     }
 
     void addCallbacks(Account account, List<ISyncCallback> callbacks) {
@@ -90,13 +129,23 @@ abstract class NotesServerSyncTask extends Thread {
 
         Log.i(TAG, "STARTING SYNCHRONIZATION");
 
+        metrics = new SyncMetricsRecorder();
         final var status = new SyncResultStatus();
+        final long pushStart = SyncMetricsRecorder.now();
         status.pushSuccessful = pushLocalChanges();
+        metrics.addPushNanos(SyncMetricsRecorder.since(pushStart));
         if (!onlyLocalChanges) {
             status.pullSuccessful = pullRemoteChanges();
         }
 
-        Log.i(TAG, "SYNCHRONIZATION FINISHED");
+        final var syncMetrics = metrics.build(localAccount.getId(), onlyLocalChanges, status);
+        Log.i(TAG, "SYNCHRONIZATION FINISHED: " + syncMetrics);
+        try {
+            repo.addSyncMetrics(syncMetrics);
+        } catch (Throwable t) {
+            // Metrics are only collected for debugging and must never let a synchronization fail
+            Log.w(TAG, "Could not store " + syncMetrics, t);
+        }
 
         onPostExecute(status);
     }
@@ -107,106 +156,144 @@ abstract class NotesServerSyncTask extends Thread {
 
     /**
      * Push local changes: for each locally created/edited/deleted Note, use NotesClient in order to push the changed to the server.
+     * Up to {@link #PUSH_THREAD_COUNT} notes are pushed in parallel, while all requests regarding one single note are executed sequentially.
      */
     private boolean pushLocalChanges() {
         Log.d(TAG, "pushLocalChanges()");
 
-        boolean success = true;
         final var notes = repo.getLocalModifiedNotes(localAccount.getId());
-        for (Note note : notes) {
-            Log.d(TAG, "   Process Local Note: " + (BuildConfig.DEBUG ? note : note.getTitle()));
+        if (notes.isEmpty()) {
+            return true;
+        }
+        final var results = new ArrayList<Future<Boolean>>(notes.size());
+        boolean success = true;
+        for (int i = 0; i < notes.size(); i++) {
+            // Submit the next note whenever one finished, so at most PUSH_THREAD_COUNT are in flight
+            while (results.size() < Math.min(notes.size(), i + PUSH_THREAD_COUNT)) {
+                final var note = notes.get(results.size());
+                results.add(networkExecutor.submit(() -> pushLocalChange(note)));
+            }
             try {
-                Note remoteNote;
-                switch (note.getStatus()) {
-                    case LOCAL_EDITED:
-                        Log.v(TAG, "   ...create/edit");
-                        if (note.getRemoteId() != null) {
-                            Log.v(TAG, "   ...Note has remoteId → try to edit");
-                            final var editResponse = notesAPI.editNote(note).execute();
-                            if (editResponse.isSuccessful()) {
-                                remoteNote = editResponse.body();
-                                if (remoteNote == null) {
-                                    Log.e(TAG, "   ...Tried to edit \"" + note.getTitle() + "\" (#" + note.getId() + ") but the server response was null.");
-                                    throw new Exception("Server returned null after editing \"" + note.getTitle() + "\" (#" + note.getId() + ")");
-                                }
-                            } else if (editResponse.code() == HTTP_NOT_FOUND) {
-                                Log.v(TAG, "   ...Note does no longer exist on server → recreate");
-                                final var createResponse = notesAPI.createNote(note).execute();
-                                if (createResponse.isSuccessful()) {
-                                    remoteNote = createResponse.body();
-                                    if (remoteNote == null) {
-                                        Log.e(TAG, "   ...Tried to recreate \"" + note.getTitle() + "\" (#" + note.getId() + ") but the server response was null.");
-                                        throw new Exception("Server returned null after recreating \"" + note.getTitle() + "\" (#" + note.getId() + ")");
-                                    }
-                                } else {
-                                    throw new Exception(createResponse.message());
-                                }
-                            } else {
-                                throw new Exception(editResponse.message());
+                if (!results.get(i).get()) {
+                    success = false;
+                }
+            } catch (ExecutionException e) {
+                addException(e.getCause() == null ? e : e.getCause());
+                success = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                addException(e);
+                return false;
+            }
+        }
+        return success;
+    }
+
+    /**
+     * Pushes a single locally created/edited/deleted {@link Note} to the server.
+     *
+     * @return whether pushing this {@link Note} was successful
+     */
+    private boolean pushLocalChange(@NonNull Note note) {
+        Log.d(TAG, "   Process Local Note: " + (BuildConfig.DEBUG ? note : note.getTitle()));
+        try {
+            Note remoteNote;
+            switch (note.getStatus()) {
+                case LOCAL_EDITED:
+                    Log.v(TAG, "   ...create/edit");
+                    if (note.getRemoteId() != null) {
+                        Log.v(TAG, "   ...Note has remoteId → try to edit");
+                        final var editResponse = notesAPI.editNote(note).execute();
+                        addResponse(editResponse);
+                        if (editResponse.isSuccessful()) {
+                            remoteNote = editResponse.body();
+                            if (remoteNote == null) {
+                                Log.e(TAG, "   ...Tried to edit \"" + note.getTitle() + "\" (#" + note.getId() + ") but the server response was null.");
+                                throw new Exception("Server returned null after editing \"" + note.getTitle() + "\" (#" + note.getId() + ")");
                             }
-                        } else {
-                            Log.v(TAG, "   ...Note does not have a remoteId yet → create");
+                        } else if (editResponse.code() == HTTP_NOT_FOUND) {
+                            Log.v(TAG, "   ...Note does no longer exist on server → recreate");
                             final var createResponse = notesAPI.createNote(note).execute();
+                            addResponse(createResponse);
                             if (createResponse.isSuccessful()) {
                                 remoteNote = createResponse.body();
                                 if (remoteNote == null) {
-                                    Log.e(TAG, "   ...Tried to create \"" + note.getTitle() + "\" (#" + note.getId() + ") but the server response was null.");
-                                    throw new Exception("Server returned null after creating \"" + note.getTitle() + "\" (#" + note.getId() + ")");
+                                    Log.e(TAG, "   ...Tried to recreate \"" + note.getTitle() + "\" (#" + note.getId() + ") but the server response was null.");
+                                    throw new Exception("Server returned null after recreating \"" + note.getTitle() + "\" (#" + note.getId() + ")");
                                 }
-                                repo.updateRemoteId(note.getId(), remoteNote.getRemoteId());
                             } else {
                                 throw new Exception(createResponse.message());
                             }
+                        } else {
+                            throw new Exception(editResponse.message());
                         }
-                        // Please note, that db.updateNote() realized an optimistic conflict resolution, which is required for parallel changes of this Note from the UI.
-                        repo.updateIfNotModifiedLocallyDuringSync(note.getId(), remoteNote.getModified().getTimeInMillis(), remoteNote.getTitle(), remoteNote.getFavorite(), remoteNote.getETag(), remoteNote.getContent(), generateNoteExcerpt(remoteNote.getContent(), remoteNote.getTitle()), note.getContent(), note.getCategory(), note.getFavorite());
-                        break;
-                    case LOCAL_DELETED:
-                        if (note.getRemoteId() == null) {
-                            Log.v(TAG, "   ...delete (only local, since it has never been synchronized)");
+                    } else {
+                        Log.v(TAG, "   ...Note does not have a remoteId yet → create");
+                        final var createResponse = notesAPI.createNote(note).execute();
+                        addResponse(createResponse);
+                        if (createResponse.isSuccessful()) {
+                            remoteNote = createResponse.body();
+                            if (remoteNote == null) {
+                                Log.e(TAG, "   ...Tried to create \"" + note.getTitle() + "\" (#" + note.getId() + ") but the server response was null.");
+                                throw new Exception("Server returned null after creating \"" + note.getTitle() + "\" (#" + note.getId() + ")");
+                            }
+                            repo.updateRemoteId(note.getId(), remoteNote.getRemoteId());
                         } else {
-                            Log.v(TAG, "   ...delete (from server and local)");
-                            final var deleteResponse = notesAPI.deleteNote(note.getRemoteId()).execute();
-                            if (!deleteResponse.isSuccessful()) {
-                                if (deleteResponse.code() == HTTP_NOT_FOUND) {
-                                    Log.v(TAG, "   ...delete (note has already been deleted remotely)");
-                                } else {
-                                    throw new Exception(deleteResponse.message());
-                                }
+                            throw new Exception(createResponse.message());
+                        }
+                    }
+                    // Please note, that db.updateNote() realized an optimistic conflict resolution, which is required for parallel changes of this Note from the UI.
+                    repo.updateIfNotModifiedLocallyDuringSync(note.getId(), Objects.requireNonNull(remoteNote.getModifiedMillis()), remoteNote.getTitle(), remoteNote.getFavorite(), remoteNote.getETag(), remoteNote.getContent(), generateNoteExcerpt(remoteNote.getContent(), remoteNote.getTitle()), note.getContent(), note.getCategory(), note.getFavorite());
+                    break;
+                case LOCAL_DELETED:
+                    if (note.getRemoteId() == null) {
+                        Log.v(TAG, "   ...delete (only local, since it has never been synchronized)");
+                    } else {
+                        Log.v(TAG, "   ...delete (from server and local)");
+                        final var deleteResponse = notesAPI.deleteNote(note.getRemoteId()).execute();
+                        addResponse(deleteResponse);
+                        if (!deleteResponse.isSuccessful()) {
+                            if (deleteResponse.code() == HTTP_NOT_FOUND) {
+                                Log.v(TAG, "   ...delete (note has already been deleted remotely)");
+                            } else {
+                                throw new Exception(deleteResponse.message());
                             }
                         }
-                        // Please note, that db.deleteNote() realizes an optimistic conflict resolution, which is required for parallel changes of this Note from the UI.
-                        repo.deleteByNoteId(note.getId(), LOCAL_DELETED);
-                        break;
-                    default:
-                        throw new IllegalStateException("Unknown State of Note " + note + ": " + note.getStatus());
-                }
-            } catch (NextcloudHttpRequestFailedException e) {
-                if (e.getStatusCode() == HTTP_NOT_MODIFIED) {
-                    Log.d(TAG, "Server returned HTTP Status Code 304 - Not Modified");
-                } else {
-                    exceptions.add(e);
-                    success = false;
-                }
-            } catch (Exception e) {
-                if (e instanceof TokenMismatchException) {
-                    apiProvider.invalidateAPICache(ssoAccount);
-                }
-                exceptions.add(e);
-                success = false;
+                    }
+                    // Please note, that db.deleteNote() realizes an optimistic conflict resolution, which is required for parallel changes of this Note from the UI.
+                    repo.deleteByNoteId(note.getId(), LOCAL_DELETED);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown State of Note " + note + ": " + note.getStatus());
+            }
+        } catch (NextcloudHttpRequestFailedException e) {
+            metrics.addHttpStatusCode(e.getStatusCode());
+            if (e.getStatusCode() == HTTP_NOT_MODIFIED) {
+                Log.d(TAG, "Server returned HTTP Status Code 304 - Not Modified");
+            } else {
+                addException(e);
+                return false;
             }
+        } catch (Exception e) {
+            if (e instanceof TokenMismatchException) {
+                apiProvider.invalidateAPICache(ssoAccount);
+            }
+            addException(e);
+            return false;
         }
-        return success;
+        metrics.addPushed();
+        return true;
     }
 
     /**
      * Pull remote Changes: update or create each remote note (if local pendant has no changes) and remove remotely deleted notes.
+     * <p>
+     * Compares the manifest of the server (<code>id</code>, <code>etag</code> and <code>modified</code> of each note) with the local one first and only fetches the changed {@link Note}s.
+     * If more than {@link #DELTA_PULL_MAX_CHANGED_NOTES} {@link Note}s have changed, all {@link Note}s are pulled at once by {@link #pullAllRemoteNotes()}.
      */
     private boolean pullRemoteChanges() {
         Log.d(TAG, "pullRemoteChanges() for account " + localAccount.getAccountName());
         try {
-            final var idMap = repo.getIdMap(localAccount.getId());
-
             // FIXME re-reading the localAccount is only a workaround for a not-up-to-date eTag in localAccount.
             final var accountFromDatabase = repo.getAccountById(localAccount.getId());
             if (accountFromDatabase == null) {
@@ -216,63 +303,58 @@ abstract class NotesServerSyncTask extends Thread {
             localAccount.setModified(accountFromDatabase.getModified());
             localAccount.setETag(accountFromDatabase.getETag());
 
-            final var fetchResponse = notesAPI.getNotes(localAccount.getModified(), localAccount.getETag()).blockingSingle();
-            final var remoteNotes = fetchResponse.getResponse();
+            final long fetchStart = SyncMetricsRecorder.now();
+            final var remoteManifest = notesAPI.getNotesManifest(localAccount.getModified(), localAccount.getETag()).blockingSingle();
+            metrics.addFetchNanos(SyncMetricsRecorder.since(fetchStart));
+            metrics.addResponseHeaders(remoteManifest.getHeaders());
+            final var localManifest = repo.getSyncManifest(localAccount.getId());
             final var remoteIDs = new HashSet<Long>();
-            // pull remote changes: update or create each remote note
-            for (final var remoteNote : remoteNotes) {
-                Log.v(TAG, "   Process Remote Note: " + (BuildConfig.DEBUG ? remoteNote : remoteNote.getTitle()));
+            final var changedRemoteIDs = new ArrayList<Long>();
+            for (final var remoteNote : remoteManifest.getResponse()) {
                 remoteIDs.add(remoteNote.getRemoteId());
-                if (remoteNote.getModified() == null) {
-                    Log.v(TAG, "   ... unchanged");
-                } else if (idMap.containsKey(remoteNote.getRemoteId())) {
-                    Log.v(TAG, "   ... found → Update");
-                    final Long localId = idMap.get(remoteNote.getRemoteId());
-                    if (localId != null) {
-                        repo.updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(
-                                localId, remoteNote.getModified().getTimeInMillis(), remoteNote.getTitle(), remoteNote.getFavorite(), remoteNote.getCategory(), remoteNote.getETag(), remoteNote.getContent(), generateNoteExcerpt(remoteNote.getContent(), remoteNote.getTitle()));
-                    } else {
-                        Log.e(TAG, "Tried to update note from server, but local id of note is null. " + (BuildConfig.DEBUG ? remoteNote : remoteNote.getTitle()));
-                    }
-                } else {
-                    Log.v(TAG, "   ... create");
-                    repo.addNote(localAccount.getId(), remoteNote);
+                // Notes which have not been modified since the last pull only contain their remote ID
+                if (remoteNote.getModifiedMillis() != null && hasChanged(localManifest.get(remoteNote.getRemoteId()), remoteNote)) {
+                    changedRemoteIDs.add(remoteNote.getRemoteId());
                 }
             }
+
+            if (changedRemoteIDs.size() > DELTA_PULL_MAX_CHANGED_NOTES) {
+                Log.d(TAG, "   " + changedRemoteIDs.size() + " notes changed → pull all notes");
+                pullAllRemoteNotes();
+                return true;
+            }
+
+            Log.d(TAG, "   " + changedRemoteIDs.size() + " notes changed → pull only those");
+            metrics.addUnchanged(remoteIDs.size() - changedRemoteIDs.size());
+            final boolean complete = pullChangedRemoteNotes(changedRemoteIDs, localManifest, remoteIDs);
+
             Log.d(TAG, "   Remove remotely deleted Notes (only those without local changes)");
-            // remove remotely deleted notes (only those without local changes)
-            for (final var entry : idMap.entrySet()) {
+            final long deleteStart = SyncMetricsRecorder.now();
+            final var remotelyDeletedIds = new ArrayList<Long>();
+            for (final var entry : localManifest.entrySet()) {
                 if (!remoteIDs.contains(entry.getKey())) {
-                    Log.v(TAG, "   ... remove " + entry.getValue());
-                    repo.deleteByNoteId(entry.getValue(), DBStatus.VOID);
+                    Log.v(TAG, "   ... remove " + entry.getValue().getId());
+                    remotelyDeletedIds.add(entry.getValue().getId());
                 }
             }
+            if (!remotelyDeletedIds.isEmpty()) {
+                repo.deleteByNoteIds(remotelyDeletedIds, DBStatus.VOID);
+                metrics.addDeleted(remotelyDeletedIds.size());
+            }
+            metrics.addDeleteNanos(SyncMetricsRecorder.since(deleteStart));
 
-            // update ETag and Last-Modified in order to reduce size of next response
-            localAccount.setETag(fetchResponse.getHeaders().get(HEADER_KEY_ETAG));
-
-            final var lastModified = Calendar.getInstance();
-            lastModified.setTimeInMillis(0);
-            final String lastModifiedHeader = fetchResponse.getHeaders().get(HEADER_KEY_LAST_MODIFIED);
-            if (lastModifiedHeader != null)
-                lastModified.setTimeInMillis(Date.parse(lastModifiedHeader));
-            Log.d(TAG, "ETag: " + fetchResponse.getHeaders().get(HEADER_KEY_ETAG) + "; Last-Modified: " + lastModified + " (" + lastModified + ")");
-
-            localAccount.setModified(lastModified);
-
-            repo.updateETag(localAccount.getId(), localAccount.getETag());
-            repo.updateModified(localAccount.getId(), localAccount.getModified().getTimeInMillis());
-
-            final String newApiVersion = ApiVersionUtil.sanitize(fetchResponse.getHeaders().get(HEADER_KEY_X_NOTES_API_VERSIONS));
-            localAccount.setApiVersion(newApiVersion);
-            repo.updateApiVersion(localAccount.getId(), newApiVersion);
-            Log.d(TAG, "ApiVersion: " + newApiVersion);
+            if (complete) {
+                updateAccount(remoteManifest.getHeaders());
+            } else {
+                Log.w(TAG, "   Not all changed notes could be fetched → keep ETag and Last-Modified to fetch them again with the next pull");
+            }
             return true;
         } catch (Throwable t) {
             final Throwable cause = t.getCause();
             if (t.getClass() == RuntimeException.class && cause != null) {
                 if (cause.getClass() == NextcloudHttpRequestFailedException.class || cause instanceof NextcloudHttpRequestFailedException) {
                     final NextcloudHttpRequestFailedException httpException = (NextcloudHttpRequestFailedException) cause;
+                    metrics.addHttpStatusCode(httpException.getStatusCode());
                     if (httpException.getStatusCode() == HTTP_NOT_MODIFIED) {
                         Log.d(TAG, "Server returned HTTP Status Code " + httpException.getStatusCode() + " - Notes not modified.");
                         return true;
@@ -284,8 +366,219 @@ abstract class NotesServerSyncTask extends Thread {
                     apiProvider.invalidateAPICache(ssoAccount);
                 }
             }
-            exceptions.add(t);
+            addException(t);
             return false;
         }
     }
+
+    /**
+     * @param localNote  entry of the local manifest or <code>null</code> if the {@param remoteNote} does not exist locally
+     * @param remoteNote entry of the remote manifest
+     * @return whether the {@param remoteNote} needs to be fetched
+     */
+    private static boolean hasChanged(@Nullable Note localNote, @NonNull Note remoteNote) {
+        if (localNote == null) {
+            return true;
+        } else if (remoteNote.getETag() != null) {
+            return !remoteNote.getETag().equals(localNote.getETag());
+        } else {
+            return !Objects.equals(localNote.getModifiedMillis(), remoteNote.getModifiedMillis());
+        }
+    }
+
+    /**
+     * Fetches the {@link Note}s with the given {@param changedRemoteIDs} in parallel and writes them to the database.
+     * <p>
+     * A failing {@link Note} does not abort the pull: if it has been deleted since the manifest has been fetched, it gets removed from {@param remoteIDs}
+     * so it will be deleted locally, other failures are recorded as warnings.
+     *
+     * @param localManifest used to find the local pendants of the fetched {@link Note}s
+     * @param remoteIDs     all remote IDs of the manifest
+     * @return whether all {@link Note}s have been fetched, otherwise the ETag of the manifest must not be stored to fetch the missing ones with the next pull
+     */
+    private boolean pullChangedRemoteNotes(@NonNull List<Long> changedRemoteIDs, @NonNull Map<Long, Note> localManifest, @NonNull Set<Long> remoteIDs) throws InterruptedException {
+        if (changedRemoteIDs.isEmpty()) {
+            return true;
+        }
+        final long fetchStart = SyncMetricsRecorder.now();
+        final var results = new ArrayList<Future<ParsedResponse<Note>>>(changedRemoteIDs.size());
+        boolean complete = true;
+        final var createdNotes = new ArrayList<Note>();
+        final var updatedNotes = new ArrayList<Note>();
+        for (int i = 0; i < changedRemoteIDs.size(); i++) {
+            // Submit the next note whenever one has been fetched, so at most PULL_THREAD_COUNT are in flight
+            while (results.size() < Math.min(changedRemoteIDs.size(), i + PULL_THREAD_COUNT)) {
+                final long nextRemoteId = changedRemoteIDs.get(results.size());
+                results.add(networkExecutor.submit(() -> notesAPI.getNote(nextRemoteId).blockingSingle()));
+            }
+            final long remoteId = changedRemoteIDs.get(i);
+            final Note remoteNote;
+            try {
+                final var response = results.get(i).get();
+                metrics.addResponseHeaders(response.getHeaders());
+                remoteNote = response.getResponse();
+            } catch (ExecutionException e) {
+                // Unwrap the RuntimeException of blockingSingle()
+                final Throwable cause = e.getCause() != null && e.getCause().getClass() == RuntimeException.class && e.getCause().getCause() != null
+                        ? e.getCause().getCause()
+                        : e.getCause();
+                if (cause instanceof NextcloudHttpRequestFailedException) {
+                    metrics.addHttpStatusCode(((NextcloudHttpRequestFailedException) cause).getStatusCode());
+                    if (((NextcloudHttpRequestFailedException) cause).getStatusCode() == HTTP_NOT_FOUND) {
+                        Log.v(TAG, "   ... remoteId " + remoteId + " has been deleted in the meantime");
+                        remoteIDs.remove(remoteId);
+                        continue;
+                    }
+                }
+                Log.w(TAG, "   Could not fetch note with remoteId " + remoteId + ": " + cause);
+                addException(cause == null ? e : cause);
+                complete = false;
+                continue;
+            }
+            Log.v(TAG, "   Process Remote Note: " + (BuildConfig.DEBUG ? remoteNote : remoteNote.getTitle()));
+            final var localNote = localManifest.get(remoteNote.getRemoteId());
+            if (localNote == null) {
+                Log.v(TAG, "   ... create");
+                createdNotes.add(remoteNote);
+            } else {
+                Log.v(TAG, "   ... found → Update");
+                remoteNote.setId(localNote.getId());
+                updatedNotes.add(remoteNote);
+            }
+        }
+        metrics.addFetchNanos(SyncMetricsRecorder.since(fetchStart));
+        applyRemoteNotes(createdNotes, updatedNotes);
+        return complete;
+    }
+
+    /**
+     * Pulls all {@link Note}s at once: update or create each remote note (if local pendant has no changes) and remove remotely deleted notes.
+     */
+    private void pullAllRemoteNotes() throws IOException {
+        metrics.setFullPull();
+        final var idMap = repo.getIdMap(localAccount.getId());
+        final Map<String, String> headers;
+        final var remoteIDs = new HashSet<Long>();
+        var createdNotes = new ArrayList<Note>(PULL_CHUNK_SIZE);
+        var updatedNotes = new ArrayList<Note>(PULL_CHUNK_SIZE);
+        // pull remote changes: update or create each remote note, streamed to keep at most one chunk in memory
+        // The manifest already revealed changes, so the ETag must not cause a "Not Modified" response
+        final long fetchStart = SyncMetricsRecorder.now();
+        try (final var remoteNotes = notesAPI.getNotesStream(localAccount.getModified(), null)) {
+            metrics.addFetchNanos(SyncMetricsRecorder.since(fetchStart));
+            while (true) {
+                final long parseStart = SyncMetricsRecorder.now();
+                if (!remoteNotes.hasNext()) {
+                    metrics.addParseNanos(SyncMetricsRecorder.since(parseStart));
+                    break;
+                }
+                final var remoteNote = remoteNotes.next();
+                metrics.addParseNanos(SyncMetricsRecorder.since(parseStart));
+                if (remoteNote == null) {
+                    continue;
+                }
+                Log.v(TAG, "   Process Remote Note: " + (BuildConfig.DEBUG ? remoteNote : remoteNote.getTitle()));
+                remoteIDs.add(remoteNote.getRemoteId());
+                if (remoteNote.getModifiedMillis() == null) {
+                    Log.v(TAG, "   ... unchanged");
+                    metrics.addUnchanged(1);
+                } else if (idMap.containsKey(remoteNote.getRemoteId())) {
+                    Log.v(TAG, "   ... found → Update");
+                    final Long localId = idMap.get(remoteNote.getRemoteId());
+                    if (localId != null) {
+                        remoteNote.setId(localId);
+                        updatedNotes.add(remoteNote);
+                    } else {
+                        Log.e(TAG, "Tried to update note from server, but local id of note is null. " + (BuildConfig.DEBUG ? remoteNote : remoteNote.getTitle()));
+                    }
+                } else {
+                    Log.v(TAG, "   ... create");
+                    createdNotes.add(remoteNote);
+                }
+                if (createdNotes.size() + updatedNotes.size() >= PULL_CHUNK_SIZE) {
+                    applyRemoteNotes(createdNotes, updatedNotes);
+                    createdNotes = new ArrayList<>(PULL_CHUNK_SIZE);
+                    updatedNotes = new ArrayList<>(PULL_CHUNK_SIZE);
+                }
+            }
+            headers = remoteNotes.getHeaders();
+            metrics.addResponseBytes(remoteNotes.getBytesRead());
+        }
+        applyRemoteNotes(createdNotes, updatedNotes);
+        Log.d(TAG, "   Remove remotely deleted Notes (only those without local changes)");
+        // remove remotely deleted notes (only those without local changes)
+        final long deleteStart = SyncMetricsRecorder.now();
+        final var remotelyDeletedIds = new ArrayList<Long>();
+        for (final var entry : idMap.entrySet()) {
+            if (!remoteIDs.contains(entry.getKey())) {
+                Log.v(TAG, "   ... remove " + entry.getValue());
+                remotelyDeletedIds.add(entry.getValue());
+            }
+        }
+        if (!remotelyDeletedIds.isEmpty()) {
+            repo.deleteByNoteIds(remotelyDeletedIds, DBStatus.VOID);
+            metrics.addDeleted(remotelyDeletedIds.size());
+        }
+        metrics.addDeleteNanos(SyncMetricsRecorder.since(deleteStart));
+
+        updateAccount(headers);
+    }
+
+    /**
+     * Stores ETag, Last-Modified and the API version of a successful pull.
+     */
+    private void updateAccount(@NonNull Map<String, String> headers) {
+        // update ETag and Last-Modified in order to reduce size of next response
+        localAccount.setETag(headers.get(HEADER_KEY_ETAG));
+
+        final var lastModified = Calendar.getInstance();
+        lastModified.setTimeInMillis(0);
+        final String lastModifiedHeader = headers.get(HEADER_KEY_LAST_MODIFIED);
+        if (lastModifiedHeader != null)
+            lastModified.setTimeInMillis(Date.parse(lastModifiedHeader));
+        Log.d(TAG, "ETag: " + headers.get(HEADER_KEY_ETAG) + "; Last-Modified: " + lastModified + " (" + lastModified + ")");
+
+        localAccount.setModified(lastModified);
+
+        repo.updateETag(localAccount.getId(), localAccount.getETag());
+        repo.updateModified(localAccount.getId(), localAccount.getModified().getTimeInMillis());
+
+        final String newApiVersion = ApiVersionUtil.sanitize(headers.get(HEADER_KEY_X_NOTES_API_VERSIONS));
+        localAccount.setApiVersion(newApiVersion);
+        repo.updateApiVersion(localAccount.getId(), newApiVersion);
+        Log.d(TAG, "ApiVersion: " + newApiVersion);
+    }
+
+    /**
+     * Records the status code and the size of a response to a push.
+     */
+    private void addResponse(@NonNull Response<?> response) {
+        metrics.addHttpStatusCode(response.code());
+        metrics.addContentLength(response.headers().get(SyncMetricsRecorder.HEADER_KEY_CONTENT_LENGTH));
+    }
+
+    /**
+     * {@link #pushLocalChanges()} adds exceptions from multiple threads.
+     */
+    private void addException(@NonNull Throwable t) {
+        synchronized (exceptions) {
+            exceptions.add(t);
+        }
+    }
+
+    /**
+     * Writes the given chunk of pulled {@link Note}s in a single transaction.
+     */
+    private void applyRemoteNotes(@NonNull List<Note> createdNotes, @NonNull List<Note> updatedNotes) {
+        if (!createdNotes.isEmpty() || !updatedNotes.isEmpty()) {
+            Log.v(TAG, "   Apply chunk: " + createdNotes.size() + " created, " + updatedNotes.size() + " updated");
+            final long applyStart = SyncMetricsRecorder.now();
+            final int updatedCount = repo.applyRemoteNotes(localAccount.getId(), createdNotes, updatedNotes);
+            metrics.addApplyNanos(SyncMetricsRecorder.since(applyStart));
+            metrics.addCreated(createdNotes.size());
+            metrics.addUpdated(updatedCount);
+            // Fetched notes which have been modified locally in the meantime or did not change any remote column
+            metrics.addUnchanged(updatedNotes.size() - updatedCount);
+        }
+    }
 }
@@ -0,0 +1,322 @@
+package it.niedermann.owncloud.notes.persistence;
+
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import retrofit2.Response;
+
+/**
+ * Persistent cache for small responses of the server which rarely change, like the {@link it.niedermann.owncloud.notes.shared.model.Capabilities} and the
+ * {@link it.niedermann.owncloud.notes.shared.model.NotesSettings} of an account.
+ * <p>
+ * Fresh entries are served without a request. Stale entries are revalidated with a conditional request using the <code>ETag</code> and <code>Last-Modified</code>
+ * validators of the cached response, so an unchanged resource only costs a <code>304 Not Modified</code>.
+ * An entry is fresh for the <code>max-age</code> of the <code>Cache-Control</code> header, but at least for {@link #MIN_FRESHNESS_MILLIS}.
+ * Nextcloud marks all responses as <code>no-cache, no-store</code> by default regardless of their content, so those directives are not taken literally:
+ * the cache is private to the app and the resources only change on administrative actions, which are picked up after {@link #MIN_FRESHNESS_MILLIS} at the latest.
+ */
+class ResponseCache {
+
+    private static final String TAG = ResponseCache.class.getSimpleName();
+
+    private static final String SHARED_PREFERENCES_NAME = "response_cache";
+    private static final String HEADER_KEY_ETAG = "ETag";
+    private static final String HEADER_KEY_LAST_MODIFIED = "Last-Modified";
+    private static final String HEADER_KEY_CACHE_CONTROL = "Cache-Control";
+    private static final String DIRECTIVE_MAX_AGE = "max-age=";
+    /**
+     * Separates the resource from the account name in keys, resources must therefore not contain it
+     */
+    private static final char KEY_SEPARATOR = ' ';
+
+    static final long MIN_FRESHNESS_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static ResponseCache instance;
+
+    @NonNull
+    private final SharedPreferences preferences;
+    @NonNull
+    private final LongSupplier clock;
+    private final Gson gson = new Gson();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong revalidatedCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Performs the request for a resource.
+     */
+    interface Request<T> {
+        /**
+         * @param eTag         validator of the cached response to send as <code>If-None-Match</code> header, <code>null</code> if unknown
+         * @param lastModified validator of the cached response to send as <code>If-Modified-Since</code> header, <code>null</code> if unknown
+         * @return the response, which might be a <code>304 Not Modified</code>. The Nextcloud SSO throws a {@link NextcloudHttpRequestFailedException} instead, which is supported as well
+         */
+        @NonNull
+        Response<T> execute(@Nullable String eTag, @Nullable String lastModified) throws Throwable;
+    }
+
+    static synchronized ResponseCache getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new ResponseCache(context.getApplicationContext().getSharedPreferences(SHARED_PREFERENCES_NAME, Context.MODE_PRIVATE), System::currentTimeMillis);
+        }
+        return instance;
+    }
+
+    @VisibleForTesting
+    ResponseCache(@NonNull SharedPreferences preferences, @NonNull LongSupplier clock) {
+        this.preferences = preferences;
+        this.clock = clock;
+    }
+
+    /**
+     * @param accountName name of the account the {@param resource} belongs to
+     * @param resource    identifies the resource within the account, must not contain spaces
+     * @return a fresh cached response if available, otherwise the (re)validated response of the {@param request}.
+     * Unsuccessful responses are returned as they are and not cached.
+     */
+    @WorkerThread
+    @NonNull
+    <T> Response<T> get(@NonNull String accountName, @NonNull String resource, @NonNull Class<T> type, @NonNull Request<T> request) throws Throwable {
+        final var key = getKey(accountName, resource);
+        final var entry = readEntry(key);
+        final long now = clock.getAsLong();
+
+        if (entry != null && entry.isFresh(now)) {
+            final var body = readBody(key, entry, type);
+            if (body != null) {
+                hitCount.incrementAndGet();
+                Log.v(TAG, "Serving fresh " + resource + " of " + accountName + " from cache, " + getStatistics());
+                return Response.success(body);
+            }
+        }
+
+        final Response<T> response;
+        try {
+            response = entry == null
+                    ? request.execute(null, null)
+                    : request.execute(entry.eTag, entry.lastModified);
+        } catch (Throwable t) {
+            if (entry != null && isNotModified(t)) {
+                final var body = readRevalidatedBody(key, entry, type, now);
+                if (body != null) {
+                    Log.v(TAG, resource + " of " + accountName + " has not been modified, " + getStatistics());
+                    return Response.success(body);
+                }
+            }
+            throw t;
+        }
+
+        if (entry != null && response.code() == HTTP_NOT_MODIFIED) {
+            final var body = readRevalidatedBody(key, entry, type, now);
+            if (body != null) {
+                Log.v(TAG, resource + " of " + accountName + " has not been modified, " + getStatistics());
+                return Response.success(body);
+            }
+        }
+
+        final var body = response.body();
+        if (response.isSuccessful() && body != null) {
+            missCount.incrementAndGet();
+            final var headers = response.headers();
+            writeEntry(key, new Entry(gson.toJsonTree(body),
+                    headers.get(HEADER_KEY_ETAG),
+                    headers.get(HEADER_KEY_LAST_MODIFIED),
+                    now,
+                    getMaxAgeMillis(headers.get(HEADER_KEY_CACHE_CONTROL))));
+        }
+        return response;
+    }
+
+    /**
+     * Removes the cached {@param resource} of the given {@param accountName}, for example because it has been modified by the app.
+     */
+    @AnyThread
+    void invalidate(@NonNull String accountName, @NonNull String resource) {
+        preferences.edit().remove(getKey(accountName, resource)).apply();
+    }
+
+    /**
+     * Removes all cached resources of the given {@param accountName}.
+     */
+    @AnyThread
+    void invalidate(@NonNull String accountName) {
+        final var editor = preferences.edit();
+        for (final var key : preferences.getAll().keySet()) {
+            if (accountName.equals(key.substring(key.indexOf(KEY_SEPARATOR) + 1))) {
+                editor.remove(key);
+            }
+        }
+        editor.apply();
+    }
+
+    @AnyThread
+    @NonNull
+    Statistics getStatistics() {
+        return new Statistics(hitCount.get(), revalidatedCount.get(), missCount.get());
+    }
+
+    /**
+     * @return the freshness lifetime given by the <code>max-age</code> directive of the {@param cacheControl} header, but at least {@link #MIN_FRESHNESS_MILLIS}
+     */
+    @VisibleForTesting
+    static long getMaxAgeMillis(@Nullable String cacheControl) {
+        if (cacheControl != null) {
+            for (final var directive : cacheControl.split(",")) {
+                final var trimmed = directive.trim().toLowerCase();
+                if (trimmed.startsWith(DIRECTIVE_MAX_AGE)) {
+                    try {
+                        return Math.max(MIN_FRESHNESS_MILLIS, TimeUnit.SECONDS.toMillis(Long.parseLong(trimmed.substring(DIRECTIVE_MAX_AGE.length()).replace("\"", ""))));
+                    } catch (NumberFormatException e) {
+                        Log.w(TAG, "Invalid " + HEADER_KEY_CACHE_CONTROL + " header: " + cacheControl);
+                    }
+                }
+            }
+        }
+        return MIN_FRESHNESS_MILLIS;
+    }
+
+    private static boolean isNotModified(@Nullable Throwable t) {
+        while (t != null) {
+            if (t instanceof NextcloudHttpRequestFailedException) {
+                return ((NextcloudHttpRequestFailedException) t).getStatusCode() == HTTP_NOT_MODIFIED;
+            }
+            t = t.getCause();
+        }
+        return false;
+    }
+
+    @NonNull
+    private static String getKey(@NonNull String accountName, @NonNull String resource) {
+        return resource + KEY_SEPARATOR + accountName;
+    }
+
+    @Nullable
+    private Entry readEntry(@NonNull String key) {
+        final var json = preferences.getString(key, null);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return gson.fromJson(json, Entry.class);
+        } catch (JsonParseException e) {
+            Log.w(TAG, "Removing corrupt entry " + key, e);
+            preferences.edit().remove(key).apply();
+            return null;
+        }
+    }
+
+    /**
+     * @return the deserialized body of the {@param entry} or <code>null</code> if it can not be read anymore, for example because the model has changed in the meantime
+     */
+    @Nullable
+    private <T> T readBody(@NonNull String key, @NonNull Entry entry, @NonNull Class<T> type) {
+        try {
+            return gson.fromJson(entry.body, type);
+        } catch (JsonParseException e) {
+            Log.w(TAG, "Removing unreadable entry " + key, e);
+            preferences.edit().remove(key).apply();
+            return null;
+        }
+    }
+
+    /**
+     * Marks the {@param entry} as fresh again after the server confirmed that it has not been modified.
+     *
+     * @return the deserialized body of the {@param entry}, see {@link #readBody(String, Entry, Class)}
+     */
+    @Nullable
+    private <T> T readRevalidatedBody(@NonNull String key, @NonNull Entry entry, @NonNull Class<T> type, long now) {
+        final var body = readBody(key, entry, type);
+        if (body != null) {
+            entry.revalidated(now);
+            writeEntry(key, entry);
+            revalidatedCount.incrementAndGet();
+        }
+        return body;
+    }
+
+    private void writeEntry(@NonNull String key, @NonNull Entry entry) {
+        preferences.edit().putString(key, gson.toJson(entry)).apply();
+    }
+
+    private static class Entry {
+        @Nullable
+        private JsonElement body;
+        @Nullable
+        private String eTag;
+        @Nullable
+        private String lastModified;
+        /**
+         * Milliseconds since epoch of the last time the server confirmed the {@link #body}
+         */
+        private long validated;
+        private long maxAgeMillis;
+
+        Entry(@Nullable JsonElement body, @Nullable String eTag, @Nullable String lastModified, long validated, long maxAgeMillis) {
+            this.body = body;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.validated = validated;
+            this.maxAgeMillis = maxAgeMillis;
+        }
+
+        boolean isFresh(long now) {
+            // An entry validated in the future is not trusted, the clock of the device has been changed
+            return validated <= now && now - validated < maxAgeMillis;
+        }
+
+        void revalidated(long now) {
+            this.validated = now;
+        }
+    }
+
+    static class Statistics {
+        /**
+         * Count of requests served from the cache without contacting the server
+         */
+        final long hitCount;
+        /**
+         * Count of requests served from the cache after the server confirmed that the resource has not been modified
+         */
+        final long revalidatedCount;
+        /**
+         * Count of requests which needed to be fetched from the server
+         */
+        final long missCount;
+
+        private Statistics(long hitCount, long revalidatedCount, long missCount) {
+            this.hitCount = hitCount;
+            this.revalidatedCount = revalidatedCount;
+            this.missCount = missCount;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Statistics{" +
+                    "hits=" + hitCount +
+                    ", revalidated=" + revalidatedCount +
+                    ", misses=" + missCount +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package it.niedermann.owncloud.notes.persistence;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.owncloud.notes.persistence.entity.SyncMetrics;
+import it.niedermann.owncloud.notes.shared.model.SyncResultStatus;
+
+/**
+ * Collects the {@link SyncMetrics} of a single synchronization run. Notes are pushed in parallel, so all methods are thread safe.
+ */
+class SyncMetricsRecorder {
+
+    static final String HEADER_KEY_CONTENT_LENGTH = "Content-Length";
+
+    private final long started = System.currentTimeMillis();
+    private final long startedNanos = System.nanoTime();
+
+    // Guarded by this
+    private long pushNanos;
+    private long fetchNanos;
+    private long parseNanos;
+    private long applyNanos;
+    private long deleteNanos;
+    private boolean fullPull;
+    private int pushedCount;
+    private int createdCount;
+    private int updatedCount;
+    private int deletedCount;
+    private int unchangedCount;
+    private long responseBytes;
+    private final Map<Integer, Integer> httpStatusCodes = new TreeMap<>();
+
+    /**
+     * @return a timestamp for measuring elapsed time, see {@link #since(long)}
+     */
+    static long now() {
+        return System.nanoTime();
+    }
+
+    /**
+     * @return the nanoseconds elapsed since the given {@param timestamp} of {@link #now()}
+     */
+    static long since(long timestamp) {
+        return System.nanoTime() - timestamp;
+    }
+
+    @AnyThread
+    synchronized void addPushNanos(long nanos) {
+        pushNanos += nanos;
+    }
+
+    @AnyThread
+    synchronized void addFetchNanos(long nanos) {
+        fetchNanos += nanos;
+    }
+
+    @AnyThread
+    synchronized void addParseNanos(long nanos) {
+        parseNanos += nanos;
+    }
+
+    @AnyThread
+    synchronized void addApplyNanos(long nanos) {
+        applyNanos += nanos;
+    }
+
+    @AnyThread
+    synchronized void addDeleteNanos(long nanos) {
+        deleteNanos += nanos;
+    }
+
+    @AnyThread
+    synchronized void setFullPull() {
+        fullPull = true;
+    }
+
+    @AnyThread
+    synchronized void addPushed() {
+        pushedCount++;
+    }
+
+    @AnyThread
+    synchronized void addCreated(int count) {
+        createdCount += count;
+    }
+
+    @AnyThread
+    synchronized void addUpdated(int count) {
+        updatedCount += count;
+    }
+
+    @AnyThread
+    synchronized void addDeleted(int count) {
+        deletedCount += count;
+    }
+
+    @AnyThread
+    synchronized void addUnchanged(int count) {
+        unchangedCount += count;
+    }
+
+    @AnyThread
+    synchronized void addResponseBytes(long bytes) {
+        responseBytes += bytes;
+    }
+
+    @AnyThread
+    synchronized void addHttpStatusCode(int statusCode) {
+        final var count = httpStatusCodes.get(statusCode);
+        httpStatusCodes.put(statusCode, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * Adds the <code>Content-Length</code> of a successful response, if it is known. The Single Sign On library does not expose the status code of successful
+     * responses (failed ones are thrown as {@link com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException}), so no status code is recorded.
+     *
+     * @param headers of the response, might be <code>null</code> for mocked responses
+     */
+    @AnyThread
+    void addResponseHeaders(@Nullable Map<String, String> headers) {
+        if (headers != null) {
+            for (final var header : headers.entrySet()) {
+                if (HEADER_KEY_CONTENT_LENGTH.equalsIgnoreCase(header.getKey())) {
+                    addContentLength(header.getValue());
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param contentLength value of a <code>Content-Length</code> header, ignored if it is <code>null</code> or invalid
+     */
+    @AnyThread
+    void addContentLength(@Nullable String contentLength) {
+        if (contentLength != null) {
+            try {
+                addResponseBytes(Long.parseLong(contentLength.trim()));
+            } catch (NumberFormatException ignored) {
+                // Unknown size
+            }
+        }
+    }
+
+    @AnyThread
+    @NonNull
+    synchronized SyncMetrics build(long accountId, boolean onlyLocalChanges, @NonNull SyncResultStatus status) {
+        final var metrics = new SyncMetrics();
+        metrics.setAccountId(accountId);
+        metrics.setStarted(started);
+        metrics.setDurationMillis(toMillis(since(startedNanos)));
+        metrics.setOnlyLocalChanges(onlyLocalChanges);
+        metrics.setFullPull(fullPull);
+        metrics.setPushSuccessful(status.pushSuccessful);
+        metrics.setPullSuccessful(status.pullSuccessful);
+        metrics.setPushMillis(toMillis(pushNanos));
+        metrics.setFetchMillis(toMillis(fetchNanos));
+        metrics.setParseMillis(toMillis(parseNanos));
+        metrics.setApplyMillis(toMillis(applyNanos));
+        metrics.setDeleteMillis(toMillis(deleteNanos));
+        metrics.setPushedCount(pushedCount);
+        metrics.setCreatedCount(createdCount);
+        metrics.setUpdatedCount(updatedCount);
+        metrics.setDeletedCount(deletedCount);
+        metrics.setUnchangedCount(unchangedCount);
+        metrics.setResponseBytes(responseBytes);
+        final var statusCodes = new StringBuilder();
+        for (final var entry : httpStatusCodes.entrySet()) {
+            if (statusCodes.length() > 0) {
+                statusCodes.append(", ");
+            }
+            statusCodes.append(entry.getKey()).append('×').append(entry.getValue());
+        }
+        metrics.setHttpStatusCodes(statusCodes.toString());
+        return metrics;
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,272 @@
+package it.niedermann.owncloud.notes.persistence;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.owncloud.notes.persistence.entity.Account;
+
+/**
+ * Runs the synchronizations of different {@link Account}s in parallel, but at most {@link #maxParallelSyncs} at the same time.
+ * <p>
+ * Synchronizations of the same {@link Account} never run in parallel: requests for an {@link Account} which is currently synchronized are merged into one single
+ * synchronization that starts after the running one finished. A full synchronization wins over one which only pushes local changes.
+ * <p>
+ * Synchronizations which only push local changes are additionally debounced: after a synchronization of an {@link Account} started, further pushes of this
+ * {@link Account} are delayed until {@link #pushDebounceMillis} passed, so bursts of changes (like autosaving or editing multiple selected notes) are pushed at once.
+ */
+class SyncScheduler {
+
+    private static final String TAG = SyncScheduler.class.getSimpleName();
+
+    /**
+     * Creates the actual synchronization not before it is started, so it picks up everything which has been registered for it in the meantime.
+     */
+    interface SyncTaskFactory {
+        @NonNull
+        Runnable create(boolean onlyLocalChanges) throws Exception;
+    }
+
+    private static class Request {
+        boolean onlyLocalChanges;
+        @NonNull
+        SyncTaskFactory factory;
+        final long requestedAt = SystemClock.elapsedRealtime();
+        /**
+         * Whether the start of this {@link Request} has been delayed
+         */
+        boolean delayed = false;
+        /**
+         * Whether the delay has been elapsed, so this {@link Request} may start even if it only pushes local changes
+         */
+        boolean due = false;
+
+        Request(boolean onlyLocalChanges, @NonNull SyncTaskFactory factory) {
+            this.onlyLocalChanges = onlyLocalChanges;
+            this.factory = factory;
+        }
+    }
+
+    private static class Slot {
+        /**
+         * Whether a synchronization of this {@link Account} is running
+         */
+        boolean active = false;
+        /**
+         * Count of {@link #hold(long)} calls which have not been released yet, independent of running synchronizations
+         */
+        int holds = 0;
+        @Nullable
+        Request pending = null;
+        @Nullable
+        Long lastStartedAt = null;
+    }
+
+    @NonNull
+    private final Executor executor;
+    @NonNull
+    private final ScheduledExecutorService timer;
+    private final int maxParallelSyncs;
+    private final long pushDebounceMillis;
+    @NonNull
+    private final Runnable onIdle;
+
+    // Guarded by this
+    private final Map<Long, Slot> slots = new HashMap<>();
+    private final Queue<Long> waitingAccountIds = new ArrayDeque<>();
+    private int runningCount = 0;
+    private long requestCount = 0;
+    private long startedCount = 0;
+
+    /**
+     * @param timer  used to start debounced synchronizations
+     * @param onIdle called after the last running synchronization finished and no other one is pending, see {@link #isIdle()}
+     */
+    SyncScheduler(@NonNull Executor executor, @NonNull ScheduledExecutorService timer, int maxParallelSyncs, long pushDebounceMillis, @NonNull Runnable onIdle) {
+        if (maxParallelSyncs < 1) {
+            throw new IllegalArgumentException("maxParallelSyncs must be at least 1, but was " + maxParallelSyncs);
+        }
+        this.executor = executor;
+        this.timer = timer;
+        this.maxParallelSyncs = maxParallelSyncs;
+        this.pushDebounceMillis = pushDebounceMillis;
+        this.onIdle = onIdle;
+    }
+
+    /**
+     * @return <code>true</code> if the synchronization starts without waiting for another synchronization of the same {@param accountId}, <code>false</code> if it
+     * has been merged into a pending one, waits for the currently active one or has been debounced. A synchronization might still wait for a free slot if {@link #maxParallelSyncs} are running.
+     */
+    synchronized boolean schedule(long accountId, boolean onlyLocalChanges, @NonNull SyncTaskFactory factory) {
+        requestCount++;
+        final var slot = getSlot(accountId);
+        if (slot.pending == null) {
+            slot.pending = new Request(onlyLocalChanges, factory);
+        } else {
+            Log.d(TAG, "Merge sync request for account " + accountId + " into the pending one");
+            slot.pending.onlyLocalChanges &= onlyLocalChanges;
+            slot.pending.factory = factory;
+        }
+        if (slot.active || slot.holds > 0) {
+            Log.d(TAG, "Sync of account " + accountId + " is active or held, start afterwards");
+            return false;
+        }
+        final boolean enqueued = enqueue(accountId, slot);
+        startWaiting();
+        return enqueued;
+    }
+
+    /**
+     * @return count of {@link Account}s with a pending synchronization, which either waits for a free slot, for the active synchronization of the same {@link Account} or for the debounce delay
+     */
+    synchronized int getQueueDepth() {
+        int depth = 0;
+        for (final var slot : slots.values()) {
+            if (slot.pending != null) {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * @return count of requested synchronizations per actually started synchronization, <code>1</code> means that no requests have been merged
+     */
+    synchronized float getCoalescingRatio() {
+        return startedCount == 0 ? 1f : (float) requestCount / startedCount;
+    }
+
+    /**
+     * Prevents synchronizations of the given {@param accountId} from starting, for example while its notes are imported. A synchronization which is already
+     * running is not affected, but no further one will start until each {@link #hold(long)} has been released by {@link #release(long)}.
+     */
+    synchronized void hold(long accountId) {
+        getSlot(accountId).holds++;
+    }
+
+    /**
+     * Counterpart of {@link #hold(long)}, starts synchronizations which have been requested in the meantime after the last hold has been released.
+     */
+    synchronized void release(long accountId) {
+        final var slot = getSlot(accountId);
+        if (slot.holds == 0) {
+            Log.w(TAG, "Sync of account " + accountId + " has not been held");
+            return;
+        }
+        slot.holds--;
+        enqueue(accountId, slot);
+        startWaiting();
+    }
+
+    @NonNull
+    private Slot getSlot(long accountId) {
+        var slot = slots.get(accountId);
+        if (slot == null) {
+            slot = new Slot();
+            slots.put(accountId, slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Adds the pending {@link Request} of the given {@param slot} to the {@link #waitingAccountIds} unless it needs to be debounced.
+     *
+     * @return whether the pending {@link Request} has been added to the {@link #waitingAccountIds}
+     */
+    private boolean enqueue(long accountId, @NonNull Slot slot) {
+        final var request = slot.pending;
+        if (slot.active || slot.holds > 0 || request == null || waitingAccountIds.contains(accountId)) {
+            return false;
+        }
+        if (request.onlyLocalChanges && !request.due && slot.lastStartedAt != null) {
+            final long delay = slot.lastStartedAt + pushDebounceMillis - SystemClock.elapsedRealtime();
+            if (delay > 0) {
+                if (!request.delayed) {
+                    Log.d(TAG, "Debounce push of account " + accountId + " for " + delay + " ms");
+                    request.delayed = true;
+                    timer.schedule(() -> onDelayElapsed(accountId, request), delay, TimeUnit.MILLISECONDS);
+                }
+                return false;
+            }
+        }
+        waitingAccountIds.add(accountId);
+        return true;
+    }
+
+    private synchronized void onDelayElapsed(long accountId, @NonNull Request request) {
+        request.due = true;
+        final var slot = getSlot(accountId);
+        if (slot.pending == request) {
+            enqueue(accountId, slot);
+            startWaiting();
+        }
+    }
+
+    private void startWaiting() {
+        while (runningCount < maxParallelSyncs && !waitingAccountIds.isEmpty()) {
+            final long accountId = waitingAccountIds.remove();
+            final var slot = getSlot(accountId);
+            final var request = slot.pending;
+            if (slot.active || slot.holds > 0 || request == null) {
+                continue;
+            }
+            slot.pending = null;
+            slot.active = true;
+            slot.lastStartedAt = SystemClock.elapsedRealtime();
+            runningCount++;
+            startedCount++;
+            Log.v(TAG, "Start sync of account " + accountId + " - queue depth: " + getQueueDepth() + ", coalescing ratio: " + getCoalescingRatio());
+            executor.execute(() -> run(accountId, request));
+        }
+    }
+
+    private void run(long accountId, @NonNull Request request) {
+        final long startedAt = SystemClock.elapsedRealtime();
+        try {
+            request.factory.create(request.onlyLocalChanges).run();
+        } catch (Throwable t) {
+            Log.e(TAG, "Could not synchronize account " + accountId, t);
+        } finally {
+            final long finishedAt = SystemClock.elapsedRealtime();
+            Log.i(TAG, "Sync of account " + accountId + " (" + (request.onlyLocalChanges ? "onlyLocalChanges" : "full") + ") took " + (finishedAt - startedAt) + " ms after waiting " + (startedAt - request.requestedAt) + " ms");
+            onFinished(accountId);
+        }
+    }
+
+    private synchronized void onFinished(long accountId) {
+        final var slot = getSlot(accountId);
+        slot.active = false;
+        runningCount--;
+        enqueue(accountId, slot);
+        startWaiting();
+        if (isIdle()) {
+            onIdle.run();
+        }
+    }
+
+    /**
+     * @return <code>false</code> if a synchronization is running or pending, including debounced ones. Pending synchronizations of held {@link Account}s do not
+     * count, they will not start before being released.
+     */
+    private boolean isIdle() {
+        if (runningCount > 0) {
+            return false;
+        }
+        for (final var slot : slots.values()) {
+            if (slot.pending != null && slot.holds == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -7,17 +7,27 @@ import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
+import it.niedermann.owncloud.notes.persistence.NotesDatabase;
 import it.niedermann.owncloud.notes.persistence.entity.Account;
 import it.niedermann.owncloud.notes.persistence.entity.CategoryWithNotesCount;
 import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.persistence.entity.NoteFts;
+import it.niedermann.owncloud.notes.persistence.entity.NoteListItem;
 import it.niedermann.owncloud.notes.shared.model.DBStatus;
+import it.niedermann.owncloud.notes.shared.util.NoteUtil;
 
 /**
  * Each method starting with <code>search</code> will return only a partial {@link Note} without any
- * {@link Note#eTag}, {@link Note#status}, {@link Note#content} or {@link Note#scrollY} for performance reasons.
+ * {@link Note#eTag}, {@link Note#content} or {@link Note#scrollY} for performance reasons.
+ * The pages of the notes list (methods named <code>get…Page…</code>) return even lighter {@link NoteListItem}s.
+ * <p>
+ * The <code>query</code> of all those methods is a full text search expression for {@link NoteFts} (see {@link NoteUtil#generateFullTextSearchQuery(String)}),
+ * an empty <code>query</code> matches all {@link Note}s. The <code>substringQuery</code> is an optional <code>LIKE</code> pattern for search terms which
+ * can not be found by the full text search (see {@link NoteUtil#generateSubstringSearchQuery(String)}), matches of both are returned.
  */
 @SuppressWarnings("JavadocReference")
 @Dao
@@ -26,20 +36,48 @@ public interface NoteDao {
     @Insert
     long addNote(Note note);
 
+    @Insert
+    List<Long> addNotes(List<Note> notes);
+
     @Update(onConflict = OnConflictStrategy.REPLACE)
     int updateNote(Note newNote);
 
     String getNoteById = "SELECT * FROM NOTE WHERE id = :id";
     String count = "SELECT COUNT(*) FROM NOTE WHERE status != 'LOCAL_DELETED' AND accountId = :accountId";
     String countFavorites = "SELECT COUNT(*) FROM NOTE WHERE status != 'LOCAL_DELETED' AND accountId = :accountId AND favorite = 1";
-    String searchRecentByModified = "SELECT id, remoteId, accountId, title, favorite, excerpt, modified, category, status, '' as eTag, '' as content, 0 as scrollY FROM NOTE WHERE accountId = :accountId AND status != 'LOCAL_DELETED' AND (title LIKE :query OR content LIKE :query) ORDER BY favorite DESC, modified DESC";
-    String searchRecentLexicographically = "SELECT id, remoteId, accountId, title, favorite, excerpt, modified, category, status, '' as eTag, '' as content, 0 as scrollY FROM NOTE WHERE accountId = :accountId AND status != 'LOCAL_DELETED' AND (title LIKE :query OR content LIKE :query) ORDER BY favorite DESC, title COLLATE NOCASE ASC";
-    String searchFavoritesByModified = "SELECT id, remoteId, accountId, title, favorite, excerpt, modified, category, status, '' as eTag, '' as content, 0 as scrollY FROM NOTE WHERE accountId = :accountId AND status != 'LOCAL_DELETED' AND (title LIKE :query OR content LIKE :query) AND favorite = 1 ORDER BY modified DESC";
-    String searchFavoritesLexicographically = "SELECT id, remoteId, accountId, title, favorite, excerpt, modified, category, status, '' as eTag, '' as content, 0 as scrollY FROM NOTE WHERE accountId = :accountId AND status != 'LOCAL_DELETED' AND (title LIKE :query OR content LIKE :query) AND favorite = 1 ORDER BY title COLLATE NOCASE ASC";
-    String searchUncategorizedByModified = "SELECT id, remoteId, accountId, title, favorite, excerpt, modified, category, status, '' as eTag, '' as content, 0 as scrollY FROM NOTE WHERE accountId = :accountId AND status != 'LOCAL_DELETED' AND (title LIKE :query OR content LIKE :query) AND category = '' ORDER BY favorite DESC, modified DESC";
-    String searchUncategorizedLexicographically = "SELECT id, remoteId, accountId, title, favorite, excerpt, modified, category, status, '' as eTag, '' as content, 0 as scrollY FROM NOTE WHERE accountId = :accountId AND status != 'LOCAL_DELETED' AND (title LIKE :query OR content LIKE :query) AND category = '' ORDER BY favorite DESC, title COLLATE NOCASE ASC";
-    String searchCategoryByModified = "SELECT id, remoteId, accountId, title, favorite, excerpt, modified, category, status, '' as eTag, '' as content, 0 as scrollY FROM NOTE WHERE accountId = :accountId AND status != 'LOCAL_DELETED' AND (title LIKE :query OR content LIKE :query) AND (category = :category OR category LIKE :category || '/%') ORDER BY category, favorite DESC, modified DESC";
-    String searchCategoryLexicographically = "SELECT id, remoteId, accountId, title, favorite, excerpt, modified, category, status, '' as eTag, '' as content, 0 as scrollY FROM NOTE WHERE accountId = :accountId AND status != 'LOCAL_DELETED' AND (title LIKE :query OR content LIKE :query) AND (category = :category OR category LIKE :category || '/%') ORDER BY category, favorite DESC, title COLLATE NOCASE ASC";
+    /**
+     * The ordinals of {@link DBStatus} are derived from their titles, because only the titles are stored
+     */
+    String selectNoteListItem = "SELECT id, accountId, title, favorite, excerpt, modified, category, CASE status WHEN 'LOCAL_EDITED' THEN 1 WHEN 'LOCAL_DELETED' THEN 2 ELSE 0 END as statusOrdinal, sectionInitial, sectionDay FROM NOTE ";
+    String selectPartialNote = "SELECT id, remoteId, accountId, title, favorite, excerpt, modified, category, status, '' as eTag, '' as content, 0 as scrollY, sectionInitial, sortTitle, sectionDay FROM NOTE ";
+    /**
+     * The substring search is done in a sub query, so the list queries do not need to read the <code>content</code> from the table and can be answered from covering indices
+     */
+    String matchesSearch = "(:query = '' OR id IN (SELECT rowid FROM NoteFts WHERE NoteFts MATCH :query) OR (:substringQuery != '' AND id IN (SELECT id FROM NOTE WHERE title LIKE :substringQuery OR content LIKE :substringQuery)))";
+    /**
+     * Queries sorted by <code>modified DESC</code> break ties by the descending <code>id</code>, so SQLite can read them in order by scanning the composite indices of {@link Note} backwards
+     */
+    String searchRecentByModified = "WHERE accountId = :accountId AND status != 'LOCAL_DELETED' AND " + matchesSearch + " ORDER BY favorite DESC, modified DESC, id DESC";
+    String searchFavoritesByModified = "WHERE accountId = :accountId AND status != 'LOCAL_DELETED' AND " + matchesSearch + " AND favorite = 1 ORDER BY modified DESC, id DESC";
+    String searchUncategorizedByModified = "WHERE accountId = :accountId AND status != 'LOCAL_DELETED' AND " + matchesSearch + " AND category = '' ORDER BY favorite DESC, modified DESC, id DESC";
+    String searchCategoryByModified = "WHERE accountId = :accountId AND status != 'LOCAL_DELETED' AND " + matchesSearch + " AND (category = :category OR category LIKE :category || '/%') ORDER BY favorite DESC, modified DESC, id DESC";
+    /**
+     * The notes list is loaded in pages of a segment, which is one <code>favorite</code> state (and one <code>category</code>) at a time.
+     * Each page continues after the sort key of the last {@link Note} of the previous page (<code>modified</code> or <code>title</code>, tie broken by the <code>id</code>),
+     * so no page needs to skip the already loaded {@link Note}s by an <code>OFFSET</code>.
+     */
+    String recentSegment = "WHERE accountId = :accountId AND favorite = :favorite AND status != 'LOCAL_DELETED' AND " + matchesSearch;
+    String categorySegment = "WHERE accountId = :accountId AND category = :category AND favorite = :favorite AND status != 'LOCAL_DELETED' AND " + matchesSearch;
+    String pageByModified = " AND modified <= :afterModified AND (modified < :afterModified OR id < :afterId) ORDER BY modified DESC, id DESC LIMIT :limit";
+    /**
+     * {@link Note}s without <code>modified</code> date are sorted after all others by {@link #pageByModified}
+     */
+    String pageWithoutModified = " AND modified IS NULL AND id < :afterId ORDER BY id DESC LIMIT :limit";
+    /**
+     * <code>afterTitle</code> is the <code>sortTitle</code> of the last {@link Note} of the previous page, see {@link NoteUtil#generateSortTitle(String)}
+     */
+    String pageLexicographically = " AND sortTitle >= :afterTitle AND (sortTitle > :afterTitle OR id > :afterId) ORDER BY sortTitle, id LIMIT :limit";
+    String getNextCategory = "SELECT category FROM NOTE WHERE accountId = :accountId AND category > :afterCategory AND (category = :category OR category LIKE :category || '/%') AND status != 'LOCAL_DELETED' ORDER BY category LIMIT 1";
 
     @Query(getNoteById)
     LiveData<Note> getNoteById$(long id);
@@ -62,57 +100,52 @@ public interface NoteDao {
     @Query(countFavorites)
     Integer countFavorites(long accountId);
 
-    @Query(searchRecentByModified)
-    LiveData<List<Note>> searchRecentByModified$(long accountId, String query);
-
-    @Query(searchRecentByModified)
-    List<Note> searchRecentByModified(long accountId, String query);
-
-    @Query(searchRecentLexicographically)
-    LiveData<List<Note>> searchRecentLexicographically$(long accountId, String query);
-
-    @Query(searchRecentLexicographically)
-    List<Note> searchRecentLexicographically(long accountId, String query);
-
-    @Query(searchFavoritesByModified)
-    LiveData<List<Note>> searchFavoritesByModified$(long accountId, String query);
-
-    @Query(searchFavoritesByModified)
-    List<Note> searchFavoritesByModified(long accountId, String query);
+    @Query(selectPartialNote + searchRecentByModified)
+    List<Note> searchRecentByModified(long accountId, String query, String substringQuery);
 
-    @Query(searchFavoritesLexicographically)
-    LiveData<List<Note>> searchFavoritesLexicographically$(long accountId, String query);
+    @Query(selectPartialNote + searchFavoritesByModified)
+    List<Note> searchFavoritesByModified(long accountId, String query, String substringQuery);
 
-    @Query(searchFavoritesLexicographically)
-    List<Note> searchFavoritesLexicographically(long accountId, String query);
+    @Query(selectPartialNote + searchUncategorizedByModified)
+    List<Note> searchUncategorizedByModified(long accountId, String query, String substringQuery);
 
-    @Query(searchUncategorizedByModified)
-    LiveData<List<Note>> searchUncategorizedByModified$(long accountId, String query);
+    @Query(selectPartialNote + searchCategoryByModified)
+    List<Note> searchCategoryByModified(long accountId, String query, String substringQuery, String category);
 
-    @Query(searchUncategorizedByModified)
-    List<Note> searchUncategorizedByModified(long accountId, String query);
+    @Query(selectNoteListItem + recentSegment + pageByModified)
+    List<NoteListItem> getRecentPageByModified(long accountId, boolean favorite, String query, String substringQuery, long afterModified, long afterId, int limit);
 
-    @Query(searchUncategorizedLexicographically)
-    LiveData<List<Note>> searchUncategorizedLexicographically$(long accountId, String query);
+    @Query(selectNoteListItem + recentSegment + pageWithoutModified)
+    List<NoteListItem> getRecentPageWithoutModified(long accountId, boolean favorite, String query, String substringQuery, long afterId, int limit);
 
-    @Query(searchUncategorizedLexicographically)
-    List<Note> searchUncategorizedLexicographically(long accountId, String query);
+    @Query(selectNoteListItem + recentSegment + pageLexicographically)
+    List<NoteListItem> getRecentPageLexicographically(long accountId, boolean favorite, String query, String substringQuery, String afterTitle, long afterId, int limit);
 
-    @Query(searchCategoryByModified)
-    LiveData<List<Note>> searchCategoryByModified$(long accountId, String query, String category);
+    @Query(selectNoteListItem + categorySegment + pageByModified)
+    List<NoteListItem> getCategoryPageByModified(long accountId, String category, boolean favorite, String query, String substringQuery, long afterModified, long afterId, int limit);
 
-    @Query(searchCategoryByModified)
-    List<Note> searchCategoryByModified(long accountId, String query, String category);
+    @Query(selectNoteListItem + categorySegment + pageWithoutModified)
+    List<NoteListItem> getCategoryPageWithoutModified(long accountId, String category, boolean favorite, String query, String substringQuery, long afterId, int limit);
 
-    @Query(searchCategoryLexicographically)
-    LiveData<List<Note>> searchCategoryLexicographically$(long accountId, String query, String category);
+    @Query(selectNoteListItem + categorySegment + pageLexicographically)
+    List<NoteListItem> getCategoryPageLexicographically(long accountId, String category, boolean favorite, String query, String substringQuery, String afterTitle, long afterId, int limit);
 
-    @Query(searchCategoryLexicographically)
-    List<Note> searchCategoryLexicographically(long accountId, String query, String category);
+    /**
+     * @return the first <code>category</code> after <code>afterCategory</code> which is either the given <code>category</code> or one of its sub categories,
+     * <code>null</code> if there is none
+     */
+    @Query(getNextCategory)
+    String getNextCategory(long accountId, String category, String afterCategory);
 
     @Query("DELETE FROM NOTE WHERE id = :id AND status = :forceDBStatus")
     void deleteByNoteId(long id, DBStatus forceDBStatus);
 
+    /**
+     * Make sure to not pass more than {@link NotesDatabase#SQLITE_MAX_VARIABLE_NUMBER} <code>ids</code>.
+     */
+    @Query("DELETE FROM NOTE WHERE id IN (:ids) AND status = :forceDBStatus")
+    void deleteByNoteIds(Collection<Long> ids, DBStatus forceDBStatus);
+
     @Query("UPDATE NOTE SET scrollY = :scrollY WHERE id = :id")
     void updateScrollY(long id, int scrollY);
 
@@ -122,6 +155,30 @@ public interface NoteDao {
     @Query("UPDATE NOTE SET category = :category WHERE id = :id")
     void updateCategory(long id, String category);
 
+    /**
+     * Like {@link #updateStatus(long, DBStatus)} for multiple {@link Note}s at once.
+     * Must not be called with more than {@link NotesDatabase#SQLITE_MAX_VARIABLE_NUMBER} - 1 {@param ids}.
+     */
+    @Query("UPDATE NOTE SET status = :status WHERE id IN (:ids)")
+    void updateStatus(Collection<Long> ids, DBStatus status);
+
+    /**
+     * Like {@link #updateCategory(long, String)} for multiple {@link Note}s at once.
+     * Must not be called with more than {@link NotesDatabase#SQLITE_MAX_VARIABLE_NUMBER} - 1 {@param ids}.
+     */
+    @Query("UPDATE NOTE SET category = :category WHERE id IN (:ids)")
+    void updateCategory(Collection<Long> ids, String category);
+
+    @Query("UPDATE NOTE SET sectionDay = :sectionDay WHERE id = :id")
+    void updateSectionDay(long id, long sectionDay);
+
+    /**
+     * Gets a list of all {@link Note} objects with filled {@link Note#id}, {@link Note#modifiedMillis} and {@link Note#sectionDay},
+     * which are needed to recalculate the {@link Note#sectionDay} after the time zone has changed
+     */
+    @Query("SELECT id, NULL as remoteId, 0 as accountId, '' as title, 0 as favorite, '' as excerpt, modified, '' as eTag, 0 as status, '' as category, '' as content, 0 as scrollY, '' as sectionInitial, '' as sortTitle, sectionDay FROM NOTE")
+    List<Note> getModifiedAndSectionDay();
+
     /**
      * Gets all the {@link Note#remoteId}s of all not deleted {@link Note}s of an {@link Account}
      *
@@ -135,9 +192,16 @@ public interface NoteDao {
      * Gets a list of {@link Note} objects with filled {@link Note#id} and {@link Note#remoteId},
      * where {@link Note#remoteId} is not <code>null</code>
      */
-    @Query("SELECT id, remoteId, 0 as accountId, '' as title, 0 as favorite, '' as excerpt, 0 as modified, '' as eTag, 0 as status, '' as category, '' as content, 0 as scrollY  FROM NOTE WHERE accountId = :accountId AND status != 'LOCAL_DELETED' AND remoteId IS NOT NULL")
+    @Query("SELECT id, remoteId, 0 as accountId, '' as title, 0 as favorite, '' as excerpt, 0 as modified, '' as eTag, 0 as status, '' as category, '' as content, 0 as scrollY, '' as sectionInitial, '' as sortTitle, 0 as sectionDay FROM NOTE WHERE accountId = :accountId AND status != 'LOCAL_DELETED' AND remoteId IS NOT NULL")
     List<Note> getRemoteIdAndId(long accountId);
 
+    /**
+     * Like {@link #getRemoteIdAndId(long)}, but additionally fills {@link Note#eTag} and {@link Note#modified},
+     * which are compared with the manifest of the server to detect changed {@link Note}s
+     */
+    @Query("SELECT id, remoteId, 0 as accountId, '' as title, 0 as favorite, '' as excerpt, modified, eTag, 0 as status, '' as category, '' as content, 0 as scrollY, '' as sectionInitial, '' as sortTitle, 0 as sectionDay FROM NOTE WHERE accountId = :accountId AND status != 'LOCAL_DELETED' AND remoteId IS NOT NULL")
+    List<Note> getSyncManifest(long accountId);
+
     /**
      * Get a single {@link Note} by {@link Note#remoteId} (aka. Nextcloud file id)
      *
@@ -168,16 +232,16 @@ public interface NoteDao {
      * used by: {@link it.niedermann.owncloud.notes.persistence.NotesServerSyncTask#pushLocalChanges()} update only, if not modified locally during the synchronization
      * (i.e. all (!) user changeable columns (content, favorite, category) must still have the same value), uses reference value gathered at start of synchronization
      */
-    @Query("UPDATE NOTE SET title = :targetTitle, modified = :targetModified, favorite = :targetFavorite, etag = :targetETag, content = :targetContent, status = '', excerpt = :targetExcerpt " +
+    @Query("UPDATE NOTE SET title = :targetTitle, modified = :targetModified, favorite = :targetFavorite, etag = :targetETag, content = :targetContent, status = '', excerpt = :targetExcerpt, sectionInitial = :targetSectionInitial, sortTitle = :targetSortTitle, sectionDay = :targetSectionDay " +
             "WHERE id = :noteId AND content = :contentBeforeSyncStart AND favorite = :favoriteBeforeSyncStart AND category = :categoryBeforeSyncStart")
-    int updateIfNotModifiedLocallyDuringSync(long noteId, Long targetModified, String targetTitle, boolean targetFavorite, String targetETag, String targetContent, String targetExcerpt, String contentBeforeSyncStart, String categoryBeforeSyncStart, boolean favoriteBeforeSyncStart);
+    int updateIfNotModifiedLocallyDuringSync(long noteId, Long targetModified, String targetTitle, boolean targetFavorite, String targetETag, String targetContent, String targetExcerpt, String contentBeforeSyncStart, String categoryBeforeSyncStart, boolean favoriteBeforeSyncStart, String targetSectionInitial, String targetSortTitle, long targetSectionDay);
 
     /**
      * used by: {@link it.niedermann.owncloud.notes.persistence.NotesServerSyncTask#pullRemoteChanges()} update only, if not modified locally (i.e. STATUS="") and if modified remotely (i.e. any (!) column has changed)
      */
-    @Query("UPDATE NOTE SET title = :title, modified = :modified, favorite = :favorite, etag = :eTag, content = :content, status = '', excerpt = :excerpt, category = :category " +
+    @Query("UPDATE NOTE SET title = :title, modified = :modified, favorite = :favorite, etag = :eTag, content = :content, status = '', excerpt = :excerpt, category = :category, sectionInitial = :sectionInitial, sortTitle = :sortTitle, sectionDay = :sectionDay " +
             "WHERE id = :id AND status = '' AND (title != :title OR modified != :modified OR favorite != :favorite OR category != :category OR (eTag IS NULL OR eTag != :eTag) OR content != :content)")
-    int updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(long id, Long modified, String title, boolean favorite, String category, String eTag, String content, String excerpt);
+    int updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(long id, Long modified, String title, boolean favorite, String category, String eTag, String content, String excerpt, String sectionInitial, String sortTitle, long sectionDay);
 
     /**
      * This method return all of the categories with given {@param accountId}
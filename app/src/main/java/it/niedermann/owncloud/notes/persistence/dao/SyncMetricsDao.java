@@ -0,0 +1,29 @@
+package it.niedermann.owncloud.notes.persistence.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import java.util.List;
+
+import it.niedermann.owncloud.notes.persistence.entity.SyncMetrics;
+
+@Dao
+public interface SyncMetricsDao {
+
+    @Insert
+    long addSyncMetrics(SyncMetrics metrics);
+
+    /**
+     * Deletes all {@link SyncMetrics} of the given account except the {@param keep} most recent ones.
+     */
+    @Query("DELETE FROM SyncMetrics WHERE accountId = :accountId AND id NOT IN (SELECT id FROM SyncMetrics WHERE accountId = :accountId ORDER BY started DESC, id DESC LIMIT :keep)")
+    int deleteOldSyncMetrics(long accountId, int keep);
+
+    @Query("SELECT * FROM SyncMetrics WHERE accountId = :accountId ORDER BY started DESC, id DESC")
+    LiveData<List<SyncMetrics>> getSyncMetrics$(long accountId);
+
+    @Query("SELECT * FROM SyncMetrics WHERE accountId = :accountId ORDER BY started DESC, id DESC")
+    List<SyncMetrics> getSyncMetrics(long accountId);
+}
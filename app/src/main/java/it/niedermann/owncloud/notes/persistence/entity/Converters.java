@@ -12,13 +12,9 @@ import it.niedermann.owncloud.notes.shared.model.DBStatus;
 public class Converters {
 
     @TypeConverter
+    @NonNull
     public static DBStatus fromString(@Nullable String value) {
-        for (DBStatus status : DBStatus.values()) {
-            if (status.getTitle().equals(value)) {
-                return status;
-            }
-        }
-        return DBStatus.VOID;
+        return DBStatus.fromTitle(value);
     }
 
     @TypeConverter
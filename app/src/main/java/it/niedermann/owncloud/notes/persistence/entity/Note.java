@@ -10,13 +10,17 @@ import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
 
 import java.io.Serializable;
 import java.util.Calendar;
 
+import it.niedermann.owncloud.notes.persistence.NotesRepository;
+import it.niedermann.owncloud.notes.persistence.sync.EpochSecondsTypeAdapter;
 import it.niedermann.owncloud.notes.shared.model.DBStatus;
 import it.niedermann.owncloud.notes.shared.model.Item;
+import it.niedermann.owncloud.notes.shared.util.NoteUtil;
 
 @Entity(
         foreignKeys = {
@@ -29,10 +33,17 @@ import it.niedermann.owncloud.notes.shared.model.Item;
         },
         indices = {
                 @Index(name = "IDX_NOTE_ACCOUNTID", value = "accountId"),
+                // Covering indices for the list queries of NoteDao, see Migration_28_29
+                @Index(name = "IDX_NOTE_ACCOUNT_FAVORITE_MODIFIED", value = {"accountId", "favorite", "modified", "id", "status", "title", "excerpt", "category", "sectionInitial", "sectionDay"}),
+                @Index(name = "IDX_NOTE_ACCOUNT_FAVORITE_SORT_TITLE", value = {"accountId", "favorite", "sortTitle", "id", "status", "title", "excerpt", "modified", "category", "sectionInitial", "sectionDay"}),
+                @Index(name = "IDX_NOTE_ACCOUNT_CATEGORY_FAVORITE_MODIFIED", value = {"accountId", "category", "favorite", "modified", "id", "status", "title", "excerpt", "sectionInitial", "sectionDay"}),
+                @Index(name = "IDX_NOTE_ACCOUNT_CATEGORY_FAVORITE_SORT_TITLE", value = {"accountId", "category", "favorite", "sortTitle", "id", "status", "title", "excerpt", "modified", "sectionInitial", "sectionDay"}),
                 @Index(name = "IDX_NOTE_CATEGORY", value = "category"),
                 @Index(name = "IDX_NOTE_FAVORITE", value = "favorite"),
                 @Index(name = "IDX_NOTE_MODIFIED", value = "modified"),
                 @Index(name = "IDX_NOTE_REMOTEID", value = "remoteId"),
+                @Index(name = "IDX_NOTE_SECTION_DAY", value = "sectionDay"),
+                @Index(name = "IDX_NOTE_SECTION_INITIAL", value = "sectionInitial"),
                 @Index(name = "IDX_NOTE_STATUS", value = "status")
         }
 )
@@ -61,9 +72,16 @@ public class Note implements Serializable, Item {
     @ColumnInfo(defaultValue = "")
     private String category = "";
 
+    /**
+     * Milliseconds since epoch, stored as primitive so that reading {@link Note}s does not need to create a {@link Calendar} for each row.
+     * Use {@link #getModified()} where a {@link Calendar} is needed.
+     */
     @Expose
     @Nullable
-    private Calendar modified;
+    @SerializedName("modified")
+    @JsonAdapter(EpochSecondsTypeAdapter.class)
+    @ColumnInfo(name = "modified")
+    private Long modifiedMillis;
 
     @NonNull
     @ColumnInfo(defaultValue = "")
@@ -86,6 +104,27 @@ public class Note implements Serializable, Item {
     @ColumnInfo(defaultValue = "0")
     private int scrollY = 0;
 
+    /**
+     * Normalized first character of the {@link #title}, see {@link NoteUtil#generateSectionInitial(String)}
+     */
+    @NonNull
+    @ColumnInfo(defaultValue = "")
+    private String sectionInitial = "";
+
+    /**
+     * Lower cased {@link #title} by which the list is sorted lexicographically, see {@link NoteUtil#generateSortTitle(String)}
+     */
+    @NonNull
+    @ColumnInfo(defaultValue = "")
+    private String sortTitle = "";
+
+    /**
+     * Local day of {@link #modifiedMillis} in the time zone of the device, see {@link NoteUtil#generateSectionDay(Calendar)}.
+     * Recalculated by {@link NotesRepository#updateSectionDaysIfTimeZoneChanged()} when the time zone changes.
+     */
+    @ColumnInfo(defaultValue = "0")
+    private long sectionDay = 0;
+
     public Note() {
         super();
     }
@@ -94,11 +133,14 @@ public class Note implements Serializable, Item {
     public Note(@Nullable Long remoteId, @Nullable Calendar modified, @NonNull String title, @NonNull String content, @NonNull String category, boolean favorite, @Nullable String eTag) {
         this.remoteId = remoteId;
         this.title = title;
-        this.modified = modified;
+        this.modifiedMillis = modified == null ? null : modified.getTimeInMillis();
         this.content = content;
         this.favorite = favorite;
         this.category = category;
         this.eTag = eTag;
+        this.sectionInitial = NoteUtil.generateSectionInitial(title);
+        this.sortTitle = NoteUtil.generateSortTitle(title);
+        this.sectionDay = NoteUtil.generateSectionDay(modifiedMillis);
     }
 
     @Ignore
@@ -163,13 +205,30 @@ public class Note implements Serializable, Item {
         this.title = title;
     }
 
+    /**
+     * @return a new {@link Calendar} for {@link #getModifiedMillis()} on each call, prefer {@link #getModifiedMillis()} in hot paths
+     */
     @Nullable
     public Calendar getModified() {
+        if (modifiedMillis == null) {
+            return null;
+        }
+        final var modified = Calendar.getInstance();
+        modified.setTimeInMillis(modifiedMillis);
         return modified;
     }
 
     public void setModified(@Nullable Calendar modified) {
-        this.modified = modified;
+        this.modifiedMillis = modified == null ? null : modified.getTimeInMillis();
+    }
+
+    @Nullable
+    public Long getModifiedMillis() {
+        return modifiedMillis;
+    }
+
+    public void setModifiedMillis(@Nullable Long modifiedMillis) {
+        this.modifiedMillis = modifiedMillis;
     }
 
     @NonNull
@@ -215,6 +274,32 @@ public class Note implements Serializable, Item {
         this.scrollY = scrollY;
     }
 
+    @NonNull
+    public String getSectionInitial() {
+        return sectionInitial;
+    }
+
+    public void setSectionInitial(@NonNull String sectionInitial) {
+        this.sectionInitial = sectionInitial;
+    }
+
+    @NonNull
+    public String getSortTitle() {
+        return sortTitle;
+    }
+
+    public void setSortTitle(@NonNull String sortTitle) {
+        this.sortTitle = sortTitle;
+    }
+
+    public long getSectionDay() {
+        return sectionDay;
+    }
+
+    public void setSectionDay(long sectionDay) {
+        this.sectionDay = sectionDay;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -231,7 +316,7 @@ public class Note implements Serializable, Item {
         if (status != note.status) return false;
         if (!title.equals(note.title)) return false;
         if (!category.equals(note.category)) return false;
-        if (modified != null ? !modified.equals(note.modified) : note.modified != null)
+        if (modifiedMillis != null ? !modifiedMillis.equals(note.modifiedMillis) : note.modifiedMillis != null)
             return false;
         if (!content.equals(note.content)) return false;
         if (eTag != null ? !eTag.equals(note.eTag) : note.eTag != null) return false;
@@ -246,7 +331,7 @@ public class Note implements Serializable, Item {
         result = 31 * result + status.hashCode();
         result = 31 * result + title.hashCode();
         result = 31 * result + category.hashCode();
-        result = 31 * result + (modified != null ? modified.hashCode() : 0);
+        result = 31 * result + (modifiedMillis != null ? modifiedMillis.hashCode() : 0);
         result = 31 * result + content.hashCode();
         result = 31 * result + (favorite ? 1 : 0);
         result = 31 * result + (eTag != null ? eTag.hashCode() : 0);
@@ -265,7 +350,7 @@ public class Note implements Serializable, Item {
                 ", status=" + status +
                 ", title='" + title + '\'' +
                 ", category='" + category + '\'' +
-                ", modified=" + modified +
+                ", modified=" + modifiedMillis +
                 ", content='" + content + '\'' +
                 ", favorite=" + favorite +
                 ", eTag='" + eTag + '\'' +
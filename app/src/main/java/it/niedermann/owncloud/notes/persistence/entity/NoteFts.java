@@ -0,0 +1,55 @@
+package it.niedermann.owncloud.notes.persistence.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * Full text search index of {@link Note#getTitle()} and {@link Note#getContent()}.
+ * <p>
+ * This is an external content table, the actual data is only stored once in {@link Note}.
+ * The <code>rowid</code> of an entry equals the {@link Note#getId()} of the indexed {@link Note}.
+ */
+@Fts4(contentEntity = Note.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity
+public class NoteFts {
+
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private long rowId;
+
+    @NonNull
+    private String title = "";
+
+    @NonNull
+    private String content = "";
+
+    public long getRowId() {
+        return rowId;
+    }
+
+    public void setRowId(long rowId) {
+        this.rowId = rowId;
+    }
+
+    @NonNull
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(@NonNull String title) {
+        this.title = title;
+    }
+
+    @NonNull
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(@NonNull String content) {
+        this.content = content;
+    }
+}
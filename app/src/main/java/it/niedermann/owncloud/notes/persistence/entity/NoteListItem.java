@@ -0,0 +1,192 @@
+package it.niedermann.owncloud.notes.persistence.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Ignore;
+
+import it.niedermann.owncloud.notes.shared.model.DBStatus;
+import it.niedermann.owncloud.notes.shared.model.Item;
+
+/**
+ * Lightweight projection of a {@link Note} which contains only the columns needed to display it in the notes list.
+ * <p>
+ * In contrast to {@link Note} it stores {@link #modified} as primitive instead of a {@link java.util.Calendar} and the {@link DBStatus} by its ordinal,
+ * so loading large lists does not need to allocate and convert an object for each of those columns.
+ */
+public class NoteListItem implements Item {
+
+    private long id;
+    private long accountId;
+    @NonNull
+    private String title = "";
+    private boolean favorite = false;
+    @NonNull
+    private String excerpt = "";
+    private long modified = 0;
+    @NonNull
+    private String category = "";
+    /**
+     * {@link DBStatus#ordinal()}
+     */
+    private int statusOrdinal = DBStatus.VOID.ordinal();
+    @NonNull
+    private String sectionInitial = "";
+    private long sectionDay = 0;
+
+    public NoteListItem() {
+        // Default constructor for Room
+    }
+
+    @Ignore
+    public NoteListItem(@NonNull Note note) {
+        this.id = note.getId();
+        this.accountId = note.getAccountId();
+        this.title = note.getTitle();
+        this.favorite = note.getFavorite();
+        this.excerpt = note.getExcerpt();
+        this.modified = note.getModifiedMillis() == null ? 0 : note.getModifiedMillis();
+        this.category = note.getCategory();
+        this.statusOrdinal = note.getStatus().ordinal();
+        this.sectionInitial = note.getSectionInitial();
+        this.sectionDay = note.getSectionDay();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(long accountId) {
+        this.accountId = accountId;
+    }
+
+    @NonNull
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(@NonNull String title) {
+        this.title = title;
+    }
+
+    public boolean getFavorite() {
+        return favorite;
+    }
+
+    public void setFavorite(boolean favorite) {
+        this.favorite = favorite;
+    }
+
+    @NonNull
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    public void setExcerpt(@NonNull String excerpt) {
+        this.excerpt = excerpt;
+    }
+
+    /**
+     * @return the time of the last modification in milliseconds
+     */
+    public long getModified() {
+        return modified;
+    }
+
+    public void setModified(long modified) {
+        this.modified = modified;
+    }
+
+    @NonNull
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(@NonNull String category) {
+        this.category = category;
+    }
+
+    public int getStatusOrdinal() {
+        return statusOrdinal;
+    }
+
+    public void setStatusOrdinal(int statusOrdinal) {
+        this.statusOrdinal = statusOrdinal;
+    }
+
+    @NonNull
+    public DBStatus getStatus() {
+        return DBStatus.fromOrdinal(statusOrdinal);
+    }
+
+    @NonNull
+    public String getSectionInitial() {
+        return sectionInitial;
+    }
+
+    public void setSectionInitial(@NonNull String sectionInitial) {
+        this.sectionInitial = sectionInitial;
+    }
+
+    public long getSectionDay() {
+        return sectionDay;
+    }
+
+    public void setSectionDay(long sectionDay) {
+        this.sectionDay = sectionDay;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof NoteListItem)) return false;
+
+        NoteListItem that = (NoteListItem) o;
+
+        if (id != that.id) return false;
+        if (accountId != that.accountId) return false;
+        if (favorite != that.favorite) return false;
+        if (modified != that.modified) return false;
+        if (statusOrdinal != that.statusOrdinal) return false;
+        if (sectionDay != that.sectionDay) return false;
+        if (!title.equals(that.title)) return false;
+        if (!excerpt.equals(that.excerpt)) return false;
+        if (!category.equals(that.category)) return false;
+        return sectionInitial.equals(that.sectionInitial);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (id ^ (id >>> 32));
+        result = 31 * result + (int) (accountId ^ (accountId >>> 32));
+        result = 31 * result + title.hashCode();
+        result = 31 * result + (favorite ? 1 : 0);
+        result = 31 * result + excerpt.hashCode();
+        result = 31 * result + (int) (modified ^ (modified >>> 32));
+        result = 31 * result + category.hashCode();
+        result = 31 * result + statusOrdinal;
+        result = 31 * result + sectionInitial.hashCode();
+        result = 31 * result + (int) (sectionDay ^ (sectionDay >>> 32));
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "NoteListItem{" +
+                "id=" + id +
+                ", accountId=" + accountId +
+                ", title='" + title + '\'' +
+                ", favorite=" + favorite +
+                ", modified=" + modified +
+                ", category='" + category + '\'' +
+                ", status=" + getStatus() +
+                '}';
+    }
+}
@@ -0,0 +1,251 @@
+package it.niedermann.owncloud.notes.persistence.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Timings, counts and transferred bytes of a single synchronization run of an {@link Account}.
+ * <p>
+ * Durations are measured in milliseconds. Pushing runs in parallel, so {@link #getPushMillis()} is the wall time of the whole push phase.
+ * {@link #getFetchMillis()} contains the time spent waiting for responses of the server, while {@link #getParseMillis()} contains the time spent reading
+ * and deserializing streamed responses. Responses which are not streamed are deserialized while being fetched.
+ */
+@Entity(
+        foreignKeys = {
+                @ForeignKey(
+                        entity = Account.class,
+                        parentColumns = "id",
+                        childColumns = "accountId",
+                        onDelete = ForeignKey.CASCADE
+                )
+        },
+        indices = {
+                @Index(name = "IDX_SYNCMETRICS_ACCOUNTID_STARTED", value = {"accountId", "started"})
+        }
+)
+public class SyncMetrics {
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    private long accountId;
+    /**
+     * Start of the synchronization in milliseconds since epoch
+     */
+    private long started;
+    private long durationMillis;
+    private boolean onlyLocalChanges;
+    /**
+     * Whether all notes have been pulled at once instead of only the changed ones
+     */
+    private boolean fullPull;
+    private boolean pushSuccessful;
+    private boolean pullSuccessful;
+    private long pushMillis;
+    private long fetchMillis;
+    private long parseMillis;
+    private long applyMillis;
+    private long deleteMillis;
+    private int pushedCount;
+    private int createdCount;
+    private int updatedCount;
+    private int deletedCount;
+    private int unchangedCount;
+    /**
+     * Bytes of all response bodies, as far as they are known
+     */
+    private long responseBytes;
+    /**
+     * Count of each received HTTP status code, formatted like <code>201×3, 404×1</code>.
+     * Only contains status codes which are known, which excludes successful pulls because their status code is not exposed by the Single Sign On library.
+     */
+    @NonNull
+    private String httpStatusCodes = "";
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(long accountId) {
+        this.accountId = accountId;
+    }
+
+    public long getStarted() {
+        return started;
+    }
+
+    public void setStarted(long started) {
+        this.started = started;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public boolean isOnlyLocalChanges() {
+        return onlyLocalChanges;
+    }
+
+    public void setOnlyLocalChanges(boolean onlyLocalChanges) {
+        this.onlyLocalChanges = onlyLocalChanges;
+    }
+
+    public boolean isFullPull() {
+        return fullPull;
+    }
+
+    public void setFullPull(boolean fullPull) {
+        this.fullPull = fullPull;
+    }
+
+    public boolean isPushSuccessful() {
+        return pushSuccessful;
+    }
+
+    public void setPushSuccessful(boolean pushSuccessful) {
+        this.pushSuccessful = pushSuccessful;
+    }
+
+    public boolean isPullSuccessful() {
+        return pullSuccessful;
+    }
+
+    public void setPullSuccessful(boolean pullSuccessful) {
+        this.pullSuccessful = pullSuccessful;
+    }
+
+    public long getPushMillis() {
+        return pushMillis;
+    }
+
+    public void setPushMillis(long pushMillis) {
+        this.pushMillis = pushMillis;
+    }
+
+    public long getFetchMillis() {
+        return fetchMillis;
+    }
+
+    public void setFetchMillis(long fetchMillis) {
+        this.fetchMillis = fetchMillis;
+    }
+
+    public long getParseMillis() {
+        return parseMillis;
+    }
+
+    public void setParseMillis(long parseMillis) {
+        this.parseMillis = parseMillis;
+    }
+
+    public long getApplyMillis() {
+        return applyMillis;
+    }
+
+    public void setApplyMillis(long applyMillis) {
+        this.applyMillis = applyMillis;
+    }
+
+    public long getDeleteMillis() {
+        return deleteMillis;
+    }
+
+    public void setDeleteMillis(long deleteMillis) {
+        this.deleteMillis = deleteMillis;
+    }
+
+    public int getPushedCount() {
+        return pushedCount;
+    }
+
+    public void setPushedCount(int pushedCount) {
+        this.pushedCount = pushedCount;
+    }
+
+    public int getCreatedCount() {
+        return createdCount;
+    }
+
+    public void setCreatedCount(int createdCount) {
+        this.createdCount = createdCount;
+    }
+
+    public int getUpdatedCount() {
+        return updatedCount;
+    }
+
+    public void setUpdatedCount(int updatedCount) {
+        this.updatedCount = updatedCount;
+    }
+
+    public int getDeletedCount() {
+        return deletedCount;
+    }
+
+    public void setDeletedCount(int deletedCount) {
+        this.deletedCount = deletedCount;
+    }
+
+    public int getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    public void setUnchangedCount(int unchangedCount) {
+        this.unchangedCount = unchangedCount;
+    }
+
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    public void setResponseBytes(long responseBytes) {
+        this.responseBytes = responseBytes;
+    }
+
+    @NonNull
+    public String getHttpStatusCodes() {
+        return httpStatusCodes;
+    }
+
+    public void setHttpStatusCodes(@NonNull String httpStatusCodes) {
+        this.httpStatusCodes = httpStatusCodes;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "SyncMetrics{" +
+                "accountId=" + accountId +
+                ", durationMillis=" + durationMillis +
+                ", onlyLocalChanges=" + onlyLocalChanges +
+                ", fullPull=" + fullPull +
+                ", pushSuccessful=" + pushSuccessful +
+                ", pullSuccessful=" + pullSuccessful +
+                ", pushMillis=" + pushMillis +
+                ", fetchMillis=" + fetchMillis +
+                ", parseMillis=" + parseMillis +
+                ", applyMillis=" + applyMillis +
+                ", deleteMillis=" + deleteMillis +
+                ", pushed=" + pushedCount +
+                ", created=" + createdCount +
+                ", updated=" + updatedCount +
+                ", deleted=" + deletedCount +
+                ", unchanged=" + unchangedCount +
+                ", responseBytes=" + responseBytes +
+                ", httpStatusCodes=" + httpStatusCodes +
+                '}';
+    }
+}
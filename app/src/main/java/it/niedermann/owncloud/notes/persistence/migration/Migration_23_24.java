@@ -0,0 +1,45 @@
+package it.niedermann.owncloud.notes.persistence.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.persistence.entity.NoteFts;
+
+/**
+ * Adds a full text search index {@link NoteFts} for the <code>title</code> and <code>content</code> of {@link Note}s.
+ * <p>
+ * The index is kept in sync by triggers which only fire if one of the indexed columns changes,
+ * so that updating other columns like <code>scrollY</code> does not cause any re-indexing.
+ */
+public class Migration_23_24 extends Migration {
+
+    public Migration_23_24() {
+        super(23, 24);
+    }
+
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `NoteFts` USING FTS4(`title` TEXT NOT NULL, `content` TEXT NOT NULL, tokenize=unicode61, content=`Note`)");
+        createSyncTriggers(db);
+        db.execSQL("INSERT INTO `NoteFts`(`NoteFts`) VALUES ('rebuild')");
+    }
+
+    /**
+     * Replaces the default content synchronization triggers of Room (which fire on every update) with triggers that only fire if an indexed column changes.
+     * <p>
+     * Room drops all triggers prefixed with <code>room_fts_content_sync_</code> before and recreates its default triggers after each migration, therefore the
+     * own triggers have a different prefix and this method must be called whenever the database is opened. It is idempotent.
+     */
+    public static void createSyncTriggers(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_NoteFts_BEFORE_UPDATE");
+        db.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_NoteFts_BEFORE_DELETE");
+        db.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_NoteFts_AFTER_UPDATE");
+        db.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_NoteFts_AFTER_INSERT");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS note_fts_sync_BEFORE_UPDATE BEFORE UPDATE OF `title`, `content` ON `Note` BEGIN DELETE FROM `NoteFts` WHERE `docid` = OLD.`rowid`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS note_fts_sync_BEFORE_DELETE BEFORE DELETE ON `Note` BEGIN DELETE FROM `NoteFts` WHERE `docid` = OLD.`rowid`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS note_fts_sync_AFTER_UPDATE AFTER UPDATE OF `title`, `content` ON `Note` BEGIN INSERT INTO `NoteFts`(`docid`, `title`, `content`) VALUES (NEW.`rowid`, NEW.`title`, NEW.`content`); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS note_fts_sync_AFTER_INSERT AFTER INSERT ON `Note` BEGIN INSERT INTO `NoteFts`(`docid`, `title`, `content`) VALUES (NEW.`rowid`, NEW.`title`, NEW.`content`); END");
+    }
+}
@@ -0,0 +1,41 @@
+package it.niedermann.owncloud.notes.persistence.migration;
+
+import android.content.ContentValues;
+
+import androidx.annotation.NonNull;
+import androidx.room.OnConflictStrategy;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.shared.util.NoteUtil;
+
+/**
+ * Adds the indexed columns <code>sectionInitial</code> and <code>sectionDay</code> to {@link Note}s, so the list does not need to derive its sections from <code>title</code> and <code>modified</code> on each change.
+ */
+public class Migration_24_25 extends Migration {
+
+    public Migration_24_25() {
+        super(24, 25);
+    }
+
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("ALTER TABLE `Note` ADD COLUMN `sectionInitial` TEXT NOT NULL DEFAULT ''");
+        db.execSQL("ALTER TABLE `Note` ADD COLUMN `sectionDay` INTEGER NOT NULL DEFAULT 0");
+        // The cleanup trigger of Migration_20_21 scans all Notes after every update of any Note, which would make the backfill quadratic.
+        // It is not needed while the categories stay untouched and gets replaced by Migration_25_26 anyway.
+        db.execSQL("DROP TRIGGER IF EXISTS TRG_CLEANUP_CATEGORIES_UPD");
+        final var cursor = db.query("SELECT `id`, `title`, `modified` FROM `Note`");
+        while (cursor.moveToNext()) {
+            final var values = new ContentValues();
+            values.put("sectionInitial", NoteUtil.generateSectionInitial(cursor.getString(1)));
+            values.put("sectionDay", cursor.isNull(2) ? 0 : NoteUtil.generateSectionDay(cursor.getLong(2)));
+            db.update("Note", OnConflictStrategy.REPLACE, values, "id = ?", new String[]{String.valueOf(cursor.getLong(0))});
+        }
+        cursor.close();
+        db.execSQL("CREATE INDEX IF NOT EXISTS `IDX_NOTE_SECTION_INITIAL` ON `Note` (`sectionInitial`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `IDX_NOTE_SECTION_DAY` ON `Note` (`sectionDay`)");
+        db.execSQL("CREATE TRIGGER TRG_CLEANUP_CATEGORIES_UPD AFTER UPDATE ON Note BEGIN DELETE FROM CategoryOptions WHERE CategoryOptions.category NOT IN (SELECT Note.category FROM Note WHERE Note.accountId = CategoryOptions.accountId); END;");
+    }
+}
@@ -0,0 +1,38 @@
+package it.niedermann.owncloud.notes.persistence.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import it.niedermann.owncloud.notes.persistence.entity.CategoryOptions;
+import it.niedermann.owncloud.notes.persistence.entity.Note;
+
+/**
+ * Replaces the triggers which clean up orphaned {@link CategoryOptions} after each change of a {@link Note}.
+ * <p>
+ * The previous triggers scanned all {@link Note}s after every single updated row, even if only <code>scrollY</code> or the <code>status</code> changed.
+ * The new triggers only fire if the <code>category</code> or <code>accountId</code> of a {@link Note} changes or a {@link Note} gets deleted,
+ * and then only check whether the previous category of this {@link Note} is still in use.
+ */
+public class Migration_25_26 extends Migration {
+
+    public Migration_25_26() {
+        super(25, 26);
+    }
+
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase db) {
+        createCategoryCleanupTriggers(db);
+        // Options of categories which are not used anymore might not have been cleaned up by triggers before (e. g. if they were created without any note)
+        db.execSQL("DELETE FROM `CategoryOptions` WHERE NOT EXISTS (SELECT 1 FROM `Note` WHERE `Note`.`accountId` = `CategoryOptions`.`accountId` AND `Note`.`category` = `CategoryOptions`.`category`)");
+    }
+
+    public static void createCategoryCleanupTriggers(@NonNull SupportSQLiteDatabase db) {
+        final String orphaned = "NOT EXISTS (SELECT 1 FROM `Note` WHERE `Note`.`accountId` = OLD.`accountId` AND `Note`.`category` = OLD.`category`)";
+        final String cleanUpStatement = "DELETE FROM `CategoryOptions` WHERE `accountId` = OLD.`accountId` AND `category` = OLD.`category`;";
+        db.execSQL("DROP TRIGGER IF EXISTS TRG_CLEANUP_CATEGORIES_DEL");
+        db.execSQL("DROP TRIGGER IF EXISTS TRG_CLEANUP_CATEGORIES_UPD");
+        db.execSQL("CREATE TRIGGER TRG_CLEANUP_CATEGORIES_DEL AFTER DELETE ON `Note` WHEN " + orphaned + " BEGIN " + cleanUpStatement + " END");
+        db.execSQL("CREATE TRIGGER TRG_CLEANUP_CATEGORIES_UPD AFTER UPDATE OF `category`, `accountId` ON `Note` WHEN (OLD.`category` != NEW.`category` OR OLD.`accountId` != NEW.`accountId`) AND " + orphaned + " BEGIN " + cleanUpStatement + " END");
+    }
+}
@@ -0,0 +1,29 @@
+package it.niedermann.owncloud.notes.persistence.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import it.niedermann.owncloud.notes.persistence.dao.NoteDao;
+import it.niedermann.owncloud.notes.persistence.entity.Note;
+
+/**
+ * Adds composite indices for the list queries of {@link NoteDao}, which filter by <code>accountId</code> (and optionally <code>category</code>)
+ * and sort by <code>favorite DESC</code> followed by either <code>modified DESC</code> or <code>title COLLATE NOCASE</code>.
+ * SQLite scans the indices backwards for the queries sorted by <code>modified DESC</code> instead of sorting all {@link Note}s of an account in a temporary B-tree.
+ * The indices are created exactly like Room declares them for {@link Note}, which does not support sort orders or collations of indexed columns.
+ */
+public class Migration_26_27 extends Migration {
+
+    public Migration_26_27() {
+        super(26, 27);
+    }
+
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS `IDX_NOTE_ACCOUNT_FAVORITE_MODIFIED` ON `Note` (`accountId`, `favorite`, `modified`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `IDX_NOTE_ACCOUNT_FAVORITE_TITLE` ON `Note` (`accountId`, `favorite`, `title`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `IDX_NOTE_ACCOUNT_CATEGORY_FAVORITE_MODIFIED` ON `Note` (`accountId`, `category`, `favorite`, `modified`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `IDX_NOTE_ACCOUNT_CATEGORY_FAVORITE_TITLE` ON `Note` (`accountId`, `category`, `favorite`, `title`)");
+    }
+}
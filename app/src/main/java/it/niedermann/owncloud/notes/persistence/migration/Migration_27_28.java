@@ -0,0 +1,23 @@
+package it.niedermann.owncloud.notes.persistence.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import it.niedermann.owncloud.notes.persistence.entity.SyncMetrics;
+
+/**
+ * Adds the table for the {@link SyncMetrics} of recent synchronizations.
+ */
+public class Migration_27_28 extends Migration {
+
+    public Migration_27_28() {
+        super(27, 28);
+    }
+
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS `SyncMetrics` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `accountId` INTEGER NOT NULL, `started` INTEGER NOT NULL, `durationMillis` INTEGER NOT NULL, `onlyLocalChanges` INTEGER NOT NULL, `fullPull` INTEGER NOT NULL, `pushSuccessful` INTEGER NOT NULL, `pullSuccessful` INTEGER NOT NULL, `pushMillis` INTEGER NOT NULL, `fetchMillis` INTEGER NOT NULL, `parseMillis` INTEGER NOT NULL, `applyMillis` INTEGER NOT NULL, `deleteMillis` INTEGER NOT NULL, `pushedCount` INTEGER NOT NULL, `createdCount` INTEGER NOT NULL, `updatedCount` INTEGER NOT NULL, `deletedCount` INTEGER NOT NULL, `unchangedCount` INTEGER NOT NULL, `responseBytes` INTEGER NOT NULL, `httpStatusCodes` TEXT NOT NULL, FOREIGN KEY(`accountId`) REFERENCES `Account`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `IDX_SYNCMETRICS_ACCOUNTID_STARTED` ON `SyncMetrics` (`accountId`, `started`)");
+    }
+}
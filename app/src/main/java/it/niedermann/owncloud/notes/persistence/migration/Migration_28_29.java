@@ -0,0 +1,47 @@
+package it.niedermann.owncloud.notes.persistence.migration;
+
+import android.content.ContentValues;
+
+import androidx.annotation.NonNull;
+import androidx.room.OnConflictStrategy;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import it.niedermann.owncloud.notes.persistence.dao.NoteDao;
+import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.shared.util.NoteUtil;
+
+/**
+ * Adds the column <code>sortTitle</code> to {@link Note}s and replaces the composite indices of {@link Migration_26_27} by covering indices.
+ * <p>
+ * A case insensitive order by <code>title COLLATE NOCASE</code> can not be read from an index of the <code>title</code>,
+ * therefore the lexicographic list queries of {@link NoteDao} sort by the lower cased <code>sortTitle</code>.
+ * The indices contain all columns the list queries read, so they do not need to look up the {@link Note}s in the table.
+ */
+public class Migration_28_29 extends Migration {
+
+    public Migration_28_29() {
+        super(28, 29);
+    }
+
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("DROP INDEX IF EXISTS `IDX_NOTE_ACCOUNT_FAVORITE_MODIFIED`");
+        db.execSQL("DROP INDEX IF EXISTS `IDX_NOTE_ACCOUNT_FAVORITE_TITLE`");
+        db.execSQL("DROP INDEX IF EXISTS `IDX_NOTE_ACCOUNT_CATEGORY_FAVORITE_MODIFIED`");
+        db.execSQL("DROP INDEX IF EXISTS `IDX_NOTE_ACCOUNT_CATEGORY_FAVORITE_TITLE`");
+        db.execSQL("ALTER TABLE `Note` ADD COLUMN `sortTitle` TEXT NOT NULL DEFAULT ''");
+        final var cursor = db.query("SELECT `id`, `title` FROM `Note`");
+        while (cursor.moveToNext()) {
+            final var values = new ContentValues();
+            values.put("sortTitle", NoteUtil.generateSortTitle(cursor.getString(1)));
+            db.update("Note", OnConflictStrategy.REPLACE, values, "id = ?", new String[]{String.valueOf(cursor.getLong(0))});
+        }
+        cursor.close();
+        // Created after filling the sortTitle, so they are not updated for each Note
+        db.execSQL("CREATE INDEX IF NOT EXISTS `IDX_NOTE_ACCOUNT_FAVORITE_MODIFIED` ON `Note` (`accountId`, `favorite`, `modified`, `id`, `status`, `title`, `excerpt`, `category`, `sectionInitial`, `sectionDay`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `IDX_NOTE_ACCOUNT_FAVORITE_SORT_TITLE` ON `Note` (`accountId`, `favorite`, `sortTitle`, `id`, `status`, `title`, `excerpt`, `modified`, `category`, `sectionInitial`, `sectionDay`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `IDX_NOTE_ACCOUNT_CATEGORY_FAVORITE_MODIFIED` ON `Note` (`accountId`, `category`, `favorite`, `modified`, `id`, `status`, `title`, `excerpt`, `sectionInitial`, `sectionDay`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `IDX_NOTE_ACCOUNT_CATEGORY_FAVORITE_SORT_TITLE` ON `Note` (`accountId`, `category`, `favorite`, `sortTitle`, `id`, `status`, `title`, `excerpt`, `modified`, `sectionInitial`, `sectionDay`)");
+    }
+}
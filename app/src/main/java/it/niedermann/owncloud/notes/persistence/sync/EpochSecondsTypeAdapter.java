@@ -0,0 +1,24 @@
+package it.niedermann.owncloud.notes.persistence.sync;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * The Notes API transfers timestamps as seconds since epoch, while they are stored as milliseconds since epoch locally.
+ * Counterpart of the {@link java.util.Calendar} adapter of {@link it.niedermann.owncloud.notes.persistence.ApiProvider} for primitive timestamps.
+ */
+public class EpochSecondsTypeAdapter extends TypeAdapter<Long> {
+
+    @Override
+    public void write(JsonWriter out, Long millis) throws IOException {
+        out.value(millis / 1_000);
+    }
+
+    @Override
+    public Long read(JsonReader in) throws IOException {
+        return in.nextLong() * 1_000;
+    }
+}
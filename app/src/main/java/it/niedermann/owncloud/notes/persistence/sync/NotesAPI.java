@@ -6,12 +6,17 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.google.gson.Gson;
 import com.google.gson.annotations.Expose;
+import com.nextcloud.android.sso.aidl.NextcloudRequest;
 import com.nextcloud.android.sso.api.NextcloudAPI;
 import com.nextcloud.android.sso.api.ParsedResponse;
 
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import io.reactivex.Observable;
@@ -33,10 +38,16 @@ public class NotesAPI {
 
     @NonNull
     private final ApiVersion usedApiVersion;
+    @NonNull
+    private final NextcloudAPI nextcloudAPI;
+    @NonNull
+    private final Gson gson;
     private final NotesAPI_0_2 notesAPI_0_2;
     private final NotesAPI_1_0 notesAPI_1_0;
 
-    public NotesAPI(@NonNull NextcloudAPI nextcloudAPI, @Nullable ApiVersion preferredApiVersion) {
+    public NotesAPI(@NonNull NextcloudAPI nextcloudAPI, @Nullable ApiVersion preferredApiVersion, @NonNull Gson gson) {
+        this.nextcloudAPI = nextcloudAPI;
+        this.gson = gson;
         if (preferredApiVersion == null) {
             Log.i(TAG, "Using " + ApiVersion.API_VERSION_0_2 + ", preferredApiVersion is null");
             usedApiVersion = ApiVersion.API_VERSION_0_2;
@@ -60,13 +71,41 @@ public class NotesAPI {
         }
     }
 
-    public Observable<ParsedResponse<List<Note>>> getNotes(@NonNull Calendar lastModified, String lastETag) {
+    /**
+     * Fetches all {@link Note}s, but does not deserialize the whole response at once.
+     * The {@link Note}s can be read one by one from the returned {@link NotesResponseReader}, which must be closed by the caller.
+     *
+     * @throws RuntimeException wrapping the original cause (like a {@link com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException}) to behave like {@link Observable#blockingSingle()}
+     */
+    @NonNull
+    public NotesResponseReader getNotesStream(@NonNull Calendar lastModified, String lastETag) {
+        final String endpoint;
         if (ApiVersion.API_VERSION_1_0.equals(usedApiVersion)) {
-            return notesAPI_1_0.getNotes(lastModified.getTimeInMillis() / 1_000, lastETag);
+            endpoint = API_ENDPOINT_NOTES_1_0;
         } else if (ApiVersion.API_VERSION_0_2.equals(usedApiVersion)) {
-            return notesAPI_0_2.getNotes(lastModified.getTimeInMillis() / 1_000, lastETag);
+            endpoint = API_ENDPOINT_NOTES_0_2;
         } else {
-            throw new UnsupportedOperationException("Used API version " + usedApiVersion + " does not support getNotes().");
+            throw new UnsupportedOperationException("Used API version " + usedApiVersion + " does not support getNotesStream().");
+        }
+        final var request = new NextcloudRequest.Builder()
+                .setMethod("GET")
+                .setUrl(endpoint + "notes")
+                .setParameter(Collections.singletonMap("pruneBefore", String.valueOf(lastModified.getTimeInMillis() / 1_000)))
+                .setHeader(lastETag == null
+                        ? Collections.emptyMap()
+                        : Collections.singletonMap("If-None-Match", Collections.singletonList(lastETag)))
+                .build();
+        try {
+            final var response = nextcloudAPI.performNetworkRequestV2(request);
+            final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (final var header : response.getPlainHeaders()) {
+                headers.put(header.getName(), header.getValue());
+            }
+            return new NotesResponseReader(response.getBody(), headers, gson);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
         }
     }
 
@@ -80,6 +119,20 @@ public class NotesAPI {
         }
     }
 
+    /**
+     * Like {@link #getNotesIDs()}, but each {@link Note} additionally contains its <code>etag</code> and <code>modified</code>, so changed {@link Note}s can be detected without fetching their contents.
+     * {@link Note}s which have not been modified since {@param lastModified} only contain their <code>id</code>.
+     */
+    public Observable<ParsedResponse<List<Note>>> getNotesManifest(@NonNull Calendar lastModified, String lastETag) {
+        if (ApiVersion.API_VERSION_1_0.equals(usedApiVersion)) {
+            return notesAPI_1_0.getNotesManifest(lastModified.getTimeInMillis() / 1_000, lastETag);
+        } else if (ApiVersion.API_VERSION_0_2.equals(usedApiVersion)) {
+            return notesAPI_0_2.getNotesManifest(lastModified.getTimeInMillis() / 1_000, lastETag);
+        } else {
+            throw new UnsupportedOperationException("Used API version " + usedApiVersion + " does not support getNotesManifest().");
+        }
+    }
+
     public Observable<ParsedResponse<Note>> getNote(long remoteId) {
         if (ApiVersion.API_VERSION_1_0.equals(usedApiVersion)) {
             return notesAPI_1_0.getNote(remoteId);
@@ -125,9 +178,9 @@ public class NotesAPI {
     }
 
 
-    public Call<NotesSettings> getSettings() {
+    public Call<NotesSettings> getSettings(@Nullable String eTag, @Nullable String lastModified) {
         if (ApiVersion.API_VERSION_1_0.equals(usedApiVersion)) {
-            return notesAPI_1_0.getSettings();
+            return notesAPI_1_0.getSettings(eTag, lastModified);
         } else {
             throw new UnsupportedOperationException("Used API version " + usedApiVersion + " does not support getSettings().");
         }
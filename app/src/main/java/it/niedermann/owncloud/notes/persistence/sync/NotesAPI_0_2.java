@@ -22,12 +22,12 @@ import retrofit2.http.Query;
  */
 public interface NotesAPI_0_2 {
 
-    @GET("notes")
-    Observable<ParsedResponse<List<Note>>> getNotes(@Query("pruneBefore") long lastModified, @Header("If-None-Match") String lastETag);
-
     @GET("notes?exclude=etag,readonly,content,title,category,favorite,modified")
     Observable<ParsedResponse<List<Note>>> getNotesIDs();
 
+    @GET("notes?exclude=readonly,content,title,category,favorite")
+    Observable<ParsedResponse<List<Note>>> getNotesManifest(@Query("pruneBefore") long lastModified, @Header("If-None-Match") String lastETag);
+
     @POST("notes")
     Call<Note> createNote(@Body NotesAPI.Note_0_2 note);
 
@@ -23,12 +23,12 @@ import retrofit2.http.Query;
  */
 public interface NotesAPI_1_0 {
 
-    @GET("notes")
-    Observable<ParsedResponse<List<Note>>> getNotes(@Query("pruneBefore") long lastModified, @Header("If-None-Match") String lastETag);
-
     @GET("notes?exclude=etag,readonly,content,title,category,favorite,modified")
     Observable<ParsedResponse<List<Note>>> getNotesIDs();
 
+    @GET("notes?exclude=readonly,content,title,category,favorite")
+    Observable<ParsedResponse<List<Note>>> getNotesManifest(@Query("pruneBefore") long lastModified, @Header("If-None-Match") String lastETag);
+
     @POST("notes")
     Call<Note> createNote(@Body Note note);
 
@@ -42,7 +42,7 @@ public interface NotesAPI_1_0 {
     Call<Void> deleteNote(@Path("remoteId") long noteId);
 
     @GET("settings")
-    Call<NotesSettings> getSettings();
+    Call<NotesSettings> getSettings(@Header("If-None-Match") String eTag, @Header("If-Modified-Since") String lastModified);
 
     @PUT("settings")
     Call<NotesSettings> putSettings(@Body NotesSettings settings);
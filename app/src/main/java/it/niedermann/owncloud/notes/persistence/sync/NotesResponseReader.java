@@ -0,0 +1,113 @@
+package it.niedermann.owncloud.notes.persistence.sync;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import it.niedermann.owncloud.notes.persistence.entity.Note;
+
+/**
+ * Reads the JSON array of a <code>notes</code> response one {@link Note} at a time, so that the caller only needs to hold the {@link Note}s it is currently processing instead of the whole response.
+ * <p>
+ * Must be {@link #close() closed} after reading to release the underlying {@link InputStream}.
+ */
+public class NotesResponseReader implements Closeable {
+
+    @NonNull
+    private final JsonReader reader;
+    @NonNull
+    private final TypeAdapter<Note> adapter;
+    @NonNull
+    private final Map<String, String> headers;
+    @NonNull
+    private final CountingInputStream body;
+    private boolean arrayBegun = false;
+
+    public NotesResponseReader(@NonNull InputStream body, @NonNull Map<String, String> headers, @NonNull Gson gson) {
+        this.body = new CountingInputStream(body);
+        this.reader = gson.newJsonReader(new InputStreamReader(this.body, StandardCharsets.UTF_8));
+        this.adapter = gson.getAdapter(Note.class);
+        this.headers = headers;
+    }
+
+    /**
+     * The body is not touched before the first call, so a malformed response fails here, where the caller already holds this {@link NotesResponseReader} to {@link #close()} it.
+     */
+    public boolean hasNext() throws IOException {
+        if (!arrayBegun) {
+            reader.beginArray();
+            arrayBegun = true;
+        }
+        return reader.hasNext();
+    }
+
+    @Nullable
+    public Note next() throws IOException {
+        return adapter.read(reader);
+    }
+
+    /**
+     * @return the headers of the response, keys are case insensitive
+     */
+    @NonNull
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return count of bytes which have been read from the body so far, which includes bytes buffered ahead of the current {@link Note}
+     */
+    public long getBytesRead() {
+        return body.count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count = 0;
+
+        CountingInputStream(@NonNull InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = super.read();
+            if (read != -1) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            final long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
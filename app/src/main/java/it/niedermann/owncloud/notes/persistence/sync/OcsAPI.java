@@ -18,7 +18,7 @@ import retrofit2.http.Path;
 public interface OcsAPI {
 
     @GET("capabilities?format=json")
-    Observable<ParsedResponse<OcsResponse<Capabilities>>> getCapabilities(@Header("If-None-Match") String eTag);
+    Observable<ParsedResponse<OcsResponse<Capabilities>>> getCapabilities(@Header("If-None-Match") String eTag, @Header("If-Modified-Since") String lastModified);
 
     @GET("users/{userId}?format=json")
     Call<OcsResponse<OcsUser>> getUser(@Path("userId") String userId);
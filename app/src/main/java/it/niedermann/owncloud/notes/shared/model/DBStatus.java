@@ -1,6 +1,10 @@
 package it.niedermann.owncloud.notes.shared.model;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Helps to distinguish between different local change types for Server Synchronization.
@@ -26,6 +30,18 @@ public enum DBStatus {
      */
     LOCAL_DELETED("LOCAL_DELETED");
 
+    /**
+     * Cached, because {@link #values()} creates a new array on each call
+     */
+    private static final DBStatus[] VALUES = values();
+    private static final Map<String, DBStatus> BY_TITLE = new HashMap<>(VALUES.length);
+
+    static {
+        for (final var status : VALUES) {
+            BY_TITLE.put(status.title, status);
+        }
+    }
+
     @NonNull
     private final String title;
 
@@ -37,4 +53,18 @@ public enum DBStatus {
     DBStatus(@NonNull String title) {
         this.title = title;
     }
+
+    /**
+     * @return the {@link DBStatus} with the given {@param title} or {@link #VOID} if there is none
+     */
+    @NonNull
+    public static DBStatus fromTitle(@Nullable String title) {
+        final var status = title == null ? null : BY_TITLE.get(title);
+        return status == null ? VOID : status;
+    }
+
+    @NonNull
+    public static DBStatus fromOrdinal(int ordinal) {
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : VOID;
+    }
 }
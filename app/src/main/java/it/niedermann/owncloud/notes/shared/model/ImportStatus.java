@@ -1,10 +1,31 @@
 package it.niedermann.owncloud.notes.shared.model;
 
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.List;
 
+/**
+ * Immutable snapshot of the progress of an import, so observers can not see a state which is modified concurrently.
+ */
 public class ImportStatus {
-    public int count = 0;
-    public int total = 0;
-    public final Collection<Throwable> warnings = new LinkedList<>();
+    /**
+     * Count of processed notes, including notes which had already been imported by an interrupted attempt and notes which could not be imported
+     */
+    public final int count;
+    public final int total;
+    @NonNull
+    public final Collection<Throwable> warnings;
+
+    public ImportStatus() {
+        this(0, 0, Collections.emptyList());
+    }
+
+    public ImportStatus(int count, int total, @NonNull List<Throwable> warnings) {
+        this.count = count;
+        this.total = total;
+        this.warnings = Collections.unmodifiableList(new ArrayList<>(warnings));
+    }
 }
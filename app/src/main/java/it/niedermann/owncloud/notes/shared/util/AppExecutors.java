@@ -0,0 +1,259 @@
+package it.niedermann.owncloud.notes.shared.util;
+
+import android.util.Log;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded thread pools which are shared by all components of the app instead of each {@link android.app.Activity}, {@link androidx.fragment.app.Fragment}
+ * or {@link androidx.lifecycle.ViewModel} creating its own unbounded pool, which spikes the thread count under load and leaks threads when the component is gone.
+ * <p>
+ * The pools live as long as the process and can not be shut down by their users. Idle threads time out, so unused pools do not hold any threads.
+ * Tasks which block while waiting for other tasks must not wait for tasks of the same pool, otherwise a saturated pool would dead lock.
+ */
+public class AppExecutors {
+
+    private static final String TAG = AppExecutors.class.getSimpleName();
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    /**
+     * A warning gets logged when more tasks than this are waiting for a thread, which hints at a saturated pool
+     */
+    private static final int QUEUE_WARNING_THRESHOLD = 64;
+    /**
+     * Each pool logs at most one warning within this interval, because a saturated pool checks its queue before each of the waiting tasks
+     */
+    private static final long QUEUE_WARNING_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static AppExecutors instance;
+
+    @NonNull
+    private final Pool io;
+    @NonNull
+    private final Pool dbWrite;
+    @NonNull
+    private final Pool cpu;
+    @NonNull
+    private final Pool network;
+    @NonNull
+    private final Pool sync;
+    @NonNull
+    private final ScheduledPool scheduler;
+
+    public static synchronized AppExecutors getInstance() {
+        if (instance == null) {
+            final int processors = Runtime.getRuntime().availableProcessors();
+            instance = new AppExecutors(4, Math.max(2, processors), 8, 4);
+        }
+        return instance;
+    }
+
+    @VisibleForTesting
+    AppExecutors(int ioThreads, int cpuThreads, int networkThreads, int syncThreads) {
+        this.io = new Pool("io", ioThreads);
+        this.dbWrite = new Pool("db-write", 1);
+        this.cpu = new Pool("cpu", cpuThreads);
+        this.network = new Pool("network", networkThreads);
+        this.sync = new Pool("sync", syncThreads);
+        this.scheduler = new ScheduledPool("scheduler");
+    }
+
+    /**
+     * For short blocking work like database queries and file access which is triggered by the UI.
+     */
+    @NonNull
+    public ExecutorService io() {
+        return io;
+    }
+
+    /**
+     * Executes tasks one after another in the order of their submission, for database writes which need to be applied in order.
+     */
+    @NonNull
+    public ExecutorService dbWrite() {
+        return dbWrite;
+    }
+
+    /**
+     * For computations without blocking I/O, like parsing or searching within large contents.
+     */
+    @NonNull
+    public ExecutorService cpu() {
+        return cpu;
+    }
+
+    /**
+     * For requests to the server, which may block for a long time.
+     */
+    @NonNull
+    public ExecutorService network() {
+        return network;
+    }
+
+    /**
+     * For synchronizations and imports, which run for a long time and wait for the requests they submit to {@link #network()}.
+     */
+    @NonNull
+    public ExecutorService sync() {
+        return sync;
+    }
+
+    /**
+     * Single thread for delayed tasks like debounced synchronizations. Tasks must only hand off the actual work to another pool.
+     */
+    @NonNull
+    public ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * @return a snapshot of the current utilization of all pools
+     */
+    @AnyThread
+    @NonNull
+    public List<Gauge> getGauges() {
+        return List.of(io.getGauge(), dbWrite.getGauge(), cpu.getGauge(), network.getGauge(), sync.getGauge(), scheduler.getGauge());
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "AppExecutors" + getGauges();
+    }
+
+    public static class Gauge {
+        @NonNull
+        public final String name;
+        public final int activeCount;
+        public final int poolSize;
+        public final int maximumPoolSize;
+        public final int queueSize;
+        public final long completedTaskCount;
+
+        private Gauge(@NonNull String name, @NonNull ThreadPoolExecutor executor) {
+            this.name = name;
+            this.activeCount = executor.getActiveCount();
+            this.poolSize = executor.getPoolSize();
+            this.maximumPoolSize = executor.getMaximumPoolSize();
+            this.queueSize = executor.getQueue().size();
+            this.completedTaskCount = executor.getCompletedTaskCount();
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return name + "{" +
+                    "active=" + activeCount +
+                    ", pool=" + poolSize + "/" + maximumPoolSize +
+                    ", queued=" + queueSize +
+                    ", completed=" + completedTaskCount +
+                    '}';
+        }
+    }
+
+    private static class Pool extends ThreadPoolExecutor {
+
+        @NonNull
+        private final String name;
+        private final AtomicLong lastQueueWarningNanos = new AtomicLong(System.nanoTime() - QUEUE_WARNING_INTERVAL_NANOS);
+        private final AtomicInteger suppressedQueueWarnings = new AtomicInteger();
+
+        Pool(@NonNull String name, int threads) {
+            super(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new NamedThreadFactory(name));
+            this.name = name;
+            allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        protected void beforeExecute(Thread t, Runnable r) {
+            super.beforeExecute(t, r);
+            final int queueSize = getQueue().size();
+            if (queueSize > QUEUE_WARNING_THRESHOLD) {
+                final long now = System.nanoTime();
+                final long lastWarning = lastQueueWarningNanos.get();
+                if (now - lastWarning >= QUEUE_WARNING_INTERVAL_NANOS && lastQueueWarningNanos.compareAndSet(lastWarning, now)) {
+                    Log.w(TAG, queueSize + " tasks are waiting for " + getGauge() + " (" + suppressedQueueWarnings.getAndSet(0) + " similar warnings suppressed)");
+                } else {
+                    suppressedQueueWarnings.incrementAndGet();
+                }
+            }
+        }
+
+        @NonNull
+        Gauge getGauge() {
+            return new Gauge(name, this);
+        }
+
+        @Override
+        public void shutdown() {
+            throw new UnsupportedOperationException(name + " is shared and must not be shut down");
+        }
+
+        @NonNull
+        @Override
+        public List<Runnable> shutdownNow() {
+            throw new UnsupportedOperationException(name + " is shared and must not be shut down");
+        }
+    }
+
+    private static class ScheduledPool extends ScheduledThreadPoolExecutor {
+
+        @NonNull
+        private final String name;
+
+        ScheduledPool(@NonNull String name) {
+            super(1, new NamedThreadFactory(name));
+            this.name = name;
+            setMaximumPoolSize(1);
+            setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+            allowCoreThreadTimeOut(true);
+            // Cancelled debounce timers would otherwise stay in the queue until their delay has elapsed
+            setRemoveOnCancelPolicy(true);
+        }
+
+        @NonNull
+        Gauge getGauge() {
+            return new Gauge(name, this);
+        }
+
+        @Override
+        public void shutdown() {
+            throw new UnsupportedOperationException(name + " is shared and must not be shut down");
+        }
+
+        @NonNull
+        @Override
+        public List<Runnable> shutdownNow() {
+            throw new UnsupportedOperationException(name + " is shared and must not be shut down");
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+
+        @NonNull
+        private final String name;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        NamedThreadFactory(@NonNull String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            return new Thread(runnable, "notes-" + name + "-" + threadCount.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package it.niedermann.owncloud.notes.shared.util;
+
+import android.content.ComponentCallbacks2;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Size bounded LRU cache of rendered markdown, so unchanged notes do not get rendered again on each refresh of a widget.
+ * <p>
+ * Entries are identified by the id of the note, the theme and the font size, so changed appearances are rendered again while outdated entries get evicted over
+ * time. Each entry keeps the source content, which is compared on each hit, so a changed note gets rendered again and replaces its previous entry.
+ * The size is measured in characters of the content and the rendered output, which roughly scales with the size of its spans.
+ */
+public class MarkdownRenderCache {
+
+    private static final String TAG = MarkdownRenderCache.class.getSimpleName();
+
+    /**
+     * Rendered characters which are kept at most, about the content of some hundred average notes
+     */
+    private static final int MAX_SIZE_CHARS = 256 * 1_024;
+
+    private static MarkdownRenderCache instance;
+
+    private final LruCache<Key, Entry> cache;
+    private final AtomicInteger hitCount = new AtomicInteger();
+    private final AtomicInteger missCount = new AtomicInteger();
+
+    public static synchronized MarkdownRenderCache getInstance() {
+        if (instance == null) {
+            instance = new MarkdownRenderCache(MAX_SIZE_CHARS);
+        }
+        return instance;
+    }
+
+    MarkdownRenderCache(int maxSizeChars) {
+        this.cache = new LruCache<>(maxSizeChars) {
+            @Override
+            protected int sizeOf(Key key, Entry value) {
+                // Empty renderings still occupy an entry
+                return Math.max(1, value.content.length() + value.rendered.length());
+            }
+        };
+    }
+
+    /**
+     * @param theme    identifies the colors used for rendering, for example the mode of a {@link it.niedermann.owncloud.notes.preferences.DarkModeSetting}
+     * @param fontSize identifies the size used for rendering
+     * @param renderer renders the given {@param content}, only called if there is no cached result
+     * @return the cached rendering of the given {@param content} or the result of the {@param renderer}
+     */
+    @AnyThread
+    @NonNull
+    public CharSequence get(long noteId, @NonNull String content, int theme, float fontSize, @NonNull Supplier<CharSequence> renderer) {
+        final var key = new Key(noteId, theme, fontSize);
+        final var cached = cache.get(key);
+        if (cached != null && cached.content.equals(content)) {
+            hitCount.incrementAndGet();
+            return cached.rendered;
+        }
+        missCount.incrementAndGet();
+        final var rendered = renderer.get();
+        cache.put(key, new Entry(content, rendered));
+        return rendered;
+    }
+
+    /**
+     * Releases memory depending on the {@param level} passed to {@link ComponentCallbacks2#onTrimMemory(int)}.
+     */
+    @AnyThread
+    public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            Log.v(TAG, "Evict all entries (level " + level + "), " + this);
+            cache.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            Log.v(TAG, "Trim to half of the size (level " + level + "), " + this);
+            cache.trimToSize(cache.maxSize() / 2);
+        }
+    }
+
+    public int hitCount() {
+        return hitCount.get();
+    }
+
+    public int missCount() {
+        return missCount.get();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "MarkdownRenderCache{" +
+                "size=" + cache.size() +
+                ", maxSize=" + cache.maxSize() +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + cache.evictionCount() +
+                '}';
+    }
+
+    private static class Entry {
+        @NonNull
+        private final String content;
+        @NonNull
+        private final CharSequence rendered;
+
+        Entry(@NonNull String content, @NonNull CharSequence rendered) {
+            this.content = content;
+            this.rendered = rendered;
+        }
+    }
+
+    private static class Key {
+        private final long noteId;
+        private final int theme;
+        private final float fontSize;
+
+        Key(long noteId, int theme, float fontSize) {
+            this.noteId = noteId;
+            this.theme = theme;
+            this.fontSize = fontSize;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            final var key = (Key) o;
+
+            if (noteId != key.noteId) return false;
+            if (theme != key.theme) return false;
+            return Float.compare(key.fontSize, fontSize) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (int) (noteId ^ (noteId >>> 32));
+            result = 31 * result + theme;
+            result = 31 * result + (fontSize != +0.0f ? Float.floatToIntBits(fontSize) : 0);
+            return result;
+        }
+    }
+}
@@ -3,11 +3,19 @@ package it.niedermann.owncloud.notes.shared.util;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.text.TextUtils;
+import android.text.format.DateUtils;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.TimeZone;
 
 import it.niedermann.owncloud.notes.R;
+import it.niedermann.owncloud.notes.persistence.NotesRepository;
 
 import static it.niedermann.android.markdown.MarkdownUtil.removeMarkdown;
 import static it.niedermann.android.markdown.MarkdownUtil.replaceCheckboxesWithEmojis;
@@ -20,6 +28,11 @@ import static it.niedermann.android.markdown.MarkdownUtil.replaceCheckboxesWithE
 public class NoteUtil {
 
     public static final String EXCERPT_LINE_SEPARATOR = "   ";
+    private static final int EXCERPT_MAX_LENGTH = 200;
+    /**
+     * Section initial of titles starting with a character of a non latin script
+     */
+    public static final String SECTION_INITIAL_OTHER = "*";
 
     private NoteUtil() {
         throw new UnsupportedOperationException("Do not instantiate this util class.");
@@ -39,6 +52,9 @@ public class NoteUtil {
      * @return boolean isEmpty
      */
     public static boolean isEmptyLine(@Nullable String line) {
+        if (line == null || line.trim().isEmpty()) {
+            return true;
+        }
         return removeMarkdown(line).trim().length() == 0;
     }
 
@@ -57,6 +73,11 @@ public class NoteUtil {
 
     /**
      * Generates an excerpt of a content that does <em>not</em> match the given title
+     * <p>
+     * Removing the Markdown is expensive for large contents, while an excerpt only consists of the first {@value #EXCERPT_MAX_LENGTH} characters.
+     * Therefore only growing chunks of the content which end at a block boundary (see {@link #findBlockBoundary(String, int)}) are processed, until the chunk is
+     * long enough to produce the excerpt, so the result is the same as if the whole content would have been processed.
+     * Link reference definitions can affect previous paragraphs, so contents containing them are processed as a whole.
      *
      * @param content {@link String}
      * @param title   {@link String} In case the content starts with the title, the excerpt should be generated starting from this point
@@ -64,18 +85,105 @@ public class NoteUtil {
      */
     @NonNull
     public static String generateNoteExcerpt(@NonNull String content, @Nullable String title) {
-        content = removeMarkdown(replaceCheckboxesWithEmojis(content.trim()));
+        content = content.trim();
+        final String trimmedTitle = TextUtils.isEmpty(title)
+                ? null
+                : removeMarkdown(replaceCheckboxesWithEmojis(Objects.requireNonNull(title).trim()));
+        if (!content.contains("]:")) {
+            final int requiredLength = (trimmedTitle == null ? 0 : trimmedTitle.length()) + EXCERPT_MAX_LENGTH;
+            for (int chunkLength = requiredLength * 2; chunkLength < content.length(); chunkLength *= 2) {
+                final int blockEnd = findBlockBoundary(content, chunkLength);
+                if (blockEnd < 0) {
+                    break;
+                }
+                final String chunk = removeMarkdown(replaceCheckboxesWithEmojis(content.substring(0, blockEnd)));
+                if (trimmedTitle == null || chunk.length() > trimmedTitle.length()) {
+                    final String excerpt = removeTitle(chunk, trimmedTitle).trim();
+                    if (excerpt.length() > EXCERPT_MAX_LENGTH) {
+                        return truncateString(excerpt, EXCERPT_MAX_LENGTH).replace("\n", EXCERPT_LINE_SEPARATOR);
+                    }
+                }
+            }
+        }
+        content = removeMarkdown(replaceCheckboxesWithEmojis(content));
         if (TextUtils.isEmpty(content)) {
             return "";
         }
-        if (!TextUtils.isEmpty(title)) {
-            assert title != null;
-            final String trimmedTitle = removeMarkdown(replaceCheckboxesWithEmojis(title.trim()));
-            if (content.startsWith(trimmedTitle)) {
-                content = content.substring(trimmedTitle.length());
+        return truncateString(removeTitle(content, trimmedTitle).trim(), EXCERPT_MAX_LENGTH).replace("\n", EXCERPT_LINE_SEPARATOR);
+    }
+
+    /**
+     * An empty line does not always end a Markdown block: it might be part of a fenced code block, and list items or indented lines after it continue the
+     * previous block (making a list loose changes how all of its items are rendered). Those empty lines are skipped.
+     *
+     * @param content  trimmed content
+     * @param minIndex index from which on a block boundary is searched
+     * @return index of the line break in front of the first empty line at or after {@param minIndex} which ends all previous Markdown blocks, or <code>-1</code>
+     */
+    @VisibleForTesting
+    static int findBlockBoundary(@NonNull String content, int minIndex) {
+        String openFence = null;
+        int lineStart = 0;
+        while (true) {
+            final int lineEnd = content.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                return -1;
             }
+            final String line = content.substring(lineStart, lineEnd).trim();
+            if (openFence == null) {
+                if (line.startsWith("```") || line.startsWith("~~~")) {
+                    int fenceLength = 3;
+                    while (fenceLength < line.length() && line.charAt(fenceLength) == line.charAt(0)) {
+                        fenceLength++;
+                    }
+                    openFence = line.substring(0, fenceLength);
+                }
+            } else if (line.startsWith(openFence) && line.replace(openFence.charAt(0), ' ').trim().isEmpty()) {
+                openFence = null;
+            }
+            if (openFence == null && lineEnd >= minIndex && lineEnd + 1 < content.length() && content.charAt(lineEnd + 1) == '\n' && startsNewBlock(content, lineEnd + 1)) {
+                return lineEnd;
+            }
+            lineStart = lineEnd + 1;
         }
-        return truncateString(content.trim(), 200).replace("\n", EXCERPT_LINE_SEPARATOR);
+    }
+
+    /**
+     * @param index of an empty line
+     * @return whether the first non-empty line after {@param index} starts a new Markdown block instead of continuing a previous list or indented block
+     */
+    private static boolean startsNewBlock(@NonNull String content, int index) {
+        while (index < content.length() && content.charAt(index) == '\n') {
+            index++;
+        }
+        if (index >= content.length()) {
+            return false;
+        }
+        final char first = content.charAt(index);
+        if (first == ' ' || first == '\t') {
+            return false;
+        }
+        int markerEnd = index;
+        if (first == '-' || first == '*' || first == '+') {
+            markerEnd++;
+        } else {
+            while (markerEnd < content.length() && Character.isDigit(content.charAt(markerEnd))) {
+                markerEnd++;
+            }
+            if (markerEnd == index || markerEnd >= content.length() || (content.charAt(markerEnd) != '.' && content.charAt(markerEnd) != ')')) {
+                return true;
+            }
+            markerEnd++;
+        }
+        // A list marker must be followed by a space or the end of the line
+        return markerEnd < content.length() && content.charAt(markerEnd) != ' ' && content.charAt(markerEnd) != '\t' && content.charAt(markerEnd) != '\n';
+    }
+
+    @NonNull
+    private static String removeTitle(@NonNull String content, @Nullable String trimmedTitle) {
+        return trimmedTitle != null && content.startsWith(trimmedTitle)
+                ? content.substring(trimmedTitle.length())
+                : content;
     }
 
     @NonNull
@@ -107,20 +215,150 @@ public class NoteUtil {
      */
     @NonNull
     public static String getLineWithoutMarkdown(@NonNull String content, int lineNumber) {
-        String line = "";
-        if (content.contains("\n")) {
-            String[] lines = content.split("\n");
-            int currentLine = lineNumber;
-            while (currentLine < lines.length && NoteUtil.isEmptyLine(lines[currentLine])) {
-                currentLine++;
+        if (content.indexOf('\n') < 0) {
+            return removeMarkdown(content);
+        }
+        int lineStart = 0;
+        for (int i = 0; i < lineNumber; i++) {
+            lineStart = content.indexOf('\n', lineStart) + 1;
+            if (lineStart == 0) {
+                return "";
             }
-            if (currentLine < lines.length) {
-                line = removeMarkdown(lines[currentLine]);
+        }
+        while (lineStart <= content.length()) {
+            int lineEnd = content.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = content.length();
             }
-        } else {
-            line = removeMarkdown(content);
+            final String line = content.substring(lineStart, lineEnd);
+            if (!isEmptyLine(line)) {
+                return removeMarkdown(line);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return "";
+    }
+
+    /**
+     * Converts a search term of the user into a full text search expression, which matches all
+     * notes containing words that start with each of the given words.
+     * Other than a <code>LIKE</code> search it does not find a word in the middle of another word,
+     * e.g. <code>"read"</code> does not match <code>"bread"</code>.
+     * The prefix operator must be placed within the quotes, SQLite ignores it after a quoted phrase.
+     * <pre>
+     * "foo bar" -> "\"foo*\" \"bar*\""
+     * </pre>
+     *
+     * @param searchTerm String as entered by the user
+     * @return full text search expression or an empty String which matches all notes
+     */
+    @NonNull
+    public static String generateFullTextSearchQuery(@Nullable String searchTerm) {
+        if (searchTerm == null) {
+            return "";
         }
-        return line;
+        final var query = new StringBuilder();
+        for (final String word : searchTerm.replace('"', ' ').trim().split("\\s+")) {
+            if (!word.isEmpty()) {
+                if (query.length() > 0) {
+                    query.append(' ');
+                }
+                query.append('"').append(word).append("*\"");
+            }
+        }
+        return query.toString();
+    }
+
+    /**
+     * The full text search only splits words at spaces and punctuation, so words of scripts which
+     * are written without spaces (like Chinese, Japanese or Thai) can only be found at the beginning
+     * of a sentence. For those the full text search is complemented by a <code>LIKE</code> pattern.
+     * <pre>
+     * "foo"    -> ""
+     * " 日记 " -> "%日记%"
+     * </pre>
+     *
+     * @param searchTerm String as entered by the user
+     * @return <code>LIKE</code> pattern or an empty String if the full text search is sufficient
+     */
+    @NonNull
+    public static String generateSubstringSearchQuery(@Nullable String searchTerm) {
+        if (searchTerm == null) {
+            return "";
+        }
+        final boolean withoutWordSeparators = searchTerm.codePoints().anyMatch(codePoint -> {
+            switch (Character.UnicodeScript.of(codePoint)) {
+                case HAN:
+                case HIRAGANA:
+                case KATAKANA:
+                case THAI:
+                case LAO:
+                case KHMER:
+                case MYANMAR:
+                case TIBETAN:
+                    return true;
+                default:
+                    return false;
+            }
+        });
+        return withoutWordSeparators ? "%" + searchTerm.trim() + "%" : "";
+    }
+
+    /**
+     * Generates the initial which is used to group notes when sorting them lexicographically.
+     * <pre>
+     * ""      -> ""
+     * "foo"   -> "F"
+     * "ärger" -> "Ä"
+     * "1st"   -> "#"
+     * "日记"   -> {@link #SECTION_INITIAL_OTHER}
+     * </pre>
+     *
+     * @param title of a note
+     * @return the upper cased first letter of the title, <code>#</code> for digits and punctuation or {@link #SECTION_INITIAL_OTHER} for characters of other scripts
+     */
+    @NonNull
+    public static String generateSectionInitial(@NonNull String title) {
+        if (title.isEmpty()) {
+            return "";
+        }
+        final String initial = title.substring(0, 1).toUpperCase();
+        if (initial.matches("[A-Z\\u00C0-\\u00DF]")) {
+            return initial;
+        }
+        return initial.matches("[\\u0250-\\uFFFF]") ? SECTION_INITIAL_OTHER : "#";
+    }
+
+    /**
+     * Generates the key by which notes are sorted lexicographically.
+     * It is persisted, because SQLite can not read a case insensitive order from an index of the <code>title</code>.
+     * <pre>
+     * "Foo"   -> "foo"
+     * "ÄRGER" -> "ärger"
+     * </pre>
+     *
+     * @param title of a note
+     * @return the lower cased title
+     */
+    @NonNull
+    public static String generateSortTitle(@NonNull String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param modified timestamp of the last modification of a note
+     * @return the number of days since epoch in the current time zone, <code>0</code> if <code>modified</code> is <code>null</code>.
+     * Persisted values are recalculated when the time zone changes, see {@link NotesRepository#updateSectionDaysIfTimeZoneChanged()}
+     */
+    public static long generateSectionDay(@Nullable Calendar modified) {
+        return modified == null ? 0 : generateSectionDay(modified.getTimeInMillis());
+    }
+
+    /**
+     * @see #generateSectionDay(Calendar)
+     */
+    public static long generateSectionDay(@Nullable Long modified) {
+        return modified == null ? 0 : Math.floorDiv(modified + TimeZone.getDefault().getOffset(modified), DateUtils.DAY_IN_MILLIS);
     }
 
     @NonNull
@@ -14,15 +14,15 @@ import android.widget.RemoteViews;
 
 import java.util.NoSuchElementException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import it.niedermann.owncloud.notes.R;
 import it.niedermann.owncloud.notes.persistence.NotesRepository;
 import it.niedermann.owncloud.notes.persistence.entity.NotesListWidgetData;
+import it.niedermann.owncloud.notes.shared.util.AppExecutors;
 
 public class NoteListWidget extends AppWidgetProvider {
     private static final String TAG = NoteListWidget.class.getSimpleName();
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ExecutorService executor = AppExecutors.getInstance().io();
 
     static void updateAppWidget(Context context, AppWidgetManager awm, int[] appWidgetIds) {
         final var repo = NotesRepository.getInstance(context);
@@ -55,7 +55,7 @@ public class NoteListWidget extends AppWidgetProvider {
     @Override
     public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
         super.onUpdate(context, appWidgetManager, appWidgetIds);
-        updateAppWidget(context, appWidgetManager, appWidgetIds);
+        executor.submit(() -> updateAppWidget(context, appWidgetManager, appWidgetIds));
     }
 
     @Override
@@ -67,12 +67,13 @@ public class NoteListWidget extends AppWidgetProvider {
             if (intent.getAction().equals(AppWidgetManager.ACTION_APPWIDGET_UPDATE)) {
                 if (intent.hasExtra(AppWidgetManager.EXTRA_APPWIDGET_ID)) {
                     if (intent.getExtras() != null) {
-                        updateAppWidget(context, awm, new int[]{intent.getExtras().getInt(AppWidgetManager.EXTRA_APPWIDGET_ID, -1)});
+                        final int appWidgetId = intent.getExtras().getInt(AppWidgetManager.EXTRA_APPWIDGET_ID, -1);
+                        executor.submit(() -> updateAppWidget(context, awm, new int[]{appWidgetId}));
                     } else {
                         Log.w(TAG, "intent.getExtras() is null");
                     }
                 } else {
-                    updateAppWidget(context, awm, awm.getAppWidgetIds(new ComponentName(context, NoteListWidget.class)));
+                    executor.submit(() -> updateAppWidget(context, awm, awm.getAppWidgetIds(new ComponentName(context, NoteListWidget.class))));
                 }
             }
         } else {
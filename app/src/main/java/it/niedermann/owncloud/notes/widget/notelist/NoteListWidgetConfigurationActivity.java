@@ -15,7 +15,6 @@ import com.nextcloud.android.sso.exceptions.NoCurrentAccountSelectedException;
 import com.nextcloud.android.sso.helper.SingleAccountHelper;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import it.niedermann.owncloud.notes.LockedActivity;
 import it.niedermann.owncloud.notes.NotesApplication;
@@ -27,6 +26,7 @@ import it.niedermann.owncloud.notes.main.navigation.NavigationItem;
 import it.niedermann.owncloud.notes.persistence.NotesRepository;
 import it.niedermann.owncloud.notes.persistence.entity.Account;
 import it.niedermann.owncloud.notes.persistence.entity.NotesListWidgetData;
+import it.niedermann.owncloud.notes.shared.util.AppExecutors;
 
 import static it.niedermann.owncloud.notes.persistence.entity.NotesListWidgetData.MODE_DISPLAY_ALL;
 import static it.niedermann.owncloud.notes.persistence.entity.NotesListWidgetData.MODE_DISPLAY_CATEGORY;
@@ -37,7 +37,7 @@ import static it.niedermann.owncloud.notes.shared.model.ENavigationCategoryType.
 public class NoteListWidgetConfigurationActivity extends LockedActivity {
     private static final String TAG = Activity.class.getSimpleName();
 
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ExecutorService executor = AppExecutors.getInstance().io();
 
     private int appWidgetId = AppWidgetManager.INVALID_APPWIDGET_ID;
 
@@ -132,10 +132,11 @@ public class NoteListWidgetConfigurationActivity extends LockedActivity {
                 this.localAccount = repo.getAccountByName(SingleAccountHelper.getCurrentSingleSignOnAccount(this).name);
             } catch (NextcloudFilesAppAccountNotFoundException | NoCurrentAccountSelectedException e) {
                 e.printStackTrace();
-                Toast.makeText(this, R.string.widget_not_logged_in, Toast.LENGTH_LONG).show();
+                runOnUiThread(() -> Toast.makeText(this, R.string.widget_not_logged_in, Toast.LENGTH_LONG).show());
                 // TODO Present user with app login screen
                 Log.w(TAG, "onCreate: user not logged in");
                 finish();
+                return;
             }
             runOnUiThread(() -> viewModel.getAdapterCategories(localAccount.getId()).observe(this, (navigationItems) -> adapterCategories.setItems(navigationItems)));
         });
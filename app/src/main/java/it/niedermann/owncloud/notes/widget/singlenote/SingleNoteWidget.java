@@ -13,18 +13,18 @@ import android.util.Log;
 import android.widget.RemoteViews;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import it.niedermann.owncloud.notes.R;
 import it.niedermann.owncloud.notes.edit.BaseNoteFragment;
 import it.niedermann.owncloud.notes.edit.EditNoteActivity;
 import it.niedermann.owncloud.notes.persistence.NotesRepository;
 import it.niedermann.owncloud.notes.persistence.entity.SingleNoteWidgetData;
+import it.niedermann.owncloud.notes.shared.util.AppExecutors;
 
 public class SingleNoteWidget extends AppWidgetProvider {
 
     private static final String TAG = SingleNoteWidget.class.getSimpleName();
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ExecutorService executor = AppExecutors.getInstance().io();
 
     static void updateAppWidget(Context context, AppWidgetManager awm, int[] appWidgetIds) {
         final var templateIntent = new Intent(context, EditNoteActivity.class);
@@ -56,7 +56,7 @@ public class SingleNoteWidget extends AppWidgetProvider {
     @Override
     public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
         super.onUpdate(context, appWidgetManager, appWidgetIds);
-        updateAppWidget(context, appWidgetManager, appWidgetIds);
+        executor.submit(() -> updateAppWidget(context, appWidgetManager, appWidgetIds));
     }
 
     @Override
@@ -64,8 +64,8 @@ public class SingleNoteWidget extends AppWidgetProvider {
         super.onReceive(context, intent);
         final var awm = AppWidgetManager.getInstance(context);
 
-        updateAppWidget(context, AppWidgetManager.getInstance(context),
-                (awm.getAppWidgetIds(new ComponentName(context, SingleNoteWidget.class))));
+        executor.submit(() -> updateAppWidget(context, AppWidgetManager.getInstance(context),
+                (awm.getAppWidgetIds(new ComponentName(context, SingleNoteWidget.class)))));
     }
 
     @Override
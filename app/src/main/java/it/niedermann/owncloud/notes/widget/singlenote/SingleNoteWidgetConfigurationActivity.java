@@ -16,7 +16,7 @@ import it.niedermann.owncloud.notes.NotesApplication;
 import it.niedermann.owncloud.notes.R;
 import it.niedermann.owncloud.notes.exception.ExceptionHandler;
 import it.niedermann.owncloud.notes.main.MainActivity;
-import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.persistence.entity.NoteListItem;
 import it.niedermann.owncloud.notes.persistence.entity.SingleNoteWidgetData;
 
 public class SingleNoteWidgetConfigurationActivity extends MainActivity {
@@ -42,7 +42,7 @@ public class SingleNoteWidgetConfigurationActivity extends MainActivity {
 
     @Override
     public void onNoteClick(int position, View v) {
-        final var note = (Note) adapter.getItem(position);
+        final var note = (NoteListItem) adapter.getItem(position);
         final var args = getIntent().getExtras();
 
         if (args == null) {
@@ -69,7 +69,7 @@ public class SingleNoteWidgetConfigurationActivity extends MainActivity {
                 getApplicationContext().sendBroadcast(updateIntent);
                 finish();
             } catch (SQLException e) {
-                Toast.makeText(this, e.getLocalizedMessage(), Toast.LENGTH_LONG).show();
+                runOnUiThread(() -> Toast.makeText(this, e.getLocalizedMessage(), Toast.LENGTH_LONG).show());
             }
         });
     }
@@ -16,6 +16,7 @@ import it.niedermann.owncloud.notes.edit.EditNoteActivity;
 import it.niedermann.owncloud.notes.persistence.NotesRepository;
 import it.niedermann.owncloud.notes.persistence.entity.Note;
 import it.niedermann.owncloud.notes.persistence.entity.SingleNoteWidgetData;
+import it.niedermann.owncloud.notes.shared.util.MarkdownRenderCache;
 
 public class SingleNoteWidgetFactory implements RemoteViewsService.RemoteViewsFactory {
 
@@ -25,6 +26,7 @@ public class SingleNoteWidgetFactory implements RemoteViewsService.RemoteViewsFa
     private final NotesRepository repo;
     @Nullable
     private Note note;
+    private int themeMode;
 
     private static final String TAG = SingleNoteWidget.class.getSimpleName();
 
@@ -44,6 +46,7 @@ public class SingleNoteWidgetFactory implements RemoteViewsService.RemoteViewsFa
         final var data = repo.getSingleNoteWidgetData(appWidgetId);
         if (data != null) {
             final long noteId = data.getNoteId();
+            themeMode = data.getThemeMode();
             Log.v(TAG, "Fetch note with id " + noteId);
             note = repo.getNoteById(noteId);
 
@@ -91,7 +94,9 @@ public class SingleNoteWidgetFactory implements RemoteViewsService.RemoteViewsFa
 
         final var note_content = new RemoteViews(context.getPackageName(), R.layout.widget_single_note_content);
         note_content.setOnClickFillInIntent(R.id.single_note_content_tv, fillInIntent);
-        note_content.setTextViewText(R.id.single_note_content_tv, MarkdownUtil.renderForRemoteView(context, note.getContent()));
+        final var content = note.getContent();
+        note_content.setTextViewText(R.id.single_note_content_tv, MarkdownRenderCache.getInstance().get(note.getId(), content, themeMode, context.getResources().getConfiguration().fontScale,
+                () -> MarkdownUtil.renderForRemoteView(context, content)));
 
         return note_content;
     }
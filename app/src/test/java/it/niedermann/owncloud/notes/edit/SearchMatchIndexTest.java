@@ -0,0 +1,161 @@
+package it.niedermann.owncloud.notes.edit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+public class SearchMatchIndexTest {
+
+    @Test
+    public void compute() {
+        assertArrayEquals(new int[]{0, 12, 25}, offsets(SearchMatchIndex.compute("Foo bar baz FOO qux quux fOo", "foo")));
+        assertArrayEquals("Overlapping occurrences", new int[]{0, 1, 2}, offsets(SearchMatchIndex.compute("aaaa", "aa")));
+        assertArrayEquals("Occurrence at the very end", new int[]{4}, offsets(SearchMatchIndex.compute("abcdxyz", "xyz")));
+        assertArrayEquals("Non ASCII characters", new int[]{0, 6}, offsets(SearchMatchIndex.compute("Ärger ärger", "ÄRGER")));
+        assertEquals(0, SearchMatchIndex.compute("foo", "foobar").count());
+        assertEquals(0, SearchMatchIndex.compute(null, "foo").count());
+        assertSame(SearchMatchIndex.EMPTY, SearchMatchIndex.compute("foo", null));
+        assertSame(SearchMatchIndex.EMPTY, SearchMatchIndex.compute("foo", ""));
+    }
+
+    @Test
+    public void computeLargeText() {
+        for (int count = 0; count <= 15; ++count) {
+            final var sb = new StringBuilder("Mike Chester Wang");
+            for (int i = 0; i < count; ++i) {
+                sb.append(sb);
+            }
+            assertEquals((int) Math.pow(2, count), SearchMatchIndex.compute(sb.toString(), "Chester").count());
+        }
+    }
+
+    @Test
+    public void computeNullOrEmptyInput() {
+        assertEquals(0, SearchMatchIndex.compute(null, "Hi").count());
+        assertEquals(0, SearchMatchIndex.compute("Hi my name is Mike Chester Wang", null).count());
+        assertEquals(0, SearchMatchIndex.compute("", "Hi").count());
+        assertEquals(0, SearchMatchIndex.compute("Hi my name is Mike Chester Wang", "").count());
+    }
+
+    @Test
+    public void getOffset() {
+        final var index = SearchMatchIndex.compute("foo bar foo", "foo");
+        assertEquals(0, index.getOffset(0));
+        assertEquals(8, index.getOffset(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.getOffset(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.getOffset(-1));
+    }
+
+    @Test
+    public void refine() {
+        final String text = "Foo Food football fo";
+        final var index = SearchMatchIndex.compute(text, "fo");
+        assertEquals(4, index.count());
+
+        assertTrue(index.canRefine("FOO"));
+        assertFalse(index.canRefine("f"));
+        assertFalse(index.canRefine("bar"));
+        assertFalse(index.canRefine(null));
+        assertFalse(SearchMatchIndex.EMPTY.canRefine("foo"));
+
+        final var refined = index.refine(text, "FOO");
+        assertEquals("FOO", refined.getQuery());
+        assertArrayEquals(offsets(SearchMatchIndex.compute(text, "FOO")), offsets(refined));
+        assertArrayEquals(offsets(SearchMatchIndex.compute(text, "food")), offsets(refined.refine(text, "food")));
+        assertThrows(IllegalArgumentException.class, () -> index.refine(text, "bar"));
+    }
+
+    @Test
+    public void refineLargeText() {
+        final String text = largeText();
+        var index = SearchMatchIndex.compute(text, "c");
+        for (final var query : new String[]{"ch", "che", "ches", "chester", "chester wang", "chester wangx"}) {
+            index = index.refine(text, query);
+            assertArrayEquals(query, offsets(SearchMatchIndex.compute(text, query)), offsets(index));
+        }
+        assertEquals(0, index.count());
+    }
+
+    @Test
+    public void refineOccurrenceAtTheEnd() {
+        final String text = "foo fo";
+        final var refined = SearchMatchIndex.compute(text, "fo").refine(text, "foo");
+        assertArrayEquals(new int[]{0}, offsets(refined));
+    }
+
+    @Test
+    public void afterEdit() {
+        assertAfterEdit("foo bar foo", "foo", 4, 0, "foo ");
+        assertAfterEdit("foo bar foo", "foo", 0, 4, "");
+        assertAfterEdit("Edits within an occurrence", "foo bar foo", "foo", 9, 1, "x");
+        assertAfterEdit("Edits creating an occurrence", "fo bar foo", "foo", 2, 0, "o");
+        assertAfterEdit("Edits joining an occurrence", "f o bar foo", "foo", 1, 1, "");
+        assertAfterEdit("Overlapping occurrences", "aaaa", "aa", 2, 0, "aa");
+        assertAfterEdit("Replacing everything", "foo bar", "foo", 0, 7, "foo foo foo");
+        assertAfterEdit("Empty text", "", "foo", 0, 0, "foofoo");
+        assertAfterEdit("Appending", "foo bar fo", "foo", 10, 0, "o foo");
+        assertAfterEdit("Removing multiple occurrences", "foo foo foo foo", "foo", 2, 10, "");
+        assertAfterEdit("Changing case", "foo bar", "FOO", 0, 3, "FoO");
+    }
+
+    @Test
+    public void afterEditLargeText() {
+        final String text = largeText();
+        final int middle = text.length() / 2;
+        assertAfterEdit("Inserting in the middle", text, "Chester", middle, 0, "Chester");
+        assertAfterEdit("Removing from the middle", text, "Chester", middle, 100, "");
+        assertAfterEdit("Replacing at the start", text, "Chester", 0, 10, "Chester Chester");
+    }
+
+    @Test
+    public void afterEditAndRefine() {
+        final String text = "foo bar";
+        final String edited = "foo food bar";
+        final var index = SearchMatchIndex.compute(text, "fo")
+                .afterEdit(edited, 4, 0, 5)
+                .refine(edited, "food");
+        assertArrayEquals(new int[]{4}, offsets(index));
+    }
+
+    @Test
+    public void afterEditWithoutQuery() {
+        assertSame(SearchMatchIndex.EMPTY, SearchMatchIndex.EMPTY.afterEdit("foo", 0, 0, 3));
+    }
+
+    private static void assertAfterEdit(@NonNull String text, @NonNull String query, int start, int before, @NonNull String replacement) {
+        assertAfterEdit(null, text, query, start, before, replacement);
+    }
+
+    /**
+     * Asserts that updating the index after an edit results in the same offsets like scanning the whole edited text.
+     */
+    private static void assertAfterEdit(String message, @NonNull String text, @NonNull String query, int start, int before, @NonNull String replacement) {
+        final String edited = text.substring(0, start) + replacement + text.substring(start + before);
+        final var index = SearchMatchIndex.compute(text, query).afterEdit(edited, start, before, replacement.length());
+        assertArrayEquals(message, offsets(SearchMatchIndex.compute(edited, query)), offsets(index));
+    }
+
+    @NonNull
+    private static String largeText() {
+        final var sb = new StringBuilder("Mike Chester Wang");
+        for (int i = 0; i < 10; ++i) {
+            sb.append(sb);
+        }
+        return sb.toString();
+    }
+
+    private static int[] offsets(@NonNull SearchMatchIndex index) {
+        final int[] offsets = new int[index.count()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = index.getOffset(i);
+        }
+        return offsets;
+    }
+}
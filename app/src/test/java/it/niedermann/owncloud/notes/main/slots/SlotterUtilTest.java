@@ -8,11 +8,14 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 
 import it.niedermann.owncloud.notes.main.items.section.SectionItem;
 import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.persistence.entity.NoteListItem;
+import it.niedermann.owncloud.notes.shared.model.Item;
 
 @RunWith(RobolectricTestRunner.class)
 public class SlotterUtilTest {
@@ -20,11 +23,11 @@ public class SlotterUtilTest {
     @Test
     public void fillListByInitials_shouldAddSectionItems() {
         final var notes = List.of(
-                new Note(1L, Calendar.getInstance(), "Aaa", "", "", false, ""),
-                new Note(1L, Calendar.getInstance(), "Abc", "", "", false, ""),
-                new Note(1L, Calendar.getInstance(), "Bbb", "", "", false, ""),
-                new Note(1L, Calendar.getInstance(), "Bcd", "", "", false, ""),
-                new Note(1L, Calendar.getInstance(), "Def", "", "", false, "")
+                new NoteListItem(new Note(1L, Calendar.getInstance(), "Aaa", "", "", false, "")),
+                new NoteListItem(new Note(1L, Calendar.getInstance(), "Abc", "", "", false, "")),
+                new NoteListItem(new Note(1L, Calendar.getInstance(), "Bbb", "", "", false, "")),
+                new NoteListItem(new Note(1L, Calendar.getInstance(), "Bcd", "", "", false, "")),
+                new NoteListItem(new Note(1L, Calendar.getInstance(), "Def", "", "", false, ""))
         );
 
         final var items = SlotterUtil.fillListByInitials(ApplicationProvider.getApplicationContext(), notes);
@@ -36,11 +39,43 @@ public class SlotterUtilTest {
     @Test
     public void fillListByInitials_shouldAcceptEmptyTitles() {
         final var notes = List.of(
-                new Note(1L, Calendar.getInstance(), "", "", "", false, ""),
-                new Note(2L, Calendar.getInstance(), "Foo", "", "", false, ""),
-                new Note(3L, Calendar.getInstance(), "Bar", "", "", false, "")
+                new NoteListItem(new Note(1L, Calendar.getInstance(), "", "", "", false, "")),
+                new NoteListItem(new Note(2L, Calendar.getInstance(), "Foo", "", "", false, "")),
+                new NoteListItem(new Note(3L, Calendar.getInstance(), "Bar", "", "", false, ""))
         );
 
         final var items = SlotterUtil.fillListByInitials(ApplicationProvider.getApplicationContext(), notes);
     }
+
+    @Test
+    public void appendByInitials_shouldOnlySlotTheAppendedNotes() {
+        final var notes = List.of(
+                new NoteListItem(new Note(1L, Calendar.getInstance(), "Aaa", "", "", false, "")),
+                new NoteListItem(new Note(2L, Calendar.getInstance(), "Abc", "", "", false, "")),
+                new NoteListItem(new Note(3L, Calendar.getInstance(), "Bbb", "", "", false, "")),
+                new NoteListItem(new Note(4L, Calendar.getInstance(), "Bcd", "", "", false, "")),
+                new NoteListItem(new Note(5L, Calendar.getInstance(), "Def", "", "", false, ""))
+        );
+
+        final var items = new ArrayList<Item>();
+        final String lastInitials = SlotterUtil.appendByInitials(ApplicationProvider.getApplicationContext(), items, notes.subList(0, 3), null);
+        assertEquals("B", lastInitials);
+        SlotterUtil.appendByInitials(ApplicationProvider.getApplicationContext(), items, notes.subList(3, 5), lastInitials);
+        assertEquals("Paged slotting should not repeat the section of the previous page", SlotterUtil.fillListByInitials(ApplicationProvider.getApplicationContext(), notes), items);
+    }
+
+    @Test
+    public void appendByCategory_shouldOnlySlotTheAppendedNotes() {
+        final var notes = List.of(
+                new NoteListItem(new Note(1L, Calendar.getInstance(), "Aaa", "", "Movies", false, "")),
+                new NoteListItem(new Note(2L, Calendar.getInstance(), "Bbb", "", "Movies/Drama", false, "")),
+                new NoteListItem(new Note(3L, Calendar.getInstance(), "Ccc", "", "Movies/Drama", false, ""))
+        );
+
+        final var items = new ArrayList<Item>();
+        final String lastCategory = SlotterUtil.appendByCategory(items, notes.subList(0, 2), "Movies");
+        SlotterUtil.appendByCategory(items, notes.subList(2, 3), lastCategory);
+        assertEquals(SlotterUtil.fillListByCategory(notes, "Movies"), items);
+        assertEquals(1, items.stream().filter(item -> item instanceof SectionItem).count());
+    }
 }
@@ -1,6 +1,7 @@
 package it.niedermann.owncloud.notes.persistence;
 
 import android.accounts.NetworkErrorException;
+import android.content.Context;
 
 import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
 import androidx.test.core.app.ApplicationProvider;
@@ -30,6 +31,8 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(RobolectricTestRunner.class)
@@ -59,18 +62,48 @@ public class CapabilitiesClientTest {
 
         when(responseMock.getResponse()).thenReturn(mockOcs);
         when(responseMock.getHeaders()).thenReturn(Map.of("ETag", "1234"));
-        when(ocsAPI.getCapabilities(any())).thenReturn(Observable.just(responseMock));
+        when(ocsAPI.getCapabilities(any(), any())).thenReturn(Observable.just(responseMock));
 
-        final var capabilities = CapabilitiesClient.getCapabilities(ApplicationProvider.getApplicationContext(), ssoAccount, null, apiProvider);
+        final var capabilities = CapabilitiesClient.getCapabilities(ApplicationProvider.getApplicationContext(), ssoAccount, null, apiProvider, createResponseCache());
 
         assertEquals("[1.0]", capabilities.getApiVersion());
         assertEquals("ETag should be read correctly from response but wasn't.", "1234", capabilities.getETag());
 
-        when(ocsAPI.getCapabilities(any())).thenReturn(Observable.error(new RuntimeException()));
-        assertThrows(RuntimeException.class, () -> CapabilitiesClient.getCapabilities(ApplicationProvider.getApplicationContext(), ssoAccount, null, apiProvider));
+        when(ocsAPI.getCapabilities(any(), any())).thenReturn(Observable.error(new RuntimeException()));
+        assertThrows(RuntimeException.class, () -> CapabilitiesClient.getCapabilities(ApplicationProvider.getApplicationContext(), ssoAccount, null, apiProvider, createResponseCache()));
 
-        when(ocsAPI.getCapabilities(any())).thenReturn(Observable.error(new RuntimeException(new NetworkErrorException())));
-        assertThrows("Should unwrap exception cause if possible", NetworkErrorException.class, () -> CapabilitiesClient.getCapabilities(ApplicationProvider.getApplicationContext(), ssoAccount, null, apiProvider));
+        when(ocsAPI.getCapabilities(any(), any())).thenReturn(Observable.error(new RuntimeException(new NetworkErrorException())));
+        assertThrows("Should unwrap exception cause if possible", NetworkErrorException.class, () -> CapabilitiesClient.getCapabilities(ApplicationProvider.getApplicationContext(), ssoAccount, null, apiProvider, createResponseCache()));
+    }
+
+    @Test
+    public void testGetCapabilitiesFromCache() throws Throwable {
+        //noinspection unchecked
+        final ParsedResponse<OcsResponse<Capabilities>> responseMock = mock(ParsedResponse.class);
+
+        final OcsResponse<Capabilities> mockOcs = new OcsResponse<>();
+        mockOcs.ocs = new OcsResponse.OcsWrapper<>();
+        mockOcs.ocs.data = new Capabilities();
+        mockOcs.ocs.data.setApiVersion("[1.0]");
+
+        when(responseMock.getResponse()).thenReturn(mockOcs);
+        when(responseMock.getHeaders()).thenReturn(Map.of("ETag", "1234"));
+        when(ocsAPI.getCapabilities(any(), any())).thenReturn(Observable.just(responseMock));
+
+        final var responseCache = createResponseCache();
+        CapabilitiesClient.getCapabilities(ApplicationProvider.getApplicationContext(), ssoAccount, "1000", apiProvider, responseCache);
+        verify(ocsAPI).getCapabilities("1000", null);
+
+        final var capabilities = CapabilitiesClient.getCapabilities(ApplicationProvider.getApplicationContext(), ssoAccount, "1000", apiProvider, responseCache);
+        verify(ocsAPI, times(1)).getCapabilities(any(), any());
+        assertEquals("[1.0]", capabilities.getApiVersion());
+        assertEquals("1234", capabilities.getETag());
+    }
+
+    private static ResponseCache createResponseCache() {
+        final var preferences = ApplicationProvider.getApplicationContext().getSharedPreferences("test", Context.MODE_PRIVATE);
+        preferences.edit().clear().commit();
+        return new ResponseCache(preferences, System::currentTimeMillis);
     }
 
     @SuppressWarnings("unchecked")
@@ -0,0 +1,62 @@
+package it.niedermann.owncloud.notes.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import androidx.annotation.NonNull;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class DatabaseProfileTest {
+
+    private NotesDatabase db;
+
+    @Before
+    public void setupDB() {
+        db = Room
+                .inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), NotesDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    @After
+    public void closeDb() {
+        db.close();
+    }
+
+    @Test
+    public void onOpen() {
+        new DatabaseProfile(true, DatabaseProfile.Synchronous.NORMAL, 8_000, 0, 500, 1_024, 4).onOpen(db.getOpenHelper().getWritableDatabase());
+        assertEquals("NORMAL", 1, queryPragma("synchronous"));
+        assertEquals("Negative cache size is interpreted as KiB", -8_000, queryPragma("cache_size"));
+
+        DatabaseProfile.ROLLBACK_JOURNAL.onOpen(db.getOpenHelper().getWritableDatabase());
+        assertEquals("FULL", 2, queryPragma("synchronous"));
+        assertEquals(-2_000, queryPragma("cache_size"));
+    }
+
+    @Test
+    public void checkpointWithoutWriteAheadLogging() {
+        // In-memory databases can not use write-ahead logging
+        db.checkpoint();
+    }
+
+    @Test
+    public void invalidQueryThreads() {
+        assertThrows(IllegalArgumentException.class, () -> new DatabaseProfile(true, DatabaseProfile.Synchronous.NORMAL, 2_000, 0, 1_000, 1_024, 0));
+    }
+
+    private long queryPragma(@NonNull String pragma) {
+        try (final var cursor = db.getOpenHelper().getReadableDatabase().query("PRAGMA " + pragma)) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package it.niedermann.owncloud.notes.persistence;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import it.niedermann.owncloud.notes.persistence.dao.NoteDao;
+import it.niedermann.owncloud.notes.persistence.entity.Note;
+
+/**
+ * Ensures that the list queries of {@link NoteDao} are read in order from the composite indices of {@link Note}.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class NoteDaoQueryPlanTest {
+
+    private NotesDatabase db;
+
+    @Before
+    public void setupDB() {
+        db = Room
+                .inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), NotesDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    @After
+    public void closeDb() {
+        db.close();
+    }
+
+    @Test
+    public void searchByModified() {
+        assertNoTempBTree(NoteDao.selectPartialNote + NoteDao.searchRecentByModified, 1, "", "");
+        assertNoTempBTree(NoteDao.selectPartialNote + NoteDao.searchFavoritesByModified, 1, "", "");
+        assertNoTempBTree(NoteDao.selectPartialNote + NoteDao.searchUncategorizedByModified, 1, "", "");
+        assertNoTempBTree(NoteDao.selectPartialNote + NoteDao.searchCategoryByModified, 1, "", "", "Movies");
+    }
+
+    @Test
+    public void getRecentPage() {
+        assertCoveredByIndex(NoteDao.selectNoteListItem + NoteDao.recentSegment + NoteDao.pageByModified, 1, true, "", "", Long.MAX_VALUE, Long.MAX_VALUE, 100);
+        assertCoveredByIndex(NoteDao.selectNoteListItem + NoteDao.recentSegment + NoteDao.pageWithoutModified, 1, true, "", "", Long.MAX_VALUE, 100);
+        assertCoveredByIndex(NoteDao.selectNoteListItem + NoteDao.recentSegment + NoteDao.pageLexicographically, 1, true, "", "", "", Long.MIN_VALUE, 100);
+    }
+
+    @Test
+    public void getCategoryPage() {
+        assertCoveredByIndex(NoteDao.selectNoteListItem + NoteDao.categorySegment + NoteDao.pageByModified, 1, "Movies", true, "", "", Long.MAX_VALUE, Long.MAX_VALUE, 100);
+        assertCoveredByIndex(NoteDao.selectNoteListItem + NoteDao.categorySegment + NoteDao.pageWithoutModified, 1, "Movies", true, "", "", Long.MAX_VALUE, 100);
+        assertCoveredByIndex(NoteDao.selectNoteListItem + NoteDao.categorySegment + NoteDao.pageLexicographically, 1, "Movies", true, "", "", "", Long.MIN_VALUE, 100);
+        assertCoveredByIndex(NoteDao.getNextCategory, 1, "", "Movies");
+    }
+
+    private void assertNoTempBTree(@NonNull String query, Object... args) {
+        final var plan = explainQueryPlan(query, args);
+        assertFalse("Query must not be sorted in a temporary B-tree:\n" + query + "\n\n" + plan, plan.contains("USE TEMP B-TREE"));
+    }
+
+    /**
+     * Asserts that the {@link Note}s are read in order from an index without looking them up in the table
+     */
+    private void assertCoveredByIndex(@NonNull String query, Object... args) {
+        assertNoTempBTree(query, args);
+        final var plan = explainQueryPlan(query, args);
+        assertTrue("Query must search using a covering index:\n" + query + "\n\n" + plan, plan.contains("USING COVERING INDEX"));
+    }
+
+    /**
+     * @param args bound in the order of the first occurrence of their parameters in the <code>query</code>
+     */
+    @NonNull
+    private String explainQueryPlan(@NonNull String query, Object... args) {
+        final var plan = new StringBuilder();
+        try (final var cursor = db.query(new SimpleSQLiteQuery("EXPLAIN QUERY PLAN " + query, args))) {
+            final int detailIndex = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detailIndex)).append('\n');
+            }
+        }
+        assertTrue("Query plan must not be empty", plan.length() > 0);
+        return plan.toString();
+    }
+}
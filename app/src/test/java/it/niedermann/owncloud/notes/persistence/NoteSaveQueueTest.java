@@ -0,0 +1,120 @@
+package it.niedermann.owncloud.notes.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+
+import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.shared.model.ISyncCallback;
+
+@RunWith(RobolectricTestRunner.class)
+public class NoteSaveQueueTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    /**
+     * Runnables submitted to the executor, run manually by the tests
+     */
+    private final Queue<Runnable> submitted = new ArrayDeque<>();
+    /**
+     * Content of each persisted save
+     */
+    private final List<String> saved = new ArrayList<>();
+    private final NoteSaveQueue queue = new NoteSaveQueue(submitted::add);
+
+    private NoteSaveQueue.SaveTask task(long id, @NonNull String content) {
+        return callback -> {
+            saved.add(content);
+            if (callback != null) {
+                callback.onFinish();
+            }
+            final var note = new Note();
+            note.setId(id);
+            note.setContent(content);
+            return note;
+        };
+    }
+
+    private void runNext() {
+        Objects.requireNonNull(submitted.poll()).run();
+    }
+
+    @Test
+    public void testLastWriteWins() throws InterruptedException {
+        final var first$ = queue.enqueue(1, task(1, "A"), null);
+        final var second$ = queue.enqueue(1, task(1, "AB"), null);
+        final var third$ = queue.enqueue(1, task(1, "ABC"), null);
+        assertEquals("Saves of the same note must be coalesced while waiting", 1, submitted.size());
+        assertSame(first$, second$);
+        assertSame(first$, third$);
+
+        runNext();
+        assertEquals(List.of("ABC"), saved);
+        assertEquals("ABC", NotesTestingUtil.getOrAwaitValue(first$).getContent());
+        assertTrue(submitted.isEmpty());
+    }
+
+    @Test
+    public void testSaveWhileRunning() {
+        final var results = new ArrayList<String>();
+        final var first$ = queue.enqueue(1, callback -> {
+            // Requested while the first save is being persisted
+            queue.enqueue(1, task(1, "AB"), null).observeForever(note -> results.add(note.getContent()));
+            return task(1, "A").save(callback);
+        }, null);
+        first$.observeForever(note -> results.add(note.getContent()));
+
+        runNext();
+        assertEquals("A save requested while another one is running must not be merged into it", 1, submitted.size());
+        runNext();
+        assertEquals(List.of("A", "AB"), saved);
+        assertEquals(List.of("A", "AB"), results);
+    }
+
+    @Test
+    public void testDifferentNotes() {
+        queue.enqueue(1, task(1, "A"), null);
+        queue.enqueue(2, task(2, "B"), null);
+        assertEquals(2, submitted.size());
+        runNext();
+        runNext();
+        assertEquals(List.of("A", "B"), saved);
+    }
+
+    @Test
+    public void testCallbacksOfCoalescedSaves() {
+        final int[] finished = {0};
+        final ISyncCallback callback = () -> finished[0]++;
+        queue.enqueue(1, task(1, "A"), callback);
+        queue.enqueue(1, task(1, "AB"), null);
+        queue.enqueue(1, task(1, "ABC"), callback);
+
+        runNext();
+        assertEquals("Callbacks of replaced saves must still be invoked", 2, finished[0]);
+    }
+
+    @Test
+    public void testFailedSave() throws InterruptedException {
+        final var result$ = queue.enqueue(1, callback -> {
+            throw new IllegalStateException();
+        }, null);
+        runNext();
+        assertNull(NotesTestingUtil.getOrAwaitValue(result$));
+    }
+}
@@ -14,14 +14,25 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import it.niedermann.owncloud.notes.persistence.entity.Account;
+import it.niedermann.owncloud.notes.persistence.entity.CategoryOptions;
 import it.niedermann.owncloud.notes.persistence.entity.CategoryWithNotesCount;
 import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.persistence.entity.NoteListItem;
+import it.niedermann.owncloud.notes.persistence.migration.Migration_23_24;
+import it.niedermann.owncloud.notes.persistence.migration.Migration_25_26;
 import it.niedermann.owncloud.notes.shared.model.Capabilities;
+import it.niedermann.owncloud.notes.shared.model.CategorySortingMethod;
 import it.niedermann.owncloud.notes.shared.model.DBStatus;
+import it.niedermann.owncloud.notes.shared.util.NoteUtil;
 
 import static it.niedermann.owncloud.notes.shared.model.DBStatus.LOCAL_DELETED;
 import static it.niedermann.owncloud.notes.shared.model.DBStatus.LOCAL_EDITED;
@@ -84,6 +95,17 @@ public class NotesDaoTest {
         assertEquals(LOCAL_EDITED, db.getNoteDao().getNoteById(1).getStatus());
     }
 
+    @Test
+    public void updateStatus_multiple() {
+        db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "T", "C", "", false, "1", VOID, account.getId(), "", 0));
+        db.getNoteDao().addNote(new Note(2, 2L, Calendar.getInstance(), "T", "C", "", false, "1", VOID, account.getId(), "", 0));
+        db.getNoteDao().addNote(new Note(3, 3L, Calendar.getInstance(), "T", "C", "", false, "1", VOID, account.getId(), "", 0));
+        db.getNoteDao().updateStatus(Arrays.asList(1L, 3L), LOCAL_DELETED);
+        assertEquals(LOCAL_DELETED, db.getNoteDao().getNoteById(1).getStatus());
+        assertEquals(VOID, db.getNoteDao().getNoteById(2).getStatus());
+        assertEquals(LOCAL_DELETED, db.getNoteDao().getNoteById(3).getStatus());
+    }
+
     @Test(expected = SQLiteConstraintException.class)
     public void updateStatus_NullConstraint() {
         db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "T", "C", "", false, "1", LOCAL_DELETED, account.getId(), "", 0));
@@ -97,12 +119,41 @@ public class NotesDaoTest {
         assertEquals("日记", db.getNoteDao().getNoteById(1).getCategory());
     }
 
+    @Test
+    public void updateCategory_multiple() {
+        db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "T", "C", "", false, "1", VOID, account.getId(), "", 0));
+        db.getNoteDao().addNote(new Note(2, 2L, Calendar.getInstance(), "T", "C", "", false, "1", VOID, account.getId(), "", 0));
+        db.getNoteDao().updateCategory(Collections.singletonList(2L), "日记");
+        assertEquals("", db.getNoteDao().getNoteById(1).getCategory());
+        assertEquals("日记", db.getNoteDao().getNoteById(2).getCategory());
+    }
+
     @Test(expected = SQLiteConstraintException.class)
     public void updateCategory_NullConstraint() {
         db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "T", "C", "", false, "1", LOCAL_DELETED, account.getId(), "", 0));
         db.getNoteDao().updateCategory(1, null);
     }
 
+    @Test
+    public void cleanupCategoryOptions() {
+        // Triggers are only created by the callback of the persistent database
+        Migration_25_26.createCategoryCleanupTriggers(db.getOpenHelper().getWritableDatabase());
+        db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "T", "C", "Movies", false, "1", VOID, account.getId(), "", 0));
+        db.getNoteDao().addNote(new Note(2, 2L, Calendar.getInstance(), "T", "C", "Movies", false, "1", VOID, account.getId(), "", 0));
+        final var categoryOptions = new CategoryOptions();
+        categoryOptions.setAccountId(account.getId());
+        categoryOptions.setCategory("Movies");
+        categoryOptions.setSortingMethod(CategorySortingMethod.SORT_LEXICOGRAPHICAL_ASC);
+        db.getCategoryOptionsDao().addCategoryOptions(categoryOptions);
+
+        db.getNoteDao().updateScrollY(1, 100);
+        db.getNoteDao().updateCategory(1, "Music");
+        assertEquals("Options must be kept as long as the category is used", 1, db.getCategoryOptionsDao().modifyCategoryOrder(account.getId(), "Movies", CategorySortingMethod.SORT_MODIFIED_DESC));
+
+        db.getNoteDao().deleteByNoteId(2, VOID);
+        assertEquals("Options must be removed after the last note of the category has been removed", 0, db.getCategoryOptionsDao().modifyCategoryOrder(account.getId(), "Movies", CategorySortingMethod.SORT_MODIFIED_DESC));
+    }
+
     @Test
     public void getRemoteIds() {
         final var secondAccount = setupSecondAccount();
@@ -210,7 +261,7 @@ public class NotesDaoTest {
 
         db.getNoteDao().addNote(localNote);
 
-        assertEquals(1, db.getNoteDao().updateIfNotModifiedLocallyDuringSync(localNote.getId(), targetNote.getModified().getTimeInMillis(), targetNote.getTitle(), targetNote.getFavorite(), targetNote.getETag(), targetNote.getContent(), targetNote.getExcerpt(), localNote.getContent(), localNote.getCategory(), localNote.getFavorite()));
+        assertEquals(1, db.getNoteDao().updateIfNotModifiedLocallyDuringSync(localNote.getId(), targetNote.getModified().getTimeInMillis(), targetNote.getTitle(), targetNote.getFavorite(), targetNote.getETag(), targetNote.getContent(), targetNote.getExcerpt(), localNote.getContent(), localNote.getCategory(), localNote.getFavorite(), targetNote.getSectionInitial(), targetNote.getSortTitle(), targetNote.getSectionDay()));
     }
 
     @Test
@@ -222,7 +273,7 @@ public class NotesDaoTest {
 
         localNote.setContent("My-Modified-Content");
 
-        assertEquals(0, db.getNoteDao().updateIfNotModifiedLocallyDuringSync(localNote.getId(), targetNote.getModified().getTimeInMillis(), targetNote.getTitle(), targetNote.getFavorite(), targetNote.getETag(), targetNote.getContent(), targetNote.getExcerpt(), localNote.getContent(), localNote.getCategory(), localNote.getFavorite()));
+        assertEquals(0, db.getNoteDao().updateIfNotModifiedLocallyDuringSync(localNote.getId(), targetNote.getModified().getTimeInMillis(), targetNote.getTitle(), targetNote.getFavorite(), targetNote.getETag(), targetNote.getContent(), targetNote.getExcerpt(), localNote.getContent(), localNote.getCategory(), localNote.getFavorite(), targetNote.getSectionInitial(), targetNote.getSortTitle(), targetNote.getSectionDay()));
     }
 
     @Test
@@ -234,7 +285,7 @@ public class NotesDaoTest {
 
         localNote.setFavorite(true);
 
-        assertEquals(0, db.getNoteDao().updateIfNotModifiedLocallyDuringSync(localNote.getId(), targetNote.getModified().getTimeInMillis(), targetNote.getTitle(), targetNote.getFavorite(), targetNote.getETag(), targetNote.getContent(), targetNote.getExcerpt(), localNote.getContent(), localNote.getCategory(), localNote.getFavorite()));
+        assertEquals(0, db.getNoteDao().updateIfNotModifiedLocallyDuringSync(localNote.getId(), targetNote.getModified().getTimeInMillis(), targetNote.getTitle(), targetNote.getFavorite(), targetNote.getETag(), targetNote.getContent(), targetNote.getExcerpt(), localNote.getContent(), localNote.getCategory(), localNote.getFavorite(), targetNote.getSectionInitial(), targetNote.getSortTitle(), targetNote.getSectionDay()));
     }
 
     @Test
@@ -246,91 +297,91 @@ public class NotesDaoTest {
 
         localNote.setCategory("Modified-Category");
 
-        assertEquals(0, db.getNoteDao().updateIfNotModifiedLocallyDuringSync(localNote.getId(), targetNote.getModified().getTimeInMillis(), targetNote.getTitle(), targetNote.getFavorite(), targetNote.getETag(), targetNote.getContent(), targetNote.getExcerpt(), localNote.getContent(), localNote.getCategory(), localNote.getFavorite()));
+        assertEquals(0, db.getNoteDao().updateIfNotModifiedLocallyDuringSync(localNote.getId(), targetNote.getModified().getTimeInMillis(), targetNote.getTitle(), targetNote.getFavorite(), targetNote.getETag(), targetNote.getContent(), targetNote.getExcerpt(), localNote.getContent(), localNote.getCategory(), localNote.getFavorite(), targetNote.getSectionInitial(), targetNote.getSortTitle(), targetNote.getSectionDay()));
     }
 
     @Test
     public void updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged_Nothing() {
         final var localNote = db.getNoteDao().getNoteById(db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "My-Title", "My-Content", "", false, "1", VOID, account.getId(), "", 0)));
         assertEquals(0, db.getNoteDao().updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(
-                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), localNote.getETag(), localNote.getContent(), localNote.getExcerpt()));
+                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), localNote.getETag(), localNote.getContent(), localNote.getExcerpt(), localNote.getSectionInitial(), localNote.getSortTitle(), localNote.getSectionDay()));
     }
 
     @Test
     public void updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged_Nothing_ETagWasAndIsNull() {
         final var localNote = db.getNoteDao().getNoteById(db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "My-Title", "My-Content", "", false, null, VOID, account.getId(), "", 0)));
         assertEquals(1, db.getNoteDao().updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(
-                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), null, localNote.getContent(), localNote.getExcerpt()));
+                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), null, localNote.getContent(), localNote.getExcerpt(), localNote.getSectionInitial(), localNote.getSortTitle(), localNote.getSectionDay()));
     }
 
     @Test
     public void updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged_Nothing_ETagWasNullButChanged() {
         final var localNote = db.getNoteDao().getNoteById(db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "My-Title", "My-Content", "", false, null, VOID, account.getId(), "", 0)));
         assertEquals(1, db.getNoteDao().updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(
-                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), "1", localNote.getContent(), localNote.getExcerpt()));
+                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), "1", localNote.getContent(), localNote.getExcerpt(), localNote.getSectionInitial(), localNote.getSortTitle(), localNote.getSectionDay()));
     }
 
     @Test
     public void updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged_Modified() {
         final var localNote = db.getNoteDao().getNoteById(db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "My-Title", "My-Content", "", false, "1", VOID, account.getId(), "", 0)));
         assertEquals(1, db.getNoteDao().updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(
-                localNote.getId(), localNote.getModified().getTimeInMillis() + 1000, localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), localNote.getETag(), localNote.getContent(), localNote.getExcerpt()));
+                localNote.getId(), localNote.getModified().getTimeInMillis() + 1000, localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), localNote.getETag(), localNote.getContent(), localNote.getExcerpt(), localNote.getSectionInitial(), localNote.getSortTitle(), localNote.getSectionDay()));
     }
 
     @Test
     public void updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged_Title() {
         final var localNote = db.getNoteDao().getNoteById(db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "My-Title", "My-Content", "", false, "1", VOID, account.getId(), "", 0)));
         assertEquals(1, db.getNoteDao().updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(
-                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle() + " ", localNote.getFavorite(), localNote.getCategory(), localNote.getETag(), localNote.getContent(), localNote.getExcerpt()));
+                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle() + " ", localNote.getFavorite(), localNote.getCategory(), localNote.getETag(), localNote.getContent(), localNote.getExcerpt(), localNote.getSectionInitial(), localNote.getSortTitle(), localNote.getSectionDay()));
     }
 
     @Test
     public void updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged_Favorite() {
         final var localNote = db.getNoteDao().getNoteById(db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "My-Title", "My-Content", "", false, "1", VOID, account.getId(), "", 0)));
         assertEquals(1, db.getNoteDao().updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(
-                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), !localNote.getFavorite(), localNote.getCategory(), localNote.getETag(), localNote.getContent(), localNote.getExcerpt()));
+                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), !localNote.getFavorite(), localNote.getCategory(), localNote.getETag(), localNote.getContent(), localNote.getExcerpt(), localNote.getSectionInitial(), localNote.getSortTitle(), localNote.getSectionDay()));
     }
 
     @Test
     public void updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged_Category() {
         final var localNote = db.getNoteDao().getNoteById(db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "My-Title", "My-Content", "", false, "1", VOID, account.getId(), "", 0)));
         assertEquals(1, db.getNoteDao().updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(
-                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory() + " ", localNote.getETag(), localNote.getContent(), localNote.getExcerpt()));
+                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory() + " ", localNote.getETag(), localNote.getContent(), localNote.getExcerpt(), localNote.getSectionInitial(), localNote.getSortTitle(), localNote.getSectionDay()));
     }
 
     @Test
     public void updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged_ETag() {
         final var localNote = db.getNoteDao().getNoteById(db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "My-Title", "My-Content", "", false, "1", VOID, account.getId(), "", 0)));
         assertEquals(1, db.getNoteDao().updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(
-                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), localNote.getETag() + " ", localNote.getContent(), localNote.getExcerpt()));
+                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), localNote.getETag() + " ", localNote.getContent(), localNote.getExcerpt(), localNote.getSectionInitial(), localNote.getSortTitle(), localNote.getSectionDay()));
     }
 
     @Test
     public void updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged_Content() {
         final var localNote = db.getNoteDao().getNoteById(db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "My-Title", "My-Content", "", false, "1", VOID, account.getId(), "", 0)));
         assertEquals(1, db.getNoteDao().updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(
-                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), localNote.getETag(), localNote.getContent() + " ", localNote.getExcerpt()));
+                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), localNote.getETag(), localNote.getContent() + " ", localNote.getExcerpt(), localNote.getSectionInitial(), localNote.getSortTitle(), localNote.getSectionDay()));
     }
 
     @Test
     public void updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged_Excerpt() {
         final var localNote = db.getNoteDao().getNoteById(db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "My-Title", "My-Content", "", false, "1", VOID, account.getId(), "", 0)));
         assertEquals("Excerpt is a local property, and therefore should not prevent updating if different", 0, db.getNoteDao().updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(
-                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), localNote.getETag(), localNote.getContent(), localNote.getExcerpt() + " "));
+                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), localNote.getETag(), localNote.getContent(), localNote.getExcerpt() + " ", localNote.getSectionInitial(), localNote.getSortTitle(), localNote.getSectionDay()));
     }
 
     @Test
     public void updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged_ContentChangedButWasLocalEdited() {
         final var localNote = db.getNoteDao().getNoteById(db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "My-Title", "My-Content", "", false, "1", LOCAL_EDITED, account.getId(), "", 0)));
         assertEquals(0, db.getNoteDao().updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(
-                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), localNote.getETag(), localNote.getContent() + " ", localNote.getExcerpt()));
+                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), localNote.getETag(), localNote.getContent() + " ", localNote.getExcerpt(), localNote.getSectionInitial(), localNote.getSortTitle(), localNote.getSectionDay()));
     }
 
     @Test
     public void updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged_ContentChangedButWasLocalDeleted() {
         final var localNote = db.getNoteDao().getNoteById(db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "My-Title", "My-Content", "", false, "1", LOCAL_DELETED, account.getId(), "", 0)));
         assertEquals(0, db.getNoteDao().updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(
-                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), localNote.getETag(), localNote.getContent() + " ", localNote.getExcerpt()));
+                localNote.getId(), localNote.getModified().getTimeInMillis(), localNote.getTitle(), localNote.getFavorite(), localNote.getCategory(), localNote.getETag(), localNote.getContent() + " ", localNote.getExcerpt(), localNote.getSectionInitial(), localNote.getSortTitle(), localNote.getSectionDay()));
     }
 
     @Test
@@ -376,7 +427,7 @@ public class NotesDaoTest {
     @Test
     public void searchRecentByModified() {
         final var secondAccount = setupSecondAccountAndTestNotes();
-        final var result = db.getNoteDao().searchRecentByModified(secondAccount.getId(), "T");
+        final var result = db.getNoteDao().searchRecentByModified(secondAccount.getId(), "T", "");
         assertEquals(5, result.size());
         for (final var note : result) {
             assertNotEquals(DBStatus.LOCAL_DELETED, note.getStatus());
@@ -386,6 +437,122 @@ public class NotesDaoTest {
         }
     }
 
+    @Test
+    public void getRecentPageByModified() {
+        final var secondAccount = setupSecondAccountAndTestNotes();
+        final var allNotes = db.getNoteDao().searchRecentByModified(secondAccount.getId(), "", "")
+                .stream()
+                .map(NoteListItem::new)
+                .collect(Collectors.toList());
+        final var pagedNotes = new ArrayList<NoteListItem>();
+        for (final boolean favorite : new boolean[]{true, false}) {
+            long afterModified = Long.MAX_VALUE;
+            long afterId = Long.MAX_VALUE;
+            List<NoteListItem> page;
+            do {
+                page = db.getNoteDao().getRecentPageByModified(secondAccount.getId(), favorite, "", "", afterModified, afterId, 2);
+                assertTrue(page.size() <= 2);
+                pagedNotes.addAll(page);
+                if (!page.isEmpty()) {
+                    afterModified = page.get(page.size() - 1).getModified();
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == 2);
+        }
+        assertEquals("Each page should continue right after the previous one", allNotes, pagedNotes);
+    }
+
+    @Test
+    public void getRecentPageLexicographically() {
+        final var secondAccount = setupSecondAccountAndTestNotes();
+        final var allNotes = db.getNoteDao().searchRecentByModified(secondAccount.getId(), "", "")
+                .stream()
+                .map(NoteListItem::new)
+                .sorted(Comparator.comparing(NoteListItem::getFavorite).reversed()
+                        .thenComparing(note -> NoteUtil.generateSortTitle(note.getTitle()))
+                        .thenComparing(NoteListItem::getId))
+                .collect(Collectors.toList());
+        final var pagedNotes = new ArrayList<NoteListItem>();
+        for (final boolean favorite : new boolean[]{true, false}) {
+            String afterTitle = "";
+            long afterId = Long.MIN_VALUE;
+            List<NoteListItem> page;
+            do {
+                page = db.getNoteDao().getRecentPageLexicographically(secondAccount.getId(), favorite, "", "", afterTitle, afterId, 2);
+                pagedNotes.addAll(page);
+                if (!page.isEmpty()) {
+                    afterTitle = NoteUtil.generateSortTitle(page.get(page.size() - 1).getTitle());
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == 2);
+        }
+        assertEquals("Titles differing only in case should be paged by their id", allNotes, pagedNotes);
+    }
+
+    @Test
+    public void getNextCategory() {
+        final var secondAccount = setupSecondAccount();
+        for (final var category : new String[]{"Movies/Drama", "Movies", "Music", "Movies/Comedy"}) {
+            db.getNoteDao().addNote(new Note(0, null, Calendar.getInstance(), "T", "C", category, false, null, VOID, secondAccount.getId(), "", 0));
+        }
+        assertEquals("Movies", db.getNoteDao().getNextCategory(secondAccount.getId(), "Movies", ""));
+        assertEquals("Movies/Comedy", db.getNoteDao().getNextCategory(secondAccount.getId(), "Movies", "Movies"));
+        assertEquals("Movies/Drama", db.getNoteDao().getNextCategory(secondAccount.getId(), "Movies", "Movies/Comedy"));
+        assertNull(db.getNoteDao().getNextCategory(secondAccount.getId(), "Movies", "Movies/Drama"));
+    }
+
+    @Test
+    public void searchRecentByModified_FullTextSearch() {
+        db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "Shopping", "Milk and Bread", "", false, null, VOID, account.getId(), "", 0));
+        db.getNoteDao().addNote(new Note(2, 2L, Calendar.getInstance(), "Groceries", "Bread, Butter", "", false, null, VOID, account.getId(), "", 0));
+        db.getNoteDao().addNote(new Note(3, 3L, Calendar.getInstance(), "Bread recipe", "Flour", "", false, null, LOCAL_DELETED, account.getId(), "", 0));
+
+        assertEquals("Empty query should match all notes", 2, db.getNoteDao().searchRecentByModified(account.getId(), "", "").size());
+        assertEquals(2, db.getNoteDao().searchRecentByModified(account.getId(), NoteUtil.generateFullTextSearchQuery("bread"), "").size());
+        assertEquals("Words should match as prefix", 2, db.getNoteDao().searchRecentByModified(account.getId(), NoteUtil.generateFullTextSearchQuery("BRE"), "").size());
+        assertEquals(1, db.getNoteDao().searchRecentByModified(account.getId(), NoteUtil.generateFullTextSearchQuery("shop"), "").size());
+        assertEquals("All words must match", 1, db.getNoteDao().searchRecentByModified(account.getId(), NoteUtil.generateFullTextSearchQuery("bread butter"), "").size());
+        assertEquals(0, db.getNoteDao().searchRecentByModified(account.getId(), NoteUtil.generateFullTextSearchQuery("flour"), "").size());
+
+        db.getNoteDao().updateNote(new Note(1, 1L, Calendar.getInstance(), "Shopping", "Milk and Honey", "", false, null, VOID, account.getId(), "", 0));
+        assertEquals("Index should be updated along with the note", 1, db.getNoteDao().searchRecentByModified(account.getId(), NoteUtil.generateFullTextSearchQuery("bread"), "").size());
+        assertEquals(1, db.getNoteDao().searchRecentByModified(account.getId(), NoteUtil.generateFullTextSearchQuery("honey"), "").size());
+
+        db.getNoteDao().deleteByNoteId(2, VOID);
+        assertEquals("Index should be updated when a note gets deleted", 0, db.getNoteDao().searchRecentByModified(account.getId(), NoteUtil.generateFullTextSearchQuery("bread"), "").size());
+    }
+
+    @Test
+    public void searchRecentByModified_SubstringSearch() {
+        db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "购物", "今天买面包和牛奶", "", false, null, VOID, account.getId(), "", 0));
+        db.getNoteDao().addNote(new Note(2, 2L, Calendar.getInstance(), "Bread", "Butter", "", false, null, VOID, account.getId(), "", 0));
+
+        assertEquals("Full text search can not find words within a sentence without spaces", 0, db.getNoteDao().searchRecentByModified(account.getId(), NoteUtil.generateFullTextSearchQuery("面包"), "").size());
+        assertEquals(1, db.getNoteDao().searchRecentByModified(account.getId(), NoteUtil.generateFullTextSearchQuery("面包"), NoteUtil.generateSubstringSearchQuery("面包")).size());
+        assertEquals(1, db.getNoteDao().searchRecentByModified(account.getId(), NoteUtil.generateFullTextSearchQuery("butter"), NoteUtil.generateSubstringSearchQuery("butter")).size());
+    }
+
+    @Test
+    public void createSyncTriggers() {
+        final var sqLiteDatabase = db.getOpenHelper().getWritableDatabase();
+        // Called twice, because the callback of the persistent database calls it each time the database is opened
+        Migration_23_24.createSyncTriggers(sqLiteDatabase);
+        Migration_23_24.createSyncTriggers(sqLiteDatabase);
+        try (final var cursor = sqLiteDatabase.query("SELECT name FROM sqlite_master WHERE type = 'trigger' AND tbl_name = 'Note' AND name LIKE '%fts%' ORDER BY name")) {
+            final var triggers = new ArrayList<String>();
+            while (cursor.moveToNext()) {
+                triggers.add(cursor.getString(0));
+            }
+            assertEquals(List.of("note_fts_sync_AFTER_INSERT", "note_fts_sync_AFTER_UPDATE", "note_fts_sync_BEFORE_DELETE", "note_fts_sync_BEFORE_UPDATE"), triggers);
+        }
+
+        db.getNoteDao().addNote(new Note(1, 1L, Calendar.getInstance(), "Shopping", "Milk and Bread", "", false, null, VOID, account.getId(), "", 0));
+        assertEquals(1, db.getNoteDao().searchRecentByModified(account.getId(), NoteUtil.generateFullTextSearchQuery("bread"), "").size());
+        db.getNoteDao().updateNote(new Note(1, 1L, Calendar.getInstance(), "Shopping", "Milk and Honey", "", false, null, VOID, account.getId(), "", 0));
+        assertEquals(0, db.getNoteDao().searchRecentByModified(account.getId(), NoteUtil.generateFullTextSearchQuery("bread"), "").size());
+        assertEquals(1, db.getNoteDao().searchRecentByModified(account.getId(), NoteUtil.generateFullTextSearchQuery("honey"), "").size());
+    }
+
     private static boolean isSortedByFavorite(List<Note> notes) {
         for (int i = 0; i < notes.size() - 1; ++i) {
             if (Boolean.compare(notes.get(i).getFavorite(), notes.get(i + 1).getFavorite()) < 0)
@@ -0,0 +1,195 @@
+package it.niedermann.owncloud.notes.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static it.niedermann.owncloud.notes.persistence.NotesTestingUtil.getOrAwaitValue;
+
+import androidx.annotation.NonNull;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.nextcloud.android.sso.api.ParsedResponse;
+import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
+import com.nextcloud.android.sso.model.SingleSignOnAccount;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import io.reactivex.Observable;
+import it.niedermann.owncloud.notes.persistence.entity.Account;
+import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.persistence.sync.NotesAPI;
+import it.niedermann.owncloud.notes.shared.model.Capabilities;
+import it.niedermann.owncloud.notes.shared.model.IResponseCallback;
+
+@RunWith(RobolectricTestRunner.class)
+public class NotesImportTaskTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private final NotesRepository repo = mock(NotesRepository.class);
+    private final NotesAPI notesAPI = mock(NotesAPI.class);
+    private final List<List<Long>> writtenBatches = new ArrayList<>();
+    private NotesImportTask importTask;
+
+    @Before
+    public void setup() throws Exception {
+        NotesTestingUtil.mockSingleSignOn(new SingleSignOnAccount("test@example.com", "test", "1337", "https://example.com", ""));
+        final var apiProvider = mock(ApiProvider.class);
+        when(apiProvider.getNotesAPI(any(), any(), any())).thenReturn(notesAPI);
+
+        final var account = new Account("https://example.com", "test", "test@example.com", null, new Capabilities());
+        account.setId(1);
+        doAnswer(invocation -> {
+            final List<Note> batch = invocation.getArgument(1);
+            writtenBatches.add(batch.stream().map(Note::getRemoteId).collect(Collectors.toList()));
+            return 0;
+        }).when(repo).applyRemoteNotes(anyLong(), anyList(), anyList());
+
+        final var executor = MoreExecutors.newDirectExecutorService();
+        importTask = new NotesImportTask(ApplicationProvider.getApplicationContext(), repo, account, executor, executor, apiProvider, 0);
+    }
+
+    @Test
+    public void resumeAndRetry() throws InterruptedException {
+        when(notesAPI.getNotesIDs()).thenReturn(Observable.just(List.of(1L, 2L, 3L, 4L)));
+        when(repo.getIdMap(1)).thenReturn(Map.of(1L, 100L));
+        when(notesAPI.getNote(2)).thenReturn(
+                Observable.error(new RuntimeException(new IOException())),
+                Observable.just(ParsedResponse.of(createNote(2))));
+        when(notesAPI.getNote(3)).thenReturn(Observable.just(ParsedResponse.of(createNote(3))));
+        final var notFound = mock(NextcloudHttpRequestFailedException.class);
+        when(notFound.getStatusCode()).thenReturn(404);
+        when(notesAPI.getNote(4)).thenReturn(Observable.error(new RuntimeException(notFound)));
+
+        final var success = new AtomicBoolean();
+        final var status = getOrAwaitValue(importTask.importNotes(createCallback(success)));
+
+        assertTrue(success.get());
+        verify(notesAPI, never()).getNote(1);
+        verify(notesAPI, times(2)).getNote(2);
+        verify(notesAPI, times(1)).getNote(4);
+        assertEquals(List.of(List.of(2L, 3L)), writtenBatches);
+        assertEquals(4, status.count);
+        assertEquals(4, status.total);
+        assertEquals(1, status.warnings.size());
+        assertEquals(notFound, status.warnings.iterator().next());
+    }
+
+    @Test
+    public void writeInBatches() throws InterruptedException {
+        when(notesAPI.getNotesIDs()).thenReturn(Observable.just(LongStream.rangeClosed(1, 120).boxed().collect(Collectors.toList())));
+        when(repo.getIdMap(1)).thenReturn(Map.of());
+        when(notesAPI.getNote(anyLong())).thenAnswer(invocation -> Observable.just(ParsedResponse.of(createNote(invocation.getArgument(0)))));
+
+        final var success = new AtomicBoolean();
+        final var status = getOrAwaitValue(importTask.importNotes(createCallback(success)));
+
+        assertTrue(success.get());
+        assertEquals(120, status.count);
+        assertEquals(3, writtenBatches.size());
+        assertEquals(50, writtenBatches.get(0).size());
+        assertEquals(50, writtenBatches.get(1).size());
+        assertEquals(20, writtenBatches.get(2).size());
+    }
+
+    @Test
+    public void boundInFlightFetches() throws Exception {
+        when(notesAPI.getNotesIDs()).thenReturn(Observable.just(LongStream.rangeClosed(1, 40).boxed().collect(Collectors.toList())));
+        when(repo.getIdMap(1)).thenReturn(Map.of());
+        final var inFlight = new AtomicInteger();
+        final var maxInFlight = new AtomicInteger();
+        when(notesAPI.getNote(anyLong())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            inFlight.decrementAndGet();
+            return Observable.just(ParsedResponse.of(createNote(invocation.getArgument(0))));
+        });
+
+        final var fetchExecutor = Executors.newFixedThreadPool(16);
+        try {
+            final var account = new Account("https://example.com", "test", "test@example.com", null, new Capabilities());
+            account.setId(1);
+            final var apiProvider = mock(ApiProvider.class);
+            when(apiProvider.getNotesAPI(any(), any(), any())).thenReturn(notesAPI);
+            final var task = new NotesImportTask(ApplicationProvider.getApplicationContext(), repo, account, MoreExecutors.newDirectExecutorService(), fetchExecutor, apiProvider, 0);
+
+            final var success = new AtomicBoolean();
+            final var status = getOrAwaitValue(task.importNotes(createCallback(success)));
+
+            assertTrue(success.get());
+            assertEquals(40, status.count);
+            assertEquals(40, writtenBatches.stream().mapToInt(List::size).sum());
+            assertTrue("At most " + NotesImportTask.MAX_IN_FLIGHT_FETCHES + " notes should be fetched at the same time, but were " + maxInFlight.get(),
+                    maxInFlight.get() <= NotesImportTask.MAX_IN_FLIGHT_FETCHES);
+        } finally {
+            fetchExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void failWhenNoteIDsCanNotBeFetched() {
+        when(notesAPI.getNotesIDs()).thenReturn(Observable.error(new RuntimeException(new IOException())));
+
+        final var error = new ArrayList<Throwable>();
+        importTask.importNotes(new IResponseCallback<>() {
+            @Override
+            public void onSuccess(Void result) {
+                fail("Import should not succeed");
+            }
+
+            @Override
+            public void onError(@NonNull Throwable t) {
+                error.add(t);
+            }
+        });
+
+        verify(notesAPI, times(3)).getNotesIDs();
+        assertEquals(1, error.size());
+        assertTrue(error.get(0) instanceof IOException);
+        assertTrue(writtenBatches.isEmpty());
+    }
+
+    private static Note createNote(long remoteId) {
+        return new Note(remoteId, null, "Title " + remoteId, "Content", "", false, null);
+    }
+
+    private static IResponseCallback<Void> createCallback(@NonNull AtomicBoolean success) {
+        return new IResponseCallback<>() {
+            @Override
+            public void onSuccess(Void result) {
+                success.set(true);
+            }
+
+            @Override
+            public void onError(@NonNull Throwable t) {
+                fail(t.getMessage());
+            }
+        };
+    }
+}
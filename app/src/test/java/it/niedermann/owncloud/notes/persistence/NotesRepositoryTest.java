@@ -46,7 +46,10 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
+import java.util.TimeZone;
 import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import io.reactivex.Observable;
 import it.niedermann.owncloud.notes.persistence.entity.Account;
@@ -194,6 +197,70 @@ public class NotesRepositoryTest {
         assertEquals("MyContent", createdNoteFromRemote.getExcerpt());
     }
 
+    @Test
+    public void testApplyRemoteNotes() {
+        final var createdNote = new Note(null, Calendar.getInstance(), "Created", "Created remotely", "Samples", false, "1");
+        createdNote.setRemoteId(2001L);
+        final var updatedNote = new Note(1001L, Calendar.getInstance(), "Updated", "Updated remotely", "Movies", false, "2");
+        updatedNote.setId(1);
+        final var updatedButLocallyModifiedNote = new Note(1003L, Calendar.getInstance(), "Updated", "Updated remotely", "Movies", false, "3");
+        updatedButLocallyModifiedNote.setId(3);
+
+        assertEquals(1, repo.applyRemoteNotes(account.getId(), Collections.singletonList(createdNote), Arrays.asList(updatedNote, updatedButLocallyModifiedNote)));
+
+        final var createdNoteFromDatabase = repo.getNoteById(repo.getLocalIdByRemoteId(account.getId(), 2001L));
+        assertEquals("Created remotely", createdNoteFromDatabase.getContent());
+        assertEquals("Created remotely", createdNoteFromDatabase.getExcerpt());
+        assertEquals(VOID, createdNoteFromDatabase.getStatus());
+        assertEquals("Updated remotely", repo.getNoteById(1).getContent());
+        assertEquals("Updated remotely", repo.getNoteById(1).getExcerpt());
+        assertEquals("Locally modified notes must not be overridden", "C", repo.getNoteById(3).getContent());
+    }
+
+    @Test
+    public void testUpdateSectionDaysIfTimeZoneChanged() {
+        final var defaultTimeZone = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+            repo.updateSectionDaysIfTimeZoneChanged();
+
+            // 2021-01-01T23:30:00Z
+            final var modified = Calendar.getInstance();
+            modified.setTimeInMillis(1_609_543_800_000L);
+            final var note = repo.addNote(account.getId(), new Note(null, modified, "Title", "Content", "", false, null));
+            assertEquals(18_628, repo.getNoteById(note.getId()).getSectionDay());
+
+            TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+            repo.updateSectionDaysIfTimeZoneChanged();
+            assertEquals(18_629, repo.getNoteById(note.getId()).getSectionDay());
+        } finally {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+    }
+
+    @Test
+    public void testDeleteByNoteIds() {
+        repo.deleteByNoteIds(Arrays.asList(1L, 2L, 4L), VOID);
+
+        assertNull(repo.getNoteById(1));
+        assertNotNull("Locally modified notes must not be deleted", repo.getNoteById(2));
+        assertNull(repo.getNoteById(4));
+    }
+
+    @Test
+    public void testSetCategoryOfMultipleNotes() {
+        // More IDs than fit into one statement, most of them do not exist
+        final var ids = LongStream.rangeClosed(1, 2_500).boxed().collect(Collectors.toList());
+        repo.setCategory(account, ids, "Bulk");
+
+        for (long id = 1; id <= 9; id++) {
+            final var note = repo.getNoteById(id);
+            assertEquals("Bulk", note.getCategory());
+        }
+        assertEquals(LOCAL_EDITED, repo.getNoteById(1).getStatus());
+        assertEquals(LOCAL_EDITED, repo.getNoteById(4).getStatus());
+    }
+
     @Test
     public void updateApiVersion() {
         repo.updateApiVersion(account.getId(), "");
@@ -6,6 +6,7 @@ import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
 
 import com.nextcloud.android.sso.api.ParsedResponse;
 import com.nextcloud.android.sso.exceptions.NextcloudFilesAppAccountNotFoundException;
+import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
 import com.nextcloud.android.sso.model.SingleSignOnAccount;
 
 import org.junit.Before;
@@ -15,24 +16,32 @@ import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import io.reactivex.Observable;
 import it.niedermann.owncloud.notes.persistence.entity.Account;
 import it.niedermann.owncloud.notes.persistence.entity.Note;
 import it.niedermann.owncloud.notes.persistence.sync.NotesAPI;
+import it.niedermann.owncloud.notes.persistence.sync.NotesResponseReader;
 import it.niedermann.owncloud.notes.shared.model.SyncResultStatus;
+import retrofit2.Call;
 
 import static it.niedermann.owncloud.notes.shared.model.DBStatus.LOCAL_EDITED;
 import static it.niedermann.owncloud.notes.shared.model.DBStatus.VOID;
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -81,18 +90,130 @@ public class NotesServerSyncTaskTest {
     }
 
     @Test
-    public void testPullRemoteChanges() {
+    public void testPushLocalChanges_CollectsFailuresOfAllNotes() throws IOException {
+        //noinspection unchecked
+        final Call<Note> failingCall = mock(Call.class);
+        when(failingCall.execute()).thenThrow(new IOException("Network failure"));
+        when(notesAPI.createNote(any())).thenReturn(failingCall);
+        when(repo.getLocalModifiedNotes(anyLong())).thenReturn(Arrays.asList(
+                new Note(1, null, Calendar.getInstance(), "First", "First", "", false, "1", LOCAL_EDITED, 0, "", 0),
+                new Note(2, null, Calendar.getInstance(), "Second", "Second", "", false, "1", LOCAL_EDITED, 0, "", 0),
+                new Note(3, null, Calendar.getInstance(), "Third", "Third", "", false, "1", LOCAL_EDITED, 0, "", 0)
+        ));
+
+        this.task.run();
+
+        verify(notesAPI, times(3)).createNote(any());
+        assertEquals(3, this.task.exceptions.size());
+    }
+
+    @Test
+    public void testPullRemoteChanges() throws IOException {
         when(repo.getAccountById(anyLong())).thenReturn(account);
+        // Too many changed notes to fetch them one by one
+        final var remoteManifest = new ArrayList<Note>();
+        for (long i = 0; i < 200; i++) {
+            remoteManifest.add(new Note(i, Calendar.getInstance(), "", "", "", false, "etag" + i));
+        }
+        when(notesAPI.getNotesManifest(any(), any())).thenReturn(Observable.just(ParsedResponse.of(remoteManifest)));
         when(repo.getIdMap(anyLong())).thenReturn(Map.of(1000L, 1L, 2000L, 2L));
-        when(repo.updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(anyLong(), anyLong(), anyString(), anyBoolean(), anyString(), anyString(), anyString(), anyString())).thenReturn(1);
-        when(notesAPI.getNotes(any(), any())).thenReturn(Observable.just(ParsedResponse.of(Arrays.asList(
+        when(repo.applyRemoteNotes(anyLong(), anyList(), anyList())).thenReturn(1);
+        final var remoteNotes = mock(NotesResponseReader.class);
+        when(remoteNotes.hasNext()).thenReturn(true, true, false);
+        when(remoteNotes.next()).thenReturn(
                 new Note(0, 1000L, Calendar.getInstance(), "RemoteId is in the idMap, therefore", "This note should be updated locally", "", false, "1", VOID, 0, "", 0),
                 new Note(0, 3000L, Calendar.getInstance(), "Is a new RemoteId, therefore", "This note should be created locally", "", false, "1", VOID, 0, "", 0)
+        );
+        when(remoteNotes.getHeaders()).thenReturn(Collections.emptyMap());
+        when(notesAPI.getNotesStream(any(), any())).thenReturn(remoteNotes);
+
+        this.task.run();
+
+        verify(repo).applyRemoteNotes(anyLong(),
+                argThat(createdNotes -> createdNotes.size() == 1 && "This note should be created locally".equals(createdNotes.get(0).getContent())),
+                argThat(updatedNotes -> updatedNotes.size() == 1 && "This note should be updated locally".equals(updatedNotes.get(0).getContent()) && updatedNotes.get(0).getId() == 1L));
+        verify(repo).deleteByNoteIds(argThat(ids -> ids.size() == 1 && ids.contains(2L)), eq(VOID));
+        verify(remoteNotes).close();
+        verify(repo).addSyncMetrics(argThat(metrics -> metrics.isFullPull()
+                && metrics.isPullSuccessful()
+                && metrics.getCreatedCount() == 1
+                && metrics.getUpdatedCount() == 1
+                && metrics.getDeletedCount() == 1
+                && metrics.getUnchangedCount() == 0
+                && metrics.getHttpStatusCodes().isEmpty()));
+    }
+
+    @Test
+    public void testPullRemoteChanges_delta() {
+        when(repo.getAccountById(anyLong())).thenReturn(account);
+        when(repo.getSyncManifest(anyLong())).thenReturn(Map.of(
+                1000L, new Note(1, 1000L, Calendar.getInstance(), "", "", "", false, "a", VOID, 0, "", 0),
+                2000L, new Note(2, 2000L, Calendar.getInstance(), "", "", "", false, "b", VOID, 0, "", 0),
+                4000L, new Note(4, 4000L, Calendar.getInstance(), "", "", "", false, "d", VOID, 0, "", 0),
+                5000L, new Note(5, 5000L, Calendar.getInstance(), "", "", "", false, "e", VOID, 0, "", 0)
+        ));
+        when(notesAPI.getNotesManifest(any(), any())).thenReturn(Observable.just(ParsedResponse.of(Arrays.asList(
+                new Note(1000L, Calendar.getInstance(), "", "", "", false, "changed"),
+                new Note(3000L, Calendar.getInstance(), "", "", "", false, "new"),
+                new Note(4000L, null, "", "", "", false, null),
+                new Note(5000L, Calendar.getInstance(), "", "", "", false, "e")
+        ))));
+        when(notesAPI.getNote(1000L)).thenReturn(Observable.just(ParsedResponse.of(
+                new Note(0, 1000L, Calendar.getInstance(), "ETag has changed, therefore", "This note should be updated locally", "", false, "changed", VOID, 0, "", 0))));
+        when(notesAPI.getNote(3000L)).thenReturn(Observable.just(ParsedResponse.of(
+                new Note(0, 3000L, Calendar.getInstance(), "Is a new RemoteId, therefore", "This note should be created locally", "", false, "new", VOID, 0, "", 0))));
+
+        this.task.run();
+
+        verify(notesAPI, never()).getNotesStream(any(), any());
+        verify(notesAPI, never()).getNote(4000L);
+        verify(notesAPI, never()).getNote(5000L);
+        verify(repo).applyRemoteNotes(anyLong(),
+                argThat(createdNotes -> createdNotes.size() == 1 && "This note should be created locally".equals(createdNotes.get(0).getContent())),
+                argThat(updatedNotes -> updatedNotes.size() == 1 && "This note should be updated locally".equals(updatedNotes.get(0).getContent()) && updatedNotes.get(0).getId() == 1L));
+        verify(repo).deleteByNoteIds(argThat(ids -> ids.size() == 1 && ids.contains(2L)), eq(VOID));
+        // Two notes are unchanged according to the manifest, the fetched one which should be updated has not been applied by the mocked repository
+        verify(repo).addSyncMetrics(argThat(metrics -> !metrics.isFullPull()
+                && metrics.getCreatedCount() == 1
+                && metrics.getUpdatedCount() == 0
+                && metrics.getDeletedCount() == 1
+                && metrics.getUnchangedCount() == 3
+                && metrics.getHttpStatusCodes().isEmpty()));
+        verify(repo).updateETag(anyLong(), any());
+    }
+
+    @Test
+    public void testPullRemoteChanges_delta_failingNotes() {
+        when(repo.getAccountById(anyLong())).thenReturn(account);
+        when(repo.getSyncManifest(anyLong())).thenReturn(Map.of(
+                1000L, new Note(1, 1000L, Calendar.getInstance(), "", "", "", false, "a", VOID, 0, "", 0),
+                2000L, new Note(2, 2000L, Calendar.getInstance(), "", "", "", false, "b", VOID, 0, "", 0)
+        ));
+        when(notesAPI.getNotesManifest(any(), any())).thenReturn(Observable.just(ParsedResponse.of(Arrays.asList(
+                new Note(1000L, Calendar.getInstance(), "", "", "", false, "changed"),
+                new Note(2000L, Calendar.getInstance(), "", "", "", false, "changed"),
+                new Note(3000L, Calendar.getInstance(), "", "", "", false, "new")
         ))));
+        final var notFound = mock(NextcloudHttpRequestFailedException.class);
+        when(notFound.getStatusCode()).thenReturn(404);
+        final var serverError = mock(NextcloudHttpRequestFailedException.class);
+        when(serverError.getStatusCode()).thenReturn(500);
+        when(notesAPI.getNote(1000L)).thenReturn(Observable.error(new RuntimeException(notFound)));
+        when(notesAPI.getNote(2000L)).thenReturn(Observable.error(new RuntimeException(serverError)));
+        when(notesAPI.getNote(3000L)).thenReturn(Observable.just(ParsedResponse.of(
+                new Note(0, 3000L, Calendar.getInstance(), "Is a new RemoteId, therefore", "This note should be created locally", "", false, "new", VOID, 0, "", 0))));
 
         this.task.run();
 
-        verify(repo).addNote(anyLong(), argThat(argument -> "This note should be created locally".equals(argument.getContent())));
-        verify(repo).updateIfNotModifiedLocallyAndAnyRemoteColumnHasChanged(anyLong(), anyLong(), anyString(), anyBoolean(), anyString(), anyString(), argThat("This note should be updated locally"::equals), anyString());
+        verify(repo).applyRemoteNotes(anyLong(),
+                argThat(createdNotes -> createdNotes.size() == 1 && "This note should be created locally".equals(createdNotes.get(0).getContent())),
+                argThat(List::isEmpty));
+        // Deleted remotely after the manifest has been fetched
+        verify(repo).deleteByNoteIds(argThat(ids -> ids.size() == 1 && ids.contains(1L)), eq(VOID));
+        assertEquals(List.of(serverError), task.exceptions);
+        // The failed note must be fetched again with the next pull
+        verify(repo, never()).updateETag(anyLong(), any());
+        verify(repo, never()).updateModified(anyLong(), anyLong());
+        verify(repo).addSyncMetrics(argThat(metrics -> "404×1, 500×1".equals(metrics.getHttpStatusCodes())));
     }
-}
\ No newline at end of file
+}
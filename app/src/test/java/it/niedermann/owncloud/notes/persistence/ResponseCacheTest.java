@@ -0,0 +1,180 @@
+package it.niedermann.owncloud.notes.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.owncloud.notes.shared.model.NotesSettings;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+@RunWith(RobolectricTestRunner.class)
+public class ResponseCacheTest {
+
+    private final List<String[]> requests = new ArrayList<>();
+    private long now = 1_000_000;
+    private ResponseCache responseCache;
+
+    @Before
+    public void setup() {
+        final var preferences = ApplicationProvider.getApplicationContext().getSharedPreferences("test", Context.MODE_PRIVATE);
+        preferences.edit().clear().commit();
+        responseCache = new ResponseCache(preferences, () -> now);
+    }
+
+    @Test
+    public void serveFreshEntriesWithoutRequest() throws Throwable {
+        final var response = get(Response.success(new NotesSettings("Notes", ".md"), Headers.of("ETag", "\"1\"", "Cache-Control", "max-age=600")));
+        assertEquals("Notes", response.body().getNotesPath());
+        assertEquals(1, requests.size());
+        assertNull(requests.get(0)[0]);
+
+        now += TimeUnit.SECONDS.toMillis(599);
+        final var cached = get(Response.success(new NotesSettings("Other", ".txt")));
+        assertEquals(1, requests.size());
+        assertEquals("Notes", cached.body().getNotesPath());
+        assertEquals(".md", cached.body().getFileSuffix());
+
+        final var statistics = responseCache.getStatistics();
+        assertEquals(1, statistics.hitCount);
+        assertEquals(0, statistics.revalidatedCount);
+        assertEquals(1, statistics.missCount);
+    }
+
+    @Test
+    public void revalidateStaleEntries() throws Throwable {
+        get(Response.success(new NotesSettings("Notes", ".md"), Headers.of("ETag", "\"1\"", "Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT")));
+
+        now += ResponseCache.MIN_FRESHNESS_MILLIS;
+        final var notModified = get(() -> {
+            throw createHttpException(304);
+        });
+        assertEquals(2, requests.size());
+        assertEquals("\"1\"", requests.get(1)[0]);
+        assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", requests.get(1)[1]);
+        assertEquals("Notes", notModified.body().getNotesPath());
+
+        // Revalidation makes the entry fresh again
+        now += ResponseCache.MIN_FRESHNESS_MILLIS - 1;
+        get(Response.success(new NotesSettings("Other", ".txt")));
+        assertEquals(2, requests.size());
+
+        now += 1;
+        final var modified = get(Response.success(new NotesSettings("Other", ".txt"), Headers.of("ETag", "\"2\"")));
+        assertEquals(3, requests.size());
+        assertEquals("Other", modified.body().getNotesPath());
+
+        final var statistics = responseCache.getStatistics();
+        assertEquals(1, statistics.hitCount);
+        assertEquals(1, statistics.revalidatedCount);
+        assertEquals(2, statistics.missCount);
+    }
+
+    @Test
+    public void notModifiedResponse() throws Throwable {
+        get(Response.success(new NotesSettings("Notes", ".md"), Headers.of("ETag", "\"1\"")));
+
+        now += ResponseCache.MIN_FRESHNESS_MILLIS;
+        final var notModified = get(Response.error(ResponseBody.create(MediaType.get("application/json"), ""), new okhttp3.Response.Builder()
+                .code(304)
+                .message("Not Modified")
+                .protocol(Protocol.HTTP_1_1)
+                .request(new Request.Builder().url("https://example.com/").build())
+                .build()));
+        assertTrue(notModified.isSuccessful());
+        assertEquals("Notes", notModified.body().getNotesPath());
+    }
+
+    @Test
+    public void doNotCacheUnsuccessfulResponses() throws Throwable {
+        final Response<NotesSettings> notFound = Response.error(404, ResponseBody.create(MediaType.get("application/json"), ""));
+        assertSame(notFound, get(notFound));
+        get(Response.success(new NotesSettings("Notes", ".md")));
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void propagateErrors() {
+        assertThrows(IOException.class, () -> get(() -> {
+            throw new IOException();
+        }));
+
+        // Not modified without a cached entry is not handled by the cache
+        assertThrows(NextcloudHttpRequestFailedException.class, () -> get(() -> {
+            throw createHttpException(304);
+        }));
+    }
+
+    @Test
+    public void invalidate() throws Throwable {
+        get(Response.success(new NotesSettings("Notes", ".md")));
+        responseCache.get("other@example.com", "settings", NotesSettings.class, (eTag, lastModified) -> Response.success(new NotesSettings("Notes", ".md")));
+
+        responseCache.invalidate("test@example.com", "settings");
+        get(Response.success(new NotesSettings("Notes", ".md")));
+        assertEquals(2, requests.size());
+
+        responseCache.invalidate("test@example.com");
+        get(Response.success(new NotesSettings("Notes", ".md")));
+        assertEquals(3, requests.size());
+
+        // Other accounts are not affected
+        responseCache.get("other@example.com", "settings", NotesSettings.class, (eTag, lastModified) -> {
+            throw new IllegalStateException("Should be served from the cache");
+        });
+    }
+
+    @Test
+    public void getMaxAgeMillis() {
+        assertEquals(ResponseCache.MIN_FRESHNESS_MILLIS, ResponseCache.getMaxAgeMillis(null));
+        assertEquals(ResponseCache.MIN_FRESHNESS_MILLIS, ResponseCache.getMaxAgeMillis("no-cache, no-store, must-revalidate"));
+        assertEquals(ResponseCache.MIN_FRESHNESS_MILLIS, ResponseCache.getMaxAgeMillis("max-age=10"));
+        assertEquals(ResponseCache.MIN_FRESHNESS_MILLIS, ResponseCache.getMaxAgeMillis("max-age=foo"));
+        assertEquals(TimeUnit.HOURS.toMillis(1), ResponseCache.getMaxAgeMillis("private, Max-Age=3600"));
+    }
+
+    private static NextcloudHttpRequestFailedException createHttpException(int statusCode) {
+        final var exception = mock(NextcloudHttpRequestFailedException.class);
+        when(exception.getStatusCode()).thenReturn(statusCode);
+        return exception;
+    }
+
+    private Response<NotesSettings> get(Response<NotesSettings> response) throws Throwable {
+        return get(() -> response);
+    }
+
+    private Response<NotesSettings> get(ResponseSupplier supplier) throws Throwable {
+        return responseCache.get("test@example.com", "settings", NotesSettings.class, (eTag, lastModified) -> {
+            requests.add(new String[]{eTag, lastModified});
+            return supplier.get();
+        });
+    }
+
+    private interface ResponseSupplier {
+        Response<NotesSettings> get() throws Throwable;
+    }
+}
@@ -0,0 +1,77 @@
+package it.niedermann.owncloud.notes.persistence;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.annotation.NonNull;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import it.niedermann.owncloud.notes.persistence.entity.Account;
+import it.niedermann.owncloud.notes.persistence.entity.SyncMetrics;
+import it.niedermann.owncloud.notes.shared.model.Capabilities;
+
+@RunWith(RobolectricTestRunner.class)
+public class SyncMetricsDaoTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private NotesDatabase db;
+    private long accountId;
+    private long otherAccountId;
+
+    @Before
+    public void setupDB() {
+        db = Room
+                .inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), NotesDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        accountId = db.getAccountDao().insert(new Account("https://example.com", "foo", "foo@example.com", null, new Capabilities()));
+        otherAccountId = db.getAccountDao().insert(new Account("https://example.com", "bar", "bar@example.com", null, new Capabilities()));
+    }
+
+    @After
+    public void closeDb() {
+        db.close();
+    }
+
+    @Test
+    public void deleteOldSyncMetrics() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            db.getSyncMetricsDao().addSyncMetrics(createSyncMetrics(accountId, i));
+        }
+        db.getSyncMetricsDao().addSyncMetrics(createSyncMetrics(otherAccountId, 0));
+
+        assertEquals(2, db.getSyncMetricsDao().deleteOldSyncMetrics(accountId, 3));
+
+        final var metrics = NotesTestingUtil.getOrAwaitValue(db.getSyncMetricsDao().getSyncMetrics$(accountId));
+        assertEquals(3, metrics.size());
+        assertEquals("Most recent first", 4, metrics.get(0).getStarted());
+        assertEquals(2, metrics.get(2).getStarted());
+        assertEquals("Other accounts are not affected", 1, db.getSyncMetricsDao().getSyncMetrics(otherAccountId).size());
+    }
+
+    @Test
+    public void deletedWithAccount() {
+        db.getSyncMetricsDao().addSyncMetrics(createSyncMetrics(accountId, 0));
+        db.getAccountDao().deleteAccount(db.getAccountDao().getAccountById(accountId));
+        assertEquals(0, db.getSyncMetricsDao().getSyncMetrics(accountId).size());
+    }
+
+    @NonNull
+    private static SyncMetrics createSyncMetrics(long accountId, long started) {
+        final var metrics = new SyncMetrics();
+        metrics.setAccountId(accountId);
+        metrics.setStarted(started);
+        metrics.setHttpStatusCodes("200×1");
+        return metrics;
+    }
+}
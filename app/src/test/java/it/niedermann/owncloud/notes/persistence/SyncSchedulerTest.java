@@ -0,0 +1,191 @@
+package it.niedermann.owncloud.notes.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class SyncSchedulerTest {
+
+    /**
+     * Runnables submitted to the executor, run manually by the tests
+     */
+    private final Queue<Runnable> submitted = new ArrayDeque<>();
+    /**
+     * Account ID and onlyLocalChanges of each started synchronization
+     */
+    private final List<String> started = new ArrayList<>();
+    private int idleCount = 0;
+    private final ScheduledExecutorService timer = mock(ScheduledExecutorService.class);
+    private SyncScheduler scheduler;
+
+    @Before
+    public void setup() {
+        scheduler = new SyncScheduler(submitted::add, timer, 2, 3_000, () -> idleCount++);
+    }
+
+    private SyncScheduler.SyncTaskFactory factory(long accountId) {
+        return onlyLocalChanges -> () -> started.add(accountId + (onlyLocalChanges ? " local" : " full"));
+    }
+
+    private void runNext() {
+        Objects.requireNonNull(submitted.poll()).run();
+    }
+
+    @Test
+    public void testSingleFlightPerAccount() {
+        assertTrue(scheduler.schedule(1, true, factory(1)));
+        assertEquals(1, submitted.size());
+
+        assertFalse("Must not run in parallel to the active synchronization", scheduler.schedule(1, true, factory(1)));
+        assertFalse(scheduler.schedule(1, false, factory(1)));
+        assertFalse(scheduler.schedule(1, true, factory(1)));
+        assertEquals(1, submitted.size());
+
+        runNext();
+        assertEquals(List.of("1 local"), started);
+        assertEquals("Requests while active must be merged into one", 1, submitted.size());
+
+        runNext();
+        assertEquals("A full synchronization wins over one which only pushes local changes", List.of("1 local", "1 full"), started);
+        assertTrue(submitted.isEmpty());
+        assertEquals(1, idleCount);
+    }
+
+    @Test
+    public void testMaxParallelSyncs() {
+        assertTrue(scheduler.schedule(1, false, factory(1)));
+        assertTrue(scheduler.schedule(2, false, factory(2)));
+        assertTrue(scheduler.schedule(3, false, factory(3)));
+        assertEquals("Only two accounts must be synchronized in parallel", 2, submitted.size());
+
+        runNext();
+        assertEquals("Next account must be started after one finished", 2, submitted.size());
+        runNext();
+        runNext();
+        assertEquals(List.of("1 full", "2 full", "3 full"), started);
+        assertEquals(1, idleCount);
+    }
+
+    @Test
+    public void testHold() {
+        scheduler.hold(1);
+        assertFalse(scheduler.schedule(1, false, factory(1)));
+        assertTrue(submitted.isEmpty());
+        assertTrue("Other accounts must not be affected", scheduler.schedule(2, false, factory(2)));
+        assertEquals(1, submitted.size());
+
+        scheduler.release(1);
+        assertEquals(2, submitted.size());
+    }
+
+    @Test
+    public void testHoldWhileActive() {
+        assertTrue(scheduler.schedule(1, false, factory(1)));
+        scheduler.hold(1);
+        scheduler.hold(1);
+        runNext();
+        assertEquals(List.of("1 full"), started);
+
+        assertFalse("Hold must outlast the synchronization which was running when it has been taken", scheduler.schedule(1, false, factory(1)));
+        assertTrue(submitted.isEmpty());
+
+        scheduler.release(1);
+        assertTrue("Each hold must be released", submitted.isEmpty());
+        scheduler.release(1);
+        assertEquals(1, submitted.size());
+    }
+
+    @Test
+    public void testFailingSyncTask() {
+        scheduler.schedule(1, false, onlyLocalChanges -> {
+            throw new Exception("Account not found");
+        });
+        runNext();
+        assertEquals(1, idleCount);
+        assertTrue("Account must not stay active after a failure", scheduler.schedule(1, false, factory(1)));
+    }
+
+    @Test
+    public void testDebouncePushes() {
+        assertTrue("First push must start immediately", scheduler.schedule(1, true, factory(1)));
+        runNext();
+
+        assertFalse(scheduler.schedule(1, true, factory(1)));
+        assertFalse(scheduler.schedule(1, true, factory(1)));
+        assertFalse(scheduler.schedule(1, true, factory(1)));
+        assertTrue("Pushes within the debounce window must be delayed", submitted.isEmpty());
+        assertEquals(1, scheduler.getQueueDepth());
+
+        final var delayed = ArgumentCaptor.forClass(Runnable.class);
+        verify(timer, times(1)).schedule(delayed.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+        delayed.getValue().run();
+        assertEquals(1, submitted.size());
+        runNext();
+
+        assertEquals("Burst of pushes must be merged into one", List.of("1 local", "1 local"), started);
+        assertEquals(0, scheduler.getQueueDepth());
+        assertEquals(2f, scheduler.getCoalescingRatio(), 0f);
+    }
+
+    @Test
+    public void testNotIdleWhileDebounced() {
+        scheduler.schedule(1, true, factory(1));
+        runNext();
+        assertEquals(1, idleCount);
+
+        assertFalse(scheduler.schedule(1, true, factory(1)));
+        assertTrue(scheduler.schedule(2, false, factory(2)));
+        runNext();
+        assertEquals("Debounced push must not be considered idle", 1, idleCount);
+
+        final var delayed = ArgumentCaptor.forClass(Runnable.class);
+        verify(timer).schedule(delayed.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+        delayed.getValue().run();
+        runNext();
+        assertEquals(List.of("1 local", "2 full", "1 local"), started);
+        assertEquals(2, idleCount);
+    }
+
+    @Test
+    public void testFullSyncIsNotDebounced() {
+        scheduler.schedule(1, true, factory(1));
+        runNext();
+
+        assertFalse(scheduler.schedule(1, true, factory(1)));
+        assertTrue("Push and pull must be merged and start immediately", scheduler.schedule(1, false, factory(1)));
+        runNext();
+        assertEquals(List.of("1 local", "1 full"), started);
+
+        final var delayed = ArgumentCaptor.forClass(Runnable.class);
+        verify(timer).schedule(delayed.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+        delayed.getValue().run();
+        assertTrue("Elapsed delay of an already started request must not start another synchronization", submitted.isEmpty());
+    }
+
+    @Test
+    public void testInvalidMaxParallelSyncs() {
+        assertThrows(IllegalArgumentException.class, () -> new SyncScheduler(submitted::add, timer, 0, 0, () -> {
+        }));
+    }
+}
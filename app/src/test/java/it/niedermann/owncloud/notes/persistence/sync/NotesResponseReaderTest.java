@@ -0,0 +1,79 @@
+package it.niedermann.owncloud.notes.persistence.sync;
+
+import com.google.gson.GsonBuilder;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import it.niedermann.owncloud.notes.persistence.entity.Note;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class NotesResponseReaderTest {
+
+    @Test
+    public void testReadNotesOneByOne() throws IOException {
+        //language=json
+        final String response = "" +
+                "[" +
+                "    {\"id\":1,\"title\":\"Foo\",\"content\":\"Foo content\",\"category\":\"\",\"favorite\":true,\"etag\":\"abc\"}," +
+                "    {\"id\":2,\"title\":\"Bar\",\"content\":\"Bar content\",\"category\":\"Baz\",\"favorite\":false,\"etag\":\"def\"}" +
+                "]";
+        final var body = new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8));
+        try (final var reader = new NotesResponseReader(body, Map.of("ETag", "xyz"), new GsonBuilder().excludeFieldsWithoutExposeAnnotation().create())) {
+            assertTrue(reader.hasNext());
+            final Note first = reader.next();
+            assertNotNull(first);
+            assertEquals(Long.valueOf(1), first.getRemoteId());
+            assertEquals("Foo content", first.getContent());
+            assertTrue(first.getFavorite());
+
+            assertTrue(reader.hasNext());
+            final Note second = reader.next();
+            assertNotNull(second);
+            assertEquals(Long.valueOf(2), second.getRemoteId());
+            assertEquals("Baz", second.getCategory());
+
+            assertFalse(reader.hasNext());
+            assertEquals("xyz", reader.getHeaders().get("ETag"));
+            assertEquals(response.getBytes(StandardCharsets.UTF_8).length, reader.getBytesRead());
+        }
+    }
+
+    @Test
+    public void testReadEmptyResponse() throws IOException {
+        final var body = new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8));
+        try (final var reader = new NotesResponseReader(body, Map.of(), new GsonBuilder().create())) {
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void testCloseMalformedResponse() {
+        final var closed = new boolean[]{false};
+        final var body = new ByteArrayInputStream("{\"message\":\"Internal Server Error\"}".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+                super.close();
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> {
+            try (final var reader = new NotesResponseReader(body, Map.of(), new GsonBuilder().create())) {
+                reader.hasNext();
+            }
+        });
+        assertTrue(closed[0]);
+    }
+}
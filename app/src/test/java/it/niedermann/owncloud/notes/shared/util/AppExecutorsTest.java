@@ -0,0 +1,75 @@
+package it.niedermann.owncloud.notes.shared.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class AppExecutorsTest {
+
+    private final AppExecutors executors = new AppExecutors(2, 2, 3, 2);
+
+    @Test
+    public void getInstance() {
+        assertSame(AppExecutors.getInstance(), AppExecutors.getInstance());
+    }
+
+    @Test
+    public void bounded() throws InterruptedException {
+        final var release = new CountDownLatch(1);
+        final var started = new CountDownLatch(2);
+        for (int i = 0; i < 5; i++) {
+            executors.io().submit(() -> {
+                started.countDown();
+                release.await();
+                return null;
+            });
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        final var io = executors.getGauges().get(0);
+        assertEquals("io", io.name);
+        assertEquals(2, io.activeCount);
+        assertEquals(2, io.maximumPoolSize);
+        assertEquals(3, io.queueSize);
+
+        release.countDown();
+    }
+
+    @Test
+    public void threadNames() throws Exception {
+        assertTrue(executors.network().submit(() -> Thread.currentThread().getName()).get().startsWith("notes-network-"));
+        assertTrue(executors.dbWrite().submit(() -> Thread.currentThread().getName()).get().startsWith("notes-db-write-"));
+        assertTrue(executors.sync().submit(() -> Thread.currentThread().getName()).get().startsWith("notes-sync-"));
+        assertTrue(executors.scheduler().schedule(() -> Thread.currentThread().getName(), 1, TimeUnit.MILLISECONDS).get().startsWith("notes-scheduler-"));
+    }
+
+    @Test
+    public void gauges() {
+        final var gauges = executors.getGauges();
+        assertEquals(6, gauges.size());
+        assertEquals("db-write", gauges.get(1).name);
+        assertEquals(1, gauges.get(1).maximumPoolSize);
+        assertEquals("cpu", gauges.get(2).name);
+        assertEquals(3, gauges.get(3).maximumPoolSize);
+        assertEquals("sync", gauges.get(4).name);
+        assertEquals(2, gauges.get(4).maximumPoolSize);
+        assertEquals("scheduler", gauges.get(5).name);
+        assertEquals(1, gauges.get(5).maximumPoolSize);
+    }
+
+    @Test
+    public void sharedPoolsCanNotBeShutDown() {
+        assertThrows(UnsupportedOperationException.class, () -> executors.io().shutdown());
+        assertThrows(UnsupportedOperationException.class, () -> executors.network().shutdownNow());
+        assertThrows(UnsupportedOperationException.class, () -> executors.scheduler().shutdown());
+    }
+}
@@ -0,0 +1,77 @@
+package it.niedermann.owncloud.notes.shared.util;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.ComponentCallbacks2;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(RobolectricTestRunner.class)
+public class MarkdownRenderCacheTest {
+
+    private final AtomicInteger renderCount = new AtomicInteger();
+    private final MarkdownRenderCache cache = new MarkdownRenderCache(100);
+
+    private CharSequence render(long noteId, String content, int theme, float fontSize) {
+        return cache.get(noteId, content, theme, fontSize, () -> {
+            renderCount.incrementAndGet();
+            return "<" + content + ">";
+        });
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        assertEquals("<foo>", render(1, "foo", 0, 1f));
+        assertEquals("<foo>", render(1, "foo", 0, 1f));
+        assertEquals(1, renderCount.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+
+        assertEquals("Changed content must be rendered again", "<bar>", render(1, "bar", 0, 1f));
+        render(2, "bar", 0, 1f);
+        render(1, "bar", 1, 1f);
+        render(1, "bar", 0, 1.5f);
+        assertEquals(5, renderCount.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(5, cache.missCount());
+    }
+
+    @Test
+    public void testContentWithSameHashCode() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertEquals("<Aa>", render(1, "Aa", 0, 1f));
+        assertEquals("<BB>", render(1, "BB", 0, 1f));
+        assertEquals(2, renderCount.get());
+        assertEquals(0, cache.hitCount());
+    }
+
+    @Test
+    public void testSizeBounded() {
+        // Each entry occupies the characters of the content and of the rendering
+        final var content = "x".repeat(20);
+        render(1, content, 0, 1f);
+        render(2, content, 0, 1f);
+        // Evicts the least recently used entry of note 1
+        render(3, content, 0, 1f);
+        render(2, content, 0, 1f);
+        assertEquals(3, renderCount.get());
+        render(1, content, 0, 1f);
+        assertEquals(4, renderCount.get());
+    }
+
+    @Test
+    public void testOnTrimMemory() {
+        render(1, "foo", 0, 1f);
+        cache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+        render(1, "foo", 0, 1f);
+        assertEquals(1, renderCount.get());
+
+        cache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        render(1, "foo", 0, 1f);
+        assertEquals(2, renderCount.get());
+    }
+}
@@ -11,6 +11,8 @@ import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.util.Calendar;
+
 import it.niedermann.android.markdown.MarkdownUtil;
 
 /**
@@ -39,6 +41,9 @@ public class NoteUtilTest extends TestCase {
         assertEquals("Foo", NoteUtil.getLineWithoutMarkdown("* Foo\n* Bar", 0));
         assertEquals("Bar", NoteUtil.getLineWithoutMarkdown("- Foo\nBar", 1));
         assertEquals("Foo", NoteUtil.getLineWithoutMarkdown("# Foo", 0));
+        assertEquals("Bar", NoteUtil.getLineWithoutMarkdown("Foo\n\n \nBar\n", 1));
+        assertEquals("", NoteUtil.getLineWithoutMarkdown("Foo\nBar", 2));
+        assertEquals("", NoteUtil.getLineWithoutMarkdown("Foo\n\n", 1));
     }
 
     @Test
@@ -88,6 +93,140 @@ public class NoteUtilTest extends TestCase {
         assertEquals("Title   Bar", NoteUtil.generateNoteExcerpt("- Title\nTitle\nBar", "- Title"));
     }
 
+    @Test
+    public void testGenerateNoteExcerpt_largeContent() {
+        final var paragraph = "Lorem **ipsum** dolor sit amet, `consectetur` adipiscing elit.\n- [ ] sed do eiusmod\n- [x] tempor incididunt\n\n";
+        final var content = new StringBuilder("# Title\n\n");
+        for (int i = 0; i < 100; i++) {
+            content.append(paragraph);
+        }
+        assertEquals(generateNoteExcerptOfWholeContent(content.toString(), "Title"), NoteUtil.generateNoteExcerpt(content.toString(), "Title"));
+        assertEquals(generateNoteExcerptOfWholeContent(content.toString(), "Other"), NoteUtil.generateNoteExcerpt(content.toString(), "Other"));
+        assertEquals(generateNoteExcerptOfWholeContent(content.toString(), null), NoteUtil.generateNoteExcerpt(content.toString(), null));
+
+        content.append("```\ncode\n\nblock\n```\n\n> quote\n\n[ref]: https://example.com");
+        assertEquals("Link reference definitions must be respected", generateNoteExcerptOfWholeContent(content.toString(), "Title"), NoteUtil.generateNoteExcerpt(content.toString(), "Title"));
+    }
+
+    @Test
+    public void testGenerateNoteExcerpt_largeContentWithFence() {
+        final var content = new StringBuilder("# Title\n\nIntro\n\n```\n");
+        for (int i = 0; i < 20; i++) {
+            content.append("line ").append(i).append(" of a code block which contains empty lines\n\n");
+        }
+        content.append("```\n\n");
+        final int fenceEnd = content.length() - 2;
+        for (int i = 0; i < 20; i++) {
+            content.append("Paragraph ").append(i).append(" after the code block\n\n");
+        }
+        assertEquals("Chunk must not end within the code block", fenceEnd, NoteUtil.findBlockBoundary(content.toString().trim(), 410));
+        assertEquals(generateNoteExcerptOfWholeContent(content.toString(), "Title"), NoteUtil.generateNoteExcerpt(content.toString(), "Title"));
+        assertEquals(generateNoteExcerptOfWholeContent(content.toString(), null), NoteUtil.generateNoteExcerpt(content.toString(), null));
+    }
+
+    @Test
+    public void testGenerateNoteExcerpt_largeContentWithLooseList() {
+        final var content = new StringBuilder("# Title\n\n");
+        for (int i = 0; i < 30; i++) {
+            content.append("- Item ").append(i).append(" of a loose list\n\n");
+        }
+        content.append("  Continuation of the last item\n\n");
+        final int listEnd = content.length() - 2;
+        for (int i = 0; i < 20; i++) {
+            content.append("Paragraph ").append(i).append(" after the list\n\n");
+        }
+        assertEquals("Chunk must not end within the list", listEnd, NoteUtil.findBlockBoundary(content.toString().trim(), 410));
+        assertEquals(generateNoteExcerptOfWholeContent(content.toString(), "Title"), NoteUtil.generateNoteExcerpt(content.toString(), "Title"));
+        assertEquals(generateNoteExcerptOfWholeContent(content.toString(), null), NoteUtil.generateNoteExcerpt(content.toString(), null));
+    }
+
+    @Test
+    public void testFindBlockBoundary() {
+        assertEquals(5, NoteUtil.findBlockBoundary("Intro\n\nOutro", 0));
+        assertEquals(-1, NoteUtil.findBlockBoundary("Intro\n\nOutro", 6));
+        assertEquals("Empty lines within fences must be skipped", 18, NoteUtil.findBlockBoundary("```\ncode\n\nmore\n```\n\nOutro", 0));
+        assertEquals("Fences must only be closed by the same fence", 21, NoteUtil.findBlockBoundary("~~~~\n```\n\n~~~\n\nx\n~~~~\n\nOutro", 0));
+        assertEquals("List items must not be separated", 8, NoteUtil.findBlockBoundary("- a\n\n* b\n\nOutro", 0));
+        assertEquals("Ordered list items must not be separated", 10, NoteUtil.findBlockBoundary("1. a\n\n2) b\n\nOutro", 0));
+        assertEquals("Indented continuations must not be separated", 8, NoteUtil.findBlockBoundary("- a\n\n  b\n\nOutro", 0));
+        assertEquals("Numbers are no list markers", 3, NoteUtil.findBlockBoundary("- a\n\n2021 was a good year", 0));
+        assertEquals(-1, NoteUtil.findBlockBoundary("Intro\n\n", 0));
+    }
+
+    /**
+     * Reference implementation which removes the Markdown of the whole content at once
+     */
+    private static String generateNoteExcerptOfWholeContent(String content, String title) {
+        content = MarkdownUtil.removeMarkdown(MarkdownUtil.replaceCheckboxesWithEmojis(content.trim()));
+        if (content.isEmpty()) {
+            return "";
+        }
+        if (title != null && !title.isEmpty()) {
+            final String trimmedTitle = MarkdownUtil.removeMarkdown(MarkdownUtil.replaceCheckboxesWithEmojis(title.trim()));
+            if (content.startsWith(trimmedTitle)) {
+                content = content.substring(trimmedTitle.length());
+            }
+        }
+        content = content.trim();
+        return content.substring(0, Math.min(200, content.length())).replace("\n", NoteUtil.EXCERPT_LINE_SEPARATOR);
+    }
+
+    @Test
+    public void testGenerateFullTextSearchQuery() {
+        assertEquals("", NoteUtil.generateFullTextSearchQuery(null));
+        assertEquals("", NoteUtil.generateFullTextSearchQuery(""));
+        assertEquals("", NoteUtil.generateFullTextSearchQuery("   "));
+        assertEquals("\"Foo*\"", NoteUtil.generateFullTextSearchQuery("Foo"));
+        assertEquals("\"Foo*\" \"Bar*\"", NoteUtil.generateFullTextSearchQuery(" Foo  Bar "));
+        assertEquals("Quotes must not break the expression", "\"Foo*\" \"Bar*\"", NoteUtil.generateFullTextSearchQuery("\"Foo\"Bar"));
+        assertEquals("Operators must be treated as words", "\"Foo*\" \"OR*\" \"Bar*\"", NoteUtil.generateFullTextSearchQuery("Foo OR Bar"));
+    }
+
+    @Test
+    public void testGenerateSubstringSearchQuery() {
+        assertEquals("", NoteUtil.generateSubstringSearchQuery(null));
+        assertEquals("", NoteUtil.generateSubstringSearchQuery(""));
+        assertEquals("", NoteUtil.generateSubstringSearchQuery("Foo Bar"));
+        assertEquals("", NoteUtil.generateSubstringSearchQuery("ärger"));
+        assertEquals("%日记%", NoteUtil.generateSubstringSearchQuery(" 日记 "));
+        assertEquals("%Foo ภาษาไทย%", NoteUtil.generateSubstringSearchQuery("Foo ภาษาไทย"));
+    }
+
+    @Test
+    public void testGenerateSectionInitial() {
+        assertEquals("", NoteUtil.generateSectionInitial(""));
+        assertEquals("F", NoteUtil.generateSectionInitial("foo"));
+        assertEquals("F", NoteUtil.generateSectionInitial("Foo"));
+        assertEquals("Ä", NoteUtil.generateSectionInitial("ärger"));
+        assertEquals("#", NoteUtil.generateSectionInitial("1st"));
+        assertEquals("#", NoteUtil.generateSectionInitial(" foo"));
+        assertEquals(NoteUtil.SECTION_INITIAL_OTHER, NoteUtil.generateSectionInitial("日记"));
+    }
+
+    @Test
+    public void testGenerateSortTitle() {
+        assertEquals("", NoteUtil.generateSortTitle(""));
+        assertEquals("foo", NoteUtil.generateSortTitle("Foo"));
+        assertEquals(NoteUtil.generateSortTitle("foo bar"), NoteUtil.generateSortTitle("FOO Bar"));
+        assertEquals("ärger", NoteUtil.generateSortTitle("ÄRGER"));
+        assertEquals("日记", NoteUtil.generateSortTitle("日记"));
+    }
+
+    @Test
+    public void testGenerateSectionDay() {
+        assertEquals(0, NoteUtil.generateSectionDay((Calendar) null));
+
+        final var morning = Calendar.getInstance();
+        morning.set(2021, Calendar.MARCH, 24, 0, 0, 1);
+        final var evening = Calendar.getInstance();
+        evening.set(2021, Calendar.MARCH, 24, 23, 59, 59);
+        final var nextDay = Calendar.getInstance();
+        nextDay.set(2021, Calendar.MARCH, 25, 0, 0, 1);
+
+        assertEquals(NoteUtil.generateSectionDay(morning), NoteUtil.generateSectionDay(evening));
+        assertEquals(NoteUtil.generateSectionDay(morning) + 1, NoteUtil.generateSectionDay(nextDay));
+    }
+
     /**
      * Has known issues on {@link Build.VERSION_CODES#LOLLIPOP_MR1} and
      * {@link Build.VERSION_CODES#M} due to incompatibilities of
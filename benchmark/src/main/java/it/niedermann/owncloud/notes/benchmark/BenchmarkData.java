@@ -0,0 +1,97 @@
+package it.niedermann.owncloud.notes.benchmark;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+
+import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.shared.model.DBStatus;
+import it.niedermann.owncloud.notes.shared.util.NoteUtil;
+
+/**
+ * Generates reproducible {@link Note}s for the benchmarks, which roughly look like the ones of a real account:
+ * spread over a few categories and the last years, every 20th one is a favorite.
+ */
+public class BenchmarkData {
+
+    /**
+     * Note counts which every size dependent benchmark is run with
+     */
+    public static final List<Object[]> NOTE_COUNTS = Arrays.asList(new Object[][]{{1_000}, {10_000}, {100_000}});
+
+    private static final String[] CATEGORIES = {"", "Work", "Work/Meetings", "Private", "Recipes", "Travel", "Ideas", "日记"};
+    private static final String[] WORDS = {"alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel", "india", "juliet", "kilo", "lima", "mike", "ärger", "1st"};
+    private static final long MODIFIED_BASE = 1_600_000_000_000L;
+    private static final long MODIFIED_STEP = 1_000L * 60 * 37;
+
+    private BenchmarkData() {
+        // Util class
+    }
+
+    /**
+     * @return {@param count} synchronized {@link Note}s of the given account, sorted like the server returns them
+     */
+    @NonNull
+    public static List<Note> createNotes(long accountId, int count) {
+        final var notes = new ArrayList<Note>(count);
+        for (int i = 0; i < count; i++) {
+            final var modified = Calendar.getInstance();
+            modified.setTimeInMillis(getModified(i));
+            final String title = getTitle(i);
+            final String content = getContent(i);
+            notes.add(new Note(0, (long) i + 1, modified, title, content, getCategory(i), isFavorite(i), "etag" + i, DBStatus.VOID, accountId, NoteUtil.generateNoteExcerpt(content, title), 0));
+        }
+        return notes;
+    }
+
+    /**
+     * @return a JSON array of {@param count} notes like it is responded by the <code>notes</code> endpoint of the server
+     */
+    @NonNull
+    public static String createNotesJson(int count) {
+        final var json = new StringBuilder(count * 200).append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i + 1)
+                    .append(",\"etag\":\"etag").append(i)
+                    .append("\",\"modified\":").append(getModified(i) / 1_000)
+                    .append(",\"title\":\"").append(getTitle(i))
+                    .append("\",\"category\":\"").append(getCategory(i))
+                    .append("\",\"favorite\":").append(isFavorite(i))
+                    .append(",\"content\":\"").append(getContent(i).replace("\n", "\\n"))
+                    .append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static long getModified(int i) {
+        return MODIFIED_BASE + i * MODIFIED_STEP;
+    }
+
+    @NonNull
+    private static String getTitle(int i) {
+        return WORDS[i % WORDS.length] + " " + i;
+    }
+
+    @NonNull
+    private static String getContent(int i) {
+        return "# " + getTitle(i) + "\n\n" +
+                "Note **" + i + "** about " + WORDS[(i * 7) % WORDS.length] + " and " + WORDS[(i * 13) % WORDS.length] + "\n" +
+                "- [ ] open task\n" +
+                "- [x] done task\n";
+    }
+
+    @NonNull
+    private static String getCategory(int i) {
+        return CATEGORIES[i % CATEGORIES.length];
+    }
+
+    private static boolean isFavorite(int i) {
+        return i % 20 == 0;
+    }
+}
@@ -0,0 +1,74 @@
+package it.niedermann.owncloud.notes.benchmark;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Calendar;
+
+import it.niedermann.owncloud.notes.persistence.entity.Converters;
+import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.shared.model.DBStatus;
+
+/**
+ * Measures the conversions which are performed for each row of {@link Note}s read by Room.
+ * The <code>_legacy</code> variants are the baseline of the former implementation, which allocated an array of {@link DBStatus} and a {@link Calendar} per row.
+ */
+public class ConvertersBenchmark {
+
+    private static final String[] STATUS_TITLES = {"", "LOCAL_EDITED", "LOCAL_DELETED"};
+    private static final long MODIFIED = 1_600_000_000_000L;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void statusFromString() {
+        final BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            Converters.fromString(STATUS_TITLES[i++ % STATUS_TITLES.length]);
+        }
+    }
+
+    @Test
+    public void statusFromString_legacy() {
+        final BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            legacyFromString(STATUS_TITLES[i++ % STATUS_TITLES.length]);
+        }
+    }
+
+    @Test
+    public void modified() {
+        final var note = new Note();
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            note.setModifiedMillis(MODIFIED);
+        }
+    }
+
+    @Test
+    public void modified_legacy() {
+        final var note = new Note();
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            note.setModified(Converters.calendarFromLong(MODIFIED));
+        }
+    }
+
+    @NonNull
+    private static DBStatus legacyFromString(@Nullable String value) {
+        for (DBStatus status : DBStatus.values()) {
+            if (status.getTitle().equals(value)) {
+                return status;
+            }
+        }
+        return DBStatus.VOID;
+    }
+}
@@ -0,0 +1,130 @@
+package it.niedermann.owncloud.notes.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.room.Room;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Collection;
+
+import it.niedermann.owncloud.notes.persistence.NotesDatabase;
+import it.niedermann.owncloud.notes.persistence.dao.NoteDao;
+import it.niedermann.owncloud.notes.persistence.entity.Account;
+import it.niedermann.owncloud.notes.persistence.migration.Migration_23_24;
+import it.niedermann.owncloud.notes.persistence.migration.Migration_25_26;
+import it.niedermann.owncloud.notes.shared.model.Capabilities;
+import it.niedermann.owncloud.notes.shared.util.NoteUtil;
+
+/**
+ * Measures the queries of {@link NoteDao} which back the notes list and the pull of remote changes as well as frequent single row updates.
+ */
+@RunWith(Parameterized.class)
+public class NoteDaoBenchmark {
+
+    @Parameterized.Parameters(name = "{0} notes")
+    public static Collection<Object[]> data() {
+        return BenchmarkData.NOTE_COUNTS;
+    }
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final int count;
+    private NotesDatabase db;
+    private NoteDao noteDao;
+    private long accountId;
+
+    public NoteDaoBenchmark(int count) {
+        this.count = count;
+    }
+
+    @Before
+    public void setupDB() {
+        db = Room
+                .inMemoryDatabaseBuilder(InstrumentationRegistry.getInstrumentation().getTargetContext(), NotesDatabase.class)
+                .build();
+        // Triggers are only created by the callback of the persistent database
+        Migration_23_24.createSyncTriggers(db.getOpenHelper().getWritableDatabase());
+        Migration_25_26.createCategoryCleanupTriggers(db.getOpenHelper().getWritableDatabase());
+        accountId = db.getAccountDao().insert(new Account("https://example.com", "test", "test@example.com", null, new Capabilities()));
+        noteDao = db.getNoteDao();
+        db.runInTransaction(() -> noteDao.addNotes(BenchmarkData.createNotes(accountId, count)));
+    }
+
+    @After
+    public void closeDB() {
+        db.close();
+    }
+
+    @Test
+    public void searchRecentByModified() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            noteDao.searchRecentByModified(accountId, "");
+        }
+    }
+
+    @Test
+    public void searchRecentByModified_query() {
+        final String query = NoteUtil.generateFullTextSearchQuery("delta");
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            noteDao.searchRecentByModified(accountId, query);
+        }
+    }
+
+    @Test
+    public void searchRecentLexicographically() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            noteDao.searchRecentLexicographically(accountId, "");
+        }
+    }
+
+    @Test
+    public void searchCategoryByModified() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            noteDao.searchCategoryByModified(accountId, "", "Work");
+        }
+    }
+
+    /**
+     * Must not depend on the count of notes, because the <code>category</code> does not change.
+     */
+    @Test
+    public void updateScrollY() {
+        final BenchmarkState state = benchmarkRule.getState();
+        int scrollY = 0;
+        while (state.keepRunning()) {
+            noteDao.updateScrollY(1, scrollY++);
+        }
+    }
+
+    /**
+     * Must not depend on the count of notes, because only the previous <code>category</code> of the changed note is checked for orphaned options.
+     */
+    @Test
+    public void updateCategory() {
+        final BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            noteDao.updateCategory(1, "Category " + i++ % 2);
+        }
+    }
+
+    @Test
+    public void getRemoteIdAndId() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            noteDao.getRemoteIdAndId(accountId);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package it.niedermann.owncloud.notes.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import it.niedermann.owncloud.notes.shared.util.NoteUtil;
+
+/**
+ * Compares the excerpt and title generation of {@link NoteUtil} with {@link WholeContentNoteUtil} for a large note.
+ */
+@RunWith(AndroidJUnit4.class)
+public class NoteUtilBenchmark {
+
+    private static final String TITLE = "Title";
+    private static final String LARGE_CONTENT = createContent(TITLE, 1_000);
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void generateNoteExcerpt() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            NoteUtil.generateNoteExcerpt(LARGE_CONTENT, TITLE);
+        }
+    }
+
+    @Test
+    public void generateNoteExcerpt_wholeContent() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            WholeContentNoteUtil.generateNoteExcerpt(LARGE_CONTENT, TITLE);
+        }
+    }
+
+    @Test
+    public void generateNoteTitle() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            NoteUtil.generateNoteTitle(LARGE_CONTENT);
+        }
+    }
+
+    @Test
+    public void generateNoteTitle_wholeContent() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            WholeContentNoteUtil.generateNoteTitle(LARGE_CONTENT);
+        }
+    }
+
+    /**
+     * @return a Markdown note starting with an empty line and a heading, followed by the given amount of paragraphs
+     */
+    static String createContent(String title, int paragraphs) {
+        final var content = new StringBuilder("\n# ").append(title).append("\n\n");
+        for (int i = 0; i < paragraphs; i++) {
+            content.append("Paragraph ").append(i).append(" with **bold** and `code` and a [link](https://example.com)\n")
+                    .append("- [ ] open task\n")
+                    .append("- [x] done task\n\n");
+        }
+        return content.toString();
+    }
+}
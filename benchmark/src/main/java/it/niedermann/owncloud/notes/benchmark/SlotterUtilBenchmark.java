@@ -0,0 +1,69 @@
+package it.niedermann.owncloud.notes.benchmark;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import it.niedermann.owncloud.notes.main.slots.SlotterUtil;
+import it.niedermann.owncloud.notes.persistence.entity.NoteListItem;
+
+/**
+ * Measures building the item list of the notes list including its sections.
+ */
+@RunWith(Parameterized.class)
+public class SlotterUtilBenchmark {
+
+    @Parameterized.Parameters(name = "{0} notes")
+    public static Collection<Object[]> data() {
+        return BenchmarkData.NOTE_COUNTS;
+    }
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    private final List<NoteListItem> notes;
+
+    public SlotterUtilBenchmark(int count) {
+        this.notes = BenchmarkData.createNotes(1, count).stream().map(NoteListItem::new).collect(Collectors.toList());
+    }
+
+    @Test
+    public void fillListByCategory() {
+        notes.sort(Comparator.comparing(NoteListItem::getCategory));
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            SlotterUtil.fillListByCategory(notes, "");
+        }
+    }
+
+    @Test
+    public void fillListByTime() {
+        notes.sort(Comparator.comparingLong(NoteListItem::getModified).reversed());
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            SlotterUtil.fillListByTime(context, notes);
+        }
+    }
+
+    @Test
+    public void fillListByInitials() {
+        notes.sort(Comparator.comparing(NoteListItem::getTitle, String.CASE_INSENSITIVE_ORDER));
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            SlotterUtil.fillListByInitials(context, notes);
+        }
+    }
+}
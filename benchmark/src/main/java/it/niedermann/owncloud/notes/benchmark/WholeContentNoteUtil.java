@@ -0,0 +1,56 @@
+package it.niedermann.owncloud.notes.benchmark;
+
+import static it.niedermann.android.markdown.MarkdownUtil.removeMarkdown;
+import static it.niedermann.android.markdown.MarkdownUtil.replaceCheckboxesWithEmojis;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import it.niedermann.owncloud.notes.shared.util.NoteUtil;
+
+/**
+ * Baseline for {@link NoteUtilBenchmark}: the former implementation of {@link NoteUtil}, which always processes the whole content.
+ */
+class WholeContentNoteUtil {
+
+    private WholeContentNoteUtil() {
+        throw new UnsupportedOperationException("Do not instantiate this util class.");
+    }
+
+    @NonNull
+    static String generateNoteExcerpt(@NonNull String content, @Nullable String title) {
+        content = removeMarkdown(replaceCheckboxesWithEmojis(content.trim()));
+        if (TextUtils.isEmpty(content)) {
+            return "";
+        }
+        if (!TextUtils.isEmpty(title)) {
+            assert title != null;
+            final String trimmedTitle = removeMarkdown(replaceCheckboxesWithEmojis(title.trim()));
+            if (content.startsWith(trimmedTitle)) {
+                content = content.substring(trimmedTitle.length());
+            }
+        }
+        content = content.trim();
+        return content.substring(0, Math.min(200, content.length())).replace("\n", NoteUtil.EXCERPT_LINE_SEPARATOR);
+    }
+
+    @NonNull
+    static String generateNoteTitle(@NonNull String content) {
+        String line = "";
+        if (content.contains("\n")) {
+            String[] lines = content.split("\n");
+            int currentLine = 0;
+            while (currentLine < lines.length && removeMarkdown(lines[currentLine]).trim().length() == 0) {
+                currentLine++;
+            }
+            if (currentLine < lines.length) {
+                line = removeMarkdown(lines[currentLine]);
+            }
+        } else {
+            line = removeMarkdown(content);
+        }
+        return line;
+    }
+}
@@ -0,0 +1,106 @@
+package it.niedermann.owncloud.notes.persistence;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import it.niedermann.owncloud.notes.benchmark.BenchmarkData;
+import it.niedermann.owncloud.notes.persistence.dao.NoteDao;
+import it.niedermann.owncloud.notes.persistence.entity.Account;
+import it.niedermann.owncloud.notes.shared.model.Capabilities;
+import it.niedermann.owncloud.notes.shared.model.DBStatus;
+
+/**
+ * Measures the latency of reading the notes list while another thread continuously writes chunks of pulled notes, like during a synchronization.
+ * <p>
+ * Lives in the package of {@link NotesDatabase} to create persistent databases with different {@link DatabaseProfile}s.
+ */
+@RunWith(Parameterized.class)
+public class ConcurrentReadBenchmark {
+
+    private static final String PROFILE_DEVICE = "device";
+    private static final String PROFILE_ROLLBACK_JOURNAL = "rollbackJournal";
+    private static final int NOTE_COUNT = 1_000;
+    /**
+     * Count of notes written by the simulated synchronization per transaction
+     */
+    private static final int CHUNK_SIZE = 500;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{{PROFILE_DEVICE}, {PROFILE_ROLLBACK_JOURNAL}});
+    }
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    private final String name;
+    private final DatabaseProfile profile;
+    private NotesDatabase db;
+    private NoteDao noteDao;
+    private long accountId;
+    private Thread writer;
+    private volatile boolean writing;
+
+    public ConcurrentReadBenchmark(String profileName) {
+        this.name = ConcurrentReadBenchmark.class.getSimpleName() + "-" + profileName;
+        this.profile = PROFILE_ROLLBACK_JOURNAL.equals(profileName) ? DatabaseProfile.ROLLBACK_JOURNAL : DatabaseProfile.forDevice(context);
+    }
+
+    @Before
+    public void setupDB() {
+        context.deleteDatabase(name);
+        db = NotesDatabase.create(context, name, profile);
+        noteDao = db.getNoteDao();
+        accountId = db.getAccountDao().insert(new Account("https://example.com", "test", "test@example.com", null, new Capabilities()));
+        final long syncedAccountId = db.getAccountDao().insert(new Account("https://example.com", "sync", "sync@example.com", null, new Capabilities()));
+        db.runInTransaction(() -> noteDao.addNotes(BenchmarkData.createNotes(accountId, NOTE_COUNT)));
+
+        writing = true;
+        writer = new Thread(() -> {
+            while (writing) {
+                final var ids = db.runInTransaction(() -> noteDao.addNotes(BenchmarkData.createNotes(syncedAccountId, CHUNK_SIZE)));
+                db.runInTransaction(() -> noteDao.deleteByNoteIds(ids, DBStatus.VOID));
+            }
+        }, "simulated-sync");
+        writer.start();
+    }
+
+    @After
+    public void closeDB() throws InterruptedException {
+        writing = false;
+        writer.join();
+        db.close();
+        context.deleteDatabase(name);
+    }
+
+    @Test
+    public void searchRecentByModified_whileSyncing() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            noteDao.searchRecentByModified(accountId, "");
+        }
+    }
+
+    @Test
+    public void getNoteById_whileSyncing() {
+        final long id = noteDao.searchRecentByModified(accountId, "").get(0).getId();
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            noteDao.getNoteById(id);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package it.niedermann.owncloud.notes.persistence;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.room.Room;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.nextcloud.android.sso.AccountImporter;
+import com.nextcloud.android.sso.api.ParsedResponse;
+import com.nextcloud.android.sso.exceptions.NextcloudFilesAppAccountNotFoundException;
+import com.nextcloud.android.sso.model.SingleSignOnAccount;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.reactivex.Observable;
+import it.niedermann.owncloud.notes.benchmark.BenchmarkData;
+import it.niedermann.owncloud.notes.persistence.entity.Account;
+import it.niedermann.owncloud.notes.persistence.entity.Note;
+import it.niedermann.owncloud.notes.persistence.sync.NotesAPI;
+import it.niedermann.owncloud.notes.persistence.sync.NotesResponseReader;
+import it.niedermann.owncloud.notes.shared.model.Capabilities;
+import it.niedermann.owncloud.notes.shared.model.DBStatus;
+import it.niedermann.owncloud.notes.shared.model.SyncResultStatus;
+
+/**
+ * Measures the throughput of {@link NotesServerSyncTask} while pulling remote changes from a mocked {@link NotesAPI}, including parsing the response and writing it to the database.
+ * <p>
+ * Lives in the package of {@link NotesServerSyncTask} because the benchmark is executed within the process and class loader of the app.
+ */
+@RunWith(Parameterized.class)
+public class PullRemoteChangesBenchmark {
+
+    @Parameterized.Parameters(name = "{0} notes")
+    public static Collection<Object[]> data() {
+        // Pulling 100.000 notes is not feasible for a single measured iteration
+        return Arrays.asList(new Object[][]{{1_000}, {10_000}});
+    }
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    private final byte[] response;
+    private final List<Note> remoteNotes;
+    private final List<Note> remoteManifest;
+    private NotesDatabase db;
+    private NotesRepository repo;
+    private Account account;
+    private NotesServerSyncTask task;
+
+    public PullRemoteChangesBenchmark(int count) {
+        this.response = BenchmarkData.createNotesJson(count).getBytes(StandardCharsets.UTF_8);
+        this.remoteNotes = BenchmarkData.createNotes(0, count);
+        this.remoteManifest = BenchmarkData.createNotes(0, count);
+    }
+
+    @Before
+    public void setup() throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException, IOException, NextcloudFilesAppAccountNotFoundException {
+        db = Room
+                .inMemoryDatabaseBuilder(context, NotesDatabase.class)
+                .build();
+
+        final var constructor = NotesRepository.class.getDeclaredConstructor(Context.class, NotesDatabase.class, ExecutorService.class, ExecutorService.class, ExecutorService.class, ApiProvider.class);
+        constructor.setAccessible(true);
+        final var executor = Executors.newSingleThreadExecutor();
+        final var apiProvider = mock(ApiProvider.class);
+        final var notesAPI = mock(NotesAPI.class);
+        repo = constructor.newInstance(context, db, executor, executor, executor, apiProvider);
+
+        when(apiProvider.getNotesAPI(any(), any(), any())).thenReturn(notesAPI);
+        when(notesAPI.getNotesStream(any(), any())).thenAnswer(invocation -> new NotesResponseReader(new ByteArrayInputStream(response), Map.of(), ApiProvider.GSON));
+        when(notesAPI.getNotesManifest(any(), any())).thenAnswer(invocation -> Observable.just(ParsedResponse.of(remoteManifest)));
+        when(notesAPI.getNote(anyLong())).thenAnswer(invocation -> Observable.just(ParsedResponse.of(copyOf(remoteNotes.get((int) (long) invocation.getArgument(0) - 1)))));
+
+        account = db.getAccountDao().getAccountById(db.getAccountDao().insert(new Account("https://example.com", "test", "test@example.com", null, new Capabilities())));
+        final var sharedPrefs = context.getSharedPreferences(PullRemoteChangesBenchmark.class.getSimpleName(), Context.MODE_PRIVATE);
+        sharedPrefs.edit().putString("PREF_ACCOUNT_STRING" + account.getAccountName(), SingleSignOnAccount.toString(new SingleSignOnAccount(account.getAccountName(), account.getUserName(), "", account.getUrl(), ""))).commit();
+        AccountImporter.setSharedPreferences(sharedPrefs);
+
+        task = new NotesServerSyncTask(context, repo, account, false, apiProvider) {
+            @Override
+            void onPreExecute() {
+
+            }
+
+            @Override
+            void onPostExecute(SyncResultStatus status) {
+
+            }
+        };
+    }
+
+    @After
+    public void closeDB() {
+        db.close();
+    }
+
+    /**
+     * All remote notes are new, like during the first synchronization of an account.
+     */
+    @SuppressWarnings("CallToThreadRun")
+    @Test
+    public void pullRemoteChanges_created() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            repo.deleteByNoteIds(new ArrayList<>(repo.getIdMap(account.getId()).values()), DBStatus.VOID);
+            state.resumeTiming();
+
+            task.run();
+        }
+    }
+
+    /**
+     * Only a few remote notes have changed, so they are fetched one by one.
+     */
+    @SuppressWarnings("CallToThreadRun")
+    @Test
+    public void pullRemoteChanges_delta() {
+        task.run();
+        // The fetched notes keep their original ETag, so they are considered as changed in each iteration
+        for (int i = 0; i < 10; i++) {
+            remoteManifest.get(i).setETag("changed");
+        }
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            task.run();
+        }
+    }
+
+    /**
+     * All remote notes already exist locally without any changes, like during a synchronization after the server restarted.
+     */
+    @SuppressWarnings("CallToThreadRun")
+    @Test
+    public void pullRemoteChanges_unchanged() {
+        task.run();
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            task.run();
+        }
+    }
+
+    /**
+     * {@link NotesRepository#applyRemoteNotes(long, List, List)} modifies the given {@link Note}s
+     */
+    private static Note copyOf(@NonNull Note note) {
+        return new Note(note.getRemoteId(), note.getModified(), note.getTitle(), note.getContent(), note.getCategory(), note.getFavorite(), note.getETag());
+    }
+}